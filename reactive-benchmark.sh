@@ -0,0 +1,44 @@
+#!/bin/bash
+# Loads the servlet API (port 8080) and the reactive API (port 8081) of one container with the same requests at
+# increasing connection counts and reports throughput and tail latency for each. Needs docker and wrk, and an open
+# file limit above the largest connection count (ulimit -n).
+# usage: ./reactive-benchmark.sh [duration] [connection counts...]
+DURATION=${1:-30s}
+shift
+CONNECTIONS=${*:-64 256 1024 4096}
+PACKAGES=${PACKAGES:-1000}
+SECRET=${APP_JWT_SECRET:-Freight-256-bit-secret-Cargo-256-bit-secret}
+
+command -v wrk > /dev/null || { echo "wrk is required"; exit 1; }
+docker build -q -f Dockerfile -t freight-api:reactive-benchmark . > /dev/null || exit 1
+
+# the rate limit would otherwise answer almost every request with 429
+container=$(docker run -d -p 8080:8080 -p 8081:8081 -e APP_JWT_SECRET="$SECRET" freight-api:reactive-benchmark \
+    --app.reactive.enabled=true --app.rate-limit.requests-per-minute=1000000000)
+trap 'docker rm -f "$container" > /dev/null' EXIT
+until docker logs "$container" 2>&1 | grep -q "Started FreightCargoApplication"; do
+    sleep 0.5
+done
+
+token=$(curl -s -X POST http://localhost:8080/api/v1/auth/login -H "Content-Type: application/json" \
+    -d '{"username": "admin", "password": "Mine@admin-975"}' | grep -o '"token":"[^"]*"' | cut -d '"' -f 4)
+for i in $(seq 1 "$PACKAGES"); do
+    curl -s -o /dev/null -X POST http://localhost:8080/api/v1/packages \
+        -H "Authorization: Bearer $token" -H "Content-Type: application/json" \
+        -d "{\"trackingNumber\": \"BENCH-$i\", \"email\": \"bench@kojo.com\", \"recipientPostcode\": \"10115\", \"estimatedDeliveryDate\": \"2030-01-01\"}"
+done
+
+# prints: requests/s, p50, p99, socket errors
+run() {
+    wrk -t "$(nproc)" -c "$1" -d "$DURATION" --latency -H "Authorization: Bearer $token" "${@:2}" \
+        | awk '/Requests\/sec/ {rps = $2} /^ +50%/ {p50 = $2} /^ +99%/ {p99 = $2} /Socket errors/ {errors = $0}
+               END {printf "%10s req/s  p50 %8s  p99 %8s  %s\n", rps, p50, p99, errors}'
+}
+
+for connections in $CONNECTIONS; do
+    for api in "servlet 8080" "reactive 8081"; do
+        set -- $api
+        echo "$1 page,   $connections connections: $(run "$connections" "http://localhost:$2/api/v1/packages/track?recipientPostcode=10115&size=100")"
+    done
+    echo "reactive stream, $connections connections: $(run "$connections" -H "Accept: application/x-ndjson" "http://localhost:8081/api/v1/packages/track?recipientPostcode=10115")"
+done
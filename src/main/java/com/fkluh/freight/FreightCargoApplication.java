@@ -2,8 +2,16 @@ package com.fkluh.freight;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
-@SpringBootApplication
+import com.fkluh.freight.v1.config.FreightRuntimeHints;
+
+// R2DBC serves only the reactive API, see ReactiveApiConfig; an auto-configured R2DBC transaction manager would
+// compete with the JPA one for every @Transactional method
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@ImportRuntimeHints(FreightRuntimeHints.class)
 public class FreightCargoApplication {
 
     public static void main(String[] args) {
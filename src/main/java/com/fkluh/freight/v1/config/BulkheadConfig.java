@@ -0,0 +1,172 @@
+package com.fkluh.freight.v1.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import com.fkluh.freight.v1.datasource.BulkheadContext;
+import com.fkluh.freight.v1.datasource.BulkheadContext.Lane;
+import com.fkluh.freight.v1.util.Bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Bulkheads between the three kinds of API traffic, so a burst of one cannot take the threads of the others:
+ * tracking ({@code /packages/track*}, {@code /packages/search}), analytics ({@code /packages/filter},
+ * {@code /analytics/*}) and writes (other methods than GET, HEAD and OPTIONS, except login). Each lane runs at most
+ * {@code max-concurrent} requests, lets up to {@code max-queued} more wait up to {@code max-wait}, and answers the
+ * rest 503 with its own {@code Retry-After}. Other requests are not limited. The lane of a request is kept in
+ * {@link BulkheadContext} while it runs, which gives it its own connection pools, see
+ * {@link BulkheadDataSourceConfig}. Runs before the concurrency limit of {@link ConcurrencyLimitingConfig}, so the
+ * time a request waits in a bulkhead queue is not taken for latency of the server.
+ * <p>
+ * Metrics, tagged {@code lane}: {@code freight.bulkhead.active}, {@code freight.bulkhead.queued},
+ * {@code freight.bulkhead.saturation} (active over max-concurrent) and {@code freight.bulkhead.rejected}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig {
+
+    @Bean
+    public Bulkhead trackingBulkhead(
+        @Value("${app.bulkhead.tracking.max-concurrent:32}") int maxConcurrent,
+        @Value("${app.bulkhead.tracking.max-queued:64}") int maxQueued,
+        @Value("${app.bulkhead.tracking.max-wait:500ms}") Duration maxWait
+    ) {
+        return new Bulkhead(maxConcurrent, maxQueued, maxWait);
+    }
+
+    @Bean
+    public Bulkhead analyticsBulkhead(
+        @Value("${app.bulkhead.analytics.max-concurrent:4}") int maxConcurrent,
+        @Value("${app.bulkhead.analytics.max-queued:8}") int maxQueued,
+        @Value("${app.bulkhead.analytics.max-wait:2s}") Duration maxWait
+    ) {
+        return new Bulkhead(maxConcurrent, maxQueued, maxWait);
+    }
+
+    @Bean
+    public Bulkhead writesBulkhead(
+        @Value("${app.bulkhead.writes.max-concurrent:16}") int maxConcurrent,
+        @Value("${app.bulkhead.writes.max-queued:32}") int maxQueued,
+        @Value("${app.bulkhead.writes.max-wait:1s}") Duration maxWait
+    ) {
+        return new Bulkhead(maxConcurrent, maxQueued, maxWait);
+    }
+
+    @Bean
+    public FilterRegistrationBean<Filter> bulkheadFilter(
+        MeterRegistry meterRegistry,
+        @Qualifier("trackingBulkhead") Bulkhead tracking,
+        @Qualifier("analyticsBulkhead") Bulkhead analytics,
+        @Qualifier("writesBulkhead") Bulkhead writes,
+        @Value("${app.bulkhead.tracking.retry-after:1s}") Duration trackingRetryAfter,
+        @Value("${app.bulkhead.analytics.retry-after:10s}") Duration analyticsRetryAfter,
+        @Value("${app.bulkhead.writes.retry-after:2s}") Duration writesRetryAfter
+    ) {
+        Map<Lane, Compartment> compartments = new EnumMap<>(Lane.class);
+        compartments.put(Lane.TRACKING, new Compartment(meterRegistry, Lane.TRACKING, tracking, trackingRetryAfter));
+        compartments.put(Lane.ANALYTICS, new Compartment(meterRegistry, Lane.ANALYTICS, analytics, analyticsRetryAfter));
+        compartments.put(Lane.WRITES, new Compartment(meterRegistry, Lane.WRITES, writes, writesRetryAfter));
+
+        FilterRegistrationBean<Filter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new BulkheadFilter(compartments));
+        registrationBean.addUrlPatterns("/api/v1/*");
+        registrationBean.setOrder(2); // after rate limiting, before concurrency limiting
+        return registrationBean;
+    }
+
+    static Lane laneOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/v1/analytics/") || path.equals("/api/v1/packages/filter")) {
+            return Lane.ANALYTICS;
+        }
+        if (path.startsWith("/api/v1/packages/track") || path.equals("/api/v1/packages/search")) {
+            return Lane.TRACKING;
+        }
+        String method = request.getMethod();
+        boolean read = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+            || HttpMethod.OPTIONS.matches(method);
+        if (!read && !path.startsWith("/api/v1/auth/")) {
+            return Lane.WRITES;
+        }
+        return null;
+    }
+
+    private record Compartment(Bulkhead bulkhead, Counter rejected, String retryAfterSeconds) {
+
+        Compartment(MeterRegistry meterRegistry, Lane lane, Bulkhead bulkhead, Duration retryAfter) {
+            this(bulkhead, Counter.builder("freight.bulkhead.rejected")
+                .description("Requests turned away with 503 because their bulkhead and its queue were full")
+                .tag("lane", lane.name().toLowerCase())
+                .register(meterRegistry), Long.toString(Math.max(1, retryAfter.toSeconds())));
+            String tag = lane.name().toLowerCase();
+            Gauge.builder("freight.bulkhead.active", bulkhead, Bulkhead::getActive)
+                .description("Requests running in the bulkhead")
+                .tag("lane", tag)
+                .register(meterRegistry);
+            Gauge.builder("freight.bulkhead.queued", bulkhead, Bulkhead::getQueued)
+                .description("Requests waiting for a turn in the bulkhead")
+                .tag("lane", tag)
+                .register(meterRegistry);
+            Gauge.builder("freight.bulkhead.saturation", bulkhead, b -> (double) b.getActive() / b.getMaxConcurrent())
+                .description("Share of the bulkhead's turns in use, 1 when full")
+                .tag("lane", tag)
+                .register(meterRegistry);
+        }
+    }
+
+    private static class BulkheadFilter implements Filter {
+        private final Map<Lane, Compartment> compartments;
+
+        BulkheadFilter(Map<Lane, Compartment> compartments) {
+            this.compartments = compartments;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            Lane lane = laneOf((HttpServletRequest) request);
+            if (lane == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            Compartment compartment = compartments.get(lane);
+            if (!compartment.bulkhead().tryEnter()) {
+                compartment.rejected().increment();
+                HttpServletResponse httpResponse = (HttpServletResponse) response;
+                httpResponse.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                httpResponse.setHeader(HttpHeaders.RETRY_AFTER, compartment.retryAfterSeconds());
+                httpResponse.getWriter().write("Server is busy. Please try again later.");
+                return;
+            }
+            BulkheadContext.set(lane);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                BulkheadContext.clear();
+                compartment.bulkhead().exit();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.fkluh.freight.v1.config;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.fkluh.freight.v1.datasource.BulkheadContext.Lane;
+import com.fkluh.freight.v1.datasource.BulkheadPools;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Splits the connection pool along the bulkheads of {@link BulkheadConfig}: tracking, analytics and writes each
+ * get a pool of their own, and everything else shares a fourth, so slow analytics queries cannot hold the
+ * connections tracking needs. With the read replica or sharding, the primary, the replica and each shard are split
+ * alike, see {@link ReplicaDataSourceConfig} and {@link ShardingDataSourceConfig}. The pools are exported as
+ * {@code hikaricp.connections.*}, tagged with the pool name. Turned off with
+ * {@code app.bulkhead.partition-pools=false}.
+ */
+@Configuration
+@ConditionalOnExpression("${app.bulkhead.partition-pools:true} and ${app.bulkhead.enabled:true}")
+public class BulkheadDataSourceConfig {
+
+    @Bean
+    public BulkheadPools bulkheadPools(
+        MeterRegistry meterRegistry,
+        @Value("${app.bulkhead.tracking.pool-size:8}") int trackingPoolSize,
+        @Value("${app.bulkhead.analytics.pool-size:3}") int analyticsPoolSize,
+        @Value("${app.bulkhead.writes.pool-size:6}") int writesPoolSize,
+        @Value("${app.bulkhead.shared-pool-size:3}") int sharedPoolSize
+    ) {
+        return new BulkheadPools(
+            Map.of(Lane.TRACKING, trackingPoolSize, Lane.ANALYTICS, analyticsPoolSize, Lane.WRITES, writesPoolSize),
+            sharedPoolSize, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnExpression("!${app.datasource.replica.enabled:false} and !${app.datasource.sharding.enabled:false}")
+    public DataSource dataSource(BulkheadPools bulkheadPools, DataSourceProperties properties) {
+        return bulkheadPools.partition(null,
+            () -> properties.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+    }
+
+    /**
+     * @return the database's pools split by lane when partitioning is on, otherwise the one pool of that name
+     */
+    static DataSource pools(ObjectProvider<BulkheadPools> bulkheadPools, String database,
+            Supplier<HikariDataSource> newPool) {
+        BulkheadPools pools = bulkheadPools.getIfAvailable();
+        if (pools != null) {
+            return pools.partition(database, newPool);
+        }
+        HikariDataSource dataSource = newPool.get();
+        dataSource.setPoolName(database);
+        return dataSource;
+    }
+}
@@ -0,0 +1,129 @@
+package com.fkluh.freight.v1.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import com.fkluh.freight.v1.datasource.BulkheadContext.Lane;
+import com.fkluh.freight.v1.util.AdaptiveConcurrencyLimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sheds load on /api/v1/* before it queues up: reads (GET, HEAD, OPTIONS, and the tracking and analytics routes of
+ * {@link BulkheadConfig} whatever their method) and writes each get an {@link AdaptiveConcurrencyLimit} on the
+ * requests in flight, which follows their latency, and requests over the limit are answered 503 with a
+ * {@code Retry-After} header straight away. Slow writes thus cannot starve reads or
+ * the other way around. Runs after the per-minute rate limit and the bulkheads of {@link BulkheadConfig}, so only
+ * the time spent working on a request feeds the limit.
+ * <p>
+ * Metrics, tagged {@code kind} read or write: {@code freight.concurrency.limit}, {@code freight.concurrency.inflight}
+ * and {@code freight.concurrency.rejected}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitingConfig {
+
+    @Bean
+    public FilterRegistrationBean<Filter> concurrencyLimitingFilter(
+        MeterRegistry meterRegistry,
+        @Value("${app.concurrency-limit.read.initial-limit:50}") int readInitialLimit,
+        @Value("${app.concurrency-limit.read.min-limit:10}") int readMinLimit,
+        @Value("${app.concurrency-limit.read.max-limit:500}") int readMaxLimit,
+        @Value("${app.concurrency-limit.write.initial-limit:20}") int writeInitialLimit,
+        @Value("${app.concurrency-limit.write.min-limit:5}") int writeMinLimit,
+        @Value("${app.concurrency-limit.write.max-limit:200}") int writeMaxLimit,
+        @Value("${app.concurrency-limit.retry-after:1s}") Duration retryAfter
+    ) {
+        LimitedTraffic reads = new LimitedTraffic(meterRegistry, "read",
+            new AdaptiveConcurrencyLimit(readInitialLimit, readMinLimit, readMaxLimit));
+        LimitedTraffic writes = new LimitedTraffic(meterRegistry, "write",
+            new AdaptiveConcurrencyLimit(writeInitialLimit, writeMinLimit, writeMaxLimit));
+
+        FilterRegistrationBean<Filter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new ConcurrencyLimitingFilter(reads, writes, Math.max(1, retryAfter.toSeconds())));
+        registrationBean.addUrlPatterns("/api/v1/*");
+        registrationBean.setOrder(3); // after the bulkheads, whose queue wait must not count as latency
+        return registrationBean;
+    }
+
+    /**
+     * Tracking and analytics routes only read, whatever their method, such as the POST of batch tracking.
+     */
+    static boolean isRead(HttpServletRequest request) {
+        Lane lane = BulkheadConfig.laneOf(request);
+        if (lane == Lane.TRACKING || lane == Lane.ANALYTICS) {
+            return true;
+        }
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+            || HttpMethod.OPTIONS.matches(method);
+    }
+
+    private record LimitedTraffic(AdaptiveConcurrencyLimit limit, Counter rejected) {
+
+        LimitedTraffic(MeterRegistry meterRegistry, String kind, AdaptiveConcurrencyLimit limit) {
+            this(limit, Counter.builder("freight.concurrency.rejected")
+                .description("Requests shed with 503 because too many were in flight")
+                .tag("kind", kind)
+                .register(meterRegistry));
+            Gauge.builder("freight.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Requests allowed in flight at once")
+                .tag("kind", kind)
+                .register(meterRegistry);
+            Gauge.builder("freight.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests in flight")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        }
+    }
+
+    private static class ConcurrencyLimitingFilter implements Filter {
+        private final LimitedTraffic reads;
+        private final LimitedTraffic writes;
+        private final String retryAfterSeconds;
+
+        ConcurrencyLimitingFilter(LimitedTraffic reads, LimitedTraffic writes, long retryAfterSeconds) {
+            this.reads = reads;
+            this.writes = writes;
+            this.retryAfterSeconds = Long.toString(retryAfterSeconds);
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            LimitedTraffic traffic = isRead((HttpServletRequest) request) ? reads : writes;
+            if (!traffic.limit().tryAcquire()) {
+                traffic.rejected().increment();
+                HttpServletResponse httpResponse = (HttpServletResponse) response;
+                httpResponse.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                httpResponse.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+                httpResponse.getWriter().write("Server is busy. Please try again later.");
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                traffic.limit().release(System.nanoTime() - start);
+            }
+        }
+    }
+}
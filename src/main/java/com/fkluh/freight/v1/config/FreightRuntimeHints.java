@@ -0,0 +1,59 @@
+package com.fkluh.freight.v1.config;
+
+import java.util.List;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import com.fkluh.freight.v1.mapper.PackageDtoListView;
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchItemDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchRequestDto;
+import com.fkluh.freight.v1.service.strategy.filter.FilterStrategyByDeliveryDate;
+import com.fkluh.freight.v1.service.strategy.filter.FilterStrategyByPostcode;
+import com.fkluh.freight.v1.service.strategy.filter.FilterStrategyByStatus;
+import com.fkluh.freight.v1.service.strategy.track.TrackStrategyByAllParameters;
+import com.fkluh.freight.v1.service.strategy.track.TrackStrategyByEmail;
+import com.fkluh.freight.v1.service.strategy.track.TrackStrategyByEmailAndPostcode;
+import com.fkluh.freight.v1.service.strategy.track.TrackStrategyByPostcode;
+import com.fkluh.freight.v1.service.strategy.track.TrackStrategyByTrackingNumber;
+
+/**
+ * Runtime hints for the ahead-of-time processed build ({@code -Pstartup}). The track and filter strategies are
+ * both beans with injected fields and objects the service constructs itself, and {@link PackageMapper} is handed to
+ * them rather than looked up, so AOT processing cannot infer their reflective use from the bean definitions alone.
+ * The DTOs the mapper produces are registered for JSON binding.
+ */
+public class FreightRuntimeHints implements RuntimeHintsRegistrar {
+    static final List<Class<?>> STRATEGIES = List.of(
+        TrackStrategyByAllParameters.class,
+        TrackStrategyByEmailAndPostcode.class,
+        TrackStrategyByEmail.class,
+        TrackStrategyByPostcode.class,
+        TrackStrategyByTrackingNumber.class,
+        FilterStrategyByStatus.class,
+        FilterStrategyByPostcode.class,
+        FilterStrategyByDeliveryDate.class
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> strategy : STRATEGIES) {
+            hints.reflection().registerType(strategy,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS);
+        }
+        hints.reflection().registerType(PackageMapper.class,
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(PackageDtoListView.class,
+            MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+            PackageDto.class, CustomPage.class, PostcodeByCountDto.class,
+            TrackBatchRequestDto.class, TrackBatchItemDto.class);
+    }
+}
@@ -3,13 +3,13 @@ package com.fkluh.freight.v1.config;
 import java.io.IOException;
 import java.time.Duration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,10 +20,24 @@ import jakarta.servlet.http.HttpServletResponse;
 @Configuration
 public class RateLimitingConfig {
 
+    /**
+     * The request budget of the API, shared with the reactive API server when it runs. Only a backstop against
+     * floods well above what the adaptive concurrency limits of {@link ConcurrencyLimitingConfig} let through;
+     * those decide when the servlet API sheds load.
+     */
     @Bean
-    public FilterRegistrationBean<Filter> rateLimitingFilter() {
+    public Bucket apiRateLimitBucket(@Value("${app.rate-limit.requests-per-minute:60000}") long requestsPerMinute) {
+        Bandwidth limit = Bandwidth.builder()
+            .capacity(requestsPerMinute)
+            .refillGreedy(requestsPerMinute, Duration.ofMinutes(1))
+            .build();
+        return Bucket.builder().addLimit(limit).build();
+    }
+
+    @Bean
+    public FilterRegistrationBean<Filter> rateLimitingFilter(Bucket apiRateLimitBucket) {
         FilterRegistrationBean<Filter> registrationBean = new FilterRegistrationBean<>();
-        registrationBean.setFilter(new RateLimitingFilter());
+        registrationBean.setFilter(new RateLimitingFilter(apiRateLimitBucket));
         registrationBean.addUrlPatterns("/api/v1/*"); // Apply to specific endpoints
         registrationBean.setOrder(1); // Set filter order
         return registrationBean;
@@ -33,10 +47,8 @@ public class RateLimitingConfig {
 
         private final Bucket bucket;
 
-        public RateLimitingFilter() {
-            // Allow 100 requests per minute
-            Bandwidth limit = Bandwidth.classic(100, Refill.greedy(100, Duration.ofMinutes(1)));
-            this.bucket = Bucket.builder().addLimit(limit).build();
+        public RateLimitingFilter(Bucket bucket) {
+            this.bucket = bucket;
         }
 
         @Override
@@ -0,0 +1,255 @@
+package com.fkluh.freight.v1.config;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fkluh.freight.v1.controller.GlobalExceptionHandler;
+import com.fkluh.freight.v1.controller.ReactivePackageControllerV1;
+import com.fkluh.freight.v1.exception.ErrorResponse;
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.repository.ReactivePackageRepositoryV1;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+import com.fkluh.freight.v1.service.ReactivePackageServiceV1;
+import com.fkluh.freight.v1.service.analytics.DeliveryEtaService;
+import com.fkluh.freight.v1.service.search.PackageSearchService;
+
+import io.github.bucket4j.Bucket;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves {@link ReactivePackageControllerV1} from a Netty server on {@code app.reactive.port}, next to the servlet
+ * API, for streaming and high fan-out clients. Reads go over R2DBC to {@code app.reactive.r2dbc.url}, which must
+ * name the same database as {@code spring.datasource.url}; writes and search go through the blocking services.
+ * Requests need the same bearer token as the servlet API and draw on the same rate limit. Cannot be combined with
+ * sharding.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true", matchIfMissing = false)
+public class ReactiveApiConfig {
+
+    @Bean
+    public ReactiveConnectionPool reactiveConnectionPool(
+        @Value("${app.reactive.r2dbc.url}") String url,
+        @Value("${app.reactive.r2dbc.username}") String username,
+        @Value("${app.reactive.r2dbc.password:}") String password,
+        @Value("${app.reactive.r2dbc.pool-max-size:20}") int poolMaxSize,
+        @Value("${app.datasource.sharding.enabled:false}") boolean shardingEnabled
+    ) {
+        if (shardingEnabled) {
+            throw new IllegalStateException("app.reactive.enabled cannot be combined with app.datasource.sharding.enabled");
+        }
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+            .username(username)
+            .password(password)
+            .build();
+        return new ReactiveConnectionPool(new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+            .name("reactive")
+            .initialSize(1)
+            .maxSize(poolMaxSize)
+            .build()));
+    }
+
+    @Bean
+    public ReactivePackageServiceV1 reactivePackageService(
+        ReactiveConnectionPool reactiveConnectionPool,
+        PackageMapper mapper,
+        PackageServiceV1Impl packageService,
+        PackageSearchService searchService
+    ) {
+        ReactivePackageRepositoryV1 repository = new ReactivePackageRepositoryV1(
+            DatabaseClient.create(reactiveConnectionPool.pool()));
+        return new ReactivePackageServiceV1(repository, mapper, packageService, searchService);
+    }
+
+    /**
+     * Holds the R2DBC pool. It is deliberately not a {@link ConnectionFactory} bean: Spring Boot's JDBC
+     * {@code DataSource} auto-configuration backs off as soon as one exists, which would take JPA down with it.
+     */
+    public record ReactiveConnectionPool(ConnectionPool pool) implements DisposableBean {
+
+        @Override
+        public void destroy() {
+            pool.dispose();
+        }
+    }
+
+    @Bean
+    public ReactiveApiServer reactiveApiServer(
+        ReactivePackageServiceV1 reactivePackageService,
+        DeliveryEtaService etaService,
+        ObjectMapper objectMapper,
+        JwtDecoder jwtDecoder,
+        Bucket apiRateLimitBucket,
+        GlobalExceptionHandler exceptionHandler,
+        @Value("${app.reactive.port:8081}") int port
+    ) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .webFilter(new RateLimitingWebFilter(apiRateLimitBucket))
+            .webFilter(new BearerTokenWebFilter(jwtDecoder))
+            .exceptionHandler(new ErrorResponseWebExceptionHandler(exceptionHandler, objectMapper))
+            .build();
+        return new ReactiveApiServer(
+            new ReactivePackageControllerV1(reactivePackageService, etaService), strategies, port);
+    }
+
+    /**
+     * Runs the Netty server with the application context: it starts once every bean is ready and stops before the
+     * blocking services it calls are destroyed.
+     */
+    public static class ReactiveApiServer implements SmartLifecycle {
+        private final WebServer webServer;
+        private volatile boolean running;
+
+        ReactiveApiServer(ReactivePackageControllerV1 controller, HandlerStrategies strategies, int port) {
+            this.webServer = new NettyReactiveWebServerFactory(port)
+                .getWebServer(RouterFunctions.toHttpHandler(controller.routes(), strategies));
+        }
+
+        @Override
+        public void start() {
+            webServer.start();
+            running = true;
+            log.info("Reactive package API started on port {}", webServer.getPort());
+        }
+
+        @Override
+        public void stop() {
+            webServer.stop();
+            running = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        public int getPort() {
+            return webServer.getPort();
+        }
+    }
+
+    /**
+     * Takes one request from the API's rate limit, as the servlet rate limiting filter does.
+     */
+    private static class RateLimitingWebFilter implements WebFilter {
+        private final Bucket bucket;
+
+        RateLimitingWebFilter(Bucket bucket) {
+            this.bucket = bucket;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+            if (bucket.tryConsume(1)) {
+                return chain.filter(exchange);
+            }
+            return write(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, MediaType.TEXT_PLAIN,
+                "Too many requests. Please try again later.".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Requires a bearer token the application's {@link JwtDecoder} accepts, like the servlet security chain does for
+     * /api/v1/**. Decoding an HMAC-signed token does no I/O, so it runs on the event loop.
+     */
+    private static class BearerTokenWebFilter implements WebFilter {
+        private static final String BEARER_PREFIX = "Bearer ";
+
+        private final JwtDecoder jwtDecoder;
+
+        BearerTokenWebFilter(JwtDecoder jwtDecoder) {
+            this.jwtDecoder = jwtDecoder;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+            String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+                try {
+                    jwtDecoder.decode(authorization.substring(BEARER_PREFIX.length()));
+                    return chain.filter(exchange);
+                } catch (JwtException e) {
+                    // answered as a missing token below
+                }
+            }
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            return response.setComplete();
+        }
+    }
+
+    /**
+     * Answers errors through {@link GlobalExceptionHandler}, so the reactive API returns the same error bodies and
+     * counts the same {@code freight.errors} metrics. Routing and request-reading errors keep their own status.
+     */
+    private static class ErrorResponseWebExceptionHandler implements WebExceptionHandler {
+        private final GlobalExceptionHandler exceptionHandler;
+        private final ObjectMapper objectMapper;
+
+        ErrorResponseWebExceptionHandler(GlobalExceptionHandler exceptionHandler, ObjectMapper objectMapper) {
+            this.exceptionHandler = exceptionHandler;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+            if (!(ex instanceof RuntimeException runtimeException) || ex instanceof ResponseStatusException
+                || exchange.getResponse().isCommitted()) {
+                return Mono.error(ex);
+            }
+            ResponseEntity<ErrorResponse> errorResponse = exceptionHandler.handleException(runtimeException);
+            byte[] body;
+            try {
+                body = objectMapper.writeValueAsBytes(errorResponse.getBody());
+            } catch (JsonProcessingException e) {
+                return Mono.error(e);
+            }
+            return write(exchange.getResponse(), errorResponse.getStatusCode(), MediaType.APPLICATION_JSON, body);
+        }
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, HttpStatusCode status, MediaType contentType, byte[] body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(contentType);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,96 @@
+package com.fkluh.freight.v1.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.fkluh.freight.v1.datasource.BulkheadPools;
+import com.fkluh.freight.v1.datasource.ReadYourWritesFilter;
+import com.fkluh.freight.v1.datasource.ReplicaLagTracker;
+import com.fkluh.freight.v1.datasource.ReplicaRoutingDataSource;
+import com.fkluh.freight.v1.datasource.ReplicaSynchronizer;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Splits database traffic between a primary and a read replica: read-only transactions go to the replica, all
+ * other work to the primary. Clients that have just written are kept on the primary for
+ * {@code app.datasource.replica.read-your-writes-window}. With {@code app.datasource.replica.sync-from-primary}
+ * the replica is a local database kept in step by {@link ReplicaSynchronizer}. The primary and the replica each
+ * get the bulkhead pools of {@link BulkheadDataSourceConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true", matchIfMissing = false)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public DataSource primaryDataSource(DataSourceProperties properties, ObjectProvider<BulkheadPools> bulkheadPools) {
+        return BulkheadDataSourceConfig.pools(bulkheadPools, "primary",
+            () -> properties.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+    }
+
+    @Bean
+    public DataSource replicaDataSource(
+        ObjectProvider<BulkheadPools> bulkheadPools,
+        @Value("${app.datasource.replica.url}") String url,
+        @Value("${app.datasource.replica.username}") String username,
+        @Value("${app.datasource.replica.password:}") String password
+    ) {
+        return BulkheadDataSourceConfig.pools(bulkheadPools, "replica", () -> DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username(username)
+            .password(password)
+            .build());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        @Qualifier("primaryDataSource") DataSource primary,
+        @Qualifier("replicaDataSource") DataSource replica
+    ) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replica);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagTracker replicaLagTracker(
+        @Value("${app.datasource.replica.read-your-writes-window:5s}") Duration readYourWritesWindow
+    ) {
+        return new ReplicaLagTracker(readYourWritesWindow);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaLagTracker lagTracker) {
+        FilterRegistrationBean<ReadYourWritesFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new ReadYourWritesFilter(lagTracker));
+        registrationBean.addUrlPatterns("/api/v1/*");
+        registrationBean.setOrder(2); // after the security filter chain and rate limiting
+        return registrationBean;
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    @ConditionalOnProperty(name = "app.datasource.replica.sync-from-primary", havingValue = "true")
+    public ReplicaSynchronizer replicaSynchronizer(
+        @Qualifier("primaryDataSource") DataSource primary,
+        @Qualifier("replicaDataSource") DataSource replica,
+        @Value("${app.datasource.replica.sync-delay:0ms}") Duration delay
+    ) {
+        return new ReplicaSynchronizer(primary, replica, delay);
+    }
+}
@@ -0,0 +1,102 @@
+package com.fkluh.freight.v1.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.fkluh.freight.v1.datasource.BulkheadPools;
+import com.fkluh.freight.v1.datasource.ShardRing;
+import com.fkluh.freight.v1.datasource.ShardRoutingDataSource;
+import com.fkluh.freight.v1.datasource.ShardScope;
+import com.fkluh.freight.v1.datasource.ShardSchemaInitializer;
+import com.fkluh.freight.v1.datasource.ShardedRepositoryInterceptor;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.repository.PostcodeDailyRollupRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Spreads packages over the databases in {@code app.datasource.sharding.urls} by a consistent hash of their
+ * tracking number, see {@link ShardedRepositoryInterceptor}. Each shard keeps the delivery rollups of its packages,
+ * written in the same transaction and read from all shards. Purges and the startup scans of the in-memory indexes
+ * run shard by shard through {@link ShardScope}. The first database is shard 0: Hibernate creates the schema there,
+ * and tables not tied to packages (webhook subscriptions, distinct recipient counters) live there only. Each shard
+ * gets the bulkhead pools of {@link BulkheadDataSourceConfig}. Cannot be combined with the read replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.sharding.enabled", havingValue = "true", matchIfMissing = false)
+public class ShardingDataSourceConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+        ObjectProvider<BulkheadPools> bulkheadPools,
+        @Value("${app.datasource.sharding.urls}") List<String> urls,
+        @Value("${app.datasource.sharding.username}") String username,
+        @Value("${app.datasource.sharding.password:}") String password,
+        @Value("${app.datasource.replica.enabled:false}") boolean replicaEnabled
+    ) {
+        if (replicaEnabled) {
+            throw new IllegalStateException("app.datasource.sharding.enabled cannot be combined with app.datasource.replica.enabled");
+        }
+        List<DataSource> shards = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            String name = "shard-" + shards.size();
+            shards.add(BulkheadDataSourceConfig.pools(bulkheadPools, name, () -> DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build()));
+        }
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public ShardSchemaInitializer shardSchemaInitializer(ShardRoutingDataSource shardRoutingDataSource) {
+        return new ShardSchemaInitializer(shardRoutingDataSource);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static ShardedRepositoryInterceptor shardedRepositoryInterceptor(
+        @Value("${app.datasource.sharding.urls}") List<String> urls,
+        @Value("${app.datasource.sharding.virtual-nodes:128}") int virtualNodes,
+        @Value("${app.datasource.sharding.scatter-threads:16}") int scatterThreads
+    ) {
+        return new ShardedRepositoryInterceptor(new ShardRing(urls.size(), virtualNodes), scatterThreads);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor shardedRepositoryAdvisor(ShardedRepositoryInterceptor shardedRepositoryInterceptor) {
+        return new DefaultPointcutAdvisor(
+            new ComposablePointcut(new RootClassFilter(PackageRepositoryV1.class))
+                .union(new RootClassFilter(PostcodeDailyRollupRepository.class)),
+            shardedRepositoryInterceptor);
+    }
+}
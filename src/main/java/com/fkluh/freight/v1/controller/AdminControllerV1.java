@@ -0,0 +1,69 @@
+package com.fkluh.freight.v1.controller;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fkluh.freight.v1.model.dto.PurgeJobDto;
+import com.fkluh.freight.v1.model.dto.SearchIndexStatsDto;
+import com.fkluh.freight.v1.service.purge.PackagePurgeService;
+import com.fkluh.freight.v1.service.search.PackageSearchService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+
+@SecurityRequirement(name = "bearerAuth")
+@RestController("adminControllerV1")
+@RequestMapping("/api/v1/admin/packages")
+public class AdminControllerV1 {
+
+    @Autowired
+    private PackagePurgeService purgeService;
+
+    @Autowired
+    private PackageSearchService searchService;
+
+    @Operation(summary = "Purges packages matching 'status', 'deliveredBefore' (YYYY-MM-DD) and 'postcode'; at least one is required. "
+        + "The purge runs in the background in throttled chunks and its progress can be followed under the returned job id. "
+        + "With 'dryRun' only the number of matching packages is returned. Delivery analytics are kept."
+    )
+    @PostMapping("/purge")
+    public ResponseEntity<PurgeJobDto> purgePackages(
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String deliveredBefore,
+        @RequestParam(required = false) String postcode,
+        @RequestParam(defaultValue = "false") boolean dryRun
+    ) {
+        if (dryRun) {
+            return ResponseEntity.ok(purgeService.dryRun(status, deliveredBefore, postcode));
+        }
+        PurgeJobDto job = purgeService.startPurge(status, deliveredBefore, postcode);
+        return ResponseEntity.accepted().location(URI.create("/api/v1/admin/packages/purge/" + job.getId())).body(job);
+    }
+
+    @Operation(summary = "Returns the progress of a purge job.")
+    @GetMapping("/purge/{jobId}")
+    public ResponseEntity<PurgeJobDto> getPurgeJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(purgeService.getJob(jobId));
+    }
+
+    @Operation(summary = "Cancels a purge job after its current chunk. Packages already purged stay deleted.")
+    @DeleteMapping("/purge/{jobId}")
+    public ResponseEntity<PurgeJobDto> cancelPurgeJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(purgeService.cancelJob(jobId));
+    }
+
+    @Operation(summary = "Returns the size of the in-memory package search index and an estimate of the heap it uses.")
+    @GetMapping("/search-index")
+    public ResponseEntity<SearchIndexStatsDto> getSearchIndexStats() {
+        return ResponseEntity.ok(searchService.getStats());
+    }
+}
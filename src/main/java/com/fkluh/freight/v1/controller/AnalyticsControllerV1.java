@@ -0,0 +1,141 @@
+package com.fkluh.freight.v1.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.DeliveryRatePointDto;
+import com.fkluh.freight.v1.model.dto.DistinctRecipientsDto;
+import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.PostcodeDelayTrendDto;
+import com.fkluh.freight.v1.model.dto.PostcodeLatenessDto;
+import com.fkluh.freight.v1.model.dto.PostcodeOnTimeRateDto;
+import com.fkluh.freight.v1.model.dto.PostcodePrefixCountDto;
+import com.fkluh.freight.v1.service.analytics.DelayTrendService;
+import com.fkluh.freight.v1.service.analytics.DeliveryEtaService;
+import com.fkluh.freight.v1.service.analytics.DeliveryRateService;
+import com.fkluh.freight.v1.service.analytics.DeliveryRollupService;
+import com.fkluh.freight.v1.service.analytics.DistinctRecipientService;
+import com.fkluh.freight.v1.service.analytics.PostcodePrefixService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+
+@SecurityRequirement(name = "bearerAuth")
+@RestController("analyticsControllerV1")
+@RequestMapping("/api/v1/analytics")
+public class AnalyticsControllerV1 {
+
+    @Autowired
+    private DeliveryRollupService rollupService;
+
+    @Autowired
+    private PostcodePrefixService prefixService;
+
+    @Autowired
+    private DeliveryEtaService etaService;
+
+    @Autowired
+    private DistinctRecipientService distinctRecipientService;
+
+    @Autowired
+    private DelayTrendService delayTrendService;
+
+    @Autowired
+    private DeliveryRateService deliveryRateService;
+
+    @Operation(summary = "Finds the postcodes with the most delayed deliveries between 'from' and 'to' (inclusive, YYYY-MM-DD). "
+        + "Answered from the daily per-postcode rollups instead of scanning packages."
+    )
+    @GetMapping("/postcodes/most-delayed")
+    public ResponseEntity<CustomPage<PostcodeByCountDto>> mostDelayedPostcodes(
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(rollupService.filterPostcodeByMostDelayedPackages(from, to, page, size));
+    }
+
+    @Operation(summary = "Finds the postcodes with the most delayed deliveries recorded in the last 'window' (e.g. 24h or 7d, "
+        + "at most 7 days), answered from memory. A count is at most 'maxOvercount' above the exact count."
+    )
+    @GetMapping("/postcodes/most-delayed/recent")
+    public ResponseEntity<List<PostcodeDelayTrendDto>> recentlyMostDelayedPostcodes(
+        @RequestParam(defaultValue = "24h") String window,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(delayTrendService.getTopDelayedPostcodes(window, limit));
+    }
+
+    @Operation(summary = "Returns the on-time delivery rate per postcode per week between 'from' and 'to' (inclusive, YYYY-MM-DD). "
+        + "If 'postcode' is provided, only that postcode is reported."
+    )
+    @GetMapping("/postcodes/on-time-rate/weekly")
+    public ResponseEntity<List<PostcodeOnTimeRateDto>> weeklyOnTimeRate(
+        @RequestParam(required = false) String postcode,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to
+    ) {
+        return ResponseEntity.ok(rollupService.findWeeklyOnTimeRate(postcode, from, to));
+    }
+
+    @Operation(summary = "Returns the delivered, delayed and in-transit package counts of all postcodes starting with 'prefix' "
+        + "(case-insensitive, spaces ignored). Without a prefix, the totals of all packages are returned."
+    )
+    @GetMapping("/postcodes/prefix-counts")
+    public ResponseEntity<PostcodePrefixCountDto> postcodePrefixCounts(@RequestParam(required = false) String prefix) {
+        return ResponseEntity.ok(prefixService.getCounts(prefix));
+    }
+
+    @Operation(summary = "Groups the postcodes starting with 'prefix' by their next 'depth' characters and returns the top "
+        + "'limit' groups by 'metric' ('delivered', 'delayed' or 'in-transit'), e.g. the districts of an area with the most delays."
+    )
+    @GetMapping("/postcodes/prefix-counts/top")
+    public ResponseEntity<List<PostcodePrefixCountDto>> topPostcodePrefixes(
+        @RequestParam(required = false) String prefix,
+        @RequestParam(defaultValue = "1") int depth,
+        @RequestParam(defaultValue = "delayed") String metric,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(prefixService.getTopPrefixes(prefix, depth, metric, limit));
+    }
+
+    @Operation(summary = "Returns the median, 90th and 99th percentile lateness in days (negative when early) of the "
+        + "deliveries to 'postcode' (case-insensitive, spaces ignored), or of all deliveries without a postcode."
+    )
+    @GetMapping("/postcodes/lateness")
+    public ResponseEntity<PostcodeLatenessDto> postcodeLateness(@RequestParam(required = false) String postcode) {
+        return ResponseEntity.ok(etaService.getLateness(postcode));
+    }
+
+    @Operation(summary = "Returns the approximate number of distinct recipient emails of 'postcode', and of those who had "
+        + "a package delivered late, over all time or between 'from' and 'to' (inclusive, YYYY-MM-DD). "
+        + "Counts are within 'relativeStandardError' of the exact count about two times in three."
+    )
+    @GetMapping("/postcodes/distinct-recipients")
+    public ResponseEntity<DistinctRecipientsDto> distinctRecipients(
+        @RequestParam(required = false) String postcode,
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to
+    ) {
+        return ResponseEntity.ok(distinctRecipientService.getDistinctRecipients(postcode, from, to));
+    }
+
+    @Operation(summary = "Returns the deliveries, late deliveries and on-time rate of each of the last 'points' minutes or "
+        + "hours ('resolution'), oldest first and the current one last. Answered from memory; at most 120 minutes or 48 hours."
+    )
+    @GetMapping("/deliveries/rate")
+    public ResponseEntity<List<DeliveryRatePointDto>> deliveryRate(
+        @RequestParam(defaultValue = "minute") String resolution,
+        @RequestParam(defaultValue = "60") int points
+    ) {
+        return ResponseEntity.ok(deliveryRateService.getDeliveryRate(resolution, points));
+    }
+}
@@ -1,10 +1,10 @@
 package com.fkluh.freight.v1.controller;
 
-import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,7 +20,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -76,13 +75,13 @@ public class AuthController {
         try {
             UserDetails user = userDetailsService.loadUserByUsername(username);
             if (user != null && passwordEncoder.matches(password, user.getPassword())) {
-                Key key = new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256");
+                SecretKey key = new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256");
                 String token = Jwts.builder()
-                        .setSubject(username)
+                        .subject(username)
                         .claim("roles", user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
-                        .setIssuedAt(new Date())
-                        .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                        .signWith(key, SignatureAlgorithm.HS256)
+                        .issuedAt(new Date())
+                        .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                        .signWith(key, Jwts.SIG.HS256)
                         .compact();
                 Map<String, String> response = new HashMap<>();
                 response.put("token", token);
@@ -1,32 +1,95 @@
 package com.fkluh.freight.v1.controller;
 
 import com.fkluh.freight.v1.exception.ErrorResponse;
+import com.fkluh.freight.v1.exception.IdempotencyKeyReusedException;
+import com.fkluh.freight.v1.exception.PackageAlreadyDeliveredException;
 import com.fkluh.freight.v1.exception.PackageAlreadyExistsException;
 import com.fkluh.freight.v1.exception.PackageNotFoundException;
 import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.exception.PurgeJobNotFoundException;
+import com.fkluh.freight.v1.exception.WebhookNotFoundException;
+import com.fkluh.freight.v1.util.LogSampler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.Hidden;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.MethodNotAllowedException;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps exceptions to error responses. Client errors are expected traffic (a miss on /track is a 404), so they are
+ * logged as one line without a stack trace, at most {@code app.errors.expected-log-limit} times per
+ * {@code app.errors.expected-log-interval} for each error code; server errors are always logged with their stack
+ * trace. Every error is counted in {@code freight.errors}, tagged with its error code.
+ */
 @Slf4j
 @Hidden
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private final MeterRegistry meterRegistry;
+    private final long expectedLogLimit;
+    private final Duration expectedLogInterval;
+    private final Map<String, ErrorCodeStats> statsByCode = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(
+        MeterRegistry meterRegistry,
+        @Value("${app.errors.expected-log-limit:10}") long expectedLogLimit,
+        @Value("${app.errors.expected-log-interval:1m}") Duration expectedLogInterval
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.expectedLogLimit = expectedLogLimit;
+        this.expectedLogInterval = expectedLogInterval;
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleException(RuntimeException ex) {
+        ResponseEntity<ErrorResponse> response = toResponse(ex);
+        String errorCode = response.getBody().getErrorCode();
+        ErrorCodeStats stats = statsByCode.computeIfAbsent(errorCode, code -> new ErrorCodeStats(
+            meterRegistry.counter("freight.errors", "code", code),
+            new LogSampler(expectedLogLimit, expectedLogInterval)
+        ));
+        stats.errors().increment();
 
-        log.error("An error occurred: {} - {}", ex.getClass().getSimpleName(), ex.getMessage(), ex);
+        if (response.getStatusCode().is5xxServerError()) {
+            log.error("An error occurred: {} - {}", ex.getClass().getSimpleName(), ex.getMessage(), ex);
+        } else {
+            long suppressed = stats.logSampler().tryAcquire();
+            if (suppressed != LogSampler.SUPPRESSED) {
+                log.warn("{}: {} - {} ({} similar suppressed)", errorCode, ex.getClass().getSimpleName(),
+                    ex.getMessage(), suppressed);
+            }
+        }
+        return response;
+    }
 
+    private ResponseEntity<ErrorResponse> toResponse(RuntimeException ex) {
         if (ex instanceof PackageNotFoundException) {
             return new ResponseEntity<>(new ErrorResponse("PACKAGE_NOT_FOUND", ex.getMessage()), HttpStatus.NOT_FOUND);
         }
+        if (ex instanceof PurgeJobNotFoundException) {
+            return new ResponseEntity<>(new ErrorResponse("PURGE_JOB_NOT_FOUND", ex.getMessage()), HttpStatus.NOT_FOUND);
+        }
+        if (ex instanceof WebhookNotFoundException) {
+            return new ResponseEntity<>(new ErrorResponse("WEBHOOK_NOT_FOUND", ex.getMessage()), HttpStatus.NOT_FOUND);
+        }
         if (ex instanceof PackageAlreadyExistsException) {
             return new ResponseEntity<>(new ErrorResponse("PACKAGE_ALREADY_EXISTS", ex.getMessage()), HttpStatus.CONFLICT);
         }
+        if (ex instanceof PackageAlreadyDeliveredException) {
+            return new ResponseEntity<>(new ErrorResponse("PACKAGE_ALREADY_DELIVERED", ex.getMessage()), HttpStatus.CONFLICT);
+        }
+        if (ex instanceof IdempotencyKeyReusedException) {
+            return new ResponseEntity<>(new ErrorResponse("IDEMPOTENCY_KEY_REUSED", ex.getMessage()), HttpStatus.UNPROCESSABLE_ENTITY);
+        }
         if (ex instanceof PackageValidationException ||
             ex instanceof IllegalArgumentException) {
             return new ResponseEntity<>(new ErrorResponse("VALIDATION_ERROR", ex.getMessage()), HttpStatus.BAD_REQUEST);
@@ -36,6 +99,8 @@ public class GlobalExceptionHandler {
         }
 
         return new ResponseEntity<>(new ErrorResponse("INTERNAL_SERVER_ERROR", "An unexpected error occurred."), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
 
+    private record ErrorCodeStats(Counter errors, LogSampler logSampler) {
     }
-}
\ No newline at end of file
+}
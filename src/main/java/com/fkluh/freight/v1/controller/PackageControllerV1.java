@@ -1,5 +1,8 @@
 package com.fkluh.freight.v1.controller;
 
+import java.security.Principal;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,18 +12,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.fkluh.freight.v1.model.dto.CustomPage;
 import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PackageSearchHitDto;
 import com.fkluh.freight.v1.model.dto.PackageUpdateDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchItemDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchRequestDto;
 import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+import com.fkluh.freight.v1.service.analytics.DeliveryEtaService;
+import com.fkluh.freight.v1.service.idempotency.IdempotencyService;
+import com.fkluh.freight.v1.service.search.PackageSearchService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
-import jakarta.validation.Valid;
 
 @SecurityRequirement(name = "bearerAuth")
 @RestController("packageControllerV1")
@@ -30,20 +39,37 @@ public class PackageControllerV1 {
     @Autowired
     private PackageServiceV1Impl service;
 
+    @Autowired
+    private PackageSearchService searchService;
+
+    @Autowired
+    private DeliveryEtaService etaService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @Operation(summary = "Add a new package. Creates a new package in the system.\n"
         + "The package must have a tracking number, email, recipient postcode, and estimated delivery date.\n"
-        + "The actual delivery date is optional and can be updated later."
+        + "The actual delivery date is optional and can be updated later.\n"
+        + "Retries with the same 'Idempotency-Key' header get the first response back instead of a conflict."
     )
     @PostMapping
-    public ResponseEntity<PackageDto> addPackage(@Valid @RequestBody PackageDto pkg) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.addPackage(pkg));
+    public ResponseEntity<PackageDto> addPackage(
+        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+        @RequestBody PackageDto pkg,
+        Principal principal
+    ) {
+        return idempotencyService.execute(idempotencyKey, nameOf(principal), "POST /packages", pkg,
+            () -> ResponseEntity.status(HttpStatus.CREATED).body(service.addPackage(pkg)));
     }
 
     @Operation(summary = "Tracks package(s) by its tracking number, email, and "
         + "recipient postcode. If all parameters are provided, it returns a single package;"
         + "if only email and postcode are provided, it returns all packages for that email and postcode;"
         + "if only email is provided, it returns all packages for that email;"
-        + "if only postcode is provided, it returns all packages for that postcode."
+        + "if only postcode is provided, it returns all packages for that postcode. "
+        + "With 'includeEta', packages in transit also get median and 90th percentile predicted delivery dates, "
+        + "from how late deliveries to their postcode have been."
     )
     @GetMapping("/track")
     public ResponseEntity<CustomPage<PackageDto>> trackPackage(
@@ -51,21 +77,47 @@ public class PackageControllerV1 {
         @RequestParam(required = false) String email,
         @RequestParam(required = false) String recipientPostcode,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(defaultValue = "false") boolean includeEta
     ) {
-        return ResponseEntity.ok(service.trackPackages(trackingNumber, email, recipientPostcode, page, size));
+        CustomPage<PackageDto> packages = service.trackPackages(trackingNumber, email, recipientPostcode, page, size);
+        return ResponseEntity.ok(includeEta ? etaService.withPredictedDeliveryDates(packages) : packages);
+    }
+
+    @Operation(summary = "Tracks up to 5000 packages by tracking number in one request. Returns one item per "
+        + "requested tracking number, in request order, with 'found' false and no details for unknown ones."
+    )
+    @PostMapping("/track/batch")
+    public ResponseEntity<List<TrackBatchItemDto>> trackPackagesBatch(@RequestBody TrackBatchRequestDto request) {
+        return ResponseEntity.ok(service.trackPackagesBatch(request.getTrackingNumbers()));
+    }
+
+    @Operation(summary = "Searches tracking numbers and emails for a partial or misspelled value (at least 3 characters). "
+        + "Returns up to 'limit' matching packages, exact matches first, then prefix, substring and fuzzy matches."
+    )
+    @GetMapping("/search")
+    public ResponseEntity<List<PackageSearchHitDto>> searchPackages(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(searchService.search(q, limit));
     }
 
     @Operation(
         summary = "Updates the delivery details of a package.\n"
-            + "The actual delivery date is required to update the package status to DELIVERED."
+            + "The actual delivery date is required to update the package status to DELIVERED.\n"
+            + "Retries with the same 'Idempotency-Key' header get the first response back instead of a conflict."
     )
     @PutMapping("/{trackingNumber}")
     public ResponseEntity<PackageDto> updatePackage(
+        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
         @PathVariable String trackingNumber,
-        @Valid @RequestBody PackageUpdateDto pkgUpdateDto
+        @RequestBody PackageUpdateDto pkgUpdateDto,
+        Principal principal
     ) {
-        return ResponseEntity.ok(service.updatePackage(trackingNumber, pkgUpdateDto.getActualDeliveryDate()));
+        return idempotencyService.execute(idempotencyKey, nameOf(principal), "PUT /packages",
+            List.of(trackingNumber, pkgUpdateDto),
+            () -> ResponseEntity.ok(service.updatePackage(trackingNumber, pkgUpdateDto.getActualDeliveryDate())));
     }
 
     @Operation(summary = "Remove a package. Deletes a package by its tracking number.")
@@ -98,4 +150,9 @@ public class PackageControllerV1 {
         }
         return ResponseEntity.ok(service.filterPackages(status, postcode, deliveryDate, page, size));
     }
-}
\ No newline at end of file
+
+    private static String nameOf(Principal principal) {
+        // the JWT subject
+        return principal == null ? null : principal.getName();
+    }
+}
@@ -0,0 +1,176 @@
+package com.fkluh.freight.v1.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PackageUpdateDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchRequestDto;
+import com.fkluh.freight.v1.service.ReactivePackageServiceV1;
+import com.fkluh.freight.v1.service.analytics.DeliveryEtaService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive variant of {@link PackageControllerV1}: the same paths, parameters and JSON, served by the reactive API
+ * server. /track and /filter also stream every match, newest first, to clients that accept
+ * {@code text/event-stream} or {@code application/x-ndjson}; rows are read only as fast as the client takes them.
+ * Errors are answered by {@link GlobalExceptionHandler}, as on the servlet API.
+ */
+public class ReactivePackageControllerV1 {
+    private static final List<MediaType> STREAM_MEDIA_TYPES = List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+    private static final RequestPredicate ACCEPTS_STREAM = request -> streamMediaType(request) != null;
+
+    private final ReactivePackageServiceV1 service;
+    private final DeliveryEtaService etaService;
+
+    public ReactivePackageControllerV1(ReactivePackageServiceV1 service, DeliveryEtaService etaService) {
+        this.service = service;
+        this.etaService = etaService;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+            .path("/api/v1/packages", packages -> packages
+                .POST("/track/batch", this::trackPackagesBatch)
+                .POST(this::addPackage)
+                .GET("/track", ACCEPTS_STREAM, this::streamTrackedPackages)
+                .GET("/track", this::trackPackage)
+                .GET("/search", this::searchPackages)
+                .GET("/filter", ACCEPTS_STREAM, this::streamFilteredPackages)
+                .GET("/filter", this::filterPackages)
+                .PUT("/{trackingNumber}", this::updatePackage)
+                .DELETE("/{trackingNumber}", this::removePackage))
+            .build();
+    }
+
+    private Mono<ServerResponse> addPackage(ServerRequest request) {
+        return request.bodyToMono(PackageDto.class)
+            .switchIfEmpty(Mono.error(() -> new PackageValidationException(ErrorMessages.PACKAGE_EMPTY)))
+            .flatMap(service::addPackage)
+            .flatMap(pkg -> ServerResponse.status(HttpStatus.CREATED).bodyValue(pkg));
+    }
+
+    private Mono<ServerResponse> trackPackage(ServerRequest request) {
+        return service.trackPackages(
+                param(request, "trackingNumber"),
+                param(request, "email"),
+                param(request, "recipientPostcode"),
+                intParam(request, "page", 0),
+                intParam(request, "size", 10))
+            .map(page -> includeEta(request) ? etaService.withPredictedDeliveryDates(page) : page)
+            .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    private Mono<ServerResponse> trackPackagesBatch(ServerRequest request) {
+        return request.bodyToMono(TrackBatchRequestDto.class)
+            .defaultIfEmpty(new TrackBatchRequestDto())
+            .flatMap(batch -> service.trackPackagesBatch(batch.getTrackingNumbers()))
+            .flatMap(items -> ServerResponse.ok().bodyValue(items));
+    }
+
+    private Mono<ServerResponse> streamTrackedPackages(ServerRequest request) {
+        Flux<PackageDto> packages = service.streamTrackedPackages(
+            param(request, "trackingNumber"),
+            param(request, "email"),
+            param(request, "recipientPostcode"));
+        return stream(request, includeEta(request) ? packages.map(etaService::withPredictedDeliveryDates) : packages);
+    }
+
+    private Mono<ServerResponse> searchPackages(ServerRequest request) {
+        String query = request.queryParam("q")
+            .orElseThrow(() -> new ServerWebInputException("Required query parameter 'q' is not present."));
+        return service.searchPackages(query, intParam(request, "limit", 20))
+            .flatMap(hits -> ServerResponse.ok().bodyValue(hits));
+    }
+
+    private Mono<ServerResponse> updatePackage(ServerRequest request) {
+        String trackingNumber = request.pathVariable("trackingNumber");
+        return request.bodyToMono(PackageUpdateDto.class)
+            .defaultIfEmpty(new PackageUpdateDto())
+            .flatMap(update -> service.updatePackage(trackingNumber, update.getActualDeliveryDate()))
+            .flatMap(pkg -> ServerResponse.ok().bodyValue(pkg));
+    }
+
+    private Mono<ServerResponse> removePackage(ServerRequest request) {
+        return service.removePackage(request.pathVariable("trackingNumber"))
+            .then(ServerResponse.noContent().build());
+    }
+
+    private Mono<ServerResponse> filterPackages(ServerRequest request) {
+        String status = param(request, "status");
+        String postcode = param(request, "postcode");
+        String deliveryDate = param(request, "deliveryDate");
+        int page = intParam(request, "page", 0);
+        int size = intParam(request, "size", 10);
+        boolean findMostDelayedPostcode = Boolean.parseBoolean(request.queryParam("findMostDelayedPostcode").orElse("false"));
+        if (findMostDelayedPostcode &&
+            ((status == null || status.isEmpty()) &&
+            (postcode == null || postcode.isEmpty()) &&
+            (deliveryDate == null || deliveryDate.isEmpty())
+        )) {
+            return service.filterPostcodeByMostDelayedPackages(page, size)
+                .flatMap(postcodes -> ServerResponse.ok().bodyValue(postcodes));
+        }
+        return service.filterPackages(status, postcode, deliveryDate, page, size)
+            .flatMap(packages -> ServerResponse.ok().bodyValue(packages));
+    }
+
+    private Mono<ServerResponse> streamFilteredPackages(ServerRequest request) {
+        return stream(request, service.streamFilteredPackages(
+            param(request, "status"),
+            param(request, "postcode"),
+            param(request, "deliveryDate")));
+    }
+
+    /**
+     * Writes the packages as server-sent events or newline-delimited JSON, one per package. A failure before the
+     * first package, such as an unknown tracking number, still gets its error status.
+     */
+    private static Mono<ServerResponse> stream(ServerRequest request, Flux<PackageDto> packages) {
+        return ServerResponse.ok().contentType(streamMediaType(request)).body(packages, PackageDto.class);
+    }
+
+    private static MediaType streamMediaType(ServerRequest request) {
+        // match exactly, a client that accepts anything gets the JSON page
+        for (MediaType accepted : request.headers().accept()) {
+            for (MediaType streamMediaType : STREAM_MEDIA_TYPES) {
+                if (streamMediaType.equalsTypeAndSubtype(accepted)) {
+                    return streamMediaType;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String param(ServerRequest request, String name) {
+        return request.queryParam(name).orElse(null);
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new PackageValidationException(ErrorMessages.PAGING_PARAMETER_INVALID);
+        }
+    }
+
+    private static boolean includeEta(ServerRequest request) {
+        return Boolean.parseBoolean(request.queryParam("includeEta").orElse("false"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.fkluh.freight.v1.controller;
+
+import java.net.URI;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.WebhookDeadLetterDto;
+import com.fkluh.freight.v1.model.dto.WebhookSubscriptionDto;
+import com.fkluh.freight.v1.service.webhook.WebhookService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+
+@SecurityRequirement(name = "bearerAuth")
+@RestController("webhookControllerV1")
+@RequestMapping("/api/v1/admin/webhooks")
+public class WebhookControllerV1 {
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @Operation(summary = "Registers a webhook for a partner. Committed package writes are posted to 'url' as JSON batches of "
+        + "'events' (any of CREATED, DELIVERED, REMOVED; all if omitted), with an X-Freight-Delivery-Id header that stays "
+        + "the same across retries. Failed deliveries are retried with backoff and then dead-lettered."
+    )
+    @PostMapping
+    public ResponseEntity<WebhookSubscriptionDto> registerWebhook(@RequestBody WebhookSubscriptionDto request) {
+        WebhookSubscriptionDto webhook = webhookService.register(request);
+        return ResponseEntity.created(URI.create("/api/v1/admin/webhooks/" + webhook.getId())).body(webhook);
+    }
+
+    @Operation(summary = "Lists the registered webhooks with the events queued and the batches in flight for each.")
+    @GetMapping
+    public ResponseEntity<List<WebhookSubscriptionDto>> getWebhooks() {
+        return ResponseEntity.ok(webhookService.getWebhooks());
+    }
+
+    @Operation(summary = "Returns a registered webhook.")
+    @GetMapping("/{webhookId}")
+    public ResponseEntity<WebhookSubscriptionDto> getWebhook(@PathVariable String webhookId) {
+        return ResponseEntity.ok(webhookService.getWebhook(webhookId));
+    }
+
+    @Operation(summary = "Unregisters a webhook. Events still queued for it are dropped.")
+    @DeleteMapping("/{webhookId}")
+    public ResponseEntity<Void> removeWebhook(@PathVariable String webhookId) {
+        webhookService.removeWebhook(webhookId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Returns the deliveries that were given up on, newest first, optionally for one webhook only.")
+    @GetMapping("/dead-letters")
+    public ResponseEntity<CustomPage<WebhookDeadLetterDto>> getDeadLetters(
+        @RequestParam(required = false) String webhookId,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(webhookService.getDeadLetters(webhookId, page, size));
+    }
+}
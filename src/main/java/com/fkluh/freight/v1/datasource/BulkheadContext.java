@@ -0,0 +1,30 @@
+package com.fkluh.freight.v1.datasource;
+
+/**
+ * Per-thread bulkhead lane of the current request, see {@code BulkheadConfig}. Unset for background work and
+ * requests outside the lanes.
+ */
+public final class BulkheadContext {
+    private static final ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<>();
+
+    public enum Lane {
+        TRACKING,
+        ANALYTICS,
+        WRITES
+    }
+
+    private BulkheadContext() {
+    }
+
+    public static Lane currentLane() {
+        return CURRENT_LANE.get();
+    }
+
+    public static void set(Lane lane) {
+        CURRENT_LANE.set(lane);
+    }
+
+    public static void clear() {
+        CURRENT_LANE.remove();
+    }
+}
@@ -0,0 +1,58 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import com.fkluh.freight.v1.datasource.BulkheadContext.Lane;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Splits the connections to one database along the {@link BulkheadContext} lanes: a pool per lane and a shared one
+ * for everything else, routed by {@link BulkheadRoutingDataSource}. Used alike for the one database, the primary and
+ * the replica, and each shard, so every database gets the full set of pools. The pools are not beans, so they
+ * report to the meter registry themselves.
+ */
+public class BulkheadPools {
+    private final Map<Lane, Integer> laneSizes;
+    private final int sharedSize;
+    private final MeterRegistry meterRegistry;
+
+    public BulkheadPools(Map<Lane, Integer> laneSizes, int sharedSize, MeterRegistry meterRegistry) {
+        this.laneSizes = new EnumMap<>(laneSizes);
+        this.sharedSize = sharedSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param database prefix of the pool names, such as {@code shard-1}, or null for the one database, whose pools
+     *        are named after their lane alone
+     * @param newPool makes an unstarted pool to the database, called once per pool
+     */
+    public BulkheadRoutingDataSource partition(String database, Supplier<HikariDataSource> newPool) {
+        Map<Lane, DataSource> lanePools = new EnumMap<>(Lane.class);
+        laneSizes.forEach((lane, size) ->
+            lanePools.put(lane, pool(newPool, poolName(database, lane.name().toLowerCase()), size)));
+        BulkheadRoutingDataSource routingDataSource = new BulkheadRoutingDataSource(lanePools,
+            pool(newPool, poolName(database, "shared"), sharedSize));
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+
+    private HikariDataSource pool(Supplier<HikariDataSource> newPool, String name, int size) {
+        HikariDataSource dataSource = newPool.get();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(size);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    private static String poolName(String database, String pool) {
+        return database == null ? pool : database + "-" + pool;
+    }
+}
@@ -0,0 +1,40 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections from the pool of the current {@link BulkheadContext} lane, so a burst in one lane can only
+ * exhaust its own connections. Work outside the lanes, such as scheduled jobs and startup warm-ups, uses the shared
+ * pool. Closing it closes the pools.
+ */
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private final List<DataSource> pools;
+
+    public BulkheadRoutingDataSource(Map<BulkheadContext.Lane, DataSource> lanePools, DataSource sharedPool) {
+        this.pools = new ArrayList<>(lanePools.values());
+        this.pools.add(sharedPool);
+        setTargetDataSources(new HashMap<>(lanePools));
+        setDefaultTargetDataSource(sharedPool);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return BulkheadContext.currentLane();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.fkluh.freight.v1.datasource;
+
+/**
+ * Per-thread routing hint for the current request. A request is pinned to the primary when its client wrote
+ * recently enough that the replica may not have caught up yet, see {@link ReplicaLagTracker}.
+ */
+public final class ReadRoutingContext {
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private ReadRoutingContext() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    public static void clear() {
+        PINNED_TO_PRIMARY.remove();
+    }
+}
@@ -0,0 +1,56 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.io.IOException;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Pins the reads of a client to the primary for a short while after that client's own successful write, so it
+ * never reads its way back to a state from before the write. Clients are identified by their authenticated
+ * principal, or by remote address for anonymous requests. Must run after the security filter chain.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private final ReplicaLagTracker lagTracker;
+
+    public ReadYourWritesFilter(ReplicaLagTracker lagTracker) {
+        this.lagTracker = lagTracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = clientKey(request);
+        if (lagTracker.wroteRecently(client)) {
+            ReadRoutingContext.pinToPrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+            // the write has committed by now: the service methods own their transactions
+            if (isWrite(request) && response.getStatus() < 400) {
+                lagTracker.recordWrite(client);
+            }
+        } finally {
+            ReadRoutingContext.clear();
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getName() != null) {
+            return authentication.getName();
+        }
+        return request.getRemoteAddr();
+    }
+}
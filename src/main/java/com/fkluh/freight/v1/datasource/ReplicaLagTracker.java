@@ -0,0 +1,46 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers when each client last wrote, so that its reads go to the primary until the replica can be assumed to
+ * have caught up. The window should comfortably exceed the expected replication lag.
+ */
+public class ReplicaLagTracker {
+    private static final int SWEEP_EVERY_WRITES = 1024;
+
+    private final long windowNanos;
+    private final ConcurrentHashMap<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final AtomicInteger writesSinceSweep = new AtomicInteger();
+
+    public ReplicaLagTracker(Duration readYourWritesWindow) {
+        this.windowNanos = readYourWritesWindow.toNanos();
+    }
+
+    public void recordWrite(String client) {
+        long now = System.nanoTime();
+        lastWriteNanos.put(client, now);
+        if (writesSinceSweep.incrementAndGet() >= SWEEP_EVERY_WRITES) {
+            writesSinceSweep.set(0);
+            lastWriteNanos.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+
+    /**
+     * @param client the client key
+     * @return true if the client wrote within the read-your-writes window
+     */
+    public boolean wroteRecently(String client) {
+        Long writtenAt = lastWriteNanos.get(client);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < windowNanos) {
+            return true;
+        }
+        lastWriteNanos.remove(client, writtenAt);
+        return false;
+    }
+}
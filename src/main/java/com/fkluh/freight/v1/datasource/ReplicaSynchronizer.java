@@ -0,0 +1,109 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a local H2 replica in step with the primary, standing in for real database replication in local runs,
+ * tests and benchmarks. The schema (and any rows already present) is copied once at startup; afterwards, for every
+ * committed package write, the affected package and rollup rows are copied over asynchronously and in commit order,
+ * optionally after an artificial delay to simulate replication lag.
+ */
+@Slf4j
+public class ReplicaSynchronizer {
+    private static final String PACKAGE_TABLE = "package";
+    private static final String ROLLUP_TABLE = "postcode_daily_rollup";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long delayMillis;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaSynchronizer(DataSource primary, DataSource replica, Duration delay) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.delayMillis = delay.toMillis();
+    }
+
+    /**
+     * Copies the primary's schema and rows to the replica. Runs once the schema exists on the primary, which the
+     * configuration guarantees by making this bean depend on the entity manager factory.
+     */
+    @PostConstruct
+    public void copyPrimary() {
+        List<String> script = primary.queryForList("SCRIPT", String.class);
+        for (String statement : script) {
+            replica.execute(statement);
+        }
+        log.info("Replica initialized from primary with {} statements", script.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPackageEvent(PackageEvent event) {
+        worker.execute(() -> apply(event));
+    }
+
+    private void apply(PackageEvent event) {
+        try {
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            copyRow(PACKAGE_TABLE, List.of("tracking_number"), List.of(event.trackingNumber()));
+            if (event.isDelivered()) {
+                copyRow(
+                    ROLLUP_TABLE,
+                    List.of("recipient_postcode", "delivery_date"),
+                    List.of(event.recipientPostcode(), java.sql.Date.valueOf(event.actualDeliveryDate()))
+                );
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Failed to replicate {} of package {}", event.type(), event.trackingNumber(), e);
+        }
+    }
+
+    /**
+     * Makes the replica's row match the primary's current row with the given key, deleting it if it is gone.
+     */
+    private void copyRow(String table, List<String> keyColumns, List<Object> keyValues) {
+        String where = keyColumns.stream().map(column -> column + " = ?").collect(Collectors.joining(" AND "));
+        List<Map<String, Object>> rows = primary.queryForList("SELECT * FROM " + table + " WHERE " + where, keyValues.toArray());
+        if (rows.isEmpty()) {
+            replica.update("DELETE FROM " + table + " WHERE " + where, keyValues.toArray());
+            return;
+        }
+        Map<String, Object> row = rows.get(0);
+        String merge = "MERGE INTO " + table + " (" + String.join(", ", row.keySet()) + ") KEY (" + String.join(", ", keyColumns)
+            + ") VALUES (" + String.join(", ", Collections.nCopies(row.size(), "?")) + ")";
+        replica.update(merge, row.values().toArray());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,27 @@
+package com.fkluh.freight.v1.datasource;
+
+/**
+ * Per-thread shard a {@link ShardRoutingDataSource} hands out connections for. Unset means the default shard, 0.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(shard);
+        }
+    }
+
+    public static void clear() {
+        CURRENT_SHARD.remove();
+    }
+}
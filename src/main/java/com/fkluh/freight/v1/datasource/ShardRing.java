@@ -0,0 +1,48 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.util.Arrays;
+
+import com.fkluh.freight.v1.util.Hashing;
+
+/**
+ * Consistent hash ring placing tracking numbers on shards. Each shard owns {@code virtualNodes} points on the ring
+ * and a key belongs to the shard of the first point at or after its hash, so adding a shard only moves the keys
+ * that land on the new shard's points, about one in {@code shardCount + 1}.
+ */
+public class ShardRing {
+    private final int shardCount;
+    private final long[] points;
+    private final int[] owners;
+
+    public ShardRing(int shardCount, int virtualNodes) {
+        if (shardCount < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("A shard ring needs at least one shard and one virtual node per shard");
+        }
+        this.shardCount = shardCount;
+        long[][] ring = new long[shardCount * virtualNodes][];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring[shard * virtualNodes + node] = new long[]{Hashing.fnv1aMix64("shard-" + shard + "#" + node), shard};
+            }
+        }
+        Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+        points = new long[ring.length];
+        owners = new int[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            points[i] = ring[i][0];
+            owners[i] = (int) ring[i][1];
+        }
+    }
+
+    public int shardFor(String key) {
+        int index = Arrays.binarySearch(points, Hashing.fnv1aMix64(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+}
@@ -0,0 +1,38 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Copies the schema Hibernate creates on shard 0 to the other shards of local H2 setups, the way
+ * {@link ReplicaSynchronizer} initializes a local replica. Runs once the schema exists, which the configuration
+ * guarantees by making this bean depend on the entity manager factory.
+ */
+@Slf4j
+public class ShardSchemaInitializer {
+    private final ShardRoutingDataSource shards;
+
+    public ShardSchemaInitializer(ShardRoutingDataSource shards) {
+        this.shards = shards;
+    }
+
+    @PostConstruct
+    public void copySchema() {
+        List<String> script = new JdbcTemplate(shards.shard(0)).queryForList("SCRIPT NODATA", String.class);
+        for (int shard = 1; shard < shards.shardCount(); shard++) {
+            JdbcTemplate target = new JdbcTemplate(shards.shard(shard));
+            for (String statement : script) {
+                target.execute(statement);
+            }
+        }
+        log.info("Schema copied from shard 0 to {} more shards", shards.shardCount() - 1);
+    }
+
+    public int shardCount() {
+        return shards.shardCount();
+    }
+}
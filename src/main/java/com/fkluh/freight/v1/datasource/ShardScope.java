@@ -0,0 +1,65 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs work outside {@link ShardedRepositoryInterceptor}, such as JDBC scans and bulk statements, on the shards of
+ * {@link ShardRoutingDataSource} by setting {@link ShardContext} around it. Without sharding there is one shard, the
+ * one database, and the context set has no effect. Never inside a transaction, whose connection already belongs to
+ * one shard.
+ */
+@Component
+public class ShardScope {
+    private final int shardCount;
+
+    public ShardScope(ObjectProvider<ShardSchemaInitializer> shardSchema) {
+        // taken from the initializer, so no work runs before every shard has the schema
+        ShardSchemaInitializer initializer = shardSchema.getIfAvailable();
+        this.shardCount = initializer == null ? 1 : initializer.shardCount();
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Runs the work once per shard, one shard after another, each time with {@link ShardContext} set to that shard.
+     */
+    public void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            onShard(shard, () -> work.accept(current));
+        }
+    }
+
+    /**
+     * Like {@link #onShard(int, Supplier)}, for work without a result.
+     */
+    public void onShard(int shard, Runnable work) {
+        onShard(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the work with {@link ShardContext} set to the given shard, and restores the previous shard afterwards.
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction");
+        }
+        Integer previous = ShardContext.currentShard();
+        ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.PostcodeDailyRollup;
+import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+
+/**
+ * Spreads {@link com.fkluh.freight.v1.repository.PackageRepositoryV1} over the shards of a
+ * {@link ShardRoutingDataSource}, placing each package on the shard its tracking number hashes to on the
+ * {@link ShardRing}, and reads {@link com.fkluh.freight.v1.repository.PostcodeDailyRollupRepository} from all shards,
+ * since each shard keeps the rollups of its own packages.
+ * <ul>
+ *     <li>Calls by tracking number or by package run on that package's shard only. Inside a transaction the shard
+ *     stays bound until the transaction completes, so its flush goes to the same shard; a transaction touching a
+ *     second shard is rejected.</li>
+ *     <li>Batch lookups by tracking number are split by shard, run on those shards in parallel, and put back in
+ *     request order.</li>
+ *     <li>Page queries run on all shards in parallel, each for its first {@code offset + size} rows, and the rows
+ *     are merged newest first ({@code createdAt DESC}), so every page is the same as on a single database.</li>
+ *     <li>The delayed postcode rankings sum each shard's full per-postcode counts before ranking and paging.</li>
+ *     <li>Counts are summed over all shards.</li>
+ *     <li>Rollup range reads are concatenated over all shards and put in postcode and day order.</li>
+ * </ul>
+ * Any other call runs on the shard bound to the thread, see {@link ShardContext}: shard 0 unless a transaction or a
+ * {@link ShardScope} has bound another.
+ */
+public class ShardedRepositoryInterceptor implements MethodInterceptor {
+    private static final Set<String> BY_TRACKING_NUMBER = Set.of(
+        "findById", "existsById", "deleteById", "findByTrackingNumberAndEmailAndRecipientPostcode");
+    private static final Set<String> BY_PACKAGE = Set.of("save", "saveAndFlush", "delete");
+    private static final String BY_TRACKING_NUMBERS = "findAllByIdInOrder";
+    private static final Set<String> DELAYED_POSTCODE_RANKINGS = Set.of(
+        "findPostcodeWithMostDelayedPackages", "findPostcodeWithMostDelayedPackagesBetween");
+    private static final Set<String> COUNTS = Set.of("count", "countPurgeCandidates");
+    private static final Set<String> ROLLUP_RANGES = Set.of(
+        "findByDeliveryDateBetween", "findByRecipientPostcodeAndDeliveryDateBetween");
+    private static final Comparator<Package> NEWEST_FIRST = Comparator
+        .comparing(Package::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(Package::getTrackingNumber);
+    private static final Comparator<PostcodeByCountDto> MOST_DELAYED_FIRST = Comparator
+        .comparingLong(PostcodeByCountDto::getDelayCount).reversed()
+        .thenComparing(PostcodeByCountDto::getRecipientPostcode);
+    private static final Comparator<PostcodeDailyRollup> BY_POSTCODE_AND_DAY = Comparator
+        .comparing(PostcodeDailyRollup::getRecipientPostcode)
+        .thenComparing(PostcodeDailyRollup::getDeliveryDate);
+
+    private final ShardRing ring;
+    private final ExecutorService executor;
+
+    public ShardedRepositoryInterceptor(ShardRing ring, int scatterThreads) {
+        this.ring = ring;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(scatterThreads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Object[] args = invocation.getArguments();
+        String name = method.getName();
+        if (BY_TRACKING_NUMBER.contains(name) && args.length > 0 && args[0] instanceof String trackingNumber) {
+            return onShardOf(trackingNumber, invocation);
+        }
+        if (BY_PACKAGE.contains(name) && args.length == 1 && args[0] instanceof Package pkg) {
+            return onShardOf(pkg.getTrackingNumber(), invocation);
+        }
+        if (name.equals(BY_TRACKING_NUMBERS) && args.length == 1 && args[0] instanceof List<?> trackingNumbers) {
+            return gatherInOrder(invocation, trackingNumbers);
+        }
+        if (DELAYED_POSTCODE_RANKINGS.contains(name)) {
+            return mergeDelayedPostcodes(invocation);
+        }
+        if (COUNTS.contains(name) && method.getReturnType() == long.class) {
+            return sumCounts(invocation);
+        }
+        if (ROLLUP_RANGES.contains(name)) {
+            return mergeRollups(invocation);
+        }
+        if (Page.class.isAssignableFrom(method.getReturnType()) && args.length > 0
+            && args[args.length - 1] instanceof Pageable) {
+            return mergeNewestFirst(invocation);
+        }
+        return invocation.proceed();
+    }
+
+    private Object onShardOf(String trackingNumber, MethodInvocation invocation) throws Throwable {
+        int shard = ring.shardFor(trackingNumber);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            bindToTransaction(shard);
+            return invocation.proceed();
+        }
+        Integer previous = ShardContext.currentShard();
+        ShardContext.set(shard);
+        try {
+            return invocation.proceed();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    private static void bindToTransaction(int shard) {
+        Integer bound = ShardContext.currentShard();
+        if (bound == null) {
+            ShardContext.set(shard);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ShardContext.clear();
+                }
+            });
+        } else if (bound != shard) {
+            throw new IllegalStateException("A transaction cannot span shards: it is bound to shard " + bound
+                + " and needs shard " + shard);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<Package> mergeNewestFirst(MethodInvocation invocation) throws Throwable {
+        Object[] args = invocation.getArguments().clone();
+        Pageable pageable = (Pageable) args[args.length - 1];
+        if (pageable.isPaged()) {
+            int firstRows = Math.toIntExact(Math.addExact(pageable.getOffset(), pageable.getPageSize()));
+            args[args.length - 1] = PageRequest.of(0, firstRows, pageable.getSort());
+        }
+        long total = 0;
+        List<Package> rows = new ArrayList<>();
+        for (Object result : scatter(invocation, args)) {
+            Page<Package> page = (Page<Package>) result;
+            total += page.getTotalElements();
+            rows.addAll(page.getContent());
+        }
+        rows.sort(NEWEST_FIRST);
+        return new PageImpl<>(slice(rows, pageable), pageable, total);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<PostcodeByCountDto> mergeDelayedPostcodes(MethodInvocation invocation) throws Throwable {
+        Object[] args = invocation.getArguments().clone();
+        Pageable pageable = (Pageable) args[args.length - 1];
+        args[args.length - 1] = Pageable.unpaged();
+        Map<String, Long> delayCounts = new HashMap<>();
+        for (Object result : scatter(invocation, args)) {
+            for (PostcodeByCountDto count : (Page<PostcodeByCountDto>) result) {
+                delayCounts.merge(count.getRecipientPostcode(), count.getDelayCount(), Long::sum);
+            }
+        }
+        List<PostcodeByCountDto> ranking = new ArrayList<>(delayCounts.size());
+        delayCounts.forEach((postcode, count) -> ranking.add(new PostcodeByCountDto(postcode, count)));
+        ranking.sort(MOST_DELAYED_FIRST);
+        return new PageImpl<>(slice(ranking, pageable), pageable, ranking.size());
+    }
+
+    private long sumCounts(MethodInvocation invocation) throws Throwable {
+        long total = 0;
+        for (Object count : scatter(invocation, invocation.getArguments())) {
+            total += (Long) count;
+        }
+        return total;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PostcodeDailyRollup> mergeRollups(MethodInvocation invocation) throws Throwable {
+        List<PostcodeDailyRollup> rollups = new ArrayList<>();
+        for (Object result : scatter(invocation, invocation.getArguments())) {
+            rollups.addAll((List<PostcodeDailyRollup>) result);
+        }
+        rollups.sort(BY_POSTCODE_AND_DAY);
+        return rollups;
+    }
+
+    /**
+     * Looks up each shard's share of the tracking numbers on that shard, in parallel, and returns the results in the
+     * order of the requested tracking numbers.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Package> gatherInOrder(MethodInvocation invocation, List<?> trackingNumbers) throws Throwable {
+        Map<Integer, List<Integer>> positionsByShard = new HashMap<>();
+        for (int i = 0; i < trackingNumbers.size(); i++) {
+            int shard = ring.shardFor((String) trackingNumbers.get(i));
+            positionsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(i);
+        }
+        Map<Integer, Object[]> argsByShard = new HashMap<>();
+        positionsByShard.forEach((shard, positions) -> {
+            List<Object> shardTrackingNumbers = new ArrayList<>(positions.size());
+            for (int position : positions) {
+                shardTrackingNumbers.add(trackingNumbers.get(position));
+            }
+            argsByShard.put(shard, new Object[]{shardTrackingNumbers});
+        });
+
+        Map<Integer, Object> results = scatter(invocation, argsByShard);
+        Package[] packages = new Package[trackingNumbers.size()];
+        positionsByShard.forEach((shard, positions) -> {
+            List<Package> found = (List<Package>) results.get(shard);
+            for (int i = 0; i < positions.size(); i++) {
+                packages[positions.get(i)] = found.get(i);
+            }
+        });
+        return Arrays.asList(packages);
+    }
+
+    private static <T> List<T> slice(List<T> rows, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return rows;
+        }
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        return new ArrayList<>(rows.subList(from, to));
+    }
+
+    /**
+     * Runs the repository method on every shard, each on a thread of its own so that each gets a transaction and a
+     * connection of its own, and returns the results in shard order.
+     */
+    private List<Object> scatter(MethodInvocation invocation, Object[] args) throws Throwable {
+        Map<Integer, Object[]> argsByShard = new HashMap<>();
+        for (int shard = 0; shard < ring.shardCount(); shard++) {
+            argsByShard.put(shard, args);
+        }
+        Map<Integer, Object> results = scatter(invocation, argsByShard);
+        List<Object> inShardOrder = new ArrayList<>(results.size());
+        for (int shard = 0; shard < ring.shardCount(); shard++) {
+            inShardOrder.add(results.get(shard));
+        }
+        return inShardOrder;
+    }
+
+    /**
+     * Runs the repository method on each of the given shards with that shard's arguments, each on a thread of its
+     * own, and returns the results by shard. The threads take the caller's {@link BulkheadContext} lane, so they
+     * borrow from that lane's pools.
+     */
+    private Map<Integer, Object> scatter(MethodInvocation invocation, Map<Integer, Object[]> argsByShard) throws Throwable {
+        Object target = invocation.getThis();
+        Method method = invocation.getMethod();
+        BulkheadContext.Lane lane = BulkheadContext.currentLane();
+        Map<Integer, Future<Object>> futures = new HashMap<>();
+        for (Map.Entry<Integer, Object[]> shardArgs : argsByShard.entrySet()) {
+            int current = shardArgs.getKey();
+            Object[] args = shardArgs.getValue();
+            futures.put(current, executor.submit(() -> {
+                ShardContext.set(current);
+                BulkheadContext.set(lane);
+                try {
+                    return AopUtils.invokeJoinpointUsingReflection(target, method, args);
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new UndeclaredThrowableException(t);
+                } finally {
+                    ShardContext.clear();
+                    BulkheadContext.clear();
+                }
+            }));
+        }
+        Map<Integer, Object> results = new HashMap<>();
+        try {
+            for (Map.Entry<Integer, Future<Object>> future : futures.entrySet()) {
+                results.put(future.getKey(), future.getValue().get());
+            }
+        } catch (ExecutionException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        return results;
+    }
+
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
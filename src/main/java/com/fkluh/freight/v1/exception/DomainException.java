@@ -0,0 +1,12 @@
+package com.fkluh.freight.v1.exception;
+
+/**
+ * Base class of the expected outcomes a client can cause: not found, already exists, invalid input. They are part
+ * of normal traffic, so they are created without a stack trace, which is most of the cost of throwing, and
+ * {@code GlobalExceptionHandler} logs only their message.
+ */
+public abstract class DomainException extends RuntimeException {
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -5,12 +5,35 @@ public class ErrorMessages {
     public static final String TRACKING_NUMBER_EMPTY = "Tracking number cannot be null or empty";
     public static final String TRACKING_NUMBER_NOT_EXIST = "Tracking number does not exist";
     public static final String EMAIL_EMPTY = "Email cannot be null or empty";
+    public static final String EMAIL_INVALID = "Email should be valid";
     public static final String POSTCODE_EMPTY = "Recipient postcode cannot be null or empty";
+    public static final String ESTIMATED_DELIVERY_DATE_EMPTY = "Estimated delivery date cannot be null or empty";
     public static final String ACTUAL_DELIVERY_DATE_EMPTY = "Actual Delivery Date cannot be null or empty";
+    public static final String PACKAGE_EMPTY = "Package must not be empty";
+    public static final String PACKAGE_STATUS_INVALID = "Status must be one of IN_TRANSIT, DELIVERED, DELAYED or ON_TIME.";
     public static final String PACKAGE_ALREADY_EXISTS = "Package with tracking number already exists";
     public static final String ACTUAL_DELIVERY_DATE_CANNOT_BE_FUTURE_DATE = "Actual delivery date cannot be in the future";
     public static final String DELIVERY_DATE_INVALID_FORMAT = "Delivery date must be in the format 'YYYY-MM-DD'";
     public static final String FILTER_STATUS_INVALID = "Status must be either 'delayed' or 'on-time'.";
     public static final String FILTER_INPUT_INVALID = "Invalid input data: No applicable filter strategy found.";
     public static final String TRACKING_NUMBER_OR_EMAIL_AND_POSTCODE_EMPTY = "Either tracking number or both email and postcode must be provided.";
+    public static final String DATE_RANGE_EMPTY = "Both 'from' and 'to' dates must be provided.";
+    public static final String DATE_RANGE_INVALID = "'from' date must not be after 'to' date.";
+    public static final String PURGE_CRITERIA_EMPTY = "At least one of 'status', 'deliveredBefore' or 'postcode' must be provided.";
+    public static final String PURGE_STATUS_INVALID = "Status must be one of IN_TRANSIT, DELIVERED, DELAYED or ON_TIME.";
+    public static final String PURGE_JOB_NOT_FOUND = "Purge job does not exist";
+    public static final String POSTCODE_PREFIX_DEPTH_INVALID = "Depth must be between 1 and 10.";
+    public static final String POSTCODE_PREFIX_METRIC_INVALID = "Metric must be one of 'delivered', 'delayed' or 'in-transit'.";
+    public static final String TRACK_BATCH_EMPTY = "At least one tracking number must be provided.";
+    public static final String TRACK_BATCH_TOO_LARGE = "At most 5000 tracking numbers can be tracked at once.";
+    public static final String WEBHOOK_URL_INVALID = "Webhook url must be an absolute http or https URL.";
+    public static final String WEBHOOK_EVENTS_INVALID = "Webhook events must be any of CREATED, DELIVERED or REMOVED.";
+    public static final String WEBHOOK_NOT_FOUND = "Webhook does not exist";
+    public static final String SEARCH_QUERY_TOO_SHORT = "Search query must be at least 3 characters long.";
+    public static final String DELAY_TREND_WINDOW_INVALID = "Window must be a duration such as 24h or 7d, at most 7 days.";
+    public static final String IDEMPOTENCY_KEY_INVALID = "Idempotency-Key must be 1 to 255 printable ASCII characters.";
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency-Key was already used for a different request.";
+    public static final String DELIVERY_RATE_RESOLUTION_INVALID = "Resolution must be either 'minute' or 'hour'.";
+    public static final String PAGING_PARAMETER_INVALID = "Page, size and limit must be whole numbers.";
+    public static final String PAGE_TOO_DEEP = "Only the first 10000 results can be paged through. Narrow the search instead.";
 }
@@ -0,0 +1,7 @@
+package com.fkluh.freight.v1.exception;
+
+public class IdempotencyKeyReusedException extends DomainException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
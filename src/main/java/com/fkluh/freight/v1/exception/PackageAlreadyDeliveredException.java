@@ -0,0 +1,7 @@
+package com.fkluh.freight.v1.exception;
+
+public class PackageAlreadyDeliveredException extends DomainException {
+    public PackageAlreadyDeliveredException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.fkluh.freight.v1.exception;
 
-public class PackageAlreadyExistsException extends RuntimeException {
+public class PackageAlreadyExistsException extends DomainException {
     public PackageAlreadyExistsException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.fkluh.freight.v1.exception;
 
-public class PackageNotFoundException extends RuntimeException {
+public class PackageNotFoundException extends DomainException {
     public PackageNotFoundException(String message) {
         super(message);
     }
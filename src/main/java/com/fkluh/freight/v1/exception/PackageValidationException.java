@@ -1,6 +1,6 @@
 package com.fkluh.freight.v1.exception;
 
-public class PackageValidationException extends RuntimeException {
+public class PackageValidationException extends DomainException {
     public PackageValidationException(String message) {
         super(message);
     }
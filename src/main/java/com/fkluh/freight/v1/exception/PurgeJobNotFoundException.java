@@ -0,0 +1,7 @@
+package com.fkluh.freight.v1.exception;
+
+public class PurgeJobNotFoundException extends DomainException {
+    public PurgeJobNotFoundException(String message) {
+        super(message);
+    }
+}
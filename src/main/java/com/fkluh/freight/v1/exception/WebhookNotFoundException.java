@@ -0,0 +1,7 @@
+package com.fkluh.freight.v1.exception;
+
+public class WebhookNotFoundException extends DomainException {
+    public WebhookNotFoundException(String message) {
+        super(message);
+    }
+}
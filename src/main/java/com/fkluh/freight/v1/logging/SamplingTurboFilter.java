@@ -0,0 +1,67 @@
+package com.fkluh.freight.v1.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Keeps a random one in {@code rate} of the events a logger, or any logger below it, writes at {@code level} or
+ * lower, and denies the rest before an event is even created. Configured once per logger in
+ * {@code logback-spring.xml}:
+ * <pre>{@code
+ * <turboFilter class="com.fkluh.freight.v1.logging.SamplingTurboFilter">
+ *     <loggerName>com.fkluh.freight.v1.service</loggerName>
+ *     <level>INFO</level>
+ *     <rate>100</rate>
+ * </turboFilter>
+ * }</pre>
+ * Level checks such as {@code isDebugEnabled()} are left alone, so guarded log calls are sampled once, not twice.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private String loggerName;
+    private Level level = Level.INFO;
+    private int rate = 1;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level eventLevel, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || eventLevel.levelInt > level.levelInt || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextInt(rate) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null || loggerName.isEmpty()) {
+            addError("No loggerName set for the sampling filter " + getName());
+            return;
+        }
+        if (rate < 1) {
+            addError("The sampling rate must be at least 1, was " + rate);
+            return;
+        }
+        super.start();
+    }
+
+    private boolean matches(String name) {
+        return name.startsWith(loggerName)
+            && (name.length() == loggerName.length() || name.charAt(loggerName.length()) == '.');
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+}
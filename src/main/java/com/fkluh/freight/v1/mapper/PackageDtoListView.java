@@ -0,0 +1,36 @@
+package com.fkluh.freight.v1.mapper;
+
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only {@code List<PackageDto>} view over a page of entities. DTOs are only created when an element is read;
+ * the JSON serializer skips them entirely and writes the underlying entities straight to the generator.
+ */
+public class PackageDtoListView extends AbstractList<PackageDto> implements RandomAccess {
+    private final List<Package> entities;
+    private final PackageMapper mapper;
+
+    public PackageDtoListView(List<Package> entities, PackageMapper mapper) {
+        this.entities = entities;
+        this.mapper = mapper;
+    }
+
+    public List<Package> getEntities() {
+        return entities;
+    }
+
+    @Override
+    public PackageDto get(int index) {
+        return mapper.packageEntityToDto(entities.get(index));
+    }
+
+    @Override
+    public int size() {
+        return entities.size();
+    }
+}
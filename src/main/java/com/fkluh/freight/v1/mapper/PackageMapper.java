@@ -3,13 +3,15 @@ package com.fkluh.freight.v1.mapper;
 import com.fkluh.freight.v1.model.dto.CustomPage;
 import com.fkluh.freight.v1.model.dto.PackageDto;
 import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchItemDto;
 import com.fkluh.freight.v1.model.Package;
 import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.service.command.AddPackageCommand;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.function.Function;
 
 @Component
 public class PackageMapper {
@@ -29,6 +31,17 @@ public class PackageMapper {
         return entity;
     }
 
+    public Package packageCommandToEntity(AddPackageCommand command) {
+        Package entity = new Package();
+        entity.setTrackingNumber(command.trackingNumber());
+        entity.setEmail(command.email());
+        entity.setRecipientPostcode(command.recipientPostcode());
+        entity.setEstimatedDeliveryDate(command.estimatedDeliveryDate());
+        entity.setActualDeliveryDate(command.actualDeliveryDate());
+        entity.setStatus(command.status());
+        return entity;
+    }
+
     public PackageDto packageEntityToDto(Package entity) {
         if (entity == null) {
             return null;
@@ -44,29 +57,50 @@ public class PackageMapper {
         return dto;
     }
 
+    /**
+     * Copies the DTO with predicted delivery dates, leaving the original as it is: it may be shared with other
+     * callers, see {@link com.fkluh.freight.v1.service.coalescing.QueryCoalescer}.
+     */
+    public PackageDto withPredictedDeliveryDates(PackageDto dto, LocalDate p50, LocalDate p90) {
+        PackageDto copy = new PackageDto();
+        copy.setTrackingNumber(dto.getTrackingNumber());
+        copy.setEmail(dto.getEmail());
+        copy.setRecipientPostcode(dto.getRecipientPostcode());
+        copy.setEstimatedDeliveryDate(dto.getEstimatedDeliveryDate());
+        copy.setActualDeliveryDate(dto.getActualDeliveryDate());
+        copy.setStatus(dto.getStatus());
+        copy.setPredictedDeliveryDateP50(p50);
+        copy.setPredictedDeliveryDateP90(p90);
+        return copy;
+    }
+
+    public TrackBatchItemDto trackBatchItem(String trackingNumber, Package entity) {
+        return new TrackBatchItemDto(trackingNumber, entity != null, packageEntityToDto(entity));
+    }
+
     public CustomPage<PackageDto> packageEntityPageToDtoPage(Page<Package> page) {
         if (page == null) {
             return new CustomPage<>(List.of(), 0, 0);
         }
-        List<PackageDto> dtoList = page.getContent().stream()
-            .map(this::packageEntityToDto)
-            .toList();
-        return new CustomPage<>(dtoList, page.getNumber(), page.getSize());
+        return new CustomPage<>(new PackageDtoListView(page.getContent(), this), page.getNumber(), page.getSize());
+    }
+
+    public CustomPage<PackageDto> packageEntityListToDtoPage(List<Package> packages, int page, int size) {
+        return new CustomPage<>(new PackageDtoListView(packages, this), page, size);
     }
 
     public CustomPage<PackageDto> singleEntityToDtoPage(Package pkg) {
         if (pkg == null) {
             return new CustomPage<>(List.of(), 0, 0);
         }
-        PackageDto dto = packageEntityToDto(pkg);
-        return new CustomPage<>(List.of(dto), 0, 1);
+        return new CustomPage<>(new PackageDtoListView(List.of(pkg), this), 0, 1);
     }
 
     public CustomPage<PostcodeByCountDto> postcodeEntityPageToDtoPage(Page<PostcodeByCountDto> page) {
         if (page == null) {
             return new CustomPage<>(List.of(), 0, 0);
         }
-        return new CustomPage<>(page.map(Function.identity()).getContent(), page.getNumber(), page.getSize());
+        return new CustomPage<>(page.getContent(), page.getNumber(), page.getSize());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.fkluh.freight.v1.mapper.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fkluh.freight.v1.mapper.PackageDtoListView;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Serializes {@link CustomPage} with the same shape Jackson would produce by reflection. Package pages backed by a
+ * {@link PackageDtoListView} are streamed entity by entity through {@link PackageJsonWriter}; any other content
+ * falls back to the regular serializers.
+ */
+@JsonComponent
+public class CustomPageJsonSerializer extends JsonSerializer<CustomPage<?>> {
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString PAGE = new SerializedString("page");
+    private static final SerializedString SIZE = new SerializedString("size");
+    private static final SerializedString EMPTY = new SerializedString("empty");
+
+    private final PackageJsonWriter packageWriter = new PackageJsonWriter();
+
+    @Override
+    public void serialize(CustomPage<?> page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(page);
+        gen.writeFieldName(CONTENT);
+        // the streaming writer only knows the ISO date form, so defer to Jackson if dates are configured as timestamps
+        if (page.getContent() instanceof PackageDtoListView view && !provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            List<Package> entities = view.getEntities();
+            int size = entities.size();
+            gen.writeStartArray(entities, size);
+            for (int i = 0; i < size; i++) {
+                packageWriter.write(entities.get(i), gen);
+            }
+            gen.writeEndArray();
+        } else {
+            provider.defaultSerializeValue(page.getContent(), gen);
+        }
+        gen.writeFieldName(PAGE);
+        gen.writeNumber(page.getPage());
+        gen.writeFieldName(SIZE);
+        gen.writeNumber(page.getSize());
+        gen.writeFieldName(EMPTY);
+        gen.writeBoolean(page.isEmpty());
+        gen.writeEndObject();
+    }
+}
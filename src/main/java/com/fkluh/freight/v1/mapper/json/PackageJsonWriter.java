@@ -0,0 +1,89 @@
+package com.fkluh.freight.v1.mapper.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes a {@link Package} as the JSON form of {@link com.fkluh.freight.v1.model.dto.PackageDto}, without creating the DTO.
+ * Field names and status values are pre-encoded, and dates go through a small direct-mapped cache of their ISO form,
+ * so writing a package allocates nothing in the steady state.
+ */
+public class PackageJsonWriter {
+    static final SerializedString TRACKING_NUMBER = new SerializedString("trackingNumber");
+    static final SerializedString EMAIL = new SerializedString("email");
+    static final SerializedString RECIPIENT_POSTCODE = new SerializedString("recipientPostcode");
+    static final SerializedString ESTIMATED_DELIVERY_DATE = new SerializedString("estimatedDeliveryDate");
+    static final SerializedString ACTUAL_DELIVERY_DATE = new SerializedString("actualDeliveryDate");
+    static final SerializedString STATUS = new SerializedString("status");
+
+    private static final SerializedString[] STATUS_VALUES = new SerializedString[DeliveryStatusEnum.values().length];
+
+    static {
+        for (DeliveryStatusEnum status : DeliveryStatusEnum.values()) {
+            STATUS_VALUES[status.ordinal()] = new SerializedString(status.name());
+        }
+    }
+
+    private final LocalDateJsonCache dateCache = new LocalDateJsonCache();
+
+    public void write(Package pkg, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(TRACKING_NUMBER);
+        gen.writeString(pkg.getTrackingNumber());
+        gen.writeFieldName(EMAIL);
+        gen.writeString(pkg.getEmail());
+        gen.writeFieldName(RECIPIENT_POSTCODE);
+        gen.writeString(pkg.getRecipientPostcode());
+        gen.writeFieldName(ESTIMATED_DELIVERY_DATE);
+        writeDate(pkg.getEstimatedDeliveryDate(), gen);
+        gen.writeFieldName(ACTUAL_DELIVERY_DATE);
+        writeDate(pkg.getActualDeliveryDate(), gen);
+        gen.writeFieldName(STATUS);
+        DeliveryStatusEnum status = pkg.getStatus();
+        if (status == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(STATUS_VALUES[status.ordinal()]);
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeDate(LocalDate date, JsonGenerator gen) throws IOException {
+        if (date == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(dateCache.get(date));
+        }
+    }
+
+    /**
+     * Direct-mapped cache from epoch day to the pre-encoded ISO-8601 string. Delivery dates cluster around today,
+     * so 1024 slots (almost three years) hit nearly always. Entries are immutable, so racy publication is safe.
+     */
+    static final class LocalDateJsonCache {
+        private static final int SIZE = 1024;
+        private static final int MASK = SIZE - 1;
+
+        private final Entry[] entries = new Entry[SIZE];
+
+        SerializableString get(LocalDate date) {
+            long epochDay = date.toEpochDay();
+            int slot = (int) (epochDay & MASK);
+            Entry entry = entries[slot];
+            if (entry == null || entry.epochDay != epochDay) {
+                entry = new Entry(epochDay, new SerializedString(date.toString()));
+                entries[slot] = entry;
+            }
+            return entry.encoded;
+        }
+
+        private record Entry(long epochDay, SerializedString encoded) {
+        }
+    }
+}
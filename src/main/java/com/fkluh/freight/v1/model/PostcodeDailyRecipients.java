@@ -0,0 +1,39 @@
+package com.fkluh.freight.v1.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Per-day, per-postcode distinct recipient counters, serialized {@link com.fkluh.freight.v1.util.HyperLogLog}s.
+ * {@code recipients} counts the emails of packages created on {@code eventDate}, {@code delayedRecipients} those of
+ * packages delivered late on it. Postcodes are stored normalized, without spaces and in upper case. Versioned, as
+ * every instance merges its counters into the same rows.
+ */
+@Entity
+@Getter
+@Setter
+@IdClass(PostcodeDailyRecipientsId.class)
+@Table(indexes = @Index(name = "idx_recipients_event_date", columnList = "eventDate"))
+public class PostcodeDailyRecipients {
+    @Id
+    @Column(nullable = false)
+    private String recipientPostcode;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate eventDate;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] recipients;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] delayedRecipients;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,38 @@
+package com.fkluh.freight.v1.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Per-day, per-postcode delivery counters, keyed by the actual delivery date.
+ * Maintained incrementally from package writes so that time-range analytics never scan the package table.
+ */
+@Entity
+@Getter
+@Setter
+@IdClass(PostcodeDailyRollupId.class)
+@Table(indexes = @Index(name = "idx_rollup_delivery_date", columnList = "deliveryDate"))
+public class PostcodeDailyRollup {
+    @Id
+    @Column(nullable = false)
+    private String recipientPostcode;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate deliveryDate;
+
+    @Column(nullable = false)
+    private long deliveredCount;
+
+    @Column(nullable = false)
+    private long delayedCount;
+
+    @Column(nullable = false)
+    private long onTimeCount;
+
+    @Column(nullable = false)
+    private long latenessDays;
+}
@@ -0,0 +1,18 @@
+package com.fkluh.freight.v1.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class PostcodeDailyRollupId implements Serializable {
+    private String recipientPostcode;
+    private LocalDate deliveryDate;
+}
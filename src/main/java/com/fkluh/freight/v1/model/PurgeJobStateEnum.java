@@ -0,0 +1,9 @@
+package com.fkluh.freight.v1.model;
+
+public enum PurgeJobStateEnum {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -0,0 +1,45 @@
+package com.fkluh.freight.v1.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A webhook delivery that was given up on, kept with its payload so it can be inspected and replayed by hand.
+ */
+@Entity
+@Getter
+@Setter
+@Table(indexes = @Index(name = "idx_dead_letter_subscription", columnList = "subscriptionId"))
+public class WebhookDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String subscriptionId;
+
+    @Column(nullable = false)
+    private String deliveryId;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    @Column(nullable = false)
+    private int eventCount;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+}
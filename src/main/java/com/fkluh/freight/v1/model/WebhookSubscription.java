@@ -0,0 +1,35 @@
+package com.fkluh.freight.v1.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import lombok.Getter;
+import lombok.Setter;
+
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A partner endpoint that receives package events by HTTP POST instead of polling for them.
+ */
+@Entity
+@Getter
+@Setter
+public class WebhookSubscription {
+    @Id
+    @Column(nullable = false)
+    private String id;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private Set<PackageEvent.Type> events = EnumSet.noneOf(PackageEvent.Type.class);
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
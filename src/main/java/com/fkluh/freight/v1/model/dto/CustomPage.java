@@ -28,7 +28,7 @@ public class CustomPage<T> {
 
 
     public <R> CustomPage<R> map(java.util.function.Function<T, R> mapper) {
-        List<R> mappedContent = content.parallelStream()
+        List<R> mappedContent = content.stream()
                 .map(mapper)
                 .toList();
         return new CustomPage<>(mappedContent, page, size);
@@ -0,0 +1,29 @@
+package com.fkluh.freight.v1.model.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The deliveries recorded in one minute or hour starting at {@code start}. {@code onTimeRate} is null when there
+ * were none.
+ */
+@Getter
+@Setter
+public class DeliveryRatePointDto {
+    private LocalDateTime start;
+    private long deliveredCount;
+    private long delayedCount;
+    private Double onTimeRate;
+
+    public DeliveryRatePointDto() {
+    }
+
+    public DeliveryRatePointDto(LocalDateTime start, long deliveredCount, long delayedCount) {
+        this.start = start;
+        this.deliveredCount = deliveredCount;
+        this.delayedCount = delayedCount;
+        this.onTimeRate = deliveredCount == 0 ? null : (double) (deliveredCount - delayedCount) / deliveredCount;
+    }
+}
@@ -0,0 +1,34 @@
+package com.fkluh.freight.v1.model.dto;
+
+import java.time.LocalDate;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Approximate distinct recipient emails of a postcode, over all time or between two days. About two in three counts
+ * are within {@code relativeStandardError} of the exact count, and nearly all within three times that.
+ */
+@Getter
+@Setter
+public class DistinctRecipientsDto {
+    private String postcode;
+    private LocalDate from;
+    private LocalDate to;
+    private long recipients;
+    private long delayedRecipients;
+    private double relativeStandardError;
+
+    public DistinctRecipientsDto() {
+    }
+
+    public DistinctRecipientsDto(String postcode, LocalDate from, LocalDate to, long recipients, long delayedRecipients,
+        double relativeStandardError) {
+        this.postcode = postcode;
+        this.from = from;
+        this.to = to;
+        this.recipients = recipients;
+        this.delayedRecipients = delayedRecipients;
+        this.relativeStandardError = relativeStandardError;
+    }
+}
@@ -1,5 +1,7 @@
 package com.fkluh.freight.v1.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fkluh.freight.v1.exception.ErrorMessages;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -9,26 +11,40 @@ import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 
+/**
+ * The constraints document the API; requests are validated by
+ * {@link com.fkluh.freight.v1.service.command.PackageCommandValidator}, which applies the same rules.
+ */
 @Getter
 @Setter
 public class PackageDto {
     @NotNull
-    @NotEmpty(message = "Tracking number must not be empty")
+    @NotEmpty(message = ErrorMessages.TRACKING_NUMBER_EMPTY)
     private String trackingNumber;
 
-    @Email(message = "Email should be valid")
-    @NotEmpty(message = "Email cannot not be null or empty")
+    @Email(message = ErrorMessages.EMAIL_INVALID)
+    @NotEmpty(message = ErrorMessages.EMAIL_EMPTY)
     private String email;
 
-    @NotEmpty(message = "Recipient postcode cannot be null or empty")
+    @NotEmpty(message = ErrorMessages.POSTCODE_EMPTY)
     private String recipientPostcode;
 
     @DateTimeFormat(pattern = "yyyy-MM-dd")
-    @NotNull(message = "Estimated delivery date cannot be null or empty")
+    @NotNull(message = ErrorMessages.ESTIMATED_DELIVERY_DATE_EMPTY)
     private LocalDate estimatedDeliveryDate;
 
     @DateTimeFormat(pattern = "yyyy-MM-dd")
     private LocalDate actualDeliveryDate;
 
     private String status;
+
+    /**
+     * Only set when a track request asks for {@code includeEta}, see
+     * {@link com.fkluh.freight.v1.service.analytics.DeliveryEtaService}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDate predictedDeliveryDateP50;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDate predictedDeliveryDateP90;
 }
@@ -0,0 +1,28 @@
+package com.fkluh.freight.v1.model.dto;
+
+import com.fkluh.freight.v1.util.TrigramIndex;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class PackageSearchHitDto {
+    private String trackingNumber;
+    private String email;
+    private String matchedField;
+    private TrigramIndex.MatchType matchType;
+    private double score;
+
+    public PackageSearchHitDto() {
+    }
+
+    public PackageSearchHitDto(String trackingNumber, String email, String matchedField, TrigramIndex.MatchType matchType, double score) {
+        this.trackingNumber = trackingNumber;
+        this.email = email;
+        this.matchedField = matchedField;
+        this.matchType = matchType;
+        this.score = score;
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.fkluh.freight.v1.model.dto;
 
+import com.fkluh.freight.v1.exception.ErrorMessages;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Getter;
 import lombok.Setter;
@@ -9,6 +10,6 @@ import org.springframework.format.annotation.DateTimeFormat;
 @Setter
 public class PackageUpdateDto {
     @DateTimeFormat(pattern = "yyyy-MM-dd")
-    @NotEmpty(message = "Actual delivery date must not be empty")
+    @NotEmpty(message = ErrorMessages.ACTUAL_DELIVERY_DATE_EMPTY)
     String actualDeliveryDate;
 }
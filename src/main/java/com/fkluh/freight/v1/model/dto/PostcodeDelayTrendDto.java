@@ -0,0 +1,25 @@
+package com.fkluh.freight.v1.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A postcode's late deliveries in a recent window. {@code delayCount} is never below the exact count and at most
+ * {@code maxOvercount} above it.
+ */
+@Getter
+@Setter
+public class PostcodeDelayTrendDto {
+    private String recipientPostcode;
+    private long delayCount;
+    private long maxOvercount;
+
+    public PostcodeDelayTrendDto() {
+    }
+
+    public PostcodeDelayTrendDto(String recipientPostcode, long delayCount, long maxOvercount) {
+        this.recipientPostcode = recipientPostcode;
+        this.delayCount = delayCount;
+        this.maxOvercount = maxOvercount;
+    }
+}
@@ -0,0 +1,30 @@
+package com.fkluh.freight.v1.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * How late deliveries to a postcode have been, in days past the estimated delivery date; negative when early. The
+ * percentiles are null when nothing has been delivered there yet.
+ */
+@Getter
+@Setter
+public class PostcodeLatenessDto {
+    private String postcode;
+    private long deliveredCount;
+    private Long p50LatenessDays;
+    private Long p90LatenessDays;
+    private Long p99LatenessDays;
+
+    public PostcodeLatenessDto() {
+    }
+
+    public PostcodeLatenessDto(String postcode, long deliveredCount, Long p50LatenessDays, Long p90LatenessDays,
+        Long p99LatenessDays) {
+        this.postcode = postcode;
+        this.deliveredCount = deliveredCount;
+        this.p50LatenessDays = p50LatenessDays;
+        this.p90LatenessDays = p90LatenessDays;
+        this.p99LatenessDays = p99LatenessDays;
+    }
+}
@@ -0,0 +1,27 @@
+package com.fkluh.freight.v1.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+public class PostcodeOnTimeRateDto {
+    private String recipientPostcode;
+    private LocalDate weekStart;
+    private long deliveredCount;
+    private long onTimeCount;
+    private long delayedCount;
+    private long latenessDays;
+    private double onTimeRate;
+
+    public PostcodeOnTimeRateDto() {
+    }
+
+    public PostcodeOnTimeRateDto(String recipientPostcode, LocalDate weekStart) {
+        this.recipientPostcode = recipientPostcode;
+        this.weekStart = weekStart;
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.fkluh.freight.v1.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class PostcodePrefixCountDto {
+    private String prefix;
+    private long deliveredCount;
+    private long delayedCount;
+    private long inTransitCount;
+
+    public PostcodePrefixCountDto() {
+    }
+
+    public PostcodePrefixCountDto(String prefix, long deliveredCount, long delayedCount, long inTransitCount) {
+        this.prefix = prefix;
+        this.deliveredCount = deliveredCount;
+        this.delayedCount = delayedCount;
+        this.inTransitCount = inTransitCount;
+    }
+
+}
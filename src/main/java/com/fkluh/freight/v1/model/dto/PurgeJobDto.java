@@ -0,0 +1,28 @@
+package com.fkluh.freight.v1.model.dto;
+
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.PurgeJobStateEnum;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class PurgeJobDto {
+    private String id;
+    private DeliveryStatusEnum status;
+    private LocalDate deliveredBefore;
+    private String recipientPostcode;
+    private boolean dryRun;
+    private PurgeJobStateEnum state;
+    private long matchedCount;
+    private long deletedCount;
+    private int chunksCompleted;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,13 @@
+package com.fkluh.freight.v1.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SearchIndexStatsDto {
+    private long packages;
+    private long emails;
+    private long trigrams;
+    private long estimatedBytes;
+}
@@ -0,0 +1,25 @@
+package com.fkluh.freight.v1.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One requested tracking number of a batch lookup: the package if it was found, otherwise {@code found} is false and
+ * there are no details.
+ */
+@Getter
+@Setter
+public class TrackBatchItemDto {
+    private String trackingNumber;
+    private boolean found;
+    private PackageDto details;
+
+    public TrackBatchItemDto() {
+    }
+
+    public TrackBatchItemDto(String trackingNumber, boolean found, PackageDto details) {
+        this.trackingNumber = trackingNumber;
+        this.found = found;
+        this.details = details;
+    }
+}
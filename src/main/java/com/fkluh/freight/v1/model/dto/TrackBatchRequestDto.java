@@ -0,0 +1,22 @@
+package com.fkluh.freight.v1.model.dto;
+
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.service.command.PackageCommandValidator;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * The constraints document the API; requests are validated by
+ * {@link PackageCommandValidator#trackBatch}.
+ */
+@Getter
+@Setter
+public class TrackBatchRequestDto {
+    @NotEmpty(message = ErrorMessages.TRACK_BATCH_EMPTY)
+    @Size(max = PackageCommandValidator.MAX_TRACK_BATCH_SIZE, message = ErrorMessages.TRACK_BATCH_TOO_LARGE)
+    private List<String> trackingNumbers;
+}
@@ -0,0 +1,20 @@
+package com.fkluh.freight.v1.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class WebhookDeadLetterDto {
+    private Long id;
+    private String subscriptionId;
+    private String deliveryId;
+    private String url;
+    private int eventCount;
+    private int attempts;
+    private String lastError;
+    private String payload;
+    private LocalDateTime failedAt;
+}
@@ -0,0 +1,18 @@
+package com.fkluh.freight.v1.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+public class WebhookSubscriptionDto {
+    private String id;
+    private String url;
+    private List<String> events;
+    private LocalDateTime createdAt;
+    private int queuedEvents;
+    private int deliveriesInFlight;
+}
@@ -3,50 +3,101 @@ package com.fkluh.freight.v1.repository;
 import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
 import com.fkluh.freight.v1.model.Package;
 import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.List;
 
-public interface PackageRepositoryV1 extends JpaRepository<Package, String> {
+/**
+ * Packages are in the second-level cache, keyed by tracking number. Id-based access ({@link #findById},
+ * {@link #existsById}, {@link #findAllByIdInOrder}, deletes) is served from the cache once warm. Page queries do not store what they load, so
+ * filter and track scans do not push the hot entries out of the bounded region.
+ */
+public interface PackageRepositoryV1 extends JpaRepository<Package, String>, PackageRepositoryV1Custom {
+
+    /**
+     * Checks existence through the second-level cache. The inherited implementation runs a count query, which
+     * always goes to the database.
+     */
+    @Override
+    default boolean existsById(String trackingNumber) {
+        return findById(trackingNumber).isPresent();
+    }
 
     @Cacheable(value = "packagesByStatusAndActualDeliveryDateAfterEstimated", key = "#status + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
-    @Query("SELECT p FROM Package p WHERE p.status = :status AND p.actualDeliveryDate > p.estimatedDeliveryDate")
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    @Query("SELECT p FROM Package p WHERE p.status = :status AND p.actualDeliveryDate > p.estimatedDeliveryDate ORDER BY p.createdAt DESC")
     Page<Package> findByStatusAndActualDeliveryDateAfterEstimatedDeliveryDate(DeliveryStatusEnum status, Pageable pageable);
 
     @Cacheable(value = "packagesByStatusAndActualDeliveryDateAfterEstimated", key = "#status + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
     @Query("SELECT p FROM Package p WHERE p.status = :status AND (p.actualDeliveryDate <= p.estimatedDeliveryDate OR p.actualDeliveryDate IS NULL) ORDER BY p.createdAt DESC")
     Page<Package> findByStatusAndActualDeliveryDateOnOrBeforeEstimatedDeliveryDate(DeliveryStatusEnum status, Pageable pageable);
 
     @Cacheable(value = "packagesByTrackingNumberAndEmailAndRecipientPostcode", key = "#trackingNumber + '-' + #email + '-' + #postcode + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT p FROM Package p WHERE p.trackingNumber = :trackingNumber AND p.email = :email AND p.recipientPostcode = :postcode ORDER BY p.createdAt DESC")
     Package findByTrackingNumberAndEmailAndRecipientPostcode(String trackingNumber, String email, String postcode);
 
     @Cacheable(value = "packagesDeliveredByActualDeliveryDate", key = "#deliveryDate + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
     @Query("SELECT p FROM Package p WHERE p.status = 'DELIVERED' AND p.actualDeliveryDate = :deliveryDate ORDER BY p.createdAt DESC")
     Page<Package> findDeliveredByActualDeliveryDate(LocalDate deliveryDate, Pageable pageable);
 
     @Cacheable(value = "packagesDeliveredByPostcode", key = "#postcode + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
     @Query("SELECT p FROM Package p WHERE p.status = 'DELIVERED' AND p.recipientPostcode = :postcode ORDER BY p.createdAt DESC")
     Page<Package> findDeliveredByRecipientPostcode(String postcode, Pageable pageable);
 
     @Cacheable(value = "packagesByPostcode", key = "#postcode + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
     @Query("SELECT p FROM Package p WHERE p.recipientPostcode = :postcode ORDER BY p.createdAt DESC")
     Page<Package> findByRecipientPostcode(String postcode, Pageable pageable);
 
     @Cacheable(value = "packagesByEmail", key = "#email + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
     @Query(value = "SELECT p FROM Package p WHERE p.email = :email ORDER BY p.createdAt DESC")
     Page<Package> findByEmail(@Param("email") String email, Pageable pageable);
 
     @Cacheable(value = "packagesByEmailAndPostcode", key = "#email + '-' + #postcode + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
-    @Query("SELECT p FROM Package p WHERE p.email = :email AND p.recipientPostcode = :postcode")
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    @Query("SELECT p FROM Package p WHERE p.email = :email AND p.recipientPostcode = :postcode ORDER BY p.createdAt DESC")
     Page<Package> findByEmailAndRecipientPostcode(String email, String postcode, Pageable pageable);
 
     @Query("SELECT p.recipientPostcode, COUNT(p) AS delayCount FROM Package p WHERE p.status = 'DELIVERED' AND p.actualDeliveryDate > p.estimatedDeliveryDate GROUP BY p.recipientPostcode ORDER BY delayCount DESC")
     Page<PostcodeByCountDto> findPostcodeWithMostDelayedPackages(Pageable pageable);
 
+    @Query("SELECT COUNT(p) FROM Package p WHERE (:status IS NULL OR p.status = :status) "
+        + "AND (:deliveredBefore IS NULL OR p.actualDeliveryDate < :deliveredBefore) "
+        + "AND (:postcode IS NULL OR p.recipientPostcode = :postcode)")
+    long countPurgeCandidates(DeliveryStatusEnum status, LocalDate deliveredBefore, String postcode);
+
+    /**
+     * Locks the next chunk of packages matching the purge criteria, in tracking number order after
+     * {@code afterTrackingNumber}, so they cannot change between being selected and deleted.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    @Query("SELECT p FROM Package p WHERE p.trackingNumber > :afterTrackingNumber AND (:status IS NULL OR p.status = :status) "
+        + "AND (:deliveredBefore IS NULL OR p.actualDeliveryDate < :deliveredBefore) "
+        + "AND (:postcode IS NULL OR p.recipientPostcode = :postcode) ORDER BY p.trackingNumber")
+    List<Package> lockPurgeCandidates(
+        DeliveryStatusEnum status,
+        LocalDate deliveredBefore,
+        String postcode,
+        String afterTrackingNumber,
+        Pageable pageable
+    );
+
 }
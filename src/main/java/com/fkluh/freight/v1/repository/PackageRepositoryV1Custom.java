@@ -0,0 +1,20 @@
+package com.fkluh.freight.v1.repository;
+
+import java.util.List;
+
+import com.fkluh.freight.v1.model.Package;
+
+/**
+ * Repository methods that need the Hibernate session, implemented in {@link PackageRepositoryV1CustomImpl}.
+ */
+public interface PackageRepositoryV1Custom {
+
+    /**
+     * Loads many packages by tracking number at once, answering from the second-level cache where it can and
+     * loading the rest with chunked {@code IN} queries.
+     *
+     * @param trackingNumbers distinct tracking numbers
+     * @return the packages in the order of {@code trackingNumbers}, with null for each that does not exist
+     */
+    List<Package> findAllByIdInOrder(List<String> trackingNumbers);
+}
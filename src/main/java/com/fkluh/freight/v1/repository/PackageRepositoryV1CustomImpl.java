@@ -0,0 +1,34 @@
+package com.fkluh.freight.v1.repository;
+
+import java.util.List;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fkluh.freight.v1.model.Package;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class PackageRepositoryV1CustomImpl implements PackageRepositoryV1Custom {
+    // bind parameters per IN query on databases without array parameters
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // a session of its own when called outside a transaction, e.g. on a shard scatter thread, as Spring Data's own
+    // repository methods get
+    @Override
+    @Transactional(readOnly = true)
+    public List<Package> findAllByIdInOrder(List<String> trackingNumbers) {
+        return entityManager.unwrap(Session.class)
+            .byMultipleIds(Package.class)
+            .with(CacheMode.NORMAL)
+            .enableSessionCheck(true)
+            .enableOrderedReturn(true)
+            .withBatchSize(LOAD_CHUNK_SIZE)
+            .multiLoad(trackingNumbers);
+    }
+}
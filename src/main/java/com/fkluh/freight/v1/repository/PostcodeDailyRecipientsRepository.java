@@ -0,0 +1,15 @@
+package com.fkluh.freight.v1.repository;
+
+import com.fkluh.freight.v1.model.PostcodeDailyRecipients;
+import com.fkluh.freight.v1.model.PostcodeDailyRecipientsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PostcodeDailyRecipientsRepository extends JpaRepository<PostcodeDailyRecipients, PostcodeDailyRecipientsId> {
+
+    @Query("SELECT r FROM PostcodeDailyRecipients r WHERE r.recipientPostcode = :postcode AND r.eventDate BETWEEN :from AND :to")
+    List<PostcodeDailyRecipients> findByRecipientPostcodeAndEventDateBetween(String postcode, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,33 @@
+package com.fkluh.freight.v1.repository;
+
+import com.fkluh.freight.v1.model.PostcodeDailyRollup;
+import com.fkluh.freight.v1.model.PostcodeDailyRollupId;
+import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PostcodeDailyRollupRepository extends JpaRepository<PostcodeDailyRollup, PostcodeDailyRollupId> {
+
+    @Modifying
+    @Query("UPDATE PostcodeDailyRollup r SET r.deliveredCount = r.deliveredCount + :delivered, r.delayedCount = r.delayedCount + :delayed, "
+        + "r.onTimeCount = r.onTimeCount + :onTime, r.latenessDays = r.latenessDays + :latenessDays "
+        + "WHERE r.recipientPostcode = :postcode AND r.deliveryDate = :deliveryDate")
+    int increment(String postcode, LocalDate deliveryDate, long delivered, long delayed, long onTime, long latenessDays);
+
+    @Query(value = "SELECT new com.fkluh.freight.v1.model.dto.PostcodeByCountDto(r.recipientPostcode, SUM(r.delayedCount)) FROM PostcodeDailyRollup r "
+        + "WHERE r.deliveryDate BETWEEN :from AND :to GROUP BY r.recipientPostcode HAVING SUM(r.delayedCount) > 0 ORDER BY SUM(r.delayedCount) DESC",
+        countQuery = "SELECT COUNT(DISTINCT r.recipientPostcode) FROM PostcodeDailyRollup r WHERE r.deliveryDate BETWEEN :from AND :to AND r.delayedCount > 0")
+    Page<PostcodeByCountDto> findPostcodeWithMostDelayedPackagesBetween(LocalDate from, LocalDate to, Pageable pageable);
+
+    @Query("SELECT r FROM PostcodeDailyRollup r WHERE r.deliveryDate BETWEEN :from AND :to ORDER BY r.recipientPostcode, r.deliveryDate")
+    List<PostcodeDailyRollup> findByDeliveryDateBetween(LocalDate from, LocalDate to);
+
+    @Query("SELECT r FROM PostcodeDailyRollup r WHERE r.recipientPostcode = :postcode AND r.deliveryDate BETWEEN :from AND :to ORDER BY r.deliveryDate")
+    List<PostcodeDailyRollup> findByRecipientPostcodeAndDeliveryDateBetween(String postcode, LocalDate from, LocalDate to);
+}
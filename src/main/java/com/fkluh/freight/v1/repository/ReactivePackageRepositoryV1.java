@@ -0,0 +1,132 @@
+package com.fkluh.freight.v1.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking reads of the package table over R2DBC, for the reactive API. The queries are those of
+ * {@link PackageRepositoryV1}, newest first. A paged {@link Pageable} reads one page; an unpaged one streams every
+ * match, and rows are only fetched as the subscriber requests them. There are no writes here: they stay with JPA, so
+ * the second-level cache, the version check and the package events see every change.
+ */
+public class ReactivePackageRepositoryV1 {
+    private static final String SELECT_PACKAGES = "SELECT tracking_number, email, recipient_postcode, "
+        + "estimated_delivery_date, actual_delivery_date, status, created_at, updated_at, version FROM package ";
+    private static final String NEWEST_FIRST = " ORDER BY created_at DESC";
+    private static final String DELAYED = "status = 'DELIVERED' AND actual_delivery_date > estimated_delivery_date";
+
+    private final DatabaseClient client;
+
+    public ReactivePackageRepositoryV1(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Mono<Package> findById(String trackingNumber) {
+        return client.sql(SELECT_PACKAGES + "WHERE tracking_number = :trackingNumber")
+            .bind("trackingNumber", trackingNumber)
+            .map(ReactivePackageRepositoryV1::toPackage)
+            .one();
+    }
+
+    public Mono<Package> findByTrackingNumberAndEmailAndRecipientPostcode(String trackingNumber, String email, String postcode) {
+        return client.sql(SELECT_PACKAGES + "WHERE tracking_number = :trackingNumber AND email = :email AND recipient_postcode = :postcode")
+            .bind("trackingNumber", trackingNumber)
+            .bind("email", email)
+            .bind("postcode", postcode)
+            .map(ReactivePackageRepositoryV1::toPackage)
+            .one();
+    }
+
+    public Flux<Package> findByEmail(String email, Pageable pageable) {
+        return select("WHERE email = :email", pageable)
+            .bind("email", email)
+            .map(ReactivePackageRepositoryV1::toPackage)
+            .all();
+    }
+
+    public Flux<Package> findByEmailAndRecipientPostcode(String email, String postcode, Pageable pageable) {
+        return select("WHERE email = :email AND recipient_postcode = :postcode", pageable)
+            .bind("email", email)
+            .bind("postcode", postcode)
+            .map(ReactivePackageRepositoryV1::toPackage)
+            .all();
+    }
+
+    public Flux<Package> findByRecipientPostcode(String postcode, Pageable pageable) {
+        return select("WHERE recipient_postcode = :postcode", pageable)
+            .bind("postcode", postcode)
+            .map(ReactivePackageRepositoryV1::toPackage)
+            .all();
+    }
+
+    public Flux<Package> findByStatusAndActualDeliveryDateAfterEstimatedDeliveryDate(Pageable pageable) {
+        return select("WHERE " + DELAYED, pageable)
+            .map(ReactivePackageRepositoryV1::toPackage)
+            .all();
+    }
+
+    public Flux<Package> findByStatusAndActualDeliveryDateOnOrBeforeEstimatedDeliveryDate(Pageable pageable) {
+        return select("WHERE status = 'DELIVERED' AND (actual_delivery_date <= estimated_delivery_date "
+            + "OR actual_delivery_date IS NULL)", pageable)
+            .map(ReactivePackageRepositoryV1::toPackage)
+            .all();
+    }
+
+    public Flux<Package> findDeliveredByActualDeliveryDate(LocalDate deliveryDate, Pageable pageable) {
+        return select("WHERE status = 'DELIVERED' AND actual_delivery_date = :deliveryDate", pageable)
+            .bind("deliveryDate", deliveryDate)
+            .map(ReactivePackageRepositoryV1::toPackage)
+            .all();
+    }
+
+    public Flux<Package> findDeliveredByRecipientPostcode(String postcode, Pageable pageable) {
+        return select("WHERE status = 'DELIVERED' AND recipient_postcode = :postcode", pageable)
+            .bind("postcode", postcode)
+            .map(ReactivePackageRepositoryV1::toPackage)
+            .all();
+    }
+
+    public Flux<PostcodeByCountDto> findPostcodeWithMostDelayedPackages(Pageable pageable) {
+        return client.sql("SELECT recipient_postcode, COUNT(*) AS delay_count FROM package WHERE " + DELAYED
+                + " GROUP BY recipient_postcode ORDER BY delay_count DESC LIMIT :limit OFFSET :offset")
+            .bind("limit", pageable.getPageSize())
+            .bind("offset", pageable.getOffset())
+            .map(row -> new PostcodeByCountDto(row.get("recipient_postcode", String.class), row.get("delay_count", Long.class)))
+            .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec select(String where, Pageable pageable) {
+        String sql = SELECT_PACKAGES + where + NEWEST_FIRST;
+        if (pageable.isUnpaged()) {
+            return client.sql(sql);
+        }
+        return client.sql(sql + " LIMIT :limit OFFSET :offset")
+            .bind("limit", pageable.getPageSize())
+            .bind("offset", pageable.getOffset());
+    }
+
+    private static Package toPackage(Readable row) {
+        Package pkg = new Package();
+        pkg.setTrackingNumber(row.get("tracking_number", String.class));
+        pkg.setEmail(row.get("email", String.class));
+        pkg.setRecipientPostcode(row.get("recipient_postcode", String.class));
+        pkg.setEstimatedDeliveryDate(row.get("estimated_delivery_date", LocalDate.class));
+        pkg.setActualDeliveryDate(row.get("actual_delivery_date", LocalDate.class));
+        pkg.setStatus(DeliveryStatusEnum.valueOf(row.get("status", String.class)));
+        pkg.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        pkg.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        pkg.setVersion(row.get("version", Long.class));
+        return pkg;
+    }
+}
@@ -0,0 +1,13 @@
+package com.fkluh.freight.v1.repository;
+
+import com.fkluh.freight.v1.model.WebhookDeadLetter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WebhookDeadLetterRepository extends JpaRepository<WebhookDeadLetter, Long> {
+
+    Page<WebhookDeadLetter> findBySubscriptionIdOrderByIdDesc(String subscriptionId, Pageable pageable);
+
+    Page<WebhookDeadLetter> findAllByOrderByIdDesc(Pageable pageable);
+}
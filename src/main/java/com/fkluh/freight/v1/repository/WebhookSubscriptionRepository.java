@@ -0,0 +1,7 @@
+package com.fkluh.freight.v1.repository;
+
+import com.fkluh.freight.v1.model.WebhookSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WebhookSubscriptionRepository extends JpaRepository<WebhookSubscription, String> {
+}
@@ -1,14 +1,19 @@
 package com.fkluh.freight.v1.service;
 
+import java.util.List;
+
 import com.fkluh.freight.v1.model.dto.CustomPage;
 import com.fkluh.freight.v1.model.dto.PackageDto;
 import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchItemDto;
 
 public interface PackageServiceV1 {
     PackageDto addPackage(PackageDto pkg);
 
     CustomPage<PackageDto> trackPackages(String trackingNumber, String email, String postcode, int page, int size);
 
+    List<TrackBatchItemDto> trackPackagesBatch(List<String> trackingNumbers);
+
     PackageDto updatePackage(String trackingNumber, String actualDeliveryDate);
 
     void removePackage(String trackingNumber);
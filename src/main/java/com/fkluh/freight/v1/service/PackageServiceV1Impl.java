@@ -1,14 +1,20 @@
 package com.fkluh.freight.v1.service;
 
-import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageAlreadyDeliveredException;
 import com.fkluh.freight.v1.exception.PackageAlreadyExistsException;
 import com.fkluh.freight.v1.exception.PackageNotFoundException;
 import com.fkluh.freight.v1.exception.PackageValidationException;
@@ -18,7 +24,15 @@ import com.fkluh.freight.v1.model.Package;
 import com.fkluh.freight.v1.model.dto.CustomPage;
 import com.fkluh.freight.v1.model.dto.PackageDto;
 import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchItemDto;
 import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.coalescing.QueryCoalescer;
+import com.fkluh.freight.v1.service.command.AddPackageCommand;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
+import com.fkluh.freight.v1.service.command.PackageCommandValidator;
+import com.fkluh.freight.v1.service.command.TrackBatchQuery;
+import com.fkluh.freight.v1.service.command.UpdateDeliveryCommand;
+import com.fkluh.freight.v1.service.event.PackageEvent;
 import com.fkluh.freight.v1.service.strategy.filter.FilterStrategy;
 import com.fkluh.freight.v1.service.strategy.filter.FilterStrategyByDeliveryDate;
 import com.fkluh.freight.v1.service.strategy.filter.FilterStrategyByPostcode;
@@ -29,9 +43,8 @@ import com.fkluh.freight.v1.service.strategy.track.TrackStrategyByEmail;
 import com.fkluh.freight.v1.service.strategy.track.TrackStrategyByEmailAndPostcode;
 import com.fkluh.freight.v1.service.strategy.track.TrackStrategyByPostcode;
 import com.fkluh.freight.v1.service.strategy.track.TrackStrategyByTrackingNumber;
-import com.fkluh.freight.v1.util.ValidationUtil;
+import com.fkluh.freight.v1.util.PagingUtil;
 
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -44,8 +57,14 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
     @Autowired
     private PackageMapper mapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QueryCoalescer queryCoalescer;
+
     /**
-     * Adds a new package to the repository.
+     * Adds a new package to the repository. The package is validated once, see {@link PackageCommandValidator}.
      *
      * @param packageDto the package data transfer object containing package details
      * @return the added package as a data transfer object
@@ -53,17 +72,11 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
     @Override
     @Transactional
     public PackageDto addPackage(PackageDto packageDto) {
-        ValidationUtil.validate(packageDto);
-        Package pkg = mapper.packageDtoToEntity(packageDto);
-        validateTrackingNumberExists(pkg.getTrackingNumber());
-        log.info("Adding package with tracking number: {}", pkg.getTrackingNumber());
-        if (pkg.getActualDeliveryDate() != null) {
-            pkg.setStatus(DeliveryStatusEnum.DELIVERED);
-        }
-        if (pkg.getStatus() == null) {
-            pkg.setStatus(DeliveryStatusEnum.IN_TRANSIT);
-        }
-        Package savedPackage = repository.save(pkg);
+        AddPackageCommand command = PackageCommandValidator.addPackage(packageDto);
+        validateTrackingNumberExists(command.trackingNumber());
+        log.info("Adding package with tracking number: {}", command.trackingNumber());
+        Package savedPackage = repository.save(mapper.packageCommandToEntity(command));
+        eventPublisher.publishEvent(PackageEvent.of(PackageEvent.Type.CREATED, savedPackage));
         return mapper.packageEntityToDto(savedPackage);
     }
 
@@ -73,6 +86,7 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
      * - If only `email` and `postcode` are provided, returns all packages for that email and postcode.
      * - If only `email` is provided, returns all packages for that email.
      * - If only `postcode` is provided, returns all packages for that postcode.
+     * Concurrent identical calls share a single query execution, see {@link QueryCoalescer}.
      *
      * @param trackingNumber the tracking number of the package (optional)
      * @param email the email of the package recipient (optional)
@@ -82,6 +96,7 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
      * @return a paginated list of package data transfer objects matching the search criteria
      */
     @Override
+    @Transactional(readOnly = true)
     public CustomPage<PackageDto> trackPackages(
         String trackingNumber,
         String email,
@@ -89,8 +104,8 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
         int page,
         int size
     ) {
-        validateTrackPackagePayload(trackingNumber, email, postcode);
-        Pageable pageable = sanitizePagingParameters(page, size);
+        PackageCommandValidator.trackPackages(trackingNumber, email, postcode);
+        Pageable pageable = PagingUtil.sanitizePagingParameters(page, size);
 
         List<TrackStrategy> trackStrategyList = List.of(
             new TrackStrategyByAllParameters(repository, mapper),
@@ -102,37 +117,76 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
 
         for (TrackStrategy trackStrategy : trackStrategyList) {
             if (trackStrategy.isApplicable(trackingNumber, email, postcode)) {
-                return trackStrategy.apply(trackingNumber, email, postcode, pageable);
+                return queryCoalescer.track(trackStrategy, trackingNumber, email, postcode, pageable);
             }
         }
 
-        log.error(ErrorMessages.TRACKING_NUMBER_OR_EMAIL_AND_POSTCODE_EMPTY);
         throw new PackageValidationException(ErrorMessages.TRACKING_NUMBER_OR_EMAIL_AND_POSTCODE_EMPTY);
     }
 
+    /**
+     * Looks up a batch of packages by tracking number in one call, for clients that would otherwise track them one
+     * request at a time. Packages in the second-level cache are not read again; the rest are loaded with chunked
+     * {@code IN} queries, see {@link PackageRepositoryV1#findAllByIdInOrder}.
+     *
+     * @param trackingNumbers up to {@link PackageCommandValidator#MAX_TRACK_BATCH_SIZE} tracking numbers
+     * @return one item per requested tracking number, in request order, found or not
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<TrackBatchItemDto> trackPackagesBatch(List<String> trackingNumbers) {
+        TrackBatchQuery query = PackageCommandValidator.trackBatch(trackingNumbers);
+        List<String> distinctTrackingNumbers = List.copyOf(new LinkedHashSet<>(query.trackingNumbers()));
+        List<Package> packages = repository.findAllByIdInOrder(distinctTrackingNumbers);
+
+        Map<String, Package> packagesByTrackingNumber = new HashMap<>();
+        for (int i = 0; i < distinctTrackingNumbers.size(); i++) {
+            if (packages.get(i) != null) {
+                packagesByTrackingNumber.put(distinctTrackingNumbers.get(i), packages.get(i));
+            }
+        }
+        List<TrackBatchItemDto> items = new ArrayList<>(query.trackingNumbers().size());
+        for (String trackingNumber : query.trackingNumbers()) {
+            items.add(mapper.trackBatchItem(trackingNumber, packagesByTrackingNumber.get(trackingNumber)));
+        }
+        return items;
+    }
+
     /**
      * Updates the actual delivery date of a package and sets its status to DELIVERED.
+     * The package is read through the second-level cache and written with a single version-checked UPDATE; if a
+     * concurrent write got there first the UPDATE affects no rows, so two concurrent deliveries of the same package
+     * cannot both succeed.
      *
      * @param trackingNumber         the tracking number of the package to update
      * @param actualDeliveryDate  the actual delivery date as a string in the format YYYY-MM-DD
      * @return the updated package as a data transfer object
+     * @throws PackageNotFoundException if the package does not exist
+     * @throws PackageAlreadyDeliveredException if the package is already delivered
      */
     @Override
     @Transactional
     public PackageDto updatePackage(String trackingNumber, String actualDeliveryDate) {
-        validateUpdatePackagePayload(trackingNumber, actualDeliveryDate);
-        validateTrackingNumberNotExists(trackingNumber);
-
-        Package pkg = repository.findById(trackingNumber)
-            .orElseThrow(() -> new PackageNotFoundException(String.format("Package with tracking number %s not found.", trackingNumber)));
+        UpdateDeliveryCommand command = PackageCommandValidator.updateDelivery(trackingNumber, actualDeliveryDate);
 
-        validatePackageToUpdate(pkg, actualDeliveryDate);
+        Package pkg = repository.findById(command.trackingNumber())
+            .orElseThrow(() -> new PackageNotFoundException(ErrorMessages.TRACKING_NUMBER_NOT_EXIST));
+        if (pkg.getStatus() == DeliveryStatusEnum.DELIVERED) {
+            throw packageAlreadyDelivered();
+        }
 
-        LocalDate parsedActualDeliveryDate = LocalDate.parse(actualDeliveryDate);
-        pkg.setActualDeliveryDate(parsedActualDeliveryDate);
+        pkg.setActualDeliveryDate(command.actualDeliveryDate());
         pkg.setStatus(DeliveryStatusEnum.DELIVERED);
+        Package savedPackage;
+        try {
+            // flush here so a lost race surfaces as a conflict rather than as a failed commit
+            savedPackage = repository.saveAndFlush(pkg);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw packageAlreadyDelivered();
+        }
 
-        return mapper.packageEntityToDto(repository.save(pkg));
+        eventPublisher.publishEvent(PackageEvent.of(PackageEvent.Type.DELIVERED, savedPackage));
+        return mapper.packageEntityToDto(savedPackage);
     }
 
     /**
@@ -141,9 +195,13 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
      * @param trackingNumber the tracking number of the package to remove
      */
     @Override
+    @Transactional
     public void removePackage(String trackingNumber) {
-        validateTrackingNumberNotExists(trackingNumber);
+        Package pkg = repository.findById(trackingNumber)
+            .orElseThrow(() -> new PackageNotFoundException(ErrorMessages.TRACKING_NUMBER_NOT_EXIST));
+        // the entity is already in the persistence context, so this does not select it again
         repository.deleteById(trackingNumber);
+        eventPublisher.publishEvent(PackageEvent.of(PackageEvent.Type.REMOVED, pkg));
     }
 
     /**
@@ -151,6 +209,7 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
      * - If 'status' is provided, it filters packages based on the status (delayed or on-time).
      * - If 'postcode' is provided, it filters packages based on the recipient's postcode.
      * - If 'deliveryDate' is provided, it filters packages based on the actual delivery date.
+     * Concurrent identical calls share a single query execution, see {@link QueryCoalescer}.
      *
      * @param status       the status of the package (delayed or on-time)
      * @param postcode     the postcode of the package recipient
@@ -160,6 +219,7 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
      * @return a paginated page of package data transfer objects matching the filter criteria
      */
     @Override
+    @Transactional(readOnly = true)
     public CustomPage<PackageDto> filterPackages(
             String status,
             String postcode,
@@ -167,8 +227,8 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
             int page,
             int size
     ) {
-        validateFilterPackagesPayload(status, postcode, deliveryDate);
-        Pageable pageable = sanitizePagingParameters(page, size);
+        FilterPackagesQuery query = PackageCommandValidator.filterPackages(status, postcode, deliveryDate);
+        Pageable pageable = PagingUtil.sanitizePagingParameters(page, size);
 
         List<FilterStrategy> filters = List.of(
             new FilterStrategyByStatus(repository, mapper),
@@ -177,8 +237,8 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
         );
 
         for (FilterStrategy filter : filters) {
-            if (filter.isApplicable(status, postcode, deliveryDate)) {
-                return filter.apply(status, postcode, deliveryDate, pageable);
+            if (filter.isApplicable(query)) {
+                return queryCoalescer.filter(filter, query, pageable);
             }
         }
         throw new IllegalArgumentException(ErrorMessages.FILTER_INPUT_INVALID);
@@ -193,11 +253,12 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
      * @return a paginated page of PostcodeByCountDto containing postcodes and their respective delayed package counts
      */
     @Override
+    @Transactional(readOnly = true)
     public CustomPage<PostcodeByCountDto> filterPostcodeByMostDelayedPackages(
         int page,
         int size
     ) {
-        Pageable pageable = sanitizePagingParameters(page, size);
+        Pageable pageable = PagingUtil.sanitizePagingParameters(page, size);
         return mapper.postcodeEntityPageToDtoPage(repository.findPostcodeWithMostDelayedPackages(pageable));
     }
 
@@ -208,95 +269,12 @@ public class PackageServiceV1Impl implements PackageServiceV1 {
      */
     private void validateTrackingNumberExists(String trackingNumber) {
         if (repository.existsById(trackingNumber)) {
-            log.error(ErrorMessages.PACKAGE_ALREADY_EXISTS);
             throw new PackageAlreadyExistsException(ErrorMessages.PACKAGE_ALREADY_EXISTS);
         }
     }
 
-    private void validateUpdatePackagePayload(String trackingNumber, String actualDeliveryDate) {
-        ValidationUtil.validateNotEmpty(trackingNumber, ErrorMessages.TRACKING_NUMBER_EMPTY);
-        ValidationUtil.validateNotEmpty(actualDeliveryDate, ErrorMessages.ACTUAL_DELIVERY_DATE_EMPTY);
-        ValidationUtil.validateDateFormat(actualDeliveryDate, ErrorMessages.DELIVERY_DATE_INVALID_FORMAT);
-    }
-
-    private void validateTrackingNumberNotExists(String trackingNumber) {
-        if (!repository.existsById(trackingNumber)) {
-            log.error(ErrorMessages.TRACKING_NUMBER_NOT_EXIST);
-            throw new PackageNotFoundException(ErrorMessages.TRACKING_NUMBER_NOT_EXIST);
-        }
-    }
-
-    /**
-     * Validates the package to update its actual delivery date.
-     * @param pkg the package to validate
-     * @param actualDeliveryDateStr the actual delivery date as a string in the format YYYY-MM-DD
-     */
-    private void validatePackageToUpdate(Package pkg, String actualDeliveryDateStr) {
-        if (actualDeliveryDateStr == null) {
-            log.error(ErrorMessages.ACTUAL_DELIVERY_DATE_EMPTY);
-            throw new PackageValidationException(ErrorMessages.ACTUAL_DELIVERY_DATE_EMPTY);
-        }
-        if (LocalDate.parse(actualDeliveryDateStr).isAfter(LocalDate.now())) {
-            log.error(ErrorMessages.ACTUAL_DELIVERY_DATE_CANNOT_BE_FUTURE_DATE);
-            throw new PackageValidationException(ErrorMessages.ACTUAL_DELIVERY_DATE_CANNOT_BE_FUTURE_DATE);
-        }
-        if (pkg.getStatus() != null && pkg.getStatus().name().equals(DeliveryStatusEnum.DELIVERED.name())) {
-            log.error(ErrorMessages.PACKAGE_ALREADY_DELIVERED_CANNOT_UPDATE);
-            throw new PackageValidationException(ErrorMessages.PACKAGE_ALREADY_DELIVERED_CANNOT_UPDATE );
-        }
-    }
-
-    /**
-     * Validates the payload for tracking packages.
-     * @param trackingNumber the tracking number of the package
-     * @param email the email of the package recipient
-     * @param postcode the postcode of the package recipient
-     */
-    private void validateTrackPackagePayload(
-        String trackingNumber,
-        String email,
-        String postcode
-    ) {
-        if ((trackingNumber == null || trackingNumber.isEmpty()) && (email == null || email.isEmpty()) && (postcode == null || postcode.isEmpty())) {
-            log.error(ErrorMessages.TRACKING_NUMBER_OR_EMAIL_AND_POSTCODE_EMPTY);
-            throw new PackageValidationException(ErrorMessages.TRACKING_NUMBER_OR_EMAIL_AND_POSTCODE_EMPTY);
-        }
-    }
-
-    /**
-     * Validates the payload for filtering packages.
-     * @param status the status of the package (delayed or on-time)
-     * @param postcode the postcode of the package recipient
-     * @param deliveryDate the actual delivery date in the format YYYY-MM-DD
-     */
-    private void validateFilterPackagesPayload(
-        String status,
-        String postcode,
-        String deliveryDate
-    ) {
-        if (status != null && !status.equalsIgnoreCase("delayed") && !status.equalsIgnoreCase("on-time")) {
-            log.error(ErrorMessages.FILTER_STATUS_INVALID);
-            throw new PackageValidationException(ErrorMessages.FILTER_STATUS_INVALID);
-        }
-        if (postcode != null && postcode.isEmpty()) {
-            log.error(ErrorMessages.POSTCODE_EMPTY);
-            throw new PackageValidationException(ErrorMessages.POSTCODE_EMPTY);
-        }
-        if (deliveryDate != null && !deliveryDate.isEmpty()) {
-            try {
-                LocalDate.parse(deliveryDate);
-            } catch (Exception e) {
-                log.error(ErrorMessages.DELIVERY_DATE_INVALID_FORMAT);
-                throw new PackageValidationException(ErrorMessages.DELIVERY_DATE_INVALID_FORMAT);
-            }
-        }
-    }
-
-    private Pageable sanitizePagingParameters(int page, int size) {
-        if (page < 0) page = 0;
-        if (size <= 0) size = 10;
-        if (size > 100) size = 100;
-        return PageRequest.of(page, size);
+    private PackageAlreadyDeliveredException packageAlreadyDelivered() {
+        return new PackageAlreadyDeliveredException(ErrorMessages.PACKAGE_ALREADY_DELIVERED_CANNOT_UPDATE);
     }
 
 }
\ No newline at end of file
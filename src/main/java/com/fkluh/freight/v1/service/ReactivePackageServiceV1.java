@@ -0,0 +1,173 @@
+package com.fkluh.freight.v1.service;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.springframework.data.domain.Pageable;
+
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PackageSearchHitDto;
+import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchItemDto;
+import com.fkluh.freight.v1.repository.ReactivePackageRepositoryV1;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
+import com.fkluh.freight.v1.service.command.PackageCommandValidator;
+import com.fkluh.freight.v1.service.search.PackageSearchService;
+import com.fkluh.freight.v1.service.strategy.filter.ReactiveFilterStrategy;
+import com.fkluh.freight.v1.service.strategy.filter.ReactiveFilterStrategyByDeliveryDate;
+import com.fkluh.freight.v1.service.strategy.filter.ReactiveFilterStrategyByPostcode;
+import com.fkluh.freight.v1.service.strategy.filter.ReactiveFilterStrategyByStatus;
+import com.fkluh.freight.v1.service.strategy.track.ReactiveTrackStrategy;
+import com.fkluh.freight.v1.service.strategy.track.ReactiveTrackStrategyByAllParameters;
+import com.fkluh.freight.v1.service.strategy.track.ReactiveTrackStrategyByEmail;
+import com.fkluh.freight.v1.service.strategy.track.ReactiveTrackStrategyByEmailAndPostcode;
+import com.fkluh.freight.v1.service.strategy.track.ReactiveTrackStrategyByPostcode;
+import com.fkluh.freight.v1.service.strategy.track.ReactiveTrackStrategyByTrackingNumber;
+import com.fkluh.freight.v1.util.PagingUtil;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of {@link PackageServiceV1Impl}. Track and filter requests are checked by the same
+ * {@link PackageCommandValidator}, read over R2DBC by the reactive strategies and mapped by the same
+ * {@link PackageMapper}. Writes and search are handed to the blocking services on the bounded-elastic scheduler, so
+ * their transactions, cache updates and package events are exactly those of the servlet API.
+ */
+public class ReactivePackageServiceV1 {
+    private final ReactivePackageRepositoryV1 repository;
+    private final PackageMapper mapper;
+    private final PackageServiceV1Impl packageService;
+    private final PackageSearchService searchService;
+    private final List<ReactiveTrackStrategy> trackStrategies;
+    private final List<ReactiveFilterStrategy> filterStrategies;
+
+    public ReactivePackageServiceV1(
+        ReactivePackageRepositoryV1 repository,
+        PackageMapper mapper,
+        PackageServiceV1Impl packageService,
+        PackageSearchService searchService
+    ) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.packageService = packageService;
+        this.searchService = searchService;
+        this.trackStrategies = List.of(
+            new ReactiveTrackStrategyByAllParameters(repository),
+            new ReactiveTrackStrategyByEmailAndPostcode(repository),
+            new ReactiveTrackStrategyByEmail(repository),
+            new ReactiveTrackStrategyByPostcode(repository),
+            new ReactiveTrackStrategyByTrackingNumber(repository)
+        );
+        this.filterStrategies = List.of(
+            new ReactiveFilterStrategyByStatus(repository),
+            new ReactiveFilterStrategyByPostcode(repository),
+            new ReactiveFilterStrategyByDeliveryDate(repository)
+        );
+    }
+
+    /**
+     * One page of the packages {@link PackageServiceV1Impl#trackPackages} would return.
+     */
+    public Mono<CustomPage<PackageDto>> trackPackages(String trackingNumber, String email, String postcode, int page, int size) {
+        Pageable pageable = PagingUtil.sanitizePagingParameters(page, size);
+        return toPage(track(trackingNumber, email, postcode, pageable), pageable);
+    }
+
+    /**
+     * Every package matching the track parameters, newest first, read from the database as the subscriber requests
+     * them.
+     */
+    public Flux<PackageDto> streamTrackedPackages(String trackingNumber, String email, String postcode) {
+        return track(trackingNumber, email, postcode, Pageable.unpaged()).map(mapper::packageEntityToDto);
+    }
+
+    /**
+     * One page of the packages {@link PackageServiceV1Impl#filterPackages} would return.
+     */
+    public Mono<CustomPage<PackageDto>> filterPackages(String status, String postcode, String deliveryDate, int page, int size) {
+        Pageable pageable = PagingUtil.sanitizePagingParameters(page, size);
+        return toPage(filter(status, postcode, deliveryDate, pageable), pageable);
+    }
+
+    /**
+     * Every package matching the filter parameters, newest first, read from the database as the subscriber requests
+     * them.
+     */
+    public Flux<PackageDto> streamFilteredPackages(String status, String postcode, String deliveryDate) {
+        return filter(status, postcode, deliveryDate, Pageable.unpaged()).map(mapper::packageEntityToDto);
+    }
+
+    /**
+     * Handed to {@link PackageServiceV1Impl#trackPackagesBatch}, so the batch is served from the second-level cache
+     * first.
+     */
+    public Mono<List<TrackBatchItemDto>> trackPackagesBatch(List<String> trackingNumbers) {
+        return blocking(() -> packageService.trackPackagesBatch(trackingNumbers));
+    }
+
+    public Mono<CustomPage<PostcodeByCountDto>> filterPostcodeByMostDelayedPackages(int page, int size) {
+        Pageable pageable = PagingUtil.sanitizePagingParameters(page, size);
+        return repository.findPostcodeWithMostDelayedPackages(pageable)
+            .collectList()
+            .map(postcodes -> CustomPage.of(postcodes, pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    public Mono<PackageDto> addPackage(PackageDto packageDto) {
+        return blocking(() -> packageService.addPackage(packageDto));
+    }
+
+    public Mono<PackageDto> updatePackage(String trackingNumber, String actualDeliveryDate) {
+        return blocking(() -> packageService.updatePackage(trackingNumber, actualDeliveryDate));
+    }
+
+    public Mono<Void> removePackage(String trackingNumber) {
+        return blocking(() -> {
+            packageService.removePackage(trackingNumber);
+            return null;
+        });
+    }
+
+    public Mono<List<PackageSearchHitDto>> searchPackages(String query, int limit) {
+        return blocking(() -> searchService.search(query, limit));
+    }
+
+    private Flux<Package> track(String trackingNumber, String email, String postcode, Pageable pageable) {
+        return Flux.defer(() -> {
+            PackageCommandValidator.trackPackages(trackingNumber, email, postcode);
+            for (ReactiveTrackStrategy trackStrategy : trackStrategies) {
+                if (trackStrategy.isApplicable(trackingNumber, email, postcode)) {
+                    return trackStrategy.apply(trackingNumber, email, postcode, pageable);
+                }
+            }
+            return Flux.error(new PackageValidationException(ErrorMessages.TRACKING_NUMBER_OR_EMAIL_AND_POSTCODE_EMPTY));
+        });
+    }
+
+    private Flux<Package> filter(String status, String postcode, String deliveryDate, Pageable pageable) {
+        return Flux.defer(() -> {
+            FilterPackagesQuery query = PackageCommandValidator.filterPackages(status, postcode, deliveryDate);
+            for (ReactiveFilterStrategy filter : filterStrategies) {
+                if (filter.isApplicable(query)) {
+                    return filter.apply(query, pageable);
+                }
+            }
+            return Flux.error(new IllegalArgumentException(ErrorMessages.FILTER_INPUT_INVALID));
+        });
+    }
+
+    private Mono<CustomPage<PackageDto>> toPage(Flux<Package> packages, Pageable pageable) {
+        return packages.collectList()
+            .map(content -> mapper.packageEntityListToDtoPage(content, pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,190 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fkluh.freight.v1.datasource.ShardScope;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.dto.PostcodeDelayTrendDto;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+import com.fkluh.freight.v1.util.SpaceSaving;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The postcodes with the most late deliveries in the last hours or days, for spotting postcodes that are going bad
+ * now rather than those that have always had the most delays. Late deliveries are counted when they are recorded,
+ * in a ring of {@link SpaceSaving} summaries of {@code app.analytics.delay-trend.bucket} each, covering the last
+ * seven days; a window is answered by merging its buckets, from memory. Each bucket holds at most
+ * {@code app.analytics.delay-trend.capacity} postcodes, which bounds memory however many postcodes there are; every
+ * postcode with more than {@code 1 / capacity} of a window's late deliveries is reported. At startup the ring is
+ * filled from the packages delivered late in the last seven days. Postcodes are compared as in
+ * {@link PostcodePrefixService}.
+ */
+@Service
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class DelayTrendService {
+    static final Duration MAX_WINDOW = Duration.ofDays(7);
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+    private static final int SCAN_FETCH_SIZE = 1000;
+    private static final String RECENTLY_DELAYED = """
+        SELECT recipient_postcode, updated_at FROM package
+        WHERE status = 'DELIVERED' AND actual_delivery_date > estimated_delivery_date AND updated_at >= ?""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardScope shardScope;
+
+    private final Clock clock;
+    private final long bucketMillis;
+    private final int capacity;
+    private final Bucket[] ring;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public DelayTrendService(
+        @Value("${app.analytics.delay-trend.bucket:1h}") Duration bucket,
+        @Value("${app.analytics.delay-trend.capacity:200}") int capacity
+    ) {
+        this(Clock.systemDefaultZone(), bucket, capacity);
+    }
+
+    DelayTrendService(Clock clock, Duration bucket, int capacity) {
+        if (bucket.isZero() || bucket.isNegative() || MAX_WINDOW.toMillis() % bucket.toMillis() != 0) {
+            throw new IllegalArgumentException("app.analytics.delay-trend.bucket must divide seven days");
+        }
+        this.clock = clock;
+        this.bucketMillis = bucket.toMillis();
+        this.capacity = capacity;
+        // one more than the window, so the oldest full bucket is still there while the newest fills
+        this.ring = new Bucket[(int) (MAX_WINDOW.toMillis() / bucketMillis) + 1];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Bucket(new SpaceSaving(capacity));
+        }
+    }
+
+    @PostConstruct
+    public void loadRecentDelays() {
+        LocalDateTime since = LocalDateTime.now(clock).minus(MAX_WINDOW);
+        JdbcTemplate scan = new JdbcTemplate(jdbcTemplate.getDataSource());
+        scan.setFetchSize(SCAN_FETCH_SIZE);
+        long[] loaded = new long[1];
+        lock.writeLock().lock();
+        try {
+            shardScope.forEachShard(shard -> scan.query(RECENTLY_DELAYED, resultSet -> {
+                Timestamp updatedAt = resultSet.getTimestamp(2);
+                if (updatedAt == null) {
+                    return;
+                }
+                long at = updatedAt.toLocalDateTime().atZone(clock.getZone()).toInstant().toEpochMilli();
+                add(resultSet.getString(1), at);
+                loaded[0]++;
+            }, Timestamp.valueOf(since)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Delay trend loaded with {} late deliveries of the last {}", loaded[0], MAX_WINDOW);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPackageEvent(PackageEvent event) {
+        // packages may be created delivered; a removal does not undo a delay that happened
+        boolean recorded = event.type() == PackageEvent.Type.CREATED || event.type() == PackageEvent.Type.DELIVERED;
+        if (recorded && event.isDelayed()) {
+            lock.writeLock().lock();
+            try {
+                add(event.recipientPostcode(), clock.millis());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @param window how far back to look, e.g. 24h or 7d, at most seven days; rounded up to whole buckets
+     * @param limit  the maximum number of postcodes to return
+     * @return the postcodes with the most late deliveries in the window, most first
+     */
+    public List<PostcodeDelayTrendDto> getTopDelayedPostcodes(String window, int limit) {
+        Duration duration = parseWindow(window);
+        int sanitizedLimit = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        long buckets = Math.max(1, (duration.toMillis() + bucketMillis - 1) / bucketMillis);
+        long current = clock.millis() / bucketMillis;
+
+        SpaceSaving merged = new SpaceSaving(capacity);
+        lock.readLock().lock();
+        try {
+            for (long number = current - buckets + 1; number <= current; number++) {
+                Bucket bucket = ring[(int) (number % ring.length)];
+                if (bucket.number == number && !bucket.summary.isEmpty()) {
+                    merged.merge(bucket.summary);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return merged.top(sanitizedLimit).stream()
+            .map(entry -> new PostcodeDelayTrendDto(entry.key(), entry.count(), entry.error()))
+            .toList();
+    }
+
+    /**
+     * Called under the write lock. A bucket slot is reused once its time has left the ring.
+     */
+    private void add(String postcode, long epochMillis) {
+        long number = epochMillis / bucketMillis;
+        if (number <= clock.millis() / bucketMillis - ring.length) {
+            return;
+        }
+        Bucket bucket = ring[(int) (number % ring.length)];
+        if (bucket.number != number) {
+            if (bucket.number > number) {
+                return;
+            }
+            bucket.summary.clear();
+            bucket.number = number;
+        }
+        bucket.summary.add(PostcodePrefixService.normalize(postcode), 1);
+    }
+
+    private static Duration parseWindow(String window) {
+        try {
+            Duration duration = DurationStyle.detectAndParse(window == null ? "" : window.trim());
+            if (!duration.isNegative() && !duration.isZero() && duration.compareTo(MAX_WINDOW) <= 0) {
+                return duration;
+            }
+        } catch (IllegalArgumentException e) {
+            // answered below
+        }
+        throw new PackageValidationException(ErrorMessages.DELAY_TREND_WINDOW_INVALID);
+    }
+
+    private static final class Bucket {
+        private final SpaceSaving summary;
+        private long number = -1;
+
+        Bucket(SpaceSaving summary) {
+            this.summary = summary;
+        }
+    }
+}
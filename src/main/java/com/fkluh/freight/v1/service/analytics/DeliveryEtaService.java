@@ -0,0 +1,204 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fkluh.freight.v1.datasource.ShardScope;
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PostcodeLatenessDto;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+import com.fkluh.freight.v1.util.KllSketch;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Predicts delivery dates from how late deliveries to the same postcode have been. Lateness in days (actual minus
+ * estimated delivery date, negative when early) is kept in a {@link KllSketch} per postcode, so a postcode costs at
+ * most about {@code 3 * SKETCH_K} values however many packages it receives. The sketches are built by one streaming
+ * scan of the delivered packages at startup and then updated from committed deliveries. Removing a package does not
+ * take its lateness back out; a sketch cannot forget values, and a removed delivery still says how late that postcode
+ * is. Postcodes are compared as in {@link PostcodePrefixService}.
+ */
+@Service
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class DeliveryEtaService {
+    private static final int SKETCH_K = 200;
+    /** Postcodes with fewer deliveries are predicted from all postcodes together. */
+    private static final int MIN_POSTCODE_DELIVERIES = 20;
+    private static final int SCAN_FETCH_SIZE = 1000;
+    private static final double[] RANKS = {0.5, 0.9, 0.99};
+    private static final String DELIVERED_PACKAGES = """
+        SELECT recipient_postcode, estimated_delivery_date, actual_delivery_date
+        FROM package WHERE status = 'DELIVERED' AND actual_delivery_date IS NOT NULL""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardScope shardScope;
+    private final PackageMapper mapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Lateness> latenessByPostcode = new HashMap<>();
+    private final Lateness allPostcodes = new Lateness();
+
+    public DeliveryEtaService(JdbcTemplate jdbcTemplate, ShardScope shardScope, PackageMapper mapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardScope = shardScope;
+        this.mapper = mapper;
+    }
+
+    @PostConstruct
+    public void loadSketches() {
+        // rows are streamed into the sketches, never held
+        JdbcTemplate scan = new JdbcTemplate(jdbcTemplate.getDataSource());
+        scan.setFetchSize(SCAN_FETCH_SIZE);
+        lock.writeLock().lock();
+        try {
+            shardScope.forEachShard(shard -> scan.query(DELIVERED_PACKAGES, resultSet -> {
+                Date estimated = resultSet.getDate(2);
+                Date actual = resultSet.getDate(3);
+                if (estimated != null) {
+                    latenessOf(resultSet.getString(1))
+                        .add(ChronoUnit.DAYS.between(estimated.toLocalDate(), actual.toLocalDate()));
+                }
+            }));
+            // merging is cheaper than adding every delivery twice
+            for (Lateness lateness : latenessByPostcode.values()) {
+                allPostcodes.merge(lateness);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Delivery lateness sketches loaded for {} deliveries to {} postcodes",
+            allPostcodes.sketch.count(), latenessByPostcode.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPackageEvent(PackageEvent event) {
+        // packages may be created delivered; REMOVED and PURGED are kept, see above
+        if ((event.type() == PackageEvent.Type.CREATED || event.type() == PackageEvent.Type.DELIVERED)
+            && event.isDelivered() && event.estimatedDeliveryDate() != null) {
+            long days = ChronoUnit.DAYS.between(event.estimatedDeliveryDate(), event.actualDeliveryDate());
+            lock.writeLock().lock();
+            try {
+                latenessOf(event.recipientPostcode()).add(days);
+                allPostcodes.add(days);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @param postcode the postcode; all postcodes if empty
+     * @return the median, 90th and 99th percentile lateness of the deliveries to the postcode
+     */
+    public PostcodeLatenessDto getLateness(String postcode) {
+        String normalizedPostcode = PostcodePrefixService.normalize(postcode);
+        lock.readLock().lock();
+        try {
+            Lateness lateness = normalizedPostcode.isEmpty()
+                ? allPostcodes
+                : latenessByPostcode.get(normalizedPostcode);
+            if (lateness == null) {
+                return new PostcodeLatenessDto(normalizedPostcode, 0, null, null, null);
+            }
+            double[] quantiles = lateness.quantiles();
+            return new PostcodeLatenessDto(normalizedPostcode, lateness.sketch.count(),
+                days(quantiles[0]), days(quantiles[1]), days(quantiles[2]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the median and 90th percentile predicted delivery dates to the packages still in transit: the estimated
+     * date pushed out by that percentile of the lateness to the package's postcode, and never before today.
+     *
+     * @return a new page; the packages given are not changed
+     */
+    public CustomPage<PackageDto> withPredictedDeliveryDates(CustomPage<PackageDto> packages) {
+        return packages.map(this::withPredictedDeliveryDates);
+    }
+
+    public PackageDto withPredictedDeliveryDates(PackageDto pkg) {
+        if (pkg.getActualDeliveryDate() != null || pkg.getEstimatedDeliveryDate() == null) {
+            return pkg;
+        }
+        double[] quantiles;
+        lock.readLock().lock();
+        try {
+            Lateness lateness = latenessByPostcode.get(PostcodePrefixService.normalize(pkg.getRecipientPostcode()));
+            if (lateness == null || lateness.sketch.count() < MIN_POSTCODE_DELIVERIES) {
+                lateness = allPostcodes;
+            }
+            quantiles = lateness.quantiles();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (Double.isNaN(quantiles[0])) {
+            return pkg;
+        }
+        return mapper.withPredictedDeliveryDates(pkg,
+            predictedDate(pkg.getEstimatedDeliveryDate(), quantiles[0]),
+            predictedDate(pkg.getEstimatedDeliveryDate(), quantiles[1]));
+    }
+
+    private Lateness latenessOf(String postcode) {
+        return latenessByPostcode.computeIfAbsent(PostcodePrefixService.normalize(postcode), key -> new Lateness());
+    }
+
+    private static LocalDate predictedDate(LocalDate estimated, double latenessDays) {
+        LocalDate predicted = estimated.plusDays((long) Math.ceil(latenessDays));
+        LocalDate today = LocalDate.now();
+        // a package that is still on its way arrives today at the earliest
+        return predicted.isBefore(today) ? today : predicted;
+    }
+
+    private static Long days(double quantile) {
+        return Double.isNaN(quantile) ? null : (long) Math.ceil(quantile);
+    }
+
+    /**
+     * The lateness sketch of a postcode. Its percentiles are computed once and reused until the next delivery.
+     */
+    private static final class Lateness {
+        private final KllSketch sketch = new KllSketch(SKETCH_K);
+        private volatile double[] quantiles;
+
+        void add(long days) {
+            sketch.add(days);
+            quantiles = null;
+        }
+
+        void merge(Lateness other) {
+            sketch.merge(other.sketch);
+            quantiles = null;
+        }
+
+        /**
+         * Called under the read lock, so the sketch does not change; concurrent readers may compute the same
+         * percentiles twice.
+         */
+        double[] quantiles() {
+            double[] cached = quantiles;
+            if (cached == null) {
+                cached = sketch.quantiles(RANKS);
+                quantiles = cached;
+            }
+            return cached;
+        }
+    }
+}
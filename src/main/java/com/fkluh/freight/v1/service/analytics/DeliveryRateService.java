@@ -0,0 +1,126 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.dto.DeliveryRatePointDto;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+import com.fkluh.freight.v1.util.StripedRingCounter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Deliveries and late deliveries per minute for the last two hours and per hour for the last two days, counted as
+ * deliveries commit, for live charts of throughput and on-time rate without querying packages. Counts are kept in
+ * {@link StripedRingCounter}s of fixed size, so recording a delivery takes no lock and allocates nothing. The last
+ * complete minute and hour are also published as {@code freight.deliveries.recent} and
+ * {@code freight.deliveries.on_time_rate} gauges. Counts start at zero at startup.
+ */
+@Service
+public class DeliveryRateService {
+    static final int MINUTES = 120;
+    static final int HOURS = 48;
+    private static final int DELIVERED = 0;
+    private static final int DELAYED = 1;
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long MILLIS_PER_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final Clock clock;
+    private final StripedRingCounter perMinute = new StripedRingCounter(MINUTES, 2);
+    private final StripedRingCounter perHour = new StripedRingCounter(HOURS, 2);
+
+    @Autowired
+    public DeliveryRateService(MeterRegistry meterRegistry) {
+        this(meterRegistry, Clock.systemDefaultZone());
+    }
+
+    DeliveryRateService(MeterRegistry meterRegistry, Clock clock) {
+        this.clock = clock;
+        registerGauges(meterRegistry, "1m", perMinute, MILLIS_PER_MINUTE);
+        registerGauges(meterRegistry, "1h", perHour, MILLIS_PER_HOUR);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPackageEvent(PackageEvent event) {
+        // packages may be created delivered
+        boolean recorded = event.type() == PackageEvent.Type.CREATED || event.type() == PackageEvent.Type.DELIVERED;
+        if (!recorded || !event.isDelivered()) {
+            return;
+        }
+        long now = clock.millis();
+        perMinute.increment(now / MILLIS_PER_MINUTE, DELIVERED);
+        perHour.increment(now / MILLIS_PER_HOUR, DELIVERED);
+        if (event.isDelayed()) {
+            perMinute.increment(now / MILLIS_PER_MINUTE, DELAYED);
+            perHour.increment(now / MILLIS_PER_HOUR, DELAYED);
+        }
+    }
+
+    /**
+     * @param resolution 'minute' or 'hour'
+     * @param points     how many of the latest minutes or hours to return, the current one included; at most 120
+     *                   minutes or 48 hours
+     * @return the deliveries per minute or hour, oldest first
+     */
+    public List<DeliveryRatePointDto> getDeliveryRate(String resolution, int points) {
+        String sanitizedResolution = resolution == null ? "" : resolution.trim().toLowerCase(Locale.ROOT);
+        StripedRingCounter counter;
+        long slotMillis;
+        switch (sanitizedResolution) {
+            case "minute" -> {
+                counter = perMinute;
+                slotMillis = MILLIS_PER_MINUTE;
+            }
+            case "hour" -> {
+                counter = perHour;
+                slotMillis = MILLIS_PER_HOUR;
+            }
+            default -> throw new PackageValidationException(ErrorMessages.DELIVERY_RATE_RESOLUTION_INVALID);
+        }
+        int sanitizedPoints = Math.clamp(points, 1, counter.slots());
+        long current = clock.millis() / slotMillis;
+
+        List<DeliveryRatePointDto> series = new ArrayList<>(sanitizedPoints);
+        for (long slot = current - sanitizedPoints + 1; slot <= current; slot++) {
+            LocalDateTime start = LocalDateTime.ofInstant(Instant.ofEpochMilli(slot * slotMillis), clock.getZone());
+            series.add(new DeliveryRatePointDto(start, counter.get(slot, DELIVERED), counter.get(slot, DELAYED)));
+        }
+        return series;
+    }
+
+    private void registerGauges(MeterRegistry meterRegistry, String window, StripedRingCounter counter, long slotMillis) {
+        Gauge.builder("freight.deliveries.recent", counter, c -> c.get(lastComplete(slotMillis), DELIVERED))
+            .description("Deliveries recorded in the last complete minute or hour")
+            .tags("window", window, "outcome", "delivered")
+            .register(meterRegistry);
+        Gauge.builder("freight.deliveries.recent", counter, c -> c.get(lastComplete(slotMillis), DELAYED))
+            .description("Deliveries recorded in the last complete minute or hour")
+            .tags("window", window, "outcome", "delayed")
+            .register(meterRegistry);
+        Gauge.builder("freight.deliveries.on_time_rate", counter, c -> {
+                long slot = lastComplete(slotMillis);
+                long delivered = c.get(slot, DELIVERED);
+                return delivered == 0 ? Double.NaN : (double) (delivered - c.get(slot, DELAYED)) / delivered;
+            })
+            .description("Share of the deliveries in the last complete minute or hour that were on time")
+            .tags("window", window)
+            .register(meterRegistry);
+    }
+
+    private long lastComplete(long slotMillis) {
+        return clock.millis() / slotMillis - 1;
+    }
+}
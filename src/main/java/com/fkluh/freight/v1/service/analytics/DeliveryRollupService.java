@@ -0,0 +1,230 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fkluh.freight.v1.datasource.ShardScope;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.model.PostcodeDailyRollup;
+import com.fkluh.freight.v1.model.PostcodeDailyRollupId;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.PostcodeOnTimeRateDto;
+import com.fkluh.freight.v1.repository.PostcodeDailyRollupRepository;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+import com.fkluh.freight.v1.util.PagingUtil;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class DeliveryRollupService {
+    private static final int SCAN_FETCH_SIZE = 1000;
+    private static final String ROLLUP_COUNT = "SELECT COUNT(*) FROM postcode_daily_rollup";
+    private static final String DELIVERED_PACKAGES = """
+        SELECT recipient_postcode, estimated_delivery_date, actual_delivery_date
+        FROM package WHERE status = 'DELIVERED' AND actual_delivery_date IS NOT NULL""";
+    private static final String INSERT_ROLLUP = """
+        INSERT INTO postcode_daily_rollup
+            (recipient_postcode, delivery_date, delivered_count, delayed_count, on_time_count, lateness_days)
+        VALUES (?, ?, ?, ?, ?, ?)""";
+    /** Adds to the day's counters, or starts them, in one statement. */
+    private static final String UPSERT_ROLLUP = """
+        MERGE INTO postcode_daily_rollup r
+        USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS DATE))) AS d (recipient_postcode, delivery_date)
+        ON r.recipient_postcode = d.recipient_postcode AND r.delivery_date = d.delivery_date
+        WHEN MATCHED THEN UPDATE SET delivered_count = r.delivered_count + ?, delayed_count = r.delayed_count + ?,
+            on_time_count = r.on_time_count + ?, lateness_days = r.lateness_days + ?
+        WHEN NOT MATCHED THEN INSERT
+            (recipient_postcode, delivery_date, delivered_count, delayed_count, on_time_count, lateness_days)
+            VALUES (d.recipient_postcode, d.delivery_date, ?, ?, ?, ?)""";
+
+    @Autowired
+    private PostcodeDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PackageMapper mapper;
+
+    @Autowired
+    private ShardScope shardScope;
+
+    /**
+     * Builds the rollups from one streaming scan of the delivered packages while the table is still empty, e.g. on
+     * the first start with rollups over an existing database. Purged packages keep their rollups, so a table with
+     * rows is never rebuilt. With sharding, each shard keeps the rollups of its own packages and is seeded on its own.
+     */
+    @PostConstruct
+    public void seedRollups() {
+        shardScope.forEachShard(this::seedRollups);
+    }
+
+    private void seedRollups(int shard) {
+        Long existing = jdbcTemplate.queryForObject(ROLLUP_COUNT, Long.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        // rows are streamed, only the per-day counters are held
+        JdbcTemplate scan = new JdbcTemplate(jdbcTemplate.getDataSource());
+        scan.setFetchSize(SCAN_FETCH_SIZE);
+        Map<PostcodeDailyRollupId, long[]> days = new HashMap<>();
+        scan.query(DELIVERED_PACKAGES, resultSet -> {
+            Date estimated = resultSet.getDate(2);
+            LocalDate actual = resultSet.getDate(3).toLocalDate();
+            long latenessDays = estimated == null ? 0 : ChronoUnit.DAYS.between(estimated.toLocalDate(), actual);
+            long[] counts = days.computeIfAbsent(
+                new PostcodeDailyRollupId(resultSet.getString(1), actual), id -> new long[4]);
+            counts[0]++;
+            counts[latenessDays > 0 ? 1 : 2]++;
+            counts[3] += Math.max(0, latenessDays);
+        });
+        List<Object[]> rows = new ArrayList<>(days.size());
+        days.forEach((id, counts) -> rows.add(new Object[] {
+            id.getRecipientPostcode(), Date.valueOf(id.getDeliveryDate()), counts[0], counts[1], counts[2], counts[3]
+        }));
+        jdbcTemplate.batchUpdate(INSERT_ROLLUP, rows);
+        if (!rows.isEmpty()) {
+            log.info("Delivery rollups of shard {} seeded with {} postcode days from the package table", shard,
+                rows.size());
+        }
+    }
+
+    /**
+     * Applies a package write to the daily rollups. Runs synchronously inside the transaction of the
+     * write that published the event, so rollups and packages commit or roll back together.
+     *
+     * @param event the package write
+     */
+    @EventListener
+    @Transactional
+    public void onPackageEvent(PackageEvent event) {
+        switch (event.type()) {
+            case CREATED, DELIVERED -> apply(event, 1);
+            case REMOVED -> apply(event, -1);
+            case PURGED -> {
+                // retention drops the package rows but keeps the rollups they contributed to
+            }
+        }
+    }
+
+    /**
+     * Finds the postcodes with the most delayed deliveries between two dates (inclusive).
+     *
+     * @param from the first delivery date in the format YYYY-MM-DD
+     * @param to   the last delivery date in the format YYYY-MM-DD
+     * @param page the page number for pagination
+     * @param size the page size for pagination
+     * @return a paginated page of postcodes and their delayed delivery counts, most delayed first
+     */
+    public CustomPage<PostcodeByCountDto> filterPostcodeByMostDelayedPackages(String from, String to, int page, int size) {
+        LocalDate[] range = parseDateRange(from, to);
+        Pageable pageable = PagingUtil.sanitizePagingParameters(page, size);
+        return mapper.postcodeEntityPageToDtoPage(
+            rollupRepository.findPostcodeWithMostDelayedPackagesBetween(range[0], range[1], pageable));
+    }
+
+    /**
+     * Computes the on-time rate per postcode per ISO week (weeks start on Monday) between two dates (inclusive).
+     *
+     * @param postcode the postcode to restrict the report to (optional)
+     * @param from     the first delivery date in the format YYYY-MM-DD
+     * @param to       the last delivery date in the format YYYY-MM-DD
+     * @return the weekly on-time rates ordered by postcode and week
+     */
+    public List<PostcodeOnTimeRateDto> findWeeklyOnTimeRate(String postcode, String from, String to) {
+        LocalDate[] range = parseDateRange(from, to);
+        List<PostcodeDailyRollup> rollups = (postcode == null || postcode.isEmpty())
+            ? rollupRepository.findByDeliveryDateBetween(range[0], range[1])
+            : rollupRepository.findByRecipientPostcodeAndDeliveryDateBetween(postcode, range[0], range[1]);
+
+        Map<String, PostcodeOnTimeRateDto> weeks = new LinkedHashMap<>();
+        for (PostcodeDailyRollup rollup : rollups) {
+            LocalDate weekStart = rollup.getDeliveryDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            PostcodeOnTimeRateDto week = weeks.computeIfAbsent(rollup.getRecipientPostcode() + '|' + weekStart,
+                key -> new PostcodeOnTimeRateDto(rollup.getRecipientPostcode(), weekStart));
+            week.setDeliveredCount(week.getDeliveredCount() + rollup.getDeliveredCount());
+            week.setOnTimeCount(week.getOnTimeCount() + rollup.getOnTimeCount());
+            week.setDelayedCount(week.getDelayedCount() + rollup.getDelayedCount());
+            week.setLatenessDays(week.getLatenessDays() + rollup.getLatenessDays());
+        }
+
+        List<PostcodeOnTimeRateDto> result = new ArrayList<>(weeks.size());
+        for (PostcodeOnTimeRateDto week : weeks.values()) {
+            if (week.getDeliveredCount() > 0) {
+                week.setOnTimeRate((double) week.getOnTimeCount() / week.getDeliveredCount());
+                result.add(week);
+            }
+        }
+        return result;
+    }
+
+    private void apply(PackageEvent event, int sign) {
+        if (!event.isDelivered()) {
+            return;
+        }
+        long delayed = event.isDelayed() ? 1 : 0;
+        long onTime = 1 - delayed;
+        long latenessDays = event.latenessDays();
+        if (sign < 0) {
+            rollupRepository.increment(event.recipientPostcode(), event.actualDeliveryDate(),
+                -1, -delayed, -onTime, -latenessDays);
+            return;
+        }
+        Object[] args = {
+            event.recipientPostcode(), Date.valueOf(event.actualDeliveryDate()),
+            1, delayed, onTime, latenessDays,
+            1, delayed, onTime, latenessDays
+        };
+        // on the transaction's connection rather than through JPA, which would mark the whole transaction
+        // rollback-only if the first attempt failed
+        try {
+            jdbcTemplate.update(UPSERT_ROLLUP, args);
+        } catch (DuplicateKeyException e) {
+            // H2 waits for a concurrent insert of the same day and then matches it, but a database may instead let
+            // both transactions try to insert; the other one has committed by now, so this time the row is matched
+            jdbcTemplate.update(UPSERT_ROLLUP, args);
+        }
+    }
+
+    static LocalDate[] parseDateRange(String from, String to) {
+        if (from == null || from.isEmpty() || to == null || to.isEmpty()) {
+            throw new PackageValidationException(ErrorMessages.DATE_RANGE_EMPTY);
+        }
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+        } catch (DateTimeParseException e) {
+            throw new PackageValidationException(ErrorMessages.DELIVERY_DATE_INVALID_FORMAT);
+        }
+        if (fromDate.isAfter(toDate)) {
+            throw new PackageValidationException(ErrorMessages.DATE_RANGE_INVALID);
+        }
+        return new LocalDate[] { fromDate, toDate };
+    }
+}
@@ -0,0 +1,340 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fkluh.freight.v1.datasource.ShardScope;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.PostcodeDailyRecipients;
+import com.fkluh.freight.v1.model.PostcodeDailyRecipientsId;
+import com.fkluh.freight.v1.model.dto.DistinctRecipientsDto;
+import com.fkluh.freight.v1.repository.PostcodeDailyRecipientsRepository;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+import com.fkluh.freight.v1.util.HyperLogLog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Approximate distinct recipient emails per postcode, and of those who had a package delivered late, without
+ * {@code COUNT(DISTINCT email)} over the package table. Each postcode has a pair of {@link HyperLogLog}s for all
+ * time, answered from memory in constant time, and a pair per day in {@link PostcodeDailyRecipients}, merged for
+ * date ranges. Recipients are counted on the day their package is created, delayed recipients on the day of the
+ * late delivery.
+ * <p>
+ * Committed writes update the counters in memory; the days they touched are merged into the table every
+ * {@code app.analytics.distinct-recipients.flush-interval} and at shutdown, so a crash loses at most one interval.
+ * At startup the all-time counters are rebuilt from the table, or, while it is still empty, from one streaming scan
+ * of the packages. The counters only grow: removed and purged packages keep counting, as recipients once seen.
+ * <p>
+ * With sharding, the packages of every shard are scanned, and the table lives on shard 0 only.
+ */
+@Service
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class DistinctRecipientService {
+    /** 2048 registers per counter, for a relative standard error of about 2.3%. */
+    static final int PRECISION = 11;
+    private static final int SCAN_FETCH_SIZE = 1000;
+    /** Attempts to store a flush that races with another instance's before leaving it to the next flush. */
+    private static final int FLUSH_ATTEMPTS = 3;
+    private static final String STORED_COUNTERS = """
+        SELECT recipient_postcode, recipients, delayed_recipients FROM postcode_daily_recipients""";
+    private static final String PACKAGES = """
+        SELECT recipient_postcode, email, created_at, estimated_delivery_date, actual_delivery_date, status
+        FROM package""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostcodeDailyRecipientsRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardScope shardScope;
+
+    @Value("${app.analytics.distinct-recipients.flush-interval:10s}")
+    private Duration flushInterval;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Recipients> allTime = new HashMap<>();
+    private Map<PostcodeDailyRecipientsId, Recipients> unflushed = new HashMap<>();
+    /** The days being stored, still answered from memory until they are. */
+    private Map<PostcodeDailyRecipientsId, Recipients> flushing = Map.of();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "distinct-recipients-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void loadCounters() {
+        // rows are streamed into the counters, never held
+        JdbcTemplate scan = new JdbcTemplate(jdbcTemplate.getDataSource());
+        scan.setFetchSize(SCAN_FETCH_SIZE);
+        long[] rows = new long[1];
+        lock.writeLock().lock();
+        try {
+            shardScope.onShard(0, () -> scan.query(STORED_COUNTERS, resultSet -> {
+                Recipients stored = new Recipients(
+                    HyperLogLog.fromBytes(resultSet.getBytes(2)), HyperLogLog.fromBytes(resultSet.getBytes(3)));
+                allTime.computeIfAbsent(resultSet.getString(1), postcode -> new Recipients()).merge(stored);
+                rows[0]++;
+            }));
+            if (rows[0] == 0) {
+                shardScope.forEachShard(shard -> scan.query(PACKAGES, resultSet -> {
+                    Timestamp createdAt = resultSet.getTimestamp(3);
+                    Date actual = resultSet.getDate(5);
+                    boolean delayed = DeliveryStatusEnum.DELIVERED.name().equals(resultSet.getString(6))
+                        && actual != null && actual.toLocalDate().isAfter(resultSet.getDate(4).toLocalDate());
+                    add(resultSet.getString(1), resultSet.getString(2),
+                        createdAt == null ? LocalDate.now() : createdAt.toLocalDateTime().toLocalDate(),
+                        delayed ? actual.toLocalDate() : null);
+                }));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (rows[0] == 0) {
+            flush();
+        }
+        log.info("Distinct recipient counters loaded for {} postcodes from {}",
+            allTime.size(), rows[0] > 0 ? rows[0] + " stored days" : "the package table");
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPackageEvent(PackageEvent event) {
+        LocalDate delayedOn = event.isDelayed() ? event.actualDeliveryDate() : null;
+        switch (event.type()) {
+            case CREATED -> {
+                LocalDate createdOn = event.createdAt() == null ? LocalDate.now() : event.createdAt().toLocalDate();
+                update(event.recipientPostcode(), event.email(), createdOn, delayedOn);
+            }
+            case DELIVERED -> {
+                if (delayedOn != null) {
+                    update(event.recipientPostcode(), event.email(), null, delayedOn);
+                }
+            }
+            case REMOVED, PURGED -> {
+                // a recipient once seen stays counted, see above
+            }
+        }
+    }
+
+    /**
+     * @param postcode the postcode, compared without spaces and case-insensitively
+     * @param from     the first day in the format YYYY-MM-DD; all time if neither 'from' nor 'to' is given
+     * @param to       the last day in the format YYYY-MM-DD
+     * @return the approximate distinct recipients of packages created, and of packages delivered late, in the range
+     */
+    public DistinctRecipientsDto getDistinctRecipients(String postcode, String from, String to) {
+        String normalizedPostcode = PostcodePrefixService.normalize(postcode);
+        if (normalizedPostcode.isEmpty()) {
+            throw new PackageValidationException(ErrorMessages.POSTCODE_EMPTY);
+        }
+        if ((from == null || from.isEmpty()) && (to == null || to.isEmpty())) {
+            lock.readLock().lock();
+            try {
+                Recipients recipients = allTime.getOrDefault(normalizedPostcode, new Recipients());
+                return toDto(normalizedPostcode, null, null, recipients);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        LocalDate[] range = DeliveryRollupService.parseDateRange(from, to);
+        // not read-only, the replica does not have the table
+        List<PostcodeDailyRecipients> stored = shardScope.onShard(0, () -> transactionTemplate.execute(status ->
+            repository.findByRecipientPostcodeAndEventDateBetween(normalizedPostcode, range[0], range[1])));
+        Recipients recipients = new Recipients();
+        for (PostcodeDailyRecipients day : stored) {
+            recipients.merge(Recipients.of(day));
+        }
+        lock.readLock().lock();
+        try {
+            for (Map<PostcodeDailyRecipientsId, Recipients> days : List.of(flushing, unflushed)) {
+                days.forEach((id, day) -> {
+                    if (id.getRecipientPostcode().equals(normalizedPostcode)
+                        && !id.getEventDate().isBefore(range[0]) && !id.getEventDate().isAfter(range[1])) {
+                        recipients.merge(day);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toDto(normalizedPostcode, range[0], range[1], recipients);
+    }
+
+    /**
+     * Merges the days updated since the last flush into their stored rows. Rows are merged, not overwritten, so
+     * flushes of several instances add up: a row another flush stored after this one read it fails the version
+     * check, and the days are read and merged again.
+     */
+    void flush() {
+        Map<PostcodeDailyRecipientsId, Recipients> pending;
+        lock.writeLock().lock();
+        try {
+            if (unflushed.isEmpty()) {
+                return;
+            }
+            pending = unflushed;
+            unflushed = new HashMap<>();
+            flushing = pending;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    shardScope.onShard(0, () -> transactionTemplate.executeWithoutResult(status -> store(pending)));
+                    break;
+                } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                    // a stored row changed, or a new one was inserted, after it was read
+                    if (attempt == FLUSH_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to store distinct recipient counters of {} days, retrying with the next flush",
+                pending.size(), e);
+            lock.writeLock().lock();
+            try {
+                pending.forEach((id, day) -> unflushed.computeIfAbsent(id, key -> new Recipients()).merge(day));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                flushing = Map.of();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void store(Map<PostcodeDailyRecipientsId, Recipients> pending) {
+        Map<PostcodeDailyRecipientsId, PostcodeDailyRecipients> rows = new HashMap<>();
+        for (PostcodeDailyRecipients row : repository.findAllById(pending.keySet())) {
+            rows.put(new PostcodeDailyRecipientsId(row.getRecipientPostcode(), row.getEventDate()), row);
+        }
+        pending.forEach((id, day) -> {
+            // pending days are read by range queries meanwhile, so they are not changed
+            Recipients merged = new Recipients();
+            merged.merge(day);
+            PostcodeDailyRecipients row = rows.get(id);
+            if (row == null) {
+                row = new PostcodeDailyRecipients();
+                row.setRecipientPostcode(id.getRecipientPostcode());
+                row.setEventDate(id.getEventDate());
+                rows.put(id, row);
+            } else {
+                merged.merge(Recipients.of(row));
+            }
+            row.setRecipients(merged.recipients.toBytes());
+            row.setDelayedRecipients(merged.delayedRecipients.toBytes());
+        });
+        repository.saveAll(rows.values());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void update(String postcode, String email, LocalDate createdOn, LocalDate delayedOn) {
+        lock.writeLock().lock();
+        try {
+            add(postcode, email, createdOn, delayedOn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Called under the write lock.
+     */
+    private void add(String postcode, String email, LocalDate createdOn, LocalDate delayedOn) {
+        String normalizedPostcode = PostcodePrefixService.normalize(postcode);
+        String normalizedEmail = email.trim().toLowerCase(Locale.ROOT);
+        Recipients total = allTime.computeIfAbsent(normalizedPostcode, key -> new Recipients());
+        if (createdOn != null) {
+            total.recipients.add(normalizedEmail);
+            day(normalizedPostcode, createdOn).recipients.add(normalizedEmail);
+        }
+        if (delayedOn != null) {
+            total.delayedRecipients.add(normalizedEmail);
+            day(normalizedPostcode, delayedOn).delayedRecipients.add(normalizedEmail);
+        }
+    }
+
+    private Recipients day(String postcode, LocalDate date) {
+        return unflushed.computeIfAbsent(new PostcodeDailyRecipientsId(postcode, date), key -> new Recipients());
+    }
+
+    private static DistinctRecipientsDto toDto(String postcode, LocalDate from, LocalDate to, Recipients recipients) {
+        return new DistinctRecipientsDto(postcode, from, to, recipients.recipients.estimate(),
+            recipients.delayedRecipients.estimate(), recipients.recipients.relativeStandardError());
+    }
+
+    /**
+     * The distinct recipients and delayed recipients of a postcode over some days.
+     */
+    private static final class Recipients {
+        private final HyperLogLog recipients;
+        private final HyperLogLog delayedRecipients;
+
+        Recipients() {
+            this(new HyperLogLog(PRECISION), new HyperLogLog(PRECISION));
+        }
+
+        Recipients(HyperLogLog recipients, HyperLogLog delayedRecipients) {
+            this.recipients = recipients;
+            this.delayedRecipients = delayedRecipients;
+        }
+
+        static Recipients of(PostcodeDailyRecipients row) {
+            return new Recipients(
+                HyperLogLog.fromBytes(row.getRecipients()), HyperLogLog.fromBytes(row.getDelayedRecipients()));
+        }
+
+        void merge(Recipients other) {
+            recipients.merge(other.recipients);
+            delayedRecipients.merge(other.delayedRecipients);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fkluh.freight.v1.datasource.ShardScope;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.dto.PostcodePrefixCountDto;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+import com.fkluh.freight.v1.util.PostcodePrefixTree;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivered, delayed and in-transit package counts per postcode prefix (area, district, sector, ...), kept in a
+ * {@link PostcodePrefixTree} so dashboards read them without grouping the package table. The tree is loaded with a
+ * single aggregation at startup and then updated from committed package writes. Postcodes are compared
+ * case-insensitively and without spaces.
+ */
+@Service
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class PostcodePrefixService {
+    private static final int MAX_DEPTH = 10;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+    private static final String INITIAL_COUNTS = """
+        SELECT recipient_postcode,
+            SUM(CASE WHEN status = 'DELIVERED' AND actual_delivery_date IS NOT NULL THEN 1 ELSE 0 END),
+            SUM(CASE WHEN status = 'DELIVERED' AND actual_delivery_date > estimated_delivery_date THEN 1 ELSE 0 END),
+            SUM(CASE WHEN status = 'DELIVERED' AND actual_delivery_date IS NOT NULL THEN 0 ELSE 1 END)
+        FROM package GROUP BY recipient_postcode""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardScope shardScope;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PostcodePrefixTree tree = new PostcodePrefixTree();
+
+    @PostConstruct
+    public void loadCounts() {
+        // with sharding, the counts of a postcode found on several shards add up
+        shardScope.forEachShard(shard -> jdbcTemplate.query(INITIAL_COUNTS, resultSet -> {
+            add(resultSet.getString(1), resultSet.getLong(2), resultSet.getLong(3), resultSet.getLong(4));
+        }));
+        PostcodePrefixCountDto total = getCounts(null);
+        log.info("Postcode prefix counts loaded for {} packages", total.getDeliveredCount() + total.getInTransitCount());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPackageEvent(PackageEvent event) {
+        switch (event.type()) {
+            case CREATED -> apply(event, 1);
+            // only undelivered packages can be marked delivered
+            case DELIVERED -> add(event.recipientPostcode(), 1, event.isDelayed() ? 1 : 0, -1);
+            case REMOVED, PURGED -> apply(event, -1);
+        }
+    }
+
+    /**
+     * Returns the package counts of all postcodes starting with the prefix.
+     *
+     * @param prefix the postcode prefix; all postcodes if empty
+     * @return the delivered, delayed and in-transit counts under the prefix
+     */
+    public PostcodePrefixCountDto getCounts(String prefix) {
+        String normalizedPrefix = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            return toDto(tree.get(normalizedPrefix));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Groups the postcodes under a prefix by their next {@code depth} characters and returns the groups with the
+     * highest count of the given metric, e.g. the districts of an area with the most delayed deliveries.
+     *
+     * @param prefix the postcode prefix to look under; all postcodes if empty
+     * @param depth  how many characters past the prefix to group by, from 1 to 10
+     * @param metric the count to rank by: 'delivered', 'delayed' or 'in-transit'
+     * @param limit  the maximum number of groups to return
+     * @return the groups with any packages, highest first
+     */
+    public List<PostcodePrefixCountDto> getTopPrefixes(String prefix, int depth, String metric, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new PackageValidationException(ErrorMessages.POSTCODE_PREFIX_DEPTH_INVALID);
+        }
+        // ascending for the bounded min-heap in the tree, so ties are broken by prefix once the result is reversed
+        Comparator<PostcodePrefixTree.Counts> order = Comparator.comparingLong(metric(metric))
+            .thenComparing(PostcodePrefixTree.Counts::prefix, Comparator.reverseOrder());
+        int sanitizedLimit = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        lock.readLock().lock();
+        try {
+            return tree.top(normalizedPrefix, normalizedPrefix.length() + depth, order, sanitizedLimit).stream()
+                .map(PostcodePrefixService::toDto)
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(PackageEvent event, int sign) {
+        if (event.isDelivered()) {
+            add(event.recipientPostcode(), sign, event.isDelayed() ? sign : 0, 0);
+        } else {
+            add(event.recipientPostcode(), 0, 0, sign);
+        }
+    }
+
+    private void add(String postcode, long delivered, long delayed, long inTransit) {
+        lock.writeLock().lock();
+        try {
+            tree.add(normalize(postcode), delivered, delayed, inTransit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static ToLongFunction<PostcodePrefixTree.Counts> metric(String metric) {
+        String normalizedMetric = metric == null ? "" : metric.toLowerCase(Locale.ROOT);
+        return switch (normalizedMetric) {
+            case "delivered" -> PostcodePrefixTree.Counts::delivered;
+            case "delayed" -> PostcodePrefixTree.Counts::delayed;
+            case "in-transit" -> PostcodePrefixTree.Counts::inTransit;
+            default -> throw new PackageValidationException(ErrorMessages.POSTCODE_PREFIX_METRIC_INVALID);
+        };
+    }
+
+    static String normalize(String postcode) {
+        if (postcode == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(postcode.length());
+        for (int i = 0; i < postcode.length(); i++) {
+            char c = postcode.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static PostcodePrefixCountDto toDto(PostcodePrefixTree.Counts counts) {
+        return new PostcodePrefixCountDto(counts.prefix(), counts.delivered(), counts.delayed(), counts.inTransit());
+    }
+}
@@ -0,0 +1,122 @@
+package com.fkluh.freight.v1.service.coalescing;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.fkluh.freight.v1.datasource.ReadRoutingContext;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
+import com.fkluh.freight.v1.service.strategy.filter.FilterStrategy;
+import com.fkluh.freight.v1.service.strategy.track.TrackStrategy;
+import com.fkluh.freight.v1.util.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Shares one in-flight database execution between concurrent identical track and filter calls, e.g. hundreds of
+ * recipients in one postcode tracking the same shipment at once. Calls are identical when they resolve to the same
+ * strategy with the same normalized parameters and page. Results are shared read-only between callers and are not
+ * kept once the execution finishes.
+ * <p>
+ * Metrics: {@code freight.query.executions} and {@code freight.query.coalesced}, tagged with {@code query=track|filter},
+ * and {@code freight.query.inflight}.
+ */
+@Component
+public class QueryCoalescer {
+    private static final String TRACK = "track";
+    private static final String FILTER = "filter";
+
+    private final SingleFlight<QueryKey, CustomPage<PackageDto>> singleFlight = new SingleFlight<>();
+    private final Counter trackExecutions;
+    private final Counter trackCoalesced;
+    private final Counter filterExecutions;
+    private final Counter filterCoalesced;
+
+    public QueryCoalescer(MeterRegistry meterRegistry) {
+        trackExecutions = executionsCounter(meterRegistry, TRACK);
+        trackCoalesced = coalescedCounter(meterRegistry, TRACK);
+        filterExecutions = executionsCounter(meterRegistry, FILTER);
+        filterCoalesced = coalescedCounter(meterRegistry, FILTER);
+        Gauge.builder("freight.query.inflight", singleFlight, SingleFlight::inFlightCount)
+            .description("Distinct track/filter queries currently executing")
+            .register(meterRegistry);
+    }
+
+    public CustomPage<PackageDto> track(
+        TrackStrategy strategy,
+        String trackingNumber,
+        String email,
+        String postcode,
+        Pageable pageable
+    ) {
+        QueryKey key = new QueryKey(
+            strategy.getClass(),
+            normalize(trackingNumber),
+            normalize(email),
+            normalize(postcode),
+            pageable,
+            ReadRoutingContext.isPinnedToPrimary()
+        );
+        return singleFlight.execute(key, () -> {
+            trackExecutions.increment();
+            return strategy.apply(trackingNumber, email, postcode, pageable);
+        }, trackCoalesced::increment);
+    }
+
+    public CustomPage<PackageDto> filter(
+        FilterStrategy strategy,
+        FilterPackagesQuery query,
+        Pageable pageable
+    ) {
+        // the query is already parsed, so "DELAYED" and "delayed" are the same query
+        QueryKey key = new QueryKey(
+            strategy.getClass(),
+            query.status(),
+            query.postcode(),
+            query.deliveryDate(),
+            pageable,
+            ReadRoutingContext.isPinnedToPrimary()
+        );
+        return singleFlight.execute(key, () -> {
+            filterExecutions.increment();
+            return strategy.apply(query, pageable);
+        }, filterCoalesced::increment);
+    }
+
+    /**
+     * The track strategies treat null and empty parameters alike, so both map to null here.
+     */
+    private static String normalize(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static Counter executionsCounter(MeterRegistry meterRegistry, String query) {
+        return Counter.builder("freight.query.executions")
+            .description("Track/filter queries executed against the database")
+            .tag("query", query)
+            .register(meterRegistry);
+    }
+
+    private static Counter coalescedCounter(MeterRegistry meterRegistry, String query) {
+        return Counter.builder("freight.query.coalesced")
+            .description("Track/filter calls served by joining an identical in-flight query")
+            .tag("query", query)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Callers pinned to the primary after their own write must not join a call that reads from the replica.
+     */
+    private record QueryKey(
+        Class<?> strategy,
+        Object first,
+        Object second,
+        Object third,
+        Pageable pageable,
+        boolean pinnedToPrimary
+    ) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.fkluh.freight.v1.service.command;
+
+import java.time.LocalDate;
+
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+
+/**
+ * A validated request to add a package, see {@link PackageCommandValidator#addPackage}. The status is resolved:
+ * DELIVERED when the actual delivery date is known, IN_TRANSIT when no status was given.
+ */
+public record AddPackageCommand(
+    String trackingNumber,
+    String email,
+    String recipientPostcode,
+    LocalDate estimatedDeliveryDate,
+    LocalDate actualDeliveryDate,
+    DeliveryStatusEnum status
+) {
+}
@@ -0,0 +1,12 @@
+package com.fkluh.freight.v1.service.command;
+
+import java.time.LocalDate;
+
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+
+/**
+ * Validated filter parameters, see {@link PackageCommandValidator#filterPackages}. Absent or empty parameters are
+ * null; the status, if present, is {@link DeliveryStatusEnum#DELAYED} or {@link DeliveryStatusEnum#ON_TIME}.
+ */
+public record FilterPackagesQuery(DeliveryStatusEnum status, String postcode, LocalDate deliveryDate) {
+}
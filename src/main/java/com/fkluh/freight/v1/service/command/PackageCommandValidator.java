@@ -0,0 +1,195 @@
+package com.fkluh.freight.v1.service.command;
+
+import java.net.IDN;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+
+/**
+ * Validates package requests and turns them into typed commands in one pass: every field is checked once and every
+ * date parsed once, and the service and strategies work on the result instead of the raw input. The checks are
+ * plain code and patterns compiled once, in place of reflective bean validation on every call; they apply the same
+ * rules, in field order, as the constraint annotations on {@link PackageDto}, which stay for the API documentation.
+ */
+public final class PackageCommandValidator {
+    public static final int MAX_TRACK_BATCH_SIZE = 5000;
+
+    private static final int MAX_EMAIL_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_EMAIL_DOMAIN_LENGTH = 255;
+
+    // the rules of Hibernate Validator's @Email, without IPv6 domain literals
+    private static final String LOCAL_PART_ATOM = "[a-z0-9!#$%&'*+/=?^_`{|}~\u0080-\uFFFF-]";
+    private static final String LOCAL_PART_QUOTED = "\"(?:[a-z0-9!#$%&'*.(),<>\\[\\]:;  @+/=?^_`{|}~\u0080-\uFFFF-]|\\\\\\\\|\\\\\")+\"";
+    private static final String LOCAL_PART_WORD = "(?:" + LOCAL_PART_ATOM + "+|" + LOCAL_PART_QUOTED + ")";
+    private static final Pattern EMAIL_LOCAL_PART = Pattern.compile(
+        LOCAL_PART_WORD + "(?:\\." + LOCAL_PART_WORD + ")*", Pattern.CASE_INSENSITIVE);
+    private static final String DOMAIN_LABEL = "\\p{Alnum}(?>[\\p{Alnum}-]{0,61}\\p{Alnum})?";
+    private static final Pattern EMAIL_DOMAIN = Pattern.compile(
+        DOMAIN_LABEL + "(?>\\." + DOMAIN_LABEL + ")*|\\[[0-9]{1,3}(?:\\.[0-9]{1,3}){3}]", Pattern.CASE_INSENSITIVE);
+
+    private PackageCommandValidator() {
+    }
+
+    /**
+     * @param dto the package to add
+     * @return the validated command
+     * @throws PackageValidationException with the message of the first invalid field
+     */
+    public static AddPackageCommand addPackage(PackageDto dto) {
+        if (dto == null) {
+            throw invalid(ErrorMessages.PACKAGE_EMPTY);
+        }
+        requireNotEmpty(dto.getTrackingNumber(), ErrorMessages.TRACKING_NUMBER_EMPTY);
+        requireNotEmpty(dto.getEmail(), ErrorMessages.EMAIL_EMPTY);
+        if (!isValidEmail(dto.getEmail())) {
+            throw invalid(ErrorMessages.EMAIL_INVALID);
+        }
+        requireNotEmpty(dto.getRecipientPostcode(), ErrorMessages.POSTCODE_EMPTY);
+        if (dto.getEstimatedDeliveryDate() == null) {
+            throw invalid(ErrorMessages.ESTIMATED_DELIVERY_DATE_EMPTY);
+        }
+
+        DeliveryStatusEnum status;
+        if (dto.getActualDeliveryDate() != null) {
+            status = DeliveryStatusEnum.DELIVERED;
+        } else if (dto.getStatus() == null) {
+            status = DeliveryStatusEnum.IN_TRANSIT;
+        } else {
+            status = parseStatus(dto.getStatus());
+        }
+        return new AddPackageCommand(dto.getTrackingNumber(), dto.getEmail(), dto.getRecipientPostcode(),
+            dto.getEstimatedDeliveryDate(), dto.getActualDeliveryDate(), status);
+    }
+
+    /**
+     * @param trackingNumber     the package to mark delivered
+     * @param actualDeliveryDate the delivery date as YYYY-MM-DD, not in the future
+     * @return the validated command
+     * @throws PackageValidationException if a parameter is empty or the date is malformed or in the future
+     */
+    public static UpdateDeliveryCommand updateDelivery(String trackingNumber, String actualDeliveryDate) {
+        requireNotBlank(trackingNumber, ErrorMessages.TRACKING_NUMBER_EMPTY);
+        requireNotBlank(actualDeliveryDate, ErrorMessages.ACTUAL_DELIVERY_DATE_EMPTY);
+        LocalDate parsedActualDeliveryDate = parseDate(actualDeliveryDate);
+        if (parsedActualDeliveryDate.isAfter(LocalDate.now())) {
+            throw invalid(ErrorMessages.ACTUAL_DELIVERY_DATE_CANNOT_BE_FUTURE_DATE);
+        }
+        return new UpdateDeliveryCommand(trackingNumber, parsedActualDeliveryDate);
+    }
+
+    /**
+     * @param trackingNumber the tracking number (optional)
+     * @param email          the recipient email (optional)
+     * @param postcode       the recipient postcode (optional)
+     * @throws PackageValidationException if none of them is given
+     */
+    public static void trackPackages(String trackingNumber, String email, String postcode) {
+        if ((trackingNumber == null || trackingNumber.isEmpty()) && (email == null || email.isEmpty())
+            && (postcode == null || postcode.isEmpty())) {
+            throw invalid(ErrorMessages.TRACKING_NUMBER_OR_EMAIL_AND_POSTCODE_EMPTY);
+        }
+    }
+
+    /**
+     * @param trackingNumbers the tracking numbers to look up, at most {@link #MAX_TRACK_BATCH_SIZE}
+     * @return the validated query
+     * @throws PackageValidationException if the list is empty or too long, or a tracking number is empty
+     */
+    public static TrackBatchQuery trackBatch(List<String> trackingNumbers) {
+        if (trackingNumbers == null || trackingNumbers.isEmpty()) {
+            throw invalid(ErrorMessages.TRACK_BATCH_EMPTY);
+        }
+        if (trackingNumbers.size() > MAX_TRACK_BATCH_SIZE) {
+            throw invalid(ErrorMessages.TRACK_BATCH_TOO_LARGE);
+        }
+        for (String trackingNumber : trackingNumbers) {
+            requireNotBlank(trackingNumber, ErrorMessages.TRACKING_NUMBER_EMPTY);
+        }
+        return new TrackBatchQuery(List.copyOf(trackingNumbers));
+    }
+
+    /**
+     * @param status       'delayed' or 'on-time', in any case (optional)
+     * @param postcode     the recipient postcode (optional, but not empty if given)
+     * @param deliveryDate the actual delivery date as YYYY-MM-DD (optional)
+     * @return the validated query
+     * @throws PackageValidationException if a given parameter is invalid
+     */
+    public static FilterPackagesQuery filterPackages(String status, String postcode, String deliveryDate) {
+        DeliveryStatusEnum parsedStatus = null;
+        if (status != null) {
+            if (status.equalsIgnoreCase("delayed")) {
+                parsedStatus = DeliveryStatusEnum.DELAYED;
+            } else if (status.equalsIgnoreCase("on-time")) {
+                parsedStatus = DeliveryStatusEnum.ON_TIME;
+            } else {
+                throw invalid(ErrorMessages.FILTER_STATUS_INVALID);
+            }
+        }
+        if (postcode != null && postcode.isEmpty()) {
+            throw invalid(ErrorMessages.POSTCODE_EMPTY);
+        }
+        LocalDate parsedDeliveryDate = deliveryDate == null || deliveryDate.isEmpty() ? null : parseDate(deliveryDate);
+        return new FilterPackagesQuery(parsedStatus, postcode, parsedDeliveryDate);
+    }
+
+    private static DeliveryStatusEnum parseStatus(String status) {
+        try {
+            return DeliveryStatusEnum.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw invalid(ErrorMessages.PACKAGE_STATUS_INVALID);
+        }
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw invalid(ErrorMessages.DELIVERY_DATE_INVALID_FORMAT);
+        }
+    }
+
+    static boolean isValidEmail(String email) {
+        int at = email.lastIndexOf('@');
+        if (at <= 0 || at == email.length() - 1) {
+            return false;
+        }
+        String localPart = email.substring(0, at);
+        String domain = email.substring(at + 1);
+        if (localPart.length() > MAX_EMAIL_LOCAL_PART_LENGTH || !EMAIL_LOCAL_PART.matcher(localPart).matches()) {
+            return false;
+        }
+        if (domain.endsWith(".")) {
+            return false;
+        }
+        String asciiDomain;
+        try {
+            asciiDomain = IDN.toASCII(domain);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return asciiDomain.length() <= MAX_EMAIL_DOMAIN_LENGTH && EMAIL_DOMAIN.matcher(asciiDomain).matches();
+    }
+
+    private static void requireNotEmpty(String value, String errorMessage) {
+        if (value == null || value.isEmpty()) {
+            throw invalid(errorMessage);
+        }
+    }
+
+    private static void requireNotBlank(String value, String errorMessage) {
+        if (value == null || value.trim().isEmpty()) {
+            throw invalid(errorMessage);
+        }
+    }
+
+    private static PackageValidationException invalid(String errorMessage) {
+        return new PackageValidationException(errorMessage);
+    }
+}
@@ -0,0 +1,10 @@
+package com.fkluh.freight.v1.service.command;
+
+import java.util.List;
+
+/**
+ * Validated batch of tracking numbers, see {@link PackageCommandValidator#trackBatch}. Non-empty, none of them blank,
+ * in request order and possibly with repeats.
+ */
+public record TrackBatchQuery(List<String> trackingNumbers) {
+}
@@ -0,0 +1,10 @@
+package com.fkluh.freight.v1.service.command;
+
+import java.time.LocalDate;
+
+/**
+ * A validated request to mark a package delivered, see {@link PackageCommandValidator#updateDelivery}. The actual
+ * delivery date is parsed and not in the future.
+ */
+public record UpdateDeliveryCommand(String trackingNumber, LocalDate actualDeliveryDate) {
+}
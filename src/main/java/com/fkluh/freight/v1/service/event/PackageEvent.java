@@ -0,0 +1,63 @@
+package com.fkluh.freight.v1.service.event;
+
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Immutable snapshot of a package write, published by the service for every add, delivery, removal and purge.
+ * Listeners get the state of the package as it was written (or, for removals and purges, as it was right before
+ * deletion).
+ */
+public record PackageEvent(
+    Type type,
+    String trackingNumber,
+    String email,
+    String recipientPostcode,
+    LocalDate estimatedDeliveryDate,
+    LocalDate actualDeliveryDate,
+    DeliveryStatusEnum status,
+    LocalDateTime createdAt
+) {
+
+    public enum Type {
+        CREATED,
+        DELIVERED,
+        REMOVED,
+        /**
+         * Deleted by a retention purge. Unlike a removal, the package still counts towards the delivery history.
+         */
+        PURGED
+    }
+
+    public static PackageEvent of(Type type, Package pkg) {
+        return new PackageEvent(
+            type,
+            pkg.getTrackingNumber(),
+            pkg.getEmail(),
+            pkg.getRecipientPostcode(),
+            pkg.getEstimatedDeliveryDate(),
+            pkg.getActualDeliveryDate(),
+            pkg.getStatus(),
+            pkg.getCreatedAt()
+        );
+    }
+
+    public boolean isDelivered() {
+        return status == DeliveryStatusEnum.DELIVERED && actualDeliveryDate != null;
+    }
+
+    public boolean isDelayed() {
+        return isDelivered() && estimatedDeliveryDate != null && actualDeliveryDate.isAfter(estimatedDeliveryDate);
+    }
+
+    /**
+     * @return the number of days the delivery was late, or 0 for on-time and undelivered packages
+     */
+    public long latenessDays() {
+        return isDelayed() ? ChronoUnit.DAYS.between(estimatedDeliveryDate, actualDeliveryDate) : 0;
+    }
+}
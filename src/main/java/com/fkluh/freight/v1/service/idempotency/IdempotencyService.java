@@ -0,0 +1,196 @@
+package com.fkluh.freight.v1.service.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.IdempotencyKeyReusedException;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.util.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@code Idempotency-Key} support for writes, so clients can retry a timed-out request without running it twice.
+ * The first request with a key runs; its successful response is kept with a hash of the request for
+ * {@code app.idempotency.ttl}, and repeats with the same key get it back, marked with an
+ * {@value #REPLAYED_HEADER} header, without touching the database. Repeats arriving while the first is still
+ * running wait for it and share its outcome, see {@link SingleFlight}. A key sent with a different request is
+ * rejected. Failed requests are not kept, so a retry after an error runs again.
+ * <p>
+ * Responses are held in memory, at most {@code app.idempotency.max-entries}, oldest dropped first; keys are
+ * remembered per instance and per caller. Metrics: {@code freight.idempotency.requests}, tagged {@code outcome} executed, replayed
+ * or coalesced, and the {@code freight.idempotency.stored} gauge.
+ */
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, StoredResponse> responses;
+    private final SingleFlight<String, StoredResponse> inFlight = new SingleFlight<>();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter coalesced;
+
+    @Autowired
+    public IdempotencyService(
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${app.idempotency.ttl:24h}") Duration ttl,
+        @Value("${app.idempotency.max-entries:50000}") int maxEntries
+    ) {
+        this(objectMapper, meterRegistry, Clock.systemUTC(), ttl, maxEntries);
+    }
+
+    IdempotencyService(ObjectMapper objectMapper, MeterRegistry meterRegistry, Clock clock, Duration ttl, int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        // insertion order is expiry order, as every response is kept for the same time
+        this.responses = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > IdempotencyService.this.maxEntries
+                    || eldest.getValue().expiresAt() <= IdempotencyService.this.clock.millis();
+            }
+        };
+        this.executed = requestCounter(meterRegistry, "executed");
+        this.replayed = requestCounter(meterRegistry, "replayed");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+        Gauge.builder("freight.idempotency.stored", this, IdempotencyService::storedCount)
+            .description("Responses kept for replay to requests with a known Idempotency-Key")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Runs a write once per idempotency key.
+     *
+     * @param idempotencyKey the client's key; without one the call simply runs
+     * @param principal      the authenticated caller, null if anonymous; keys are scoped to it, so two clients
+     *                       that happen to pick the same key never see each other's responses
+     * @param operation      names the endpoint, e.g. "POST /packages"; keys are scoped to it
+     * @param request        everything that identifies the request besides the operation, hashed to detect a key
+     *                       reused for a different request
+     * @param call           the write
+     * @return the call's response, or the stored response of an earlier request with the same key
+     * @throws PackageValidationException     if the key is empty, too long or not printable ASCII
+     * @throws IdempotencyKeyReusedException  if the key was used for a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String principal, String operation, Object request,
+                                         Supplier<ResponseEntity<T>> call) {
+        if (idempotencyKey == null) {
+            return call.get();
+        }
+        validateKey(idempotencyKey);
+        // keys are printable ASCII, so no key can reach into the principal past the NUL
+        String key = (principal == null ? "" : principal) + '\0' + operation + ' ' + idempotencyKey;
+        String requestHash = hash(operation, request);
+
+        StoredResponse stored = lookup(key);
+        if (stored != null) {
+            replayed.increment();
+            return (ResponseEntity<T>) replay(stored, requestHash);
+        }
+        boolean[] ranHere = new boolean[1];
+        stored = inFlight.execute(key, () -> {
+            // a request that finished between the lookup and now must not run again
+            StoredResponse finished = lookup(key);
+            if (finished != null) {
+                return finished;
+            }
+            ranHere[0] = true;
+            executed.increment();
+            ResponseEntity<T> response = call.get();
+            StoredResponse result = new StoredResponse(requestHash, response, clock.millis() + ttlMillis);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                synchronized (responses) {
+                    responses.put(key, result);
+                }
+            }
+            return result;
+        }, coalesced::increment);
+        return (ResponseEntity<T>) (ranHere[0] ? stored.response() : replay(stored, requestHash));
+    }
+
+    private StoredResponse lookup(String key) {
+        synchronized (responses) {
+            StoredResponse stored = responses.get(key);
+            if (stored != null && stored.expiresAt() <= clock.millis()) {
+                responses.remove(key);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private int storedCount() {
+        synchronized (responses) {
+            return responses.size();
+        }
+    }
+
+    private static ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(ErrorMessages.IDEMPOTENCY_KEY_REUSED);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(stored.response().getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>(stored.response().getBody(), headers, stored.response().getStatusCode());
+    }
+
+    private static void validateKey(String idempotencyKey) {
+        boolean valid = !idempotencyKey.isEmpty() && idempotencyKey.length() <= MAX_KEY_LENGTH
+            && idempotencyKey.chars().allMatch(c -> c > 0x20 && c < 0x7f);
+        if (!valid) {
+            throw new PackageValidationException(ErrorMessages.IDEMPOTENCY_KEY_INVALID);
+        }
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot hash request", e);
+        }
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("freight.idempotency.requests")
+            .description("Write requests with an Idempotency-Key")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private record StoredResponse(String requestHash, ResponseEntity<?> response, long expiresAt) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.fkluh.freight.v1.service.outbox;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands each batch to the application's {@code @EventListener}s of {@link PackageChangeBatch}. The default sink.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "in-process", matchIfMissing = true)
+public class InProcessOutboxSink implements OutboxSink {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public InProcessOutboxSink(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        eventPublisher.publishEvent(new PackageChangeBatch(batch));
+    }
+}
@@ -0,0 +1,23 @@
+package com.fkluh.freight.v1.service.outbox;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * One package change as published downstream. {@code sequence} increases with every change written to the
+ * {@code shard}; a change may be published more than once, so consumers should drop shard and sequence pairs they
+ * have already seen.
+ *
+ * @param shard   the shard the change was written to, always 0 without sharding
+ * @param payload the {@link com.fkluh.freight.v1.service.event.PackageEvent} as JSON
+ */
+public record OutboxMessage(
+    int shard,
+    long sequence,
+    String type,
+    String trackingNumber,
+    @JsonRawValue String payload,
+    LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,138 @@
+package com.fkluh.freight.v1.service.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fkluh.freight.v1.datasource.ShardScope;
+import com.fkluh.freight.v1.model.OutboxEvent;
+import com.fkluh.freight.v1.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the outbox to the {@link OutboxSink}, so downstream systems get every committed package change without
+ * the write path waiting for them. Every {@code app.outbox.poll-interval} the relay claims up to
+ * {@code app.outbox.batch-size} of the oldest changes, publishes them and deletes them, all in one transaction, and
+ * keeps going while batches come back full. A failed publish rolls back and is retried on the next poll, so changes
+ * are published at least once, each batch in sequence order. Relays on several instances skip each other's claimed
+ * rows, see {@link OutboxEventRepository#claimBatch}. With sharding, each change is written to the shard of its
+ * package, and every poll drains the shards one after another.
+ * <p>
+ * Metrics: {@code freight.outbox.published}, {@code freight.outbox.failures} (failed batches) and
+ * {@code freight.outbox.lag}, the time from writing a change to publishing it.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+    private final OutboxEventRepository repository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardScope shardScope;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer lag;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OutboxRelay(
+        OutboxEventRepository repository,
+        OutboxSink sink,
+        TransactionTemplate transactionTemplate,
+        ShardScope shardScope,
+        MeterRegistry meterRegistry,
+        @Value("${app.outbox.batch-size:500}") int batchSize,
+        @Value("${app.outbox.poll-interval:500ms}") Duration pollInterval
+    ) {
+        this.repository = repository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.shardScope = shardScope;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.published = Counter.builder("freight.outbox.published")
+            .description("Package changes published from the outbox")
+            .register(meterRegistry);
+        this.failures = Counter.builder("freight.outbox.failures")
+            .description("Outbox batches that failed to publish and will be retried")
+            .register(meterRegistry);
+        this.lag = Timer.builder("freight.outbox.lag")
+            .description("Time from writing a package change to publishing it")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        poller.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Outbox relay started, publishing to {}", sink.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        poller.shutdown();
+        poller.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Publishes batches from each shard until its outbox is empty or a batch fails.
+     */
+    void drain() {
+        shardScope.forEachShard(this::drain);
+    }
+
+    private void drain(int shard) {
+        try {
+            Integer count;
+            do {
+                count = transactionTemplate.execute(status -> relayBatch(shard));
+            } while (count != null && count == batchSize && !poller.isShutdown());
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox batch of shard {} failed to publish, retrying in {}", shard, pollInterval, e);
+        }
+    }
+
+    private int relayBatch(int shard) {
+        List<OutboxEvent> claimed = repository.claimBatch(PageRequest.of(0, batchSize));
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        List<OutboxMessage> batch = claimed.stream()
+            .map(event -> new OutboxMessage(shard, event.getId(), event.getEventType(), event.getTrackingNumber(),
+                event.getPayload(), event.getCreatedAt()))
+            .toList();
+        try {
+            sink.publish(batch);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Outbox sink failed", e);
+        }
+        repository.deleteAllByIdInBatch(claimed.stream().map(OutboxEvent::getId).toList());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : claimed) {
+            lag.record(Duration.between(event.getCreatedAt(), now));
+        }
+        published.increment(claimed.size());
+        return claimed.size();
+    }
+}
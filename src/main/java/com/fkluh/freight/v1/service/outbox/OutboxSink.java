@@ -0,0 +1,16 @@
+package com.fkluh.freight.v1.service.outbox;
+
+import java.util.List;
+
+/**
+ * Where {@link OutboxRelay} publishes package changes. A batch is removed from the outbox only after
+ * {@link #publish} returns; if it throws, the whole batch is published again on the next poll.
+ */
+public interface OutboxSink {
+
+    /**
+     * @param batch changes in sequence order
+     * @throws Exception if the batch could not be published
+     */
+    void publish(List<OutboxMessage> batch) throws Exception;
+}
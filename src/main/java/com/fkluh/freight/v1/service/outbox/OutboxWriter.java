@@ -0,0 +1,43 @@
+package com.fkluh.freight.v1.service.outbox;
+
+import java.time.LocalDateTime;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fkluh.freight.v1.model.OutboxEvent;
+import com.fkluh.freight.v1.repository.OutboxEventRepository;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+/**
+ * Writes every package change to the outbox. Runs synchronously inside the transaction of the write that published
+ * the event, so a change is in the outbox exactly when it is committed; {@link OutboxRelay} takes it from there.
+ */
+@Component
+public class OutboxWriter {
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    @Transactional
+    public void onPackageEvent(PackageEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventType(event.type().name());
+        outboxEvent.setTrackingNumber(event.trackingNumber());
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize package event", e);
+        }
+        repository.save(outboxEvent);
+    }
+}
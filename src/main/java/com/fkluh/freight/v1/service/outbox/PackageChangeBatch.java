@@ -0,0 +1,10 @@
+package com.fkluh.freight.v1.service.outbox;
+
+import java.util.List;
+
+/**
+ * Published by {@link InProcessOutboxSink} for in-process consumers of the change feed. Listeners run in the relay's
+ * transaction, so a listener that throws has the batch published again.
+ */
+public record PackageChangeBatch(List<OutboxMessage> changes) {
+}
@@ -0,0 +1,267 @@
+package com.fkluh.freight.v1.service.purge;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fkluh.freight.v1.datasource.ShardScope;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.exception.PurgeJobNotFoundException;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.PurgeJobStateEnum;
+import com.fkluh.freight.v1.model.dto.PurgeJobDto;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk deletes packages for retention. A purge runs in the background, one at a time, as a series of short
+ * transactions that each lock and delete at most {@code app.purge.chunk-size} packages with a single set-based
+ * DELETE, pausing {@code app.purge.pause-between-chunks} between chunks so live traffic keeps its share of the
+ * database. Delivery rollups are kept. With sharding, the shards are purged one after another, each chunk on one
+ * shard; the dry-run and progress counts add up all shards.
+ * <p>
+ * The DELETE goes through JDBC rather than JPQL because Hibernate empties the whole package cache region on any
+ * bulk statement; instead only the purged packages are evicted from the second-level cache.
+ */
+@Service
+@Slf4j
+public class PackagePurgeService {
+    private static final int MAX_RETAINED_JOBS = 100;
+    private static final String DELETE_PACKAGES = "DELETE FROM package WHERE tracking_number IN (:trackingNumbers)";
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ShardScope shardScope;
+
+    @Value("${app.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.purge.pause-between-chunks:200ms}")
+    private Duration pauseBetweenChunks;
+
+    private final Map<String, PurgeJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PurgeJob> eldest) {
+            return size() > MAX_RETAINED_JOBS;
+        }
+    });
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "package-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Counts the packages a purge with the same criteria would delete, without deleting anything.
+     *
+     * @param status          the status of the packages to purge (optional)
+     * @param deliveredBefore purge packages delivered before this date, in the format YYYY-MM-DD (optional)
+     * @param postcode        the recipient postcode of the packages to purge (optional)
+     * @return a dry-run result holding the number of matching packages
+     */
+    public PurgeJobDto dryRun(String status, String deliveredBefore, String postcode) {
+        PurgeCriteria criteria = parseCriteria(status, deliveredBefore, postcode);
+        PurgeJobDto dto = new PurgeJobDto();
+        dto.setStatus(criteria.status());
+        dto.setDeliveredBefore(criteria.deliveredBefore());
+        dto.setRecipientPostcode(criteria.recipientPostcode());
+        dto.setDryRun(true);
+        dto.setState(PurgeJobStateEnum.COMPLETED);
+        dto.setMatchedCount(countCandidates(criteria));
+        return dto;
+    }
+
+    /**
+     * Queues a purge of all packages matching the criteria. At least one criterion is required.
+     *
+     * @param status          the status of the packages to purge (optional)
+     * @param deliveredBefore purge packages delivered before this date, in the format YYYY-MM-DD (optional)
+     * @param postcode        the recipient postcode of the packages to purge (optional)
+     * @return the queued job, whose id can be used to follow its progress
+     */
+    public PurgeJobDto startPurge(String status, String deliveredBefore, String postcode) {
+        PurgeJob job = new PurgeJob(parseCriteria(status, deliveredBefore, postcode));
+        jobs.put(job.getId(), job);
+        log.info("Queued purge {} for {}", job.getId(), job.getCriteria());
+        worker.execute(() -> run(job));
+        return job.toDto();
+    }
+
+    /**
+     * @param jobId the id of a purge job
+     * @return the progress of the job
+     * @throws PurgeJobNotFoundException if no such job is known
+     */
+    public PurgeJobDto getJob(String jobId) {
+        return findJob(jobId).toDto();
+    }
+
+    /**
+     * Stops a purge after its current chunk. Chunks already deleted stay deleted.
+     *
+     * @param jobId the id of a purge job
+     * @return the progress of the job
+     * @throws PurgeJobNotFoundException if no such job is known
+     */
+    public PurgeJobDto cancelJob(String jobId) {
+        PurgeJob job = findJob(jobId);
+        job.requestCancel();
+        return job.toDto();
+    }
+
+    private void run(PurgeJob job) {
+        if (job.isCancelRequested()) {
+            job.finish(PurgeJobStateEnum.CANCELLED, null);
+            return;
+        }
+        PurgeCriteria criteria = job.getCriteria();
+        try {
+            job.start(countCandidates(criteria));
+            for (int shard = 0; shard < shardScope.shardCount() && !job.isCancelRequested(); shard++) {
+                int current = shard;
+                String afterTrackingNumber = "";
+                while (!job.isCancelRequested()) {
+                    String after = afterTrackingNumber;
+                    List<String> purged = shardScope.onShard(current,
+                        () -> transactionTemplate.execute(status -> purgeChunk(criteria, after)));
+                    if (purged == null || purged.isEmpty()) {
+                        break;
+                    }
+                    evictFromCache(purged);
+                    job.chunkPurged(purged.size());
+                    afterTrackingNumber = purged.get(purged.size() - 1);
+                    if (purged.size() < chunkSize) {
+                        break;
+                    }
+                    if (!pauseBetweenChunks.isZero()) {
+                        Thread.sleep(pauseBetweenChunks.toMillis());
+                    }
+                }
+            }
+            job.finish(job.isCancelRequested() ? PurgeJobStateEnum.CANCELLED : PurgeJobStateEnum.COMPLETED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(PurgeJobStateEnum.CANCELLED, null);
+        } catch (RuntimeException e) {
+            log.error("Purge {} failed", job.getId(), e);
+            job.finish(PurgeJobStateEnum.FAILED, e.getMessage());
+        }
+        log.info("Purge {} finished: {}", job.getId(), job.toDto().getState());
+    }
+
+    /**
+     * Deletes the next chunk of matching packages and publishes a {@link PackageEvent.Type#PURGED} event for each, so
+     * after-commit listeners see the deletions. Runs inside the chunk's transaction.
+     *
+     * @return the tracking numbers of the deleted packages, in ascending order
+     */
+    private List<String> purgeChunk(PurgeCriteria criteria, String afterTrackingNumber) {
+        List<Package> chunk = repository.lockPurgeCandidates(
+            criteria.status(),
+            criteria.deliveredBefore(),
+            criteria.recipientPostcode(),
+            afterTrackingNumber,
+            PageRequest.of(0, chunkSize)
+        );
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        List<String> trackingNumbers = chunk.stream().map(Package::getTrackingNumber).toList();
+        jdbcTemplate.update(DELETE_PACKAGES, Map.of("trackingNumbers", trackingNumbers));
+        for (Package pkg : chunk) {
+            eventPublisher.publishEvent(PackageEvent.of(PackageEvent.Type.PURGED, pkg));
+        }
+        return trackingNumbers;
+    }
+
+    private void evictFromCache(List<String> trackingNumbers) {
+        Cache cache = entityManagerFactory.getCache();
+        for (String trackingNumber : trackingNumbers) {
+            cache.evict(Package.class, trackingNumber);
+        }
+        // cached single-package track results may point at a purged package
+        cache.unwrap(org.hibernate.Cache.class).evictDefaultQueryRegion();
+    }
+
+    private long countCandidates(PurgeCriteria criteria) {
+        return repository.countPurgeCandidates(criteria.status(), criteria.deliveredBefore(), criteria.recipientPostcode());
+    }
+
+    private PurgeJob findJob(String jobId) {
+        PurgeJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new PurgeJobNotFoundException(ErrorMessages.PURGE_JOB_NOT_FOUND);
+        }
+        return job;
+    }
+
+    private PurgeCriteria parseCriteria(String status, String deliveredBefore, String postcode) {
+        boolean hasStatus = status != null && !status.isEmpty();
+        boolean hasDeliveredBefore = deliveredBefore != null && !deliveredBefore.isEmpty();
+        boolean hasPostcode = postcode != null && !postcode.isEmpty();
+        if (!hasStatus && !hasDeliveredBefore && !hasPostcode) {
+            throw new PackageValidationException(ErrorMessages.PURGE_CRITERIA_EMPTY);
+        }
+        DeliveryStatusEnum parsedStatus = null;
+        if (hasStatus) {
+            try {
+                parsedStatus = DeliveryStatusEnum.valueOf(status.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new PackageValidationException(ErrorMessages.PURGE_STATUS_INVALID);
+            }
+        }
+        LocalDate parsedDeliveredBefore = null;
+        if (hasDeliveredBefore) {
+            try {
+                parsedDeliveredBefore = LocalDate.parse(deliveredBefore);
+            } catch (DateTimeParseException e) {
+                throw new PackageValidationException(ErrorMessages.DELIVERY_DATE_INVALID_FORMAT);
+            }
+        }
+        return new PurgeCriteria(parsedStatus, parsedDeliveredBefore, hasPostcode ? postcode : null);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        worker.shutdownNow();
+        worker.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,15 @@
+package com.fkluh.freight.v1.service.purge;
+
+import java.time.LocalDate;
+
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+
+/**
+ * Selects the packages a purge deletes. Set criteria are combined with AND; null criteria match everything.
+ */
+public record PurgeCriteria(
+    DeliveryStatusEnum status,
+    LocalDate deliveredBefore,
+    String recipientPostcode
+) {
+}
@@ -0,0 +1,79 @@
+package com.fkluh.freight.v1.service.purge;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.fkluh.freight.v1.model.PurgeJobStateEnum;
+import com.fkluh.freight.v1.model.dto.PurgeJobDto;
+
+/**
+ * Progress of one purge. Written by the purge worker and read by status requests, so all state is volatile and
+ * only the worker thread writes the counters.
+ */
+class PurgeJob {
+    private final String id = UUID.randomUUID().toString();
+    private final PurgeCriteria criteria;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile PurgeJobStateEnum state = PurgeJobStateEnum.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile long matchedCount;
+    private volatile long deletedCount;
+    private volatile int chunksCompleted;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    PurgeJob(PurgeCriteria criteria) {
+        this.criteria = criteria;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    PurgeCriteria getCriteria() {
+        return criteria;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void start(long matchedCount) {
+        this.matchedCount = matchedCount;
+        startedAt = LocalDateTime.now();
+        state = PurgeJobStateEnum.RUNNING;
+    }
+
+    void chunkPurged(int deleted) {
+        deletedCount += deleted;
+        chunksCompleted++;
+    }
+
+    void finish(PurgeJobStateEnum finalState, String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        state = finalState;
+    }
+
+    PurgeJobDto toDto() {
+        PurgeJobDto dto = new PurgeJobDto();
+        dto.setId(id);
+        dto.setStatus(criteria.status());
+        dto.setDeliveredBefore(criteria.deliveredBefore());
+        dto.setRecipientPostcode(criteria.recipientPostcode());
+        dto.setState(state);
+        dto.setMatchedCount(matchedCount);
+        dto.setDeletedCount(deletedCount);
+        dto.setChunksCompleted(chunksCompleted);
+        dto.setCreatedAt(createdAt);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        dto.setError(error);
+        return dto;
+    }
+}
@@ -0,0 +1,208 @@
+package com.fkluh.freight.v1.service.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fkluh.freight.v1.datasource.ShardScope;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.dto.PackageSearchHitDto;
+import com.fkluh.freight.v1.model.dto.SearchIndexStatsDto;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+import com.fkluh.freight.v1.util.TrigramIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Partial and approximate search over tracking numbers and emails, answered from in-memory trigram indexes instead
+ * of {@code LIKE '%...%'} table scans. The indexes are built from the database at startup and then kept up to date
+ * from committed package writes, so they only see writes made through this instance.
+ * <p>
+ * Metrics: {@code freight.search.index.packages} and {@code freight.search.index.bytes}, an estimate of the heap the
+ * indexes use.
+ */
+@Service
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class PackageSearchService {
+    private static final String TRACKING_NUMBER = "trackingNumber";
+    private static final String EMAIL = "email";
+    private static final int MIN_QUERY_LENGTH = 3;
+    private static final double MIN_SCORE = 0.5;
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    // rough per-entry sizes of the package lookup maps, see TrigramIndex#estimatedBytes
+    private static final long MAP_ENTRY_BYTES = 36;
+    private static final long LIST_BYTES = 24 + 16;
+
+    private static final Comparator<PackageSearchHitDto> BEST_FIRST = Comparator
+        .comparing(PackageSearchHitDto::getMatchType)
+        .thenComparing(Comparator.comparingDouble(PackageSearchHitDto::getScore).reversed())
+        .thenComparing(PackageSearchHitDto::getTrackingNumber);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardScope shardScope;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrigramIndex trackingNumbers = new TrigramIndex();
+    private final TrigramIndex emails = new TrigramIndex();
+    private final Map<String, String> emailByTrackingNumber = new HashMap<>();
+    private final Map<String, List<String>> trackingNumbersByEmail = new HashMap<>();
+
+    @PostConstruct
+    public void buildIndex() {
+        long start = System.nanoTime();
+        shardScope.forEachShard(shard -> jdbcTemplate.query("SELECT tracking_number, email FROM package", resultSet -> {
+            add(resultSet.getString(1), resultSet.getString(2));
+        }));
+        SearchIndexStatsDto stats = getStats();
+        log.info("Search index built with {} packages in {} ms, ~{} KB",
+            stats.getPackages(), (System.nanoTime() - start) / 1_000_000, stats.getEstimatedBytes() / 1024);
+
+        Gauge.builder("freight.search.index.packages", this, service -> service.getStats().getPackages())
+            .description("Packages in the tracking number and email search index")
+            .register(meterRegistry);
+        Gauge.builder("freight.search.index.bytes", this, service -> service.getStats().getEstimatedBytes())
+            .description("Estimated heap used by the search index")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPackageEvent(PackageEvent event) {
+        switch (event.type()) {
+            case CREATED -> add(event.trackingNumber(), event.email());
+            case REMOVED, PURGED -> remove(event.trackingNumber());
+            case DELIVERED -> {
+                // neither tracking number nor email changes on delivery
+            }
+        }
+    }
+
+    /**
+     * Searches tracking numbers and emails for partial or misspelled input. Exact matches rank first, then prefix and
+     * substring matches; fuzzy matches are only returned when there are no others, since unrelated values sharing a
+     * common prefix or email domain would otherwise crowd the results. Each package is returned once, with its best
+     * match.
+     *
+     * @param query the partial tracking number or email, at least 3 characters
+     * @param limit the maximum number of hits to return
+     * @return the matching packages, best first
+     */
+    public List<PackageSearchHitDto> search(String query, int limit) {
+        String trimmedQuery = query == null ? "" : query.trim();
+        if (trimmedQuery.length() < MIN_QUERY_LENGTH) {
+            throw new PackageValidationException(ErrorMessages.SEARCH_QUERY_TOO_SHORT);
+        }
+        int sanitizedLimit = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        List<PackageSearchHitDto> hits = withReadLock(() -> {
+            List<PackageSearchHitDto> found = new ArrayList<>();
+            for (TrigramIndex.Match match : trackingNumbers.search(trimmedQuery, MIN_SCORE, sanitizedLimit)) {
+                found.add(new PackageSearchHitDto(match.term(), emailByTrackingNumber.get(match.term()), TRACKING_NUMBER,
+                    match.type(), match.score()));
+            }
+            for (TrigramIndex.Match match : emails.search(trimmedQuery, MIN_SCORE, sanitizedLimit)) {
+                List<String> packages = trackingNumbersByEmail.getOrDefault(match.term(), List.of());
+                for (String trackingNumber : packages.subList(0, Math.min(packages.size(), sanitizedLimit))) {
+                    found.add(new PackageSearchHitDto(trackingNumber, match.term(), EMAIL, match.type(), match.score()));
+                }
+            }
+            return found;
+        });
+
+        hits.sort(BEST_FIRST);
+        boolean onlyFuzzy = hits.isEmpty() || hits.get(0).getMatchType() == TrigramIndex.MatchType.FUZZY;
+        Map<String, PackageSearchHitDto> best = new LinkedHashMap<>();
+        for (PackageSearchHitDto hit : hits) {
+            if (best.size() == sanitizedLimit || (!onlyFuzzy && hit.getMatchType() == TrigramIndex.MatchType.FUZZY)) {
+                break;
+            }
+            best.putIfAbsent(hit.getTrackingNumber(), hit);
+        }
+        return new ArrayList<>(best.values());
+    }
+
+    /**
+     * @return the size of the search index and an estimate of the heap it uses
+     */
+    public SearchIndexStatsDto getStats() {
+        return withReadLock(() -> {
+            SearchIndexStatsDto stats = new SearchIndexStatsDto();
+            stats.setPackages(emailByTrackingNumber.size());
+            stats.setEmails(trackingNumbersByEmail.size());
+            stats.setTrigrams(trackingNumbers.trigramCount() + emails.trigramCount());
+            stats.setEstimatedBytes(trackingNumbers.estimatedBytes() + emails.estimatedBytes()
+                + emailByTrackingNumber.size() * (MAP_ENTRY_BYTES + 4)
+                + trackingNumbersByEmail.size() * (MAP_ENTRY_BYTES + LIST_BYTES));
+            return stats;
+        });
+    }
+
+    private void add(String trackingNumber, String email) {
+        lock.writeLock().lock();
+        try {
+            if (emailByTrackingNumber.putIfAbsent(trackingNumber, email) != null) {
+                return;
+            }
+            trackingNumbers.add(trackingNumber);
+            trackingNumbersByEmail.computeIfAbsent(email, key -> {
+                emails.add(key);
+                return new ArrayList<>(1);
+            }).add(trackingNumber);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(String trackingNumber) {
+        lock.writeLock().lock();
+        try {
+            String email = emailByTrackingNumber.remove(trackingNumber);
+            if (email == null) {
+                return;
+            }
+            trackingNumbers.remove(trackingNumber);
+            List<String> packages = trackingNumbersByEmail.get(email);
+            packages.remove(trackingNumber);
+            if (packages.isEmpty()) {
+                trackingNumbersByEmail.remove(email);
+                emails.remove(email);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T withReadLock(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
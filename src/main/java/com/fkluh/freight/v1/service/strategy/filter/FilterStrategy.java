@@ -2,9 +2,10 @@ package com.fkluh.freight.v1.service.strategy.filter;
 
 import com.fkluh.freight.v1.model.dto.CustomPage;
 import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
 import org.springframework.data.domain.Pageable;
 
 public interface FilterStrategy {
-    boolean isApplicable(String status, String postcode, String deliveryDate);
-    CustomPage<PackageDto> apply(String status, String postcode, String deliveryDate, Pageable pageable);
+    boolean isApplicable(FilterPackagesQuery query);
+    CustomPage<PackageDto> apply(FilterPackagesQuery query, Pageable pageable);
 }
\ No newline at end of file
@@ -1,18 +1,15 @@
 package com.fkluh.freight.v1.service.strategy.filter;
 
-import com.fkluh.freight.v1.exception.PackageValidationException;
 import com.fkluh.freight.v1.model.dto.CustomPage;
 import com.fkluh.freight.v1.model.dto.PackageDto;
-import com.fkluh.freight.v1.exception.ErrorMessages;
 import com.fkluh.freight.v1.mapper.PackageMapper;
 import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
-
 @Component
 @AllArgsConstructor
 public class FilterStrategyByDeliveryDate implements FilterStrategy {
@@ -24,25 +21,12 @@ public class FilterStrategyByDeliveryDate implements FilterStrategy {
     private PackageMapper mapper;
 
     @Override
-    public boolean isApplicable(String status, String postcode, String deliveryDate) {
-        return deliveryDate != null && !deliveryDate.isEmpty();
+    public boolean isApplicable(FilterPackagesQuery query) {
+        return query.deliveryDate() != null;
     }
 
     @Override
-    public CustomPage<PackageDto> apply(String status, String postcode, String deliveryDate, Pageable pageable) {
-        LocalDate parsedDeliveryDate = sanitizeFilterInputDate(deliveryDate);
-        return mapper.packageEntityPageToDtoPage(repository.findDeliveredByActualDeliveryDate(parsedDeliveryDate, pageable));
-    }
-
-    private LocalDate sanitizeFilterInputDate(String date) {
-        LocalDate parsedDate = null;
-        if (date != null && !date.isEmpty()) {
-            try {
-                parsedDate = LocalDate.parse(date);
-            } catch (Exception e) {
-                throw new PackageValidationException(ErrorMessages.DELIVERY_DATE_INVALID_FORMAT);
-            }
-        }
-        return parsedDate;
+    public CustomPage<PackageDto> apply(FilterPackagesQuery query, Pageable pageable) {
+        return mapper.packageEntityPageToDtoPage(repository.findDeliveredByActualDeliveryDate(query.deliveryDate(), pageable));
     }
 }
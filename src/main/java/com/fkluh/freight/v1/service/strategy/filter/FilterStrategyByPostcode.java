@@ -4,6 +4,7 @@ import com.fkluh.freight.v1.model.dto.CustomPage;
 import com.fkluh.freight.v1.model.dto.PackageDto;
 import com.fkluh.freight.v1.mapper.PackageMapper;
 import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
@@ -20,12 +21,12 @@ public class FilterStrategyByPostcode implements FilterStrategy {
     private PackageMapper mapper;
 
     @Override
-    public boolean isApplicable(String status, String postcode, String deliveryDate) {
-        return postcode != null && !postcode.isEmpty();
+    public boolean isApplicable(FilterPackagesQuery query) {
+        return query.postcode() != null;
     }
 
     @Override
-    public CustomPage<PackageDto> apply(String status, String postcode, String deliveryDate, Pageable pageable) {
-        return mapper.packageEntityPageToDtoPage(repository.findDeliveredByRecipientPostcode(postcode, pageable));
+    public CustomPage<PackageDto> apply(FilterPackagesQuery query, Pageable pageable) {
+        return mapper.packageEntityPageToDtoPage(repository.findDeliveredByRecipientPostcode(query.postcode(), pageable));
     }
 }
@@ -5,6 +5,7 @@ import com.fkluh.freight.v1.model.dto.PackageDto;
 import com.fkluh.freight.v1.model.DeliveryStatusEnum;
 import com.fkluh.freight.v1.repository.PackageRepositoryV1;
 import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
@@ -20,16 +21,15 @@ public class FilterStrategyByStatus implements FilterStrategy {
     private PackageMapper mapper;
 
     @Override
-    public boolean isApplicable(String status, String postcode, String deliveryDate) {
-        return status != null && (status.equalsIgnoreCase(DeliveryStatusEnum.DELAYED.name().toLowerCase())
-            || status.equalsIgnoreCase(DeliveryStatusEnum.ON_TIME.name().toLowerCase()));
+    public boolean isApplicable(FilterPackagesQuery query) {
+        return query.status() != null;
     }
 
     @Override
-    public CustomPage<PackageDto> apply(String status, String postcode, String deliveryDate, Pageable pageable) {
-        if (status.equalsIgnoreCase(DeliveryStatusEnum.DELAYED.name().toLowerCase())) {
+    public CustomPage<PackageDto> apply(FilterPackagesQuery query, Pageable pageable) {
+        if (query.status() == DeliveryStatusEnum.DELAYED) {
             return mapper.packageEntityPageToDtoPage(repository.findByStatusAndActualDeliveryDateAfterEstimatedDeliveryDate(DeliveryStatusEnum.DELIVERED, pageable));
-        } else if (status.equalsIgnoreCase(DeliveryStatusEnum.ON_TIME.name().toLowerCase())) {
+        } else if (query.status() == DeliveryStatusEnum.ON_TIME) {
             return mapper.packageEntityPageToDtoPage(repository.findByStatusAndActualDeliveryDateOnOrBeforeEstimatedDeliveryDate(DeliveryStatusEnum.DELIVERED, pageable));
         }
         return CustomPage.empty();
@@ -0,0 +1,15 @@
+package com.fkluh.freight.v1.service.strategy.filter;
+
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive counterpart of {@link FilterStrategy}, applied in the same order and under the same conditions. An unpaged
+ * {@link Pageable} streams every match.
+ */
+public interface ReactiveFilterStrategy {
+    boolean isApplicable(FilterPackagesQuery query);
+    Flux<Package> apply(FilterPackagesQuery query, Pageable pageable);
+}
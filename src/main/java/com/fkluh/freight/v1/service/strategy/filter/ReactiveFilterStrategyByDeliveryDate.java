@@ -0,0 +1,23 @@
+package com.fkluh.freight.v1.service.strategy.filter;
+
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.repository.ReactivePackageRepositoryV1;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
+@AllArgsConstructor
+public class ReactiveFilterStrategyByDeliveryDate implements ReactiveFilterStrategy {
+    private ReactivePackageRepositoryV1 repository;
+
+    @Override
+    public boolean isApplicable(FilterPackagesQuery query) {
+        return query.deliveryDate() != null;
+    }
+
+    @Override
+    public Flux<Package> apply(FilterPackagesQuery query, Pageable pageable) {
+        return repository.findDeliveredByActualDeliveryDate(query.deliveryDate(), pageable);
+    }
+}
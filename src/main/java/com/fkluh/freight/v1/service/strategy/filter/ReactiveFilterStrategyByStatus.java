@@ -0,0 +1,29 @@
+package com.fkluh.freight.v1.service.strategy.filter;
+
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.repository.ReactivePackageRepositoryV1;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
+@AllArgsConstructor
+public class ReactiveFilterStrategyByStatus implements ReactiveFilterStrategy {
+    private ReactivePackageRepositoryV1 repository;
+
+    @Override
+    public boolean isApplicable(FilterPackagesQuery query) {
+        return query.status() != null;
+    }
+
+    @Override
+    public Flux<Package> apply(FilterPackagesQuery query, Pageable pageable) {
+        if (query.status() == DeliveryStatusEnum.DELAYED) {
+            return repository.findByStatusAndActualDeliveryDateAfterEstimatedDeliveryDate(pageable);
+        } else if (query.status() == DeliveryStatusEnum.ON_TIME) {
+            return repository.findByStatusAndActualDeliveryDateOnOrBeforeEstimatedDeliveryDate(pageable);
+        }
+        return Flux.empty();
+    }
+}
@@ -0,0 +1,14 @@
+package com.fkluh.freight.v1.service.strategy.track;
+
+import com.fkluh.freight.v1.model.Package;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive counterpart of {@link TrackStrategy}, applied in the same order and under the same conditions. An unpaged
+ * {@link Pageable} streams every match. A search without matches ends with a {@code PackageNotFoundException}.
+ */
+public interface ReactiveTrackStrategy {
+    boolean isApplicable(String trackingNumber, String email, String postcode);
+    Flux<Package> apply(String trackingNumber, String email, String postcode, Pageable pageable);
+}
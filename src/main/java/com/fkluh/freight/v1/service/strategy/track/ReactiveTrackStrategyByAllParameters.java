@@ -0,0 +1,27 @@
+package com.fkluh.freight.v1.service.strategy.track;
+
+import com.fkluh.freight.v1.exception.PackageNotFoundException;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.repository.ReactivePackageRepositoryV1;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
+@AllArgsConstructor
+public class ReactiveTrackStrategyByAllParameters implements ReactiveTrackStrategy {
+    private ReactivePackageRepositoryV1 repository;
+
+    @Override
+    public boolean isApplicable(String trackingNumber, String email, String postcode) {
+        return trackingNumber != null && !trackingNumber.isEmpty() &&
+            email != null && !email.isEmpty() &&
+            postcode != null && !postcode.isEmpty();
+    }
+
+    @Override
+    public Flux<Package> apply(String trackingNumber, String email, String postcode, Pageable pageable) {
+        return repository.findByTrackingNumberAndEmailAndRecipientPostcode(trackingNumber, email, postcode)
+            .flux()
+            .switchIfEmpty(Flux.error(() -> new PackageNotFoundException(String.format("Package with tracking number %s, email %s and postcode %s not found.", trackingNumber, email, postcode))));
+    }
+}
@@ -0,0 +1,25 @@
+package com.fkluh.freight.v1.service.strategy.track;
+
+import com.fkluh.freight.v1.exception.PackageNotFoundException;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.repository.ReactivePackageRepositoryV1;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
+@AllArgsConstructor
+public class ReactiveTrackStrategyByEmailAndPostcode implements ReactiveTrackStrategy {
+    private ReactivePackageRepositoryV1 repository;
+
+    @Override
+    public boolean isApplicable(String trackingNumber, String email, String postcode) {
+        return email != null && !email.isEmpty() &&
+                postcode != null && !postcode.isEmpty();
+    }
+
+    @Override
+    public Flux<Package> apply(String trackingNumber, String email, String postcode, Pageable pageable) {
+        return repository.findByEmailAndRecipientPostcode(email, postcode, pageable)
+            .switchIfEmpty(Flux.error(() -> new PackageNotFoundException(String.format("Package with email %s and postcode %s not found.", email, postcode))));
+    }
+}
@@ -0,0 +1,8 @@
+package com.fkluh.freight.v1.service.webhook;
+
+/**
+ * One batch of events as posted to a webhook. The id is sent with every attempt, so receivers can drop a batch they
+ * already processed.
+ */
+record WebhookDelivery(String id, String subscriptionId, int eventCount, String payload) {
+}
@@ -0,0 +1,234 @@
+package com.fkluh.freight.v1.service.webhook;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fkluh.freight.v1.model.WebhookDeadLetter;
+import com.fkluh.freight.v1.repository.WebhookDeadLetterRepository;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * What the {@link WebhookEndpoint}s share: a small pool of dispatch threads, a non-blocking HTTP client and the
+ * delivery settings. Requests are sent asynchronously, so a slow partner holds connections, never threads, and only
+ * as many as its concurrency limit.
+ * <p>
+ * Metrics: {@code freight.webhooks.events}, tagged {@code outcome} delivered, dead_lettered or dropped (found the
+ * queue full), and {@code freight.webhooks.retries}.
+ */
+@Slf4j
+@Component
+public class WebhookDispatcher {
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration linger;
+    private final int maxConcurrency;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration requestTimeout;
+    private final ObjectMapper objectMapper;
+    private final WebhookDeadLetterRepository deadLetterRepository;
+    private final ScheduledExecutorService executor;
+    private final HttpClient httpClient;
+    private final Counter deliveredEvents;
+    private final Counter deadLetteredEvents;
+    private final Counter droppedEvents;
+    private final Counter retries;
+
+    public WebhookDispatcher(
+        ObjectMapper objectMapper,
+        WebhookDeadLetterRepository deadLetterRepository,
+        MeterRegistry meterRegistry,
+        @Value("${app.webhooks.dispatch-threads:2}") int dispatchThreads,
+        @Value("${app.webhooks.queue-capacity:10000}") int queueCapacity,
+        @Value("${app.webhooks.batch-size:100}") int batchSize,
+        @Value("${app.webhooks.linger:200ms}") Duration linger,
+        @Value("${app.webhooks.max-concurrency:1}") int maxConcurrency,
+        @Value("${app.webhooks.max-attempts:8}") int maxAttempts,
+        @Value("${app.webhooks.initial-backoff:1s}") Duration initialBackoff,
+        @Value("${app.webhooks.max-backoff:5m}") Duration maxBackoff,
+        @Value("${app.webhooks.connect-timeout:5s}") Duration connectTimeout,
+        @Value("${app.webhooks.request-timeout:10s}") Duration requestTimeout
+    ) {
+        this.objectMapper = objectMapper;
+        this.deadLetterRepository = deadLetterRepository;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.maxConcurrency = maxConcurrency;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.requestTimeout = requestTimeout;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "webhook-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.setRemoveOnCancelPolicy(true);
+        this.executor = pool;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(connectTimeout)
+            .executor(pool)
+            .build();
+
+        this.deliveredEvents = meterRegistry.counter("freight.webhooks.events", "outcome", "delivered");
+        this.deadLetteredEvents = meterRegistry.counter("freight.webhooks.events", "outcome", "dead_lettered");
+        this.droppedEvents = meterRegistry.counter("freight.webhooks.events", "outcome", "dropped");
+        this.retries = meterRegistry.counter("freight.webhooks.retries");
+    }
+
+    int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    Duration getLinger() {
+        return linger;
+    }
+
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    WebhookDelivery newDelivery(String subscriptionId, List<PackageEvent> events) {
+        String id = UUID.randomUUID().toString();
+        try {
+            String payload = objectMapper.writeValueAsString(new Payload(id, subscriptionId, events));
+            return new WebhookDelivery(id, subscriptionId, events.size(), payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize webhook payload", e);
+        }
+    }
+
+    /**
+     * @return the HTTP status, or a failed future if the endpoint could not be reached in time
+     */
+    CompletableFuture<Integer> post(URI url, WebhookDelivery delivery) {
+        HttpRequest request = HttpRequest.newBuilder(url)
+            .timeout(requestTimeout)
+            .header("Content-Type", "application/json")
+            .header("X-Freight-Webhook-Id", delivery.subscriptionId())
+            .header("X-Freight-Delivery-Id", delivery.id())
+            .POST(HttpRequest.BodyPublishers.ofString(delivery.payload()))
+            .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    void schedule(Runnable task, Duration delay) {
+        executor.schedule(task, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Exponential backoff with jitter: half the doubled delay is fixed, the other half random, so the retries of
+     * endpoints that failed together spread out instead of arriving together.
+     */
+    Duration backoff(int attempt) {
+        long ceiling = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.max(1, Math.min(ceiling, maxBackoff.toMillis()));
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    void delivered(WebhookDelivery delivery) {
+        deliveredEvents.increment(delivery.eventCount());
+    }
+
+    void retrying(WebhookDelivery delivery) {
+        retries.increment();
+    }
+
+    /**
+     * Stores the delivery for inspection, off the calling thread.
+     */
+    void deadLetter(WebhookEndpoint endpoint, WebhookDelivery delivery, int attempts, String error) {
+        deadLetteredEvents.increment(delivery.eventCount());
+        log.warn("Dead-lettering webhook {} delivery {} of {} events after {} attempts: {}",
+            endpoint.getSubscriptionId(), delivery.id(), delivery.eventCount(), attempts, error);
+        WebhookDeadLetter deadLetter = new WebhookDeadLetter();
+        deadLetter.setSubscriptionId(endpoint.getSubscriptionId());
+        deadLetter.setDeliveryId(delivery.id());
+        deadLetter.setUrl(endpoint.getUrl().toString());
+        deadLetter.setEventCount(delivery.eventCount());
+        deadLetter.setAttempts(attempts);
+        deadLetter.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        deadLetter.setPayload(delivery.payload());
+        deadLetter.setFailedAt(LocalDateTime.now());
+        executor.execute(() -> {
+            try {
+                deadLetterRepository.save(deadLetter);
+            } catch (RuntimeException e) {
+                log.error("Failed to store dead letter of webhook {} delivery {}", endpoint.getSubscriptionId(), delivery.id(), e);
+            }
+        });
+    }
+
+    void dropped() {
+        droppedEvents.increment();
+    }
+
+    /**
+     * Records events dropped because the endpoint's queue was full as one dead letter without payload. Called on a
+     * dispatch thread.
+     */
+    void overflowed(WebhookEndpoint endpoint, int droppedCount) {
+        log.warn("Dropped {} events of webhook {} because its queue was full",
+            droppedCount, endpoint.getSubscriptionId());
+        WebhookDeadLetter deadLetter = new WebhookDeadLetter();
+        deadLetter.setSubscriptionId(endpoint.getSubscriptionId());
+        deadLetter.setDeliveryId(UUID.randomUUID().toString());
+        deadLetter.setUrl(endpoint.getUrl().toString());
+        deadLetter.setEventCount(droppedCount);
+        deadLetter.setAttempts(0);
+        deadLetter.setLastError("Queue full, events dropped");
+        deadLetter.setPayload("");
+        deadLetter.setFailedAt(LocalDateTime.now());
+        try {
+            deadLetterRepository.save(deadLetter);
+        } catch (RuntimeException e) {
+            log.error("Failed to store dead letter of {} dropped events of webhook {}", droppedCount,
+                endpoint.getSubscriptionId(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private record Payload(String deliveryId, String subscriptionId, List<PackageEvent> events) {
+    }
+}
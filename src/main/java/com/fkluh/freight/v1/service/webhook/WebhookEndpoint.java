@@ -0,0 +1,158 @@
+package com.fkluh.freight.v1.service.webhook;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivery pipeline of one webhook subscription. Events wait in a bounded queue of their own and are posted as
+ * batches of up to {@code app.webhooks.batch-size} events, at most {@code app.webhooks.max-concurrency} batches at a
+ * time. A failed batch keeps its slot while it waits for its retry, so an endpoint that is down stops taking events
+ * and its queue fills up. Further events are only counted and dropped, and the next drain records them in one dead
+ * letter, so an outage costs neither memory nor work on the committing thread. With a concurrency of 1, batches
+ * arrive in commit order.
+ */
+@Slf4j
+class WebhookEndpoint {
+    private final String subscriptionId;
+    private final URI url;
+    private final Set<PackageEvent.Type> events;
+    private final WebhookDispatcher dispatcher;
+    private final BlockingQueue<PackageEvent> queue;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger overflowed = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    WebhookEndpoint(String subscriptionId, URI url, Set<PackageEvent.Type> events, WebhookDispatcher dispatcher) {
+        this.subscriptionId = subscriptionId;
+        this.url = url;
+        this.events = Set.copyOf(events);
+        this.dispatcher = dispatcher;
+        this.queue = new ArrayBlockingQueue<>(dispatcher.getQueueCapacity());
+    }
+
+    String getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    URI getUrl() {
+        return url;
+    }
+
+    int getQueuedEvents() {
+        return queue.size();
+    }
+
+    int getDeliveriesInFlight() {
+        return inFlight.get();
+    }
+
+    boolean accepts(PackageEvent event) {
+        return events.contains(event.type());
+    }
+
+    /**
+     * Queues an event without blocking. The batch is sent after {@code app.webhooks.linger}, so events committed
+     * close together share a request.
+     */
+    void offer(PackageEvent event) {
+        if (closed) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            overflowed.incrementAndGet();
+            dispatcher.dropped();
+        }
+        scheduleDrain(dispatcher.getLinger());
+    }
+
+    /**
+     * Stops sending. Queued events are dropped; batches already sent finish or are dead-lettered.
+     */
+    void close() {
+        closed = true;
+        int dropped = queue.size();
+        queue.clear();
+        if (dropped > 0) {
+            log.warn("Dropped {} queued events of removed webhook {}", dropped, subscriptionId);
+        }
+    }
+
+    private void scheduleDrain(Duration delay) {
+        if (drainScheduled.compareAndSet(false, true)) {
+            dispatcher.schedule(this::drain, delay);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        int dropped = overflowed.getAndSet(0);
+        if (dropped > 0) {
+            dispatcher.overflowed(this, dropped);
+        }
+        while (!closed && !queue.isEmpty() && tryAcquireSlot()) {
+            List<PackageEvent> batch = new ArrayList<>(dispatcher.getBatchSize());
+            queue.drainTo(batch, dispatcher.getBatchSize());
+            if (batch.isEmpty()) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            send(dispatcher.newDelivery(subscriptionId, batch), 1);
+        }
+    }
+
+    private void send(WebhookDelivery delivery, int attempt) {
+        dispatcher.post(url, delivery).whenComplete((status, error) -> {
+            if (error == null && status >= 200 && status < 300) {
+                dispatcher.delivered(delivery);
+                release();
+                return;
+            }
+            String failure = error != null ? error.getClass().getSimpleName() + ": " + error.getMessage() : "HTTP " + status;
+            if (!closed && attempt < dispatcher.getMaxAttempts() && (error != null || isRetryable(status))) {
+                Duration backoff = dispatcher.backoff(attempt);
+                log.debug("Webhook {} delivery {} attempt {} failed ({}), retrying in {}",
+                    subscriptionId, delivery.id(), attempt, failure, backoff);
+                dispatcher.retrying(delivery);
+                dispatcher.schedule(() -> send(delivery, attempt + 1), backoff);
+            } else {
+                dispatcher.deadLetter(this, delivery, attempt, failure);
+                release();
+            }
+        });
+    }
+
+    private boolean tryAcquireSlot() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= dispatcher.getMaxConcurrency()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (!queue.isEmpty()) {
+            scheduleDrain(Duration.ZERO);
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        // anything else is the request's fault and would fail again
+        return status == 408 || status == 429 || status >= 500;
+    }
+}
@@ -0,0 +1,262 @@
+package com.fkluh.freight.v1.service.webhook;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.exception.WebhookNotFoundException;
+import com.fkluh.freight.v1.model.WebhookDeadLetter;
+import com.fkluh.freight.v1.model.WebhookSubscription;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.WebhookDeadLetterDto;
+import com.fkluh.freight.v1.model.dto.WebhookSubscriptionDto;
+import com.fkluh.freight.v1.repository.WebhookDeadLetterRepository;
+import com.fkluh.freight.v1.repository.WebhookSubscriptionRepository;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+import com.fkluh.freight.v1.util.PagingUtil;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes committed package writes to registered partner webhooks, so partners no longer poll for deliveries. Each
+ * subscription has its own {@link WebhookEndpoint}: events are handed to it after commit without blocking, and a
+ * slow or failing partner only ever backs up its own queue.
+ * <p>
+ * Subscriptions are reloaded every {@code app.webhooks.refresh-interval}, so registrations made on another instance
+ * are picked up. Each instance delivers the events of the writes it committed; queued events are held in memory and
+ * lost on shutdown. Webhook tables are never read in read-only transactions, which would go to the read replica.
+ * <p>
+ * Metrics: {@code freight.webhooks.queued}, the events waiting in all queues, and those of {@link WebhookDispatcher}.
+ */
+@Service
+@Slf4j
+public class WebhookService {
+    static final Set<PackageEvent.Type> SUBSCRIBABLE_EVENTS =
+        EnumSet.of(PackageEvent.Type.CREATED, PackageEvent.Type.DELIVERED, PackageEvent.Type.REMOVED);
+
+    @Autowired
+    private WebhookSubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private WebhookDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private WebhookDispatcher dispatcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.webhooks.refresh-interval:30s}")
+    private Duration refreshInterval;
+
+    private final Map<String, WebhookEndpoint> endpoints = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        refreshSubscriptions();
+        log.info("Webhook dispatch started with {} subscriptions", endpoints.size());
+        Gauge.builder("freight.webhooks.queued", this,
+                service -> service.endpoints.values().stream().mapToInt(WebhookEndpoint::getQueuedEvents).sum())
+            .description("Package events waiting to be posted to webhooks")
+            .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPackageEvent(PackageEvent event) {
+        for (WebhookEndpoint endpoint : endpoints.values()) {
+            if (endpoint.accepts(event)) {
+                endpoint.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Registers a webhook. Batches of events are posted to its URL as JSON.
+     *
+     * @param request the absolute http(s) URL and the events to receive, any of CREATED, DELIVERED and REMOVED; all
+     *                three if none are given
+     * @return the registered webhook
+     */
+    @Transactional
+    public WebhookSubscriptionDto register(WebhookSubscriptionDto request) {
+        URI url = parseUrl(request == null ? null : request.getUrl());
+        Set<PackageEvent.Type> events = parseEvents(request.getEvents());
+
+        WebhookSubscription subscription = new WebhookSubscription();
+        subscription.setId(UUID.randomUUID().toString());
+        subscription.setUrl(url.toString());
+        subscription.setEvents(events);
+        subscription = subscriptionRepository.save(subscription);
+        WebhookEndpoint endpoint = open(subscription);
+        log.info("Registered webhook {} for {} at {}", subscription.getId(), events, url);
+        return toDto(subscription, endpoint);
+    }
+
+    @Transactional
+    public List<WebhookSubscriptionDto> getWebhooks() {
+        return subscriptionRepository.findAll().stream()
+            .map(subscription -> toDto(subscription, endpoints.get(subscription.getId())))
+            .toList();
+    }
+
+    /**
+     * @throws WebhookNotFoundException if no such webhook is registered
+     */
+    @Transactional
+    public WebhookSubscriptionDto getWebhook(String id) {
+        WebhookSubscription subscription = subscriptionRepository.findById(id).orElseThrow(() -> new WebhookNotFoundException(ErrorMessages.WEBHOOK_NOT_FOUND));
+        return toDto(subscription, endpoints.get(id));
+    }
+
+    /**
+     * Unregisters a webhook. Events still queued for it are dropped; its dead letters are kept.
+     *
+     * @throws WebhookNotFoundException if no such webhook is registered
+     */
+    @Transactional
+    public void removeWebhook(String id) {
+        if (!subscriptionRepository.existsById(id)) {
+            throw new WebhookNotFoundException(ErrorMessages.WEBHOOK_NOT_FOUND);
+        }
+        subscriptionRepository.deleteById(id);
+        WebhookEndpoint endpoint = endpoints.remove(id);
+        if (endpoint != null) {
+            endpoint.close();
+        }
+        log.info("Removed webhook {}", id);
+    }
+
+    /**
+     * @param subscriptionId restricts the result to one webhook (optional)
+     * @return deliveries that were given up on, newest first
+     */
+    @Transactional
+    public CustomPage<WebhookDeadLetterDto> getDeadLetters(String subscriptionId, int page, int size) {
+        Pageable pageable = PagingUtil.sanitizePagingParameters(page, size);
+        List<WebhookDeadLetterDto> content = (subscriptionId == null || subscriptionId.isEmpty()
+                ? deadLetterRepository.findAllByOrderByIdDesc(pageable)
+                : deadLetterRepository.findBySubscriptionIdOrderByIdDesc(subscriptionId, pageable))
+            .map(WebhookService::toDeadLetterDto)
+            .getContent();
+        return CustomPage.of(content, pageable.getPageNumber(), pageable.getPageSize());
+    }
+
+    /**
+     * Opens endpoints for subscriptions registered elsewhere and closes those of removed ones, then schedules the
+     * next refresh.
+     */
+    private void refreshSubscriptions() {
+        try {
+            Set<String> registered = new HashSet<>();
+            // read-write, so the read goes to the primary, which alone has the webhook tables
+            List<WebhookSubscription> subscriptions =
+                transactionTemplate.execute(status -> subscriptionRepository.findAll());
+            for (WebhookSubscription subscription : subscriptions) {
+                registered.add(subscription.getId());
+                if (!endpoints.containsKey(subscription.getId())) {
+                    open(subscription);
+                }
+            }
+            endpoints.keySet().removeIf(id -> {
+                if (registered.contains(id)) {
+                    return false;
+                }
+                endpoints.get(id).close();
+                return true;
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh webhook subscriptions", e);
+        }
+        dispatcher.schedule(this::refreshSubscriptions, refreshInterval);
+    }
+
+    private WebhookEndpoint open(WebhookSubscription subscription) {
+        return endpoints.computeIfAbsent(subscription.getId(), id ->
+            new WebhookEndpoint(id, URI.create(subscription.getUrl()), subscription.getEvents(), dispatcher));
+    }
+
+    private static URI parseUrl(String url) {
+        try {
+            URI uri = new URI(url == null ? "" : url.trim());
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+            if ((scheme.equals("http") || scheme.equals("https")) && uri.getHost() != null) {
+                return uri;
+            }
+        } catch (URISyntaxException e) {
+            // answered below
+        }
+        throw new PackageValidationException(ErrorMessages.WEBHOOK_URL_INVALID);
+    }
+
+    private static Set<PackageEvent.Type> parseEvents(List<String> events) {
+        if (events == null || events.isEmpty()) {
+            return EnumSet.copyOf(SUBSCRIBABLE_EVENTS);
+        }
+        Set<PackageEvent.Type> parsed = EnumSet.noneOf(PackageEvent.Type.class);
+        for (String event : events) {
+            try {
+                PackageEvent.Type type = PackageEvent.Type.valueOf(event.trim().toUpperCase(Locale.ROOT));
+                if (SUBSCRIBABLE_EVENTS.contains(type)) {
+                    parsed.add(type);
+                    continue;
+                }
+            } catch (IllegalArgumentException | NullPointerException e) {
+                // answered below
+            }
+            throw new PackageValidationException(ErrorMessages.WEBHOOK_EVENTS_INVALID);
+        }
+        return parsed;
+    }
+
+    private static WebhookSubscriptionDto toDto(WebhookSubscription subscription, WebhookEndpoint endpoint) {
+        WebhookSubscriptionDto dto = new WebhookSubscriptionDto();
+        dto.setId(subscription.getId());
+        dto.setUrl(subscription.getUrl());
+        dto.setEvents(subscription.getEvents().stream().sorted().map(Enum::name).toList());
+        dto.setCreatedAt(subscription.getCreatedAt());
+        if (endpoint != null) {
+            dto.setQueuedEvents(endpoint.getQueuedEvents());
+            dto.setDeliveriesInFlight(endpoint.getDeliveriesInFlight());
+        }
+        return dto;
+    }
+
+    private static WebhookDeadLetterDto toDeadLetterDto(WebhookDeadLetter deadLetter) {
+        WebhookDeadLetterDto dto = new WebhookDeadLetterDto();
+        dto.setId(deadLetter.getId());
+        dto.setSubscriptionId(deadLetter.getSubscriptionId());
+        dto.setDeliveryId(deadLetter.getDeliveryId());
+        dto.setUrl(deadLetter.getUrl());
+        dto.setEventCount(deadLetter.getEventCount());
+        dto.setAttempts(deadLetter.getAttempts());
+        dto.setLastError(deadLetter.getLastError());
+        dto.setPayload(deadLetter.getPayload());
+        dto.setFailedAt(deadLetter.getFailedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,127 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A limit on concurrent requests that adapts to latency, after TCP Vegas as in Netflix's concurrency-limits.
+ * Latency is averaged over short windows and compared with the lowest window average of the last half minute or
+ * so, the latency without queueing. From the two, the number of requests queued up somewhere (threads, connections,
+ * database locks) is estimated as {@code limit * (1 - baseline / latency)}. While fewer than {@code 3 log10(limit)}
+ * are queued the limit grows by {@code log10(limit)} per window; once more than {@code 6 log10(limit)} are, it
+ * shrinks by at least as much, and by a fifth of the excess when latency jumps, so a sudden slowdown is shed
+ * quickly. Windows in which fewer than half the allowed requests were in flight do not grow the limit, so it does
+ * not drift up while idle.
+ * <p>
+ * The baseline is only ever taken from recent windows, so when the database gets slower for good, the limit first
+ * shrinks and then settles at the new normal within a minute instead of staying at its minimum.
+ * {@link #tryAcquire()} and {@link #release(long)} are lock-free; updating the limit at the end of a window takes a
+ * short lock.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final long BASELINE_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int ALPHA = 3;
+    private static final int BETA = 6;
+    private static final double BACKOFF = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private long periodStart;
+    private double previousMinRtt = Double.MAX_VALUE;
+    private double currentMinRtt = Double.MAX_VALUE;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, System.nanoTime());
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long now) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.windowStart = now;
+        this.periodStart = now;
+    }
+
+    /**
+     * @return true if the request may run, in which case {@link #release(long)} must follow; false to shed it
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends a request admitted by {@link #tryAcquire()}.
+     *
+     * @param rttNanos how long the request took
+     */
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        sample(rttNanos, inFlightBefore, System.nanoTime());
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    synchronized void sample(long rttNanos, int inFlightBefore, long now) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBefore);
+        if (now - windowStart < WINDOW_NANOS || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+        double rtt = Math.max(1, (double) windowRttSum / windowSamples);
+        boolean appLimited = windowMaxInFlight < estimatedLimit / 2;
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        if (now - periodStart >= BASELINE_PERIOD_NANOS) {
+            previousMinRtt = currentMinRtt;
+            currentMinRtt = Double.MAX_VALUE;
+            periodStart = now;
+        }
+        currentMinRtt = Math.min(currentMinRtt, rtt);
+        double baseline = Math.min(previousMinRtt, currentMinRtt);
+
+        double log = Math.max(1, Math.log10(estimatedLimit));
+        double queued = estimatedLimit * (1 - baseline / rtt);
+        if (queued < ALPHA * log) {
+            if (appLimited) {
+                return;
+            }
+            estimatedLimit += log;
+        } else if (queued > BETA * log) {
+            estimatedLimit -= Math.max(log, (queued - BETA * log) * BACKOFF);
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,71 @@
+package com.fkluh.freight.v1.util;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps how much of the server one kind of work can hold: at most {@code maxConcurrent} callers run at once, at most
+ * {@code maxQueued} more wait for a turn, each for at most {@code maxWait}, and everyone else is turned away
+ * straight away. With a zero wait, a caller is turned away as soon as all turns are taken.
+ */
+public class Bulkhead {
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public Bulkhead(int maxConcurrent, int maxQueued, Duration maxWait) {
+        if (maxConcurrent < 1 || maxQueued < 0 || maxWait.isNegative()) {
+            throw new IllegalArgumentException("Bulkhead needs at least one permit and no negative queue or wait");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWait.toNanos();
+        // fair, so queued callers get their turn in order once they wait
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * @return true if the caller may run, in which case {@link #exit()} must follow; false if it was turned away
+     *         because the queue is full, its wait ran out or it was interrupted
+     */
+    public boolean tryEnter() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (maxWaitNanos == 0) {
+            return false;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+}
@@ -0,0 +1,33 @@
+package com.fkluh.freight.v1.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The one 64-bit string hash used for sketches and shard placement. Stored {@link HyperLogLog}s and the shard of
+ * every package depend on it, so it must never change.
+ */
+public final class Hashing {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that every input bit reaches every output
+     * bit, and values differing only in their last characters still spread over the whole range.
+     */
+    public static long fnv1aMix64(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,124 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct counter (Flajolet et al. 2007). A value's 64-bit hash picks one of {@code 2^precision}
+ * registers, which keeps the longest run of leading zeros seen in the rest of the hashes it was picked for. The
+ * count is estimated from the registers with a relative standard error of {@code 1.04 / sqrt(2^precision)}, and
+ * small counts are answered by linear counting. Adding a value twice changes nothing, and two counters of the same
+ * precision merge by keeping the larger of each register, so counters of days can be combined into any range. Not
+ * thread-safe.
+ */
+public class HyperLogLog {
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Reads a counter written by {@link #toBytes()}.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog counter = new HyperLogLog(bytes.length == 0 ? 0 : bytes[0]);
+        if (bytes.length != counter.registers.length + 1) {
+            throw new IllegalArgumentException("Not a serialized HyperLogLog of precision " + bytes[0]);
+        }
+        System.arraycopy(bytes, 1, counter.registers, 0, counter.registers.length);
+        return counter;
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public void add(String value) {
+        long hash = Hashing.fnv1aMix64(value);
+        int register = (int) (hash >>> (64 - precision));
+        // the guard bit caps the run at 64 - precision, the bits left after the register index
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /**
+     * Adds the values another counter has seen. Both counters must have the same precision.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge counters of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct values added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return the relative standard error of {@link #estimate()}; about two in three estimates are this close
+     */
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * @return the precision followed by the registers, one byte each
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HyperLogLog counter && Arrays.equals(registers, counter.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
@@ -0,0 +1,223 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL quantile sketch (Karnin, Lang, Liberty 2016). Values are kept in a stack of compactors; an item on level
+ * {@code h} stands for {@code 2^h} inserted values. When the sketch is full, the lowest full compactor sorts its items
+ * and promotes every other one, starting at a random offset, to the next level. Compactor capacities shrink by 2/3
+ * per level going down, so the sketch holds at most about {@code 3k} items however many values it has seen, and a
+ * quantile is off by about {@code 1.7 / k} in rank. Sketches of the same {@code k} can be merged. Not thread-safe.
+ */
+public class KllSketch {
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private final List<Compactor> compactors = new ArrayList<>();
+    private int retained;
+    private int maxRetained;
+    private long count;
+
+    public KllSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8");
+        }
+        this.k = k;
+        grow();
+    }
+
+    public void add(double value) {
+        compactors.get(0).add(value);
+        retained++;
+        count++;
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Adds the values another sketch has seen. Both sketches must have the same {@code k}.
+     */
+    public void merge(KllSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches of different k");
+        }
+        while (compactors.size() < other.compactors.size()) {
+            grow();
+        }
+        for (int level = 0; level < other.compactors.size(); level++) {
+            compactors.get(level).addAll(other.compactors.get(level));
+        }
+        count += other.count;
+        retained = retainedItems();
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * @return the number of values added, including those of merged sketches
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the number of items held, which bounds the sketch's memory
+     */
+    public int retained() {
+        return retained;
+    }
+
+    /**
+     * @param rank the quantile rank, from 0 to 1
+     * @return the approximate value at the rank, or NaN if the sketch is empty
+     */
+    public double quantile(double rank) {
+        return quantiles(rank)[0];
+    }
+
+    /**
+     * Answers several ranks with one pass over the retained items.
+     *
+     * @param ranks the quantile ranks, from 0 to 1, in any order
+     * @return the approximate value at each rank, or NaN for each if the sketch is empty
+     */
+    public double[] quantiles(double... ranks) {
+        for (double rank : ranks) {
+            if (rank < 0 || rank > 1) {
+                throw new IllegalArgumentException("rank must be between 0 and 1");
+            }
+        }
+        double[] result = new double[ranks.length];
+        if (count == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+        double[][] levels = new double[compactors.size()][];
+        long totalWeight = 0;
+        for (int level = 0; level < levels.length; level++) {
+            Compactor compactor = compactors.get(level);
+            levels[level] = Arrays.copyOf(compactor.items, compactor.size);
+            Arrays.sort(levels[level]);
+            totalWeight += (long) compactor.size << level;
+        }
+
+        // walk the items in ascending order by merging the sorted levels, and answer each rank once its share of
+        // the total weight has been passed
+        boolean[] answered = new boolean[ranks.length];
+        int unanswered = ranks.length;
+        int[] heads = new int[levels.length];
+        long cumulative = 0;
+        double value = Double.NaN;
+        while (unanswered > 0) {
+            int lowest = -1;
+            for (int level = 0; level < levels.length; level++) {
+                if (heads[level] < levels[level].length
+                    && (lowest < 0 || levels[level][heads[level]] < levels[lowest][heads[lowest]])) {
+                    lowest = level;
+                }
+            }
+            if (lowest < 0) {
+                break;
+            }
+            value = levels[lowest][heads[lowest]++];
+            cumulative += 1L << lowest;
+            for (int r = 0; r < ranks.length; r++) {
+                if (!answered[r] && cumulative >= ranks[r] * totalWeight) {
+                    result[r] = value;
+                    answered[r] = true;
+                    unanswered--;
+                }
+            }
+        }
+        for (int r = 0; r < ranks.length; r++) {
+            if (!answered[r]) {
+                result[r] = value;
+            }
+        }
+        return result;
+    }
+
+    private void grow() {
+        compactors.add(new Compactor());
+        maxRetained = 0;
+        for (int level = 0; level < compactors.size(); level++) {
+            maxRetained += capacity(level);
+        }
+    }
+
+    private int capacity(int level) {
+        int depth = compactors.size() - level - 1;
+        return (int) Math.ceil(Math.pow(CAPACITY_DECAY, depth) * k) + 1;
+    }
+
+    /**
+     * Compacts the lowest full levels until the sketch is below its capacity again.
+     */
+    private void compress() {
+        for (int level = 0; level < compactors.size(); level++) {
+            if (compactors.get(level).size >= capacity(level)) {
+                if (level + 1 >= compactors.size()) {
+                    grow();
+                }
+                compactors.get(level).compactInto(compactors.get(level + 1));
+                retained = retainedItems();
+                if (retained < maxRetained) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private int retainedItems() {
+        int items = 0;
+        for (Compactor compactor : compactors) {
+            items += compactor.size;
+        }
+        return items;
+    }
+
+    private static final class Compactor {
+        private double[] items = new double[8];
+        private int size;
+
+        void add(double value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        void addAll(Compactor other) {
+            if (size + other.size > items.length) {
+                items = Arrays.copyOf(items, Math.max(items.length * 2, size + other.size));
+            }
+            System.arraycopy(other.items, 0, items, size, other.size);
+            size += other.size;
+        }
+
+        /**
+         * Promotes every other sorted item to the next level, each standing for two values now. An odd item out
+         * stays here.
+         */
+        void compactInto(Compactor next) {
+            Arrays.sort(items, 0, size);
+            int pairs = size / 2;
+            int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+            int start = size - pairs * 2;
+            for (int i = 0; i < pairs; i++) {
+                next.add(items[start + 2 * i + offset]);
+            }
+            if (start == 1) {
+                // keep the smallest item, which had no partner
+                size = 1;
+            } else {
+                size = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.fkluh.freight.v1.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+
+/**
+ * Rate limit for a repetitive log line: up to {@code limit} occurrences per interval are logged, the rest are only
+ * counted, and the count is handed to the next occurrence that may be logged so nothing disappears silently.
+ * Thread-safe.
+ */
+public class LogSampler {
+    public static final long SUPPRESSED = -1;
+
+    private final Bucket bucket;
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogSampler(long limit, Duration interval) {
+        Bandwidth bandwidth = Bandwidth.builder().capacity(limit).refillGreedy(limit, interval).build();
+        this.bucket = Bucket.builder().addLimit(bandwidth).build();
+    }
+
+    /**
+     * Records an occurrence.
+     *
+     * @return {@link #SUPPRESSED} if the occurrence should not be logged, otherwise the number of occurrences
+     * suppressed since the last one that was logged
+     */
+    public long tryAcquire() {
+        if (!bucket.tryConsume(1)) {
+            suppressed.incrementAndGet();
+            return SUPPRESSED;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,24 @@
+package com.fkluh.freight.v1.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+
+public class PagingUtil {
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+    // pages are read up to their last row, on every shard when sharded, so deep pages are refused
+    private static final long MAX_PAGED_ROWS = 10_000;
+
+    public static Pageable sanitizePagingParameters(int page, int size) {
+        if (page < 0) page = 0;
+        if (size <= 0) size = DEFAULT_PAGE_SIZE;
+        if (size > MAX_PAGE_SIZE) size = MAX_PAGE_SIZE;
+        if ((long) page * size + size > MAX_PAGED_ROWS) {
+            throw new PackageValidationException(ErrorMessages.PAGE_TOO_DEEP);
+        }
+        return PageRequest.of(page, size);
+    }
+}
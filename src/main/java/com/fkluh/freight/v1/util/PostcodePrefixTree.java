@@ -0,0 +1,141 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Prefix tree of package counts keyed by postcode characters. Every node holds the totals of all postcodes that
+ * start with its prefix, so the counts for an area, a district or a full postcode are a walk of at most the prefix
+ * length, and a write updates one node per character. Not thread-safe.
+ */
+public class PostcodePrefixTree {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /**
+     * Totals of the packages whose postcode starts with {@code prefix}.
+     */
+    public record Counts(String prefix, long delivered, long delayed, long inTransit) {
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Adds the deltas to the postcode and each of its prefixes.
+     */
+    public void add(String postcode, long delivered, long delayed, long inTransit) {
+        Node node = root;
+        node.add(delivered, delayed, inTransit);
+        for (int i = 0; i < postcode.length(); i++) {
+            node = node.child(postcode.charAt(i), true);
+            node.add(delivered, delayed, inTransit);
+        }
+    }
+
+    /**
+     * @return the totals for the prefix; all zero if no postcode starts with it
+     */
+    public Counts get(String prefix) {
+        Node node = find(prefix);
+        return node == null ? new Counts(prefix, 0, 0, 0) : node.counts(prefix);
+    }
+
+    /**
+     * Groups the postcodes under {@code prefix} by their first {@code length} characters and returns the largest
+     * groups. Postcodes shorter than {@code length} belong to no group.
+     *
+     * @param prefix the prefix to look under
+     * @param length the length of the group prefixes, at least the length of {@code prefix}
+     * @param order  the order to rank the groups by, largest first
+     * @param limit  the maximum number of groups to return
+     * @return the largest groups with any packages, largest first
+     */
+    public List<Counts> top(String prefix, int length, Comparator<Counts> order, int limit) {
+        Node start = find(prefix);
+        if (start == null || limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Counts> best = new PriorityQueue<>(limit + 1, order);
+        StringBuilder path = new StringBuilder(prefix);
+        collect(start, path, length, order, limit, best);
+        List<Counts> result = new ArrayList<>(best);
+        result.sort(order.reversed());
+        return result;
+    }
+
+    private void collect(Node node, StringBuilder path, int length, Comparator<Counts> order, int limit, PriorityQueue<Counts> best) {
+        if (path.length() == length) {
+            if (!node.isEmpty()) {
+                best.add(node.counts(path.toString()));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < node.keys.length; i++) {
+            path.append(node.keys[i]);
+            collect(node.children[i], path, length, order, limit, best);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i), false);
+        }
+        return node;
+    }
+
+    /**
+     * Children are kept in parallel arrays sorted by character: postcodes use a small alphabet, so a binary search
+     * over a few entries beats a map per node in both speed and memory.
+     */
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private long delivered;
+        private long delayed;
+        private long inTransit;
+
+        private void add(long deliveredDelta, long delayedDelta, long inTransitDelta) {
+            delivered += deliveredDelta;
+            delayed += delayedDelta;
+            inTransit += inTransitDelta;
+        }
+
+        private boolean isEmpty() {
+            return delivered == 0 && inTransit == 0;
+        }
+
+        private Counts counts(String prefix) {
+            return new Counts(prefix, delivered, delayed, inTransit);
+        }
+
+        private Node child(char key, boolean create) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            if (!create) {
+                return null;
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution. The first caller for a key runs the loader;
+ * callers arriving while it is still running wait for it and receive the same value, or the same exception.
+ * Nothing is cached: the key is released as soon as the call finishes, so the next caller runs the loader again.
+ *
+ * @param <K> the call key, which must implement equals and hashCode
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the loader, or joins an identical call that is already running.
+     *
+     * @param key         the call key
+     * @param loader      the work to run if no call for the key is in flight
+     * @param onCoalesced invoked when this caller joined another call instead of running the loader
+     * @return the loader's result
+     */
+    public V execute(K key, Supplier<V> loader, Runnable onCoalesced) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            onCoalesced.run();
+            return await(existing);
+        }
+
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+        // release the key before completing, so callers arriving from now on start a fresh load
+        inFlight.remove(key, call);
+        call.complete(value);
+        return value;
+    }
+
+    /**
+     * @return the number of keys with a call currently in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
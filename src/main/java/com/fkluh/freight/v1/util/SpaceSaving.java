@@ -0,0 +1,183 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving heavy hitters (Metwally, Agrawal, El Abbadi 2005). Keeps at most {@code capacity} counted keys; a
+ * new key takes over the counter of the smallest one and inherits its count as possible overcount. A key's count is
+ * never below its true count and at most {@code error} above it, and every key seen more than
+ * {@code total / capacity} times is kept. The counters are a min-heap, so counting is {@code O(log capacity)}.
+ * Summaries merge into one of the same bounds, e.g. time buckets into a window. Not thread-safe.
+ */
+public class SpaceSaving {
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final Counter[] heap;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.heap = new Counter[capacity];
+    }
+
+    public void add(String key, long weight) {
+        total += weight;
+        Counter counter = counters.get(key);
+        if (counter == null && size < capacity) {
+            // a new counter only ever moves up, an incremented one only down
+            counter = new Counter(key, size);
+            counter.count = weight;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return;
+        }
+        if (counter == null) {
+            // the smallest counter is handed over, with its count as the new key's possible overcount
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.count;
+            counters.put(key, counter);
+        }
+        counter.count += weight;
+        siftDown(counter.index);
+    }
+
+    /**
+     * Adds the keys another summary has counted. A key one of them does not hold may still have been counted up to
+     * its smallest count, so that is added to the key's count and error.
+     */
+    public void merge(SpaceSaving other) {
+        long floor = minCount();
+        long otherFloor = other.minCount();
+        Set<String> keys = new HashSet<>(counters.keySet());
+        keys.addAll(other.counters.keySet());
+        List<Entry> merged = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Counter mine = counters.get(key);
+            Counter theirs = other.counters.get(key);
+            long count = (mine != null ? mine.count : floor) + (theirs != null ? theirs.count : otherFloor);
+            long error = (mine != null ? mine.error : floor) + (theirs != null ? theirs.error : otherFloor);
+            merged.add(new Entry(key, count, error));
+        }
+        merged.sort(Comparator.comparingLong(Entry::count).reversed());
+
+        long mergedTotal = total + other.total;
+        clear();
+        total = mergedTotal;
+        for (Entry entry : merged.subList(0, Math.min(capacity, merged.size()))) {
+            Counter counter = new Counter(entry.key(), size);
+            counter.count = entry.count();
+            counter.error = entry.error();
+            heap[size++] = counter;
+            counters.put(entry.key(), counter);
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * @return the keys with the highest counts, highest first, ties by key
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(heap[i].key, heap[i].count, heap[i].error));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::key));
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    /**
+     * @return the sum of all weights added, including those of merged summaries
+     */
+    public long total() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        counters.clear();
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        size = 0;
+        total = 0;
+    }
+
+    /**
+     * The count a key not held may have reached: the smallest count once every counter is taken, otherwise none.
+     */
+    private long minCount() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].index = index;
+            index = parent;
+        }
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (heap[child].count >= counter.count) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    /**
+     * @param count the key's count, at most {@code error} above its true count
+     */
+    public record Entry(String key, long count, long error) {
+    }
+
+    private static final class Counter {
+        private String key;
+        private long count;
+        private long error;
+        private int index;
+
+        Counter(String key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counters of the most recent {@code slots} time slots, e.g. the last 120 minutes, for a few metrics each.
+ * A slot's counters live in a ring and are taken over by the slot {@code slots} later. Each cell packs the slot it
+ * counts in its high 32 bits and the count in its low 32 bits, so a cell is moved to a newer slot and counted in
+ * one compare-and-set, and a reader never sees the counts of a slot that has left the ring. Threads count in one of
+ * a power-of-two number of stripes, each a contiguous block of cells, so threads on different cores rarely contend
+ * for a cell or a cache line. Memory is fixed at construction and counting allocates nothing.
+ * <p>
+ * Slot numbers must fit in 32 bits, and a stripe counts at most {@code 2^32 - 1} per slot and metric.
+ */
+public class StripedRingCounter {
+    private static final int COUNT_BITS = 32;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int slots;
+    private final int metrics;
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    /**
+     * One stripe per available processor, rounded up to a power of two.
+     */
+    public StripedRingCounter(int slots, int metrics) {
+        this(slots, metrics, Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedRingCounter(int slots, int metrics, int stripes) {
+        if (slots < 1 || metrics < 1 || stripes < 1) {
+            throw new IllegalArgumentException("slots, metrics and stripes must be at least 1");
+        }
+        this.slots = slots;
+        this.metrics = metrics;
+        this.stripes = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.cells = new AtomicLongArray(this.stripes * slots * metrics);
+    }
+
+    /**
+     * Counts one for {@code metric} in {@code slot}. Ignored if the slot has already left the ring.
+     */
+    public void increment(long slot, int metric) {
+        int index = index((int) Thread.currentThread().threadId() & (stripes - 1), slot, metric);
+        long tag = tag(slot);
+        while (true) {
+            long cell = cells.get(index);
+            long cellTag = cell >>> COUNT_BITS;
+            long updated;
+            if (cellTag == tag) {
+                updated = cell + 1;
+            } else if (cellTag < tag) {
+                updated = tag << COUNT_BITS | 1;
+            } else {
+                return;
+            }
+            if (cells.compareAndSet(index, cell, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the count of {@code metric} in {@code slot}, or 0 if nothing was counted or the slot left the ring
+     */
+    public long get(long slot, int metric) {
+        long tag = tag(slot);
+        long sum = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            long cell = cells.get(index(stripe, slot, metric));
+            if (cell >>> COUNT_BITS == tag) {
+                sum += cell & COUNT_MASK;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return how many of the latest slots are kept
+     */
+    public int slots() {
+        return slots;
+    }
+
+    private int index(int stripe, long slot, int metric) {
+        return (stripe * slots + (int) Math.floorMod(slot, (long) slots)) * metrics + metric;
+    }
+
+    private static long tag(long slot) {
+        if (slot < 0 || slot > COUNT_MASK) {
+            throw new IllegalArgumentException("slot must fit in 32 bits");
+        }
+        return slot;
+    }
+}
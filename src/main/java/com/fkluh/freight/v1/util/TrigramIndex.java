@@ -0,0 +1,279 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Trigram inverted index for partial and approximate string lookups. Each term is split into its overlapping
+ * three-character sequences (case-insensitively) and every trigram maps to the ids of the terms that contain it.
+ * A lookup scores a term by the fraction of the query's trigrams it contains, so substrings of a term score 1 and
+ * misspellings still share most of their trigrams.
+ * <p>
+ * Removed terms are only tombstoned; postings are compacted in one pass once tombstones make up a quarter of the
+ * index, which keeps removals cheap even for trigrams that nearly every term shares. A lookup examines at most
+ * {@code maxCandidates} terms, newest first, so a short query or a trigram that nearly every term shares cannot
+ * turn it into a walk over the whole index. Not thread-safe.
+ */
+public class TrigramIndex {
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+    private static final int DEFAULT_MAX_CANDIDATES = 10_000;
+
+    // rough HotSpot object sizes with compressed oops, used for the footprint estimate
+    private static final long MAP_ENTRY_BYTES = 32 + 4;
+    private static final long BOXED_KEY_BYTES = 16;
+    private static final long STRING_BYTES = 24 + 16;
+    private static final long POSTINGS_BYTES = 16 + 16;
+
+    public enum MatchType {
+        EXACT,
+        PREFIX,
+        SUBSTRING,
+        FUZZY
+    }
+
+    /**
+     * @param term  the indexed term
+     * @param type  how the query matched the term
+     * @param score the fraction of the query's trigrams found in the term, from 0 to 1
+     */
+    public record Match(String term, MatchType type, double score) {
+    }
+
+    private static final Comparator<Match> BEST_FIRST = Comparator
+        .comparing(Match::type)
+        .thenComparing(Comparator.comparingDouble(Match::score).reversed())
+        .thenComparingInt(match -> match.term().length())
+        .thenComparing(Match::term);
+
+    private final int maxCandidates;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private String[] terms = new String[16];
+    // lower-cased terms, the same instance as in terms where lower-casing changes nothing
+    private String[] normalizedTerms = new String[16];
+    private int nextId;
+    private int tombstones;
+    private long termChars;
+    private long normalizedChars;
+
+    public TrigramIndex() {
+        this(DEFAULT_MAX_CANDIDATES);
+    }
+
+    /**
+     * @param maxCandidates the most terms a lookup examines
+     */
+    public TrigramIndex(int maxCandidates) {
+        if (maxCandidates < 1) {
+            throw new IllegalArgumentException("A lookup must examine at least one term");
+        }
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * @return true if the term was added, false if it was already indexed
+     */
+    public boolean add(String term) {
+        if (ids.containsKey(term)) {
+            return false;
+        }
+        int id = nextId++;
+        if (id == terms.length) {
+            terms = Arrays.copyOf(terms, terms.length * 2);
+            normalizedTerms = Arrays.copyOf(normalizedTerms, terms.length);
+        }
+        String normalizedTerm = term.toLowerCase(Locale.ROOT);
+        terms[id] = term;
+        normalizedTerms[id] = normalizedTerm;
+        ids.put(term, id);
+        termChars += term.length();
+        if (normalizedTerm != term) {
+            normalizedChars += normalizedTerm.length();
+        }
+        for (String trigram : trigrams(normalizedTerm)) {
+            postings.computeIfAbsent(key(trigram), k -> new Postings()).add(id);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the term was removed, false if it was not indexed
+     */
+    public boolean remove(String term) {
+        Integer id = ids.remove(term);
+        if (id == null) {
+            return false;
+        }
+        if (normalizedTerms[id] != terms[id]) {
+            normalizedChars -= normalizedTerms[id].length();
+        }
+        terms[id] = null;
+        normalizedTerms[id] = null;
+        termChars -= term.length();
+        tombstones++;
+        if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones * 4L >= ids.size()) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Finds the terms containing at least {@code minScore} of the query's trigrams. Exact matches come first, then
+     * prefix, substring and fuzzy matches, each ordered by score and then by length, shortest first. Only the newest
+     * {@code maxCandidates} terms sharing one of the query's rarest trigrams are examined.
+     *
+     * @param query    the text to look up, at least three characters long to match anything
+     * @param minScore the minimum fraction of the query's trigrams a term must contain, from 0 (exclusive) to 1
+     * @param limit    the maximum number of matches to return
+     * @return the best matches, best first
+     */
+    public List<Match> search(String query, double minScore, int limit) {
+        String normalizedQuery = query.toLowerCase(Locale.ROOT);
+        List<String> queryTrigrams = new ArrayList<>(trigrams(normalizedQuery));
+        if (queryTrigrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int required = Math.max(1, (int) Math.ceil(minScore * queryTrigrams.size()));
+
+        // a term sharing `required` of the query's trigrams shares at least one of the n - required + 1 rarest,
+        // so the most common trigrams' posting lists never need to be walked
+        queryTrigrams.sort(Comparator.comparingInt(this::postingCount));
+        BitSet candidates = new BitSet(nextId);
+        int candidateCount = 0;
+        collect:
+        for (String trigram : queryTrigrams.subList(0, queryTrigrams.size() - required + 1)) {
+            Postings list = postings.get(key(trigram));
+            if (list == null) {
+                continue;
+            }
+            for (int i = list.size - 1; i >= 0; i--) {
+                if (!candidates.get(list.ids[i])) {
+                    candidates.set(list.ids[i]);
+                    if (++candidateCount == maxCandidates) {
+                        break collect;
+                    }
+                }
+            }
+        }
+
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            String term = terms[id];
+            if (term == null) {
+                continue;
+            }
+            String normalizedTerm = normalizedTerms[id];
+            int shared = 0;
+            for (String trigram : queryTrigrams) {
+                if (normalizedTerm.contains(trigram)) {
+                    shared++;
+                }
+            }
+            if (shared < required) {
+                continue;
+            }
+            best.add(new Match(term, matchType(normalizedQuery, normalizedTerm), (double) shared / queryTrigrams.size()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(BEST_FIRST);
+        return matches;
+    }
+
+    /**
+     * @return the number of indexed terms
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * @return the number of distinct trigrams with a posting list
+     */
+    public int trigramCount() {
+        return postings.size();
+    }
+
+    /**
+     * @return an estimate of the heap used by the index in bytes, assuming Latin-1 terms and compressed oops
+     */
+    public long estimatedBytes() {
+        long termBytes = ids.size() * (MAP_ENTRY_BYTES + BOXED_KEY_BYTES + STRING_BYTES) + termChars + 8L * terms.length
+            + normalizedChars;
+        long postingBytes = postings.size() * (MAP_ENTRY_BYTES + BOXED_KEY_BYTES + POSTINGS_BYTES);
+        for (Postings list : postings.values()) {
+            postingBytes += 4L * list.ids.length;
+        }
+        return termBytes + postingBytes;
+    }
+
+    private void compact() {
+        String[] live = Arrays.copyOf(terms, nextId);
+        ids.clear();
+        postings.clear();
+        terms = new String[16];
+        normalizedTerms = new String[16];
+        nextId = 0;
+        tombstones = 0;
+        termChars = 0;
+        normalizedChars = 0;
+        for (String term : live) {
+            if (term != null) {
+                add(term);
+            }
+        }
+    }
+
+    private int postingCount(String trigram) {
+        Postings list = postings.get(key(trigram));
+        return list == null ? 0 : list.size;
+    }
+
+    private static MatchType matchType(String query, String term) {
+        if (term.equals(query)) {
+            return MatchType.EXACT;
+        }
+        if (term.startsWith(query)) {
+            return MatchType.PREFIX;
+        }
+        return term.contains(query) ? MatchType.SUBSTRING : MatchType.FUZZY;
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static long key(String trigram) {
+        return ((long) trigram.charAt(0) << 32) | ((long) trigram.charAt(1) << 16) | trigram.charAt(2);
+    }
+
+    /**
+     * Growable list of term ids, in insertion order.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.fkluh.freight.benchmark;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fkluh.freight.v1.controller.GlobalExceptionHandler;
+import com.fkluh.freight.v1.exception.ErrorResponse;
+import com.fkluh.freight.v1.exception.PackageNotFoundException;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of a /track miss from the throw in a strategy to the error response. The legacy path throws an exception
+ * with a stack trace and logs it at ERROR with the trace, as GlobalExceptionHandler used to; the current path
+ * throws the stackless {@link PackageNotFoundException} into the handler, which samples the log line.
+ * {@code stackDepth} stands in for the servlet, security and Spring MVC frames below the strategy.
+ * Run with {@code mvn -Pbenchmark test -Dbenchmark=NotFoundErrorPathBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundErrorPathBenchmark {
+    private static final String LOG_PATTERN = "%d{ISO8601} %5p %t %logger{40} : %m%n%ex";
+
+    @Param({"100"})
+    private int stackDepth;
+
+    private GlobalExceptionHandler handler;
+    private Logger legacyLogger;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler(new SimpleMeterRegistry(), 10, Duration.ofMinutes(1));
+
+        // a logback context of its own, writing the formatted events nowhere, so the legacy log cost is measured
+        // without console I/O
+        LoggerContext context = new LoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(LOG_PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        legacyLogger = context.getLogger(GlobalExceptionHandler.class);
+        legacyLogger.addAppender(appender);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> legacyStackTraceLoggedAtError() {
+        try {
+            throwAtDepth(stackDepth, true);
+            return null;
+        } catch (RuntimeException ex) {
+            legacyLogger.error("An error occurred: {} - {}", ex.getClass().getSimpleName(), ex.getMessage(), ex);
+            return new ResponseEntity<>(new ErrorResponse("PACKAGE_NOT_FOUND", ex.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> stacklessSampledLog() {
+        try {
+            throwAtDepth(stackDepth, false);
+            return null;
+        } catch (RuntimeException ex) {
+            return handler.handleException(ex);
+        }
+    }
+
+    private static void throwAtDepth(int depth, boolean withStackTrace) {
+        if (depth > 0) {
+            throwAtDepth(depth - 1, withStackTrace);
+            return;
+        }
+        String message = String.format("Package with email %s not found.", "missing@kojo.com");
+        throw withStackTrace ? new LegacyPackageNotFoundException(message) : new PackageNotFoundException(message);
+    }
+
+    /**
+     * PackageNotFoundException as it was before it became stackless.
+     */
+    private static class LegacyPackageNotFoundException extends RuntimeException {
+        LegacyPackageNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.fkluh.freight.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.mapper.json.CustomPageJsonSerializer;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+
+/**
+ * Compares the old page response path (entity -> PackageDto list -> reflective Jackson) with the streaming path
+ * (entity page view -> {@link CustomPageJsonSerializer}). Run with the allocation profiler:
+ * {@code mvn -Pbenchmark test -Dbenchmark=PackagePageSerializationBenchmark} and compare gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackagePageSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private final PackageMapper mapper = new PackageMapper();
+    // ObjectMapper.writeValue closes its target, so this must stay writable after close()
+    private final OutputStream out = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ObjectMapper reflectiveObjectMapper;
+    private ObjectMapper streamingObjectMapper;
+    private PageImpl<Package> page;
+
+    @Setup
+    public void setUp() {
+        reflectiveObjectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        streamingObjectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .serializerByType(CustomPage.class, new CustomPageJsonSerializer())
+            .build();
+
+        LocalDate today = LocalDate.now();
+        List<Package> packages = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Package pkg = new Package();
+            pkg.setTrackingNumber("TRK-" + (100000 + i));
+            pkg.setEmail("recipient" + i + "@kojo.com");
+            pkg.setRecipientPostcode("1000" + (i % 10));
+            pkg.setEstimatedDeliveryDate(today.minusDays(i % 7));
+            pkg.setActualDeliveryDate(i % 2 == 0 ? today.minusDays(i % 5) : null);
+            pkg.setStatus(i % 2 == 0 ? DeliveryStatusEnum.DELIVERED : DeliveryStatusEnum.IN_TRANSIT);
+            packages.add(pkg);
+        }
+        page = new PageImpl<>(packages, PageRequest.of(0, pageSize), pageSize);
+    }
+
+    @Benchmark
+    public void dtoListWithReflectiveJackson() throws IOException {
+        List<PackageDto> dtoList = page.getContent().stream()
+            .map(mapper::packageEntityToDto)
+            .toList();
+        reflectiveObjectMapper.writeValue(out, new CustomPage<>(dtoList, page.getNumber(), page.getSize()));
+    }
+
+    @Benchmark
+    public void entityViewWithStreamingWriter() throws IOException {
+        streamingObjectMapper.writeValue(out, mapper.packageEntityPageToDtoPage(page));
+    }
+}
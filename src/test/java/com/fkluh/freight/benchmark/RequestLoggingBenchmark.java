@@ -0,0 +1,130 @@
+package com.fkluh.freight.benchmark;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fkluh.freight.v1.logging.SamplingTurboFilter;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+
+/**
+ * Logging cost an add-package request puts on the request thread: the service's INFO line, and with
+ * {@code sqlTrace} also what the dev profile adds, two SQL statements at DEBUG and their bind parameters at TRACE.
+ * {@code mode} is the appender setup: {@code sync} is the console appender used outside prod, {@code async} the
+ * bounded non-blocking queue of the prod profile, and {@code async-sampled} adds its sampling of
+ * PackageServiceV1Impl. Events are written to /dev/null, so each flush is still a real write call, as it is on a
+ * container's stdout. Run with {@code mvn -Pbenchmark test -Dbenchmark=RequestLoggingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestLoggingBenchmark {
+    private static final String LOG_PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%t] %-40.40logger{39} : %m%n";
+    private static final String INSERT = "insert into package (actual_delivery_date,email,estimated_delivery_date,"
+        + "recipient_postcode,status,version,tracking_number) values (?,?,?,?,?,?,?)";
+    private static final String EXISTS = "select p1_0.tracking_number from package p1_0 where p1_0.tracking_number=? fetch first ? rows only";
+
+    @Param({"sync", "async", "async-sampled"})
+    private String mode;
+
+    @Param({"false", "true"})
+    private boolean sqlTrace;
+
+    private LoggerContext context;
+    private Logger serviceLogger;
+    private Logger sqlLogger;
+    private Logger bindLogger;
+    private long trackingNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FileNotFoundException {
+        context = new LoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(LOG_PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setEncoder(encoder);
+        console.setOutputStream(new FileOutputStream("/dev/null"));
+        console.start();
+
+        Appender<ILoggingEvent> appender = console;
+        if (mode.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(console);
+            async.start();
+            appender = async;
+        }
+        if (mode.equals("async-sampled")) {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.setLoggerName(PackageServiceV1Impl.class.getName());
+            sampling.setLevel(ch.qos.logback.classic.Level.ERROR);
+            sampling.setRate(100);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(appender);
+        serviceLogger = context.getLogger(PackageServiceV1Impl.class);
+        sqlLogger = context.getLogger("org.hibernate.SQL");
+        bindLogger = context.getLogger("org.hibernate.orm.jdbc.bind");
+        if (sqlTrace) {
+            sqlLogger.setLevel(ch.qos.logback.classic.Level.DEBUG);
+            bindLogger.setLevel(ch.qos.logback.classic.Level.TRACE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void addPackageRequest() {
+        String tracking = "TRK-" + trackingNumber++;
+        sqlLogger.debug(EXISTS);
+        bindLogger.trace("binding parameter (1:VARCHAR) <- [{}]", tracking);
+        bindLogger.trace("binding parameter (2:INTEGER) <- [{}]", 1);
+        serviceLogger.info("Adding package with tracking number: {}", tracking);
+        sqlLogger.debug(INSERT);
+        bindLogger.trace("binding parameter (1:DATE) <- [null]");
+        bindLogger.trace("binding parameter (2:VARCHAR) <- [{}]", "recipient@kojo.com");
+        bindLogger.trace("binding parameter (3:DATE) <- [{}]", "2026-10-21");
+        bindLogger.trace("binding parameter (4:VARCHAR) <- [{}]", "10115");
+        bindLogger.trace("binding parameter (5:VARCHAR) <- [{}]", "IN_TRANSIT");
+        bindLogger.trace("binding parameter (6:BIGINT) <- [{}]", 0);
+        bindLogger.trace("binding parameter (7:VARCHAR) <- [{}]", tracking);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fkluh.freight.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.service.command.AddPackageCommand;
+import com.fkluh.freight.v1.service.command.PackageCommandValidator;
+import com.fkluh.freight.v1.service.command.UpdateDeliveryCommand;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+/**
+ * Validation cost of an add-package and an update-package request. The legacy methods repeat what the request used
+ * to go through: bean validation by {@code @Valid} in the controller and again in the service for an add, and three
+ * parses of the same date for an update. The current methods run {@link PackageCommandValidator} once.
+ * Run with {@code mvn -Pbenchmark test -Dbenchmark=RequestValidationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestValidationBenchmark {
+    private static final String ACTUAL_DELIVERY_DATE = "2025-01-31";
+
+    private Validator validator;
+    private PackageDto dto;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        dto = new PackageDto();
+        dto.setTrackingNumber("TRK-123456");
+        dto.setEmail("recipient@kojo.com");
+        dto.setRecipientPostcode("10115");
+        dto.setEstimatedDeliveryDate(LocalDate.of(2025, 2, 1));
+    }
+
+    @Benchmark
+    public void addPackageLegacy(Blackhole bh) {
+        bh.consume(validator.validate(dto));
+        bh.consume(validator.validate(dto));
+    }
+
+    @Benchmark
+    public AddPackageCommand addPackage() {
+        return PackageCommandValidator.addPackage(dto);
+    }
+
+    @Benchmark
+    public void updatePackageLegacy(Blackhole bh) {
+        bh.consume(LocalDate.parse(ACTUAL_DELIVERY_DATE));
+        bh.consume(LocalDate.parse(ACTUAL_DELIVERY_DATE).isAfter(LocalDate.now()));
+        bh.consume(LocalDate.parse(ACTUAL_DELIVERY_DATE));
+    }
+
+    @Benchmark
+    public UpdateDeliveryCommand updatePackage() {
+        return PackageCommandValidator.updateDelivery("TRK-123456", ACTUAL_DELIVERY_DATE);
+    }
+}
@@ -0,0 +1,18 @@
+package com.fkluh.freight.v1.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class ConcurrencyLimitingConfigTest {
+
+    @Test
+    void testIsRead_byMethodAndReadOnlyRoutes_happy_path() {
+        assertThat(ConcurrencyLimitingConfig.isRead(new MockHttpServletRequest("GET", "/api/v1/packages/track"))).isTrue();
+        assertThat(ConcurrencyLimitingConfig.isRead(new MockHttpServletRequest("POST", "/api/v1/packages/track/batch")))
+            .isTrue();
+        assertThat(ConcurrencyLimitingConfig.isRead(new MockHttpServletRequest("POST", "/api/v1/packages"))).isFalse();
+        assertThat(ConcurrencyLimitingConfig.isRead(new MockHttpServletRequest("PUT", "/api/v1/packages/TRK-1")))
+            .isFalse();
+    }
+}
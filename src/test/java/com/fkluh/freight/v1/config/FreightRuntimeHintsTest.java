@@ -0,0 +1,48 @@
+package com.fkluh.freight.v1.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PurgeJobDto;
+
+@Import(TestJwtDecoderConfig.class)
+class FreightRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new FreightRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testRegisterHints_strategies_happy_path() {
+        for (Class<?> strategy : FreightRuntimeHints.STRATEGIES) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(strategy)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS))
+                .accepts(hints);
+        }
+    }
+
+    @Test
+    void testRegisterHints_mapper_happy_path() throws NoSuchMethodException {
+        assertThat(RuntimeHintsPredicates.reflection()
+            .onMethod(PackageMapper.class.getMethod("packageEntityToDto", com.fkluh.freight.v1.model.Package.class)))
+            .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(PackageDto.class.getMethod("getTrackingNumber")))
+            .accepts(hints);
+    }
+
+    @Test
+    void testRegisterHints_unrelatedType_rainy_path() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(PurgeJobDto.class)).rejects(hints);
+    }
+}
@@ -4,13 +4,16 @@ import java.util.Map;
 
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 
 @TestConfiguration
 public class TestJwtDecoderConfig {
+    // a name of its own, so it sits next to the real decoder instead of overriding it
     @Bean
-    public JwtDecoder jwtDecoder() {
+    @Primary
+    public JwtDecoder testJwtDecoder() {
         return token -> new Jwt(
             token,
             null,
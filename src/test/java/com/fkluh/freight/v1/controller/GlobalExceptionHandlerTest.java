@@ -0,0 +1,80 @@
+package com.fkluh.freight.v1.controller;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.ErrorResponse;
+import com.fkluh.freight.v1.exception.PackageAlreadyExistsException;
+import com.fkluh.freight.v1.exception.PackageNotFoundException;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.util.LogSampler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@Import(TestJwtDecoderConfig.class)
+class GlobalExceptionHandlerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GlobalExceptionHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        handler = new GlobalExceptionHandler(meterRegistry, 2, Duration.ofHours(1));
+    }
+
+    @Test
+    void testHandleException_notFound_happy_path() {
+        ResponseEntity<ErrorResponse> response = handler.handleException(new PackageNotFoundException("missing"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody().getErrorCode()).isEqualTo("PACKAGE_NOT_FOUND");
+        assertThat(response.getBody().getErrorMessage()).isEqualTo("missing");
+        assertThat(meterRegistry.counter("freight.errors", "code", "PACKAGE_NOT_FOUND").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testHandleException_unexpected_rainy_path() {
+        ResponseEntity<ErrorResponse> response = handler.handleException(new IllegalStateException("boom"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody().getErrorMessage()).isEqualTo("An unexpected error occurred.");
+        assertThat(meterRegistry.counter("freight.errors", "code", "INTERNAL_SERVER_ERROR").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDomainExceptions_areStackless_happy_path() {
+        assertThat(new PackageNotFoundException("missing").getStackTrace()).isEmpty();
+        assertThat(new PackageAlreadyExistsException("exists").getStackTrace()).isEmpty();
+        assertThat(new PackageValidationException("invalid").getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void testLogSampler_suppressesOverLimit_happy_path() {
+        LogSampler sampler = new LogSampler(2, Duration.ofHours(1));
+
+        assertThat(sampler.tryAcquire()).isZero();
+        assertThat(sampler.tryAcquire()).isZero();
+        assertThat(sampler.tryAcquire()).isEqualTo(LogSampler.SUPPRESSED);
+        assertThat(sampler.tryAcquire()).isEqualTo(LogSampler.SUPPRESSED);
+    }
+
+    @Test
+    void testLogSampler_reportsSuppressedCount_happy_path() throws InterruptedException {
+        LogSampler sampler = new LogSampler(1, Duration.ofMillis(50));
+
+        assertThat(sampler.tryAcquire()).isZero();
+        assertThat(sampler.tryAcquire()).isEqualTo(LogSampler.SUPPRESSED);
+        assertThat(sampler.tryAcquire()).isEqualTo(LogSampler.SUPPRESSED);
+        Thread.sleep(100);
+
+        assertThat(sampler.tryAcquire()).isEqualTo(2);
+    }
+}
@@ -1,10 +1,12 @@
 package com.fkluh.freight.v1.controller;
 
-import java.security.Key;
 import java.time.LocalDate;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
+import javax.crypto.SecretKey;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -26,11 +28,13 @@ import com.fkluh.freight.v1.model.dto.CustomPage;
 import com.fkluh.freight.v1.model.dto.PackageDto;
 import com.fkluh.freight.v1.model.dto.PackageUpdateDto;
 import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchItemDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchRequestDto;
 import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.analytics.DeliveryEtaService;
+import com.fkluh.freight.v1.service.event.PackageEvent;
 
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -46,10 +50,13 @@ class PackageControllerV1IntegrationTest {
     @Autowired
     private PackageRepositoryV1 repository;
 
+    @Autowired
+    private DeliveryEtaService etaService;
+
     private static final String BASE_URL = "http://localhost:";
     private static final String BASE_API_URL = "/api/v1/packages";
 
-    private static final Key JWT_SECRET = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    private static final SecretKey JWT_SECRET = Jwts.SIG.HS256.key().build();
     private static final long EXPIRATION_TIME = 1000 * 60 * 30; // 0.5 hour
 
     @AfterEach
@@ -78,10 +85,10 @@ class PackageControllerV1IntegrationTest {
 
     private String generateJwtToken() {
         return Jwts.builder()
-                .setSubject("admin")
+                .subject("admin")
                 .claim("roles", "ADMIN")
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(JWT_SECRET)
                 .compact();
     }
@@ -114,6 +121,41 @@ class PackageControllerV1IntegrationTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    @Test
+    void testAddPackageWithIdempotencyKey_retryReplayed_happy_path() {
+        PackageDto packageDto = getPackageDtoFixture();
+        HttpHeaders headers = jwtHeaders();
+        headers.set("Idempotency-Key", UUID.randomUUID().toString());
+        HttpEntity<PackageDto> headerEntity = new HttpEntity<>(packageDto, headers);
+
+        ResponseEntity<PackageDto> first = restTemplate.postForEntity(
+                BASE_URL + port + BASE_API_URL, headerEntity, PackageDto.class);
+        ResponseEntity<PackageDto> retry = restTemplate.postForEntity(
+                BASE_URL + port + BASE_API_URL, headerEntity, PackageDto.class);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retry.getBody().getTrackingNumber()).isEqualTo(packageDto.getTrackingNumber());
+    }
+
+    @Test
+    void testAddPackageWithIdempotencyKey_reusedForOtherPackage_rainy_path() {
+        HttpHeaders headers = jwtHeaders();
+        headers.set("Idempotency-Key", UUID.randomUUID().toString());
+        PackageDto other = getPackageDtoFixture();
+        other.setTrackingNumber("654321");
+
+        restTemplate.postForEntity(BASE_URL + port + BASE_API_URL,
+                new HttpEntity<>(getPackageDtoFixture(), headers), PackageDto.class);
+        ResponseEntity<ErrorResponse> response = restTemplate.postForEntity(BASE_URL + port + BASE_API_URL,
+                new HttpEntity<>(other, headers), ErrorResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(response.getBody().getErrorCode()).isEqualTo("IDEMPOTENCY_KEY_REUSED");
+        assertThat(repository.existsById("654321")).isFalse();
+    }
+
     @Test
     void testTrackPackage_happy_path() {
         PackageDto packageDto = getPackageDtoFixture();
@@ -144,6 +186,62 @@ class PackageControllerV1IntegrationTest {
         assertThat(response.getBody().getErrorCode()).isEqualTo("PACKAGE_NOT_FOUND");
     }
 
+    @Test
+    void testTrackPackage_pageTooDeep_rainy_path() {
+        HttpEntity<Void> headerEntity = new HttpEntity<>(jwtHeaders());
+        ResponseEntity<ErrorResponse> response = restTemplate.exchange(
+                BASE_URL + port + BASE_API_URL + "/track?email=test@kojo.com&page=20000000&size=100",
+                org.springframework.http.HttpMethod.GET,
+                headerEntity,
+                ErrorResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getErrorCode()).isEqualTo("VALIDATION_ERROR");
+    }
+
+    @Test
+    void testTrackPackage_includeEta_happy_path() {
+        PackageDto packageDto = getPackageDtoFixture();
+        repository.save(getPackageFixture(packageDto));
+        etaService.onPackageEvent(new PackageEvent(PackageEvent.Type.DELIVERED, "654321", packageDto.getEmail(),
+            packageDto.getRecipientPostcode(), LocalDate.now().minusDays(3), LocalDate.now(), DeliveryStatusEnum.DELIVERED, null));
+        HttpEntity<Void> headerEntity = new HttpEntity<>(jwtHeaders());
+        ResponseEntity<CustomPage<PackageDto>> response = restTemplate.exchange(
+                BASE_URL + port + BASE_API_URL + "/track?trackingNumber=123456&includeEta=true",
+                org.springframework.http.HttpMethod.GET,
+                headerEntity,
+                new org.springframework.core.ParameterizedTypeReference<>() {});
+        ResponseEntity<CustomPage<PackageDto>> withoutEta = restTemplate.exchange(
+                BASE_URL + port + BASE_API_URL + "/track?trackingNumber=123456",
+                org.springframework.http.HttpMethod.GET,
+                headerEntity,
+                new org.springframework.core.ParameterizedTypeReference<>() {});
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        PackageDto tracked = response.getBody().getContent().get(0);
+        assertThat(tracked.getPredictedDeliveryDateP50()).isNotNull().isAfterOrEqualTo(LocalDate.now());
+        assertThat(tracked.getPredictedDeliveryDateP90()).isAfterOrEqualTo(tracked.getPredictedDeliveryDateP50());
+        assertThat(withoutEta.getBody().getContent().get(0).getPredictedDeliveryDateP50()).isNull();
+    }
+
+    @Test
+    void testTrackPackagesBatch_happy_path() {
+        PackageDto packageDto = getPackageDtoFixture();
+        repository.save(getPackageFixture(packageDto));
+        TrackBatchRequestDto request = new TrackBatchRequestDto();
+        request.setTrackingNumbers(List.of("9876", "123456"));
+        HttpEntity<TrackBatchRequestDto> headerEntity = new HttpEntity<>(request, jwtHeaders());
+        ResponseEntity<List<TrackBatchItemDto>> response = restTemplate.exchange(
+                BASE_URL + port + BASE_API_URL + "/track/batch",
+                org.springframework.http.HttpMethod.POST,
+                headerEntity,
+                new org.springframework.core.ParameterizedTypeReference<>() {});
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody()).extracting(TrackBatchItemDto::getTrackingNumber).containsExactly("9876", "123456");
+        assertThat(response.getBody().get(0).isFound()).isFalse();
+        assertThat(response.getBody().get(1).getDetails().getEmail()).isEqualTo(packageDto.getEmail());
+    }
+
     @Test
     void testUpdatePackage_happy_path() {
         String trackingNumber = UUID.randomUUID().toString();
@@ -182,6 +280,30 @@ class PackageControllerV1IntegrationTest {
         assertThat(response.getBody().getErrorCode()).isEqualTo("PACKAGE_NOT_FOUND");
     }
 
+    @Test
+    void testUpdatePackageAlreadyDelivered_rainy_path() {
+        String trackingNumber = UUID.randomUUID().toString();
+        Package pkg = new Package();
+        pkg.setTrackingNumber(trackingNumber);
+        pkg.setEmail("test@kojo.com");
+        pkg.setRecipientPostcode("123456");
+        pkg.setEstimatedDeliveryDate(LocalDate.now().plusDays(3));
+        pkg.setActualDeliveryDate(LocalDate.now());
+        pkg.setStatus(DeliveryStatusEnum.DELIVERED);
+        repository.save(pkg);
+        PackageUpdateDto request = new PackageUpdateDto();
+        request.setActualDeliveryDate(LocalDate.now().toString());
+        HttpEntity<PackageUpdateDto> headerEntity = new HttpEntity<>(request, jwtHeaders());
+        ResponseEntity<ErrorResponse> response = restTemplate.exchange(
+                BASE_URL + port + BASE_API_URL + "/" + trackingNumber,
+                org.springframework.http.HttpMethod.PUT,
+                headerEntity,
+                ErrorResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getErrorCode()).isEqualTo("PACKAGE_ALREADY_DELIVERED");
+    }
+
     @Test
     void testRemovePackage_happy_path() {
         PackageDto packageDto = getPackageDtoFixture();
@@ -204,7 +326,7 @@ class PackageControllerV1IntegrationTest {
                 org.springframework.http.HttpMethod.DELETE,
                 headerEntity,
                 String.class);
-        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
     @Test
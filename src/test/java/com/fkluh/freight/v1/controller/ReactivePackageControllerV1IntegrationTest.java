@@ -0,0 +1,185 @@
+package com.fkluh.freight.v1.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.fkluh.freight.v1.config.ReactiveApiConfig;
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+
+@SpringBootTest(properties = {
+    "app.reactive.enabled=true",
+    "app.reactive.port=0",
+    "app.reactive.r2dbc.url=r2dbc:h2:mem:///freight-cargo-test",
+    "app.reactive.r2dbc.username=sa"
+})
+@Import(TestJwtDecoderConfig.class)
+class ReactivePackageControllerV1IntegrationTest {
+    private static final String BASE_API_URL = "/api/v1/packages";
+    private static final String EMAIL = "reactive@kojo.com";
+
+    @Autowired
+    private ReactiveApiConfig.ReactiveApiServer server;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    private PackageServiceV1Impl service;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer()
+            .baseUrl("http://localhost:" + server.getPort())
+            .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer test-token")
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testTrackPackage_pageReadOverR2dbc_happy_path() {
+        for (int i = 0; i < 3; i++) {
+            repository.save(packageFixture("REACTIVE-" + i, "10115"));
+        }
+
+        client.get().uri(BASE_API_URL + "/track?email={email}&size=2", EMAIL)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.content.length()").isEqualTo(2)
+            .jsonPath("$.content[0].email").isEqualTo(EMAIL)
+            .jsonPath("$.page").isEqualTo(0)
+            .jsonPath("$.size").isEqualTo(2);
+    }
+
+    @Test
+    void testTrackPackage_streamedAsNdjson_happy_path() {
+        for (int i = 0; i < 25; i++) {
+            repository.save(packageFixture("REACTIVE-" + i, "10115"));
+        }
+
+        List<PackageDto> streamed = client.get().uri(BASE_API_URL + "/track?recipientPostcode=10115")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(PackageDto.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        // unlike a page, the stream is not capped at the maximum page size
+        assertThat(streamed).hasSize(25).allSatisfy(pkg -> assertThat(pkg.getRecipientPostcode()).isEqualTo("10115"));
+    }
+
+    @Test
+    void testTrackPackageNotFound_streamAnswersWithErrorStatus_rainy_path() {
+        client.get().uri(BASE_API_URL + "/track?trackingNumber=MISSING")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isNotFound()
+            .expectBody()
+            .jsonPath("$.errorCode").isEqualTo("PACKAGE_NOT_FOUND");
+    }
+
+    @Test
+    void testFilterPackages_invalidStatus_rainy_path() {
+        client.get().uri(BASE_API_URL + "/filter?status=lost")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.errorCode").isEqualTo("VALIDATION_ERROR");
+    }
+
+    @Test
+    void testTrackPackage_pageNotANumber_rainy_path() {
+        client.get().uri(BASE_API_URL + "/track?recipientPostcode=20095&page=first")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.errorCode").isEqualTo("VALIDATION_ERROR")
+            .jsonPath("$.errorMessage").isEqualTo(ErrorMessages.PAGING_PARAMETER_INVALID);
+    }
+
+    @Test
+    void testFilterPackages_mostDelayedPostcode_happy_path() {
+        Package delayed = packageFixture("REACTIVE-DELAYED", "20095");
+        delayed.setStatus(DeliveryStatusEnum.DELIVERED);
+        delayed.setActualDeliveryDate(delayed.getEstimatedDeliveryDate().plusDays(2));
+        repository.save(delayed);
+
+        client.get().uri(BASE_API_URL + "/filter?findMostDelayedPostcode=true")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.content[0].recipientPostcode").isEqualTo("20095")
+            .jsonPath("$.content[0].delayCount").isEqualTo(1);
+    }
+
+    @Test
+    void testAddPackage_writtenThroughBlockingService_happy_path() {
+        PackageDto packageDto = new PackageDto();
+        packageDto.setTrackingNumber("REACTIVE-NEW");
+        packageDto.setEmail(EMAIL);
+        packageDto.setRecipientPostcode("10115");
+        packageDto.setEstimatedDeliveryDate(LocalDate.now().plusDays(3));
+
+        client.post().uri(BASE_API_URL)
+            .bodyValue(packageDto)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody()
+            .jsonPath("$.status").isEqualTo("IN_TRANSIT");
+
+        assertThat(service.trackPackages("REACTIVE-NEW", null, null, 0, 10).getContent())
+            .extracting(PackageDto::getTrackingNumber)
+            .containsExactly("REACTIVE-NEW");
+        client.post().uri(BASE_API_URL)
+            .bodyValue(packageDto)
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void testTrackPackage_withoutToken_rainy_path() {
+        WebTestClient.bindToServer()
+            .baseUrl("http://localhost:" + server.getPort())
+            .build()
+            .get().uri(BASE_API_URL + "/track?email={email}", EMAIL)
+            .exchange()
+            .expectStatus().isUnauthorized();
+    }
+
+    private static Package packageFixture(String trackingNumber, String postcode) {
+        Package pkg = new Package();
+        pkg.setTrackingNumber(trackingNumber);
+        pkg.setEmail(EMAIL);
+        pkg.setRecipientPostcode(postcode);
+        pkg.setEstimatedDeliveryDate(LocalDate.now().plusDays(3));
+        pkg.setStatus(DeliveryStatusEnum.IN_TRANSIT);
+        return pkg;
+    }
+}
@@ -0,0 +1,72 @@
+package com.fkluh.freight.v1.datasource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:freight-cargo-bulkheads;DB_CLOSE_DELAY=-1")
+@Import(TestJwtDecoderConfig.class)
+class BulkheadRoutingIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        BulkheadContext.clear();
+    }
+
+    @Test
+    void testConnection_takenFromLanePool_happy_path() {
+        BulkheadContext.set(BulkheadContext.Lane.ANALYTICS);
+
+        int[] active = activeInTransaction();
+
+        assertThat(active[0]).isZero();
+        assertThat(active[1]).isEqualTo(1);
+    }
+
+    @Test
+    void testConnection_withoutLaneTakenFromSharedPool_happy_path() {
+        int[] active = activeInTransaction();
+
+        assertThat(active[0]).isZero();
+        assertThat(active[1]).isZero();
+        // background jobs may hold shared connections too
+        assertThat(active[2]).isPositive();
+    }
+
+    /**
+     * @return the connections in use by the tracking, analytics and shared pools while a transaction runs
+     */
+    private int[] activeInTransaction() {
+        return transactionTemplate.execute(status -> {
+            new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM package", Long.class);
+            BulkheadRoutingDataSource pools = (BulkheadRoutingDataSource) dataSource;
+            return new int[] {
+                active(pools.getResolvedDataSources().get(BulkheadContext.Lane.TRACKING)),
+                active(pools.getResolvedDataSources().get(BulkheadContext.Lane.ANALYTICS)),
+                active(pools.getResolvedDefaultDataSource())
+            };
+        });
+    }
+
+    static int active(DataSource dataSource) {
+        HikariDataSource pool = (HikariDataSource) dataSource;
+        // pools start with their first connection
+        return pool.getHikariPoolMXBean() == null ? 0 : pool.getHikariPoolMXBean().getActiveConnections();
+    }
+}
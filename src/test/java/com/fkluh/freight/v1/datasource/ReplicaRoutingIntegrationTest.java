@@ -0,0 +1,163 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.PackageNotFoundException;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+import com.fkluh.freight.v1.service.webhook.WebhookService;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:freight-cargo-primary;DB_CLOSE_DELAY=-1",
+    "app.datasource.replica.enabled=true",
+    "app.datasource.replica.url=jdbc:h2:mem:freight-cargo-replica;DB_CLOSE_DELAY=-1",
+    "app.datasource.replica.username=sa",
+    "app.datasource.replica.sync-from-primary=true",
+    "app.webhooks.refresh-interval=50ms"
+})
+@Import(TestJwtDecoderConfig.class)
+class ReplicaRoutingIntegrationTest {
+    private static final String REPLICA_ONLY_POSTCODE = "R-ONLY";
+
+    @Autowired
+    private PackageServiceV1Impl service;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private WebhookService webhookService;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(replicaDataSource);
+        // a row that only exists on the replica tells us where a read was served from
+        replica.update("""
+            INSERT INTO package (tracking_number, email, recipient_postcode, estimated_delivery_date, status)
+            VALUES ('REPLICA-1', 'replica@kojo.com', ?, ?, 'IN_TRANSIT')""",
+            REPLICA_ONLY_POSTCODE, java.sql.Date.valueOf(LocalDate.now().plusDays(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadRoutingContext.clear();
+        repository.deleteAll();
+        replica.update("DELETE FROM package");
+    }
+
+    @Test
+    void testTrackPackages_routedToReplica_happy_path() {
+        CustomPage<PackageDto> result = service.trackPackages(null, null, REPLICA_ONLY_POSTCODE, 0, 10);
+
+        assertThat(result.getContent()).extracting(PackageDto::getTrackingNumber).containsExactly("REPLICA-1");
+    }
+
+    @Test
+    void testTrackPackages_pinnedToPrimary_rainy_path() {
+        ReadRoutingContext.pinToPrimary();
+
+        assertThrows(PackageNotFoundException.class, () -> service.trackPackages(null, null, REPLICA_ONLY_POSTCODE, 0, 10));
+    }
+
+    @Test
+    void testAddPackage_writtenToPrimaryAndReplicated_happy_path() throws InterruptedException {
+        PackageDto dto = new PackageDto();
+        dto.setTrackingNumber("PRIMARY-1");
+        dto.setEmail("primary@kojo.com");
+        dto.setRecipientPostcode("12345");
+        dto.setEstimatedDeliveryDate(LocalDate.now().minusDays(2));
+        dto.setActualDeliveryDate(LocalDate.now());
+
+        service.addPackage(dto);
+
+        // read inside a read-write transaction, so from the primary
+        Boolean onPrimary = transactionTemplate.execute(status -> repository.existsById("PRIMARY-1"));
+        assertThat(onPrimary).isTrue();
+        // the rollup row is copied after the package row, so wait for both
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Integer replicated = 0;
+        while (replicated < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            replicated = replica.queryForObject("""
+                SELECT (SELECT COUNT(*) FROM package WHERE tracking_number = 'PRIMARY-1')
+                     + (SELECT COUNT(*) FROM postcode_daily_rollup WHERE recipient_postcode = '12345')""", Integer.class);
+        }
+        assertThat(replicated).isEqualTo(2);
+        Integer delayed = replica.queryForObject(
+            "SELECT delayed_count FROM postcode_daily_rollup WHERE recipient_postcode = '12345' AND delivery_date = ?",
+            Integer.class, java.sql.Date.valueOf(LocalDate.now()));
+        assertThat(delayed).isEqualTo(1);
+    }
+
+    @Test
+    void testWebhookRefresh_readsSubscriptionsFromPrimary_happy_path() throws InterruptedException {
+        // registered by another instance, so only the refresh can pick it up
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        primary.update("""
+            INSERT INTO webhook_subscription (id, url, created_at)
+            VALUES ('REPLICA-HOOK', 'http://localhost:1/hook', ?)""", java.sql.Timestamp.valueOf(LocalDateTime.now()));
+        primary.update("""
+            INSERT INTO webhook_subscription_events (webhook_subscription_id, event_type)
+            VALUES ('REPLICA-HOOK', 'CREATED')""");
+        try {
+            Object target = AopTestUtils.getTargetObject(webhookService);
+            Map<?, ?> endpoints = (Map<?, ?>) ReflectionTestUtils.getField(target, "endpoints");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!endpoints.containsKey("REPLICA-HOOK") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThat(endpoints.containsKey("REPLICA-HOOK")).isTrue();
+        } finally {
+            webhookService.removeWebhook("REPLICA-HOOK");
+        }
+    }
+
+    @Test
+    void testLagTracker_pinsOnlyWithinWindow_happy_path() throws InterruptedException {
+        ReplicaLagTracker tracker = new ReplicaLagTracker(Duration.ofMillis(50));
+
+        tracker.recordWrite("admin");
+
+        assertThat(tracker.wroteRecently("admin")).isTrue();
+        assertThat(tracker.wroteRecently("someone-else")).isFalse();
+        Thread.sleep(60);
+        assertThat(tracker.wroteRecently("admin")).isFalse();
+    }
+}
@@ -0,0 +1,436 @@
+package com.fkluh.freight.v1.datasource;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.model.PurgeJobStateEnum;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.PostcodeOnTimeRateDto;
+import com.fkluh.freight.v1.model.dto.PurgeJobDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchItemDto;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+import com.fkluh.freight.v1.service.analytics.DelayTrendService;
+import com.fkluh.freight.v1.service.analytics.DeliveryEtaService;
+import com.fkluh.freight.v1.service.analytics.DeliveryRollupService;
+import com.fkluh.freight.v1.service.analytics.DistinctRecipientService;
+import com.fkluh.freight.v1.service.analytics.PostcodePrefixService;
+import com.fkluh.freight.v1.service.outbox.OutboxMessage;
+import com.fkluh.freight.v1.service.outbox.PackageChangeBatch;
+import com.fkluh.freight.v1.service.purge.PackagePurgeService;
+import com.fkluh.freight.v1.service.search.PackageSearchService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest(properties = {
+    "app.datasource.sharding.enabled=true",
+    "app.datasource.sharding.urls=jdbc:h2:mem:freight-cargo-shard-0;DB_CLOSE_DELAY=-1,"
+        + "jdbc:h2:mem:freight-cargo-shard-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:freight-cargo-shard-2;DB_CLOSE_DELAY=-1",
+    "app.datasource.sharding.username=sa",
+    "app.purge.pause-between-chunks=0ms",
+    // the test flushes distinct recipient counters itself
+    "app.analytics.distinct-recipients.flush-interval=1h"
+})
+@Import({TestJwtDecoderConfig.class, ShardingIntegrationTest.OutboxConsumer.class})
+class ShardingIntegrationTest {
+    private static final String EMAIL = "sharded@kojo.com";
+
+    @Autowired
+    private PackageServiceV1Impl service;
+
+    @Autowired
+    private ShardRoutingDataSource shards;
+
+    @Autowired
+    private DeliveryRollupService rollupService;
+
+    @Autowired
+    private PackagePurgeService purgeService;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private OutboxConsumer outboxConsumer;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            JdbcTemplate jdbc = shard(shard);
+            jdbc.update("DELETE FROM package");
+            jdbc.update("DELETE FROM postcode_daily_rollup");
+        }
+        shard(0).update("DELETE FROM postcode_daily_recipients");
+    }
+
+    @Test
+    void testAddPackage_placedOnOneShardAndFoundById_happy_path() {
+        for (int i = 0; i < 30; i++) {
+            service.addPackage(packageDto("SHARD-" + i, "10115", null));
+        }
+
+        int total = 0;
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            Integer rows = shard(shard).queryForObject("SELECT COUNT(*) FROM package", Integer.class);
+            assertThat(rows).as("shard %d", shard).isPositive();
+            total += rows;
+        }
+        assertThat(total).isEqualTo(30);
+        for (int i = 0; i < 30; i++) {
+            CustomPage<PackageDto> found = service.trackPackages("SHARD-" + i, null, null, 0, 10);
+            assertThat(found.getContent()).extracting(PackageDto::getTrackingNumber).containsExactly("SHARD-" + i);
+        }
+    }
+
+    @Test
+    void testTrackPackagesBatch_gatheredFromAllShardsInRequestOrder_happy_path() {
+        List<String> requested = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            service.addPackage(packageDto("SHARD-BATCH-" + i, "10115", null));
+            requested.add(0, "SHARD-BATCH-" + i);
+        }
+        requested.add(5, "SHARD-BATCH-MISSING");
+
+        List<TrackBatchItemDto> items = service.trackPackagesBatch(requested);
+
+        assertThat(items).extracting(TrackBatchItemDto::getTrackingNumber).containsExactlyElementsOf(requested);
+        assertThat(items).filteredOn(item -> !item.isFound())
+            .extracting(TrackBatchItemDto::getTrackingNumber).containsExactly("SHARD-BATCH-MISSING");
+    }
+
+    @Test
+    void testUpdateAndRemovePackage_onItsShard_happy_path() {
+        service.addPackage(packageDto("SHARD-UPD", "10115", null));
+
+        PackageDto updated = service.updatePackage("SHARD-UPD", LocalDate.now().toString());
+        assertThat(updated.getStatus()).isEqualTo("DELIVERED");
+        service.removePackage("SHARD-UPD");
+
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            assertThat(shard(shard).queryForObject("SELECT COUNT(*) FROM package", Integer.class)).isZero();
+        }
+    }
+
+    @Test
+    void testTrackByEmail_mergedNewestFirstAcrossPages_happy_path() {
+        for (int i = 0; i < 13; i++) {
+            service.addPackage(packageDto("SHARD-EMAIL-" + i, "10115", null));
+        }
+        List<String> newestFirst = new ArrayList<>();
+        for (int i = 12; i >= 0; i--) {
+            newestFirst.add("SHARD-EMAIL-" + i);
+        }
+
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            CustomPage<PackageDto> result = service.trackPackages(null, EMAIL, null, page, 5);
+            result.getContent().forEach(dto -> paged.add(dto.getTrackingNumber()));
+        }
+
+        assertThat(paged).containsExactlyElementsOf(newestFirst);
+    }
+
+    @Test
+    void testFilterPostcodeByMostDelayedPackages_mergedAcrossShards_happy_path() {
+        LocalDate lateDelivery = LocalDate.now();
+        for (int i = 0; i < 6; i++) {
+            service.addPackage(packageDto("SHARD-LATE-A-" + i, "11111", lateDelivery));
+        }
+        for (int i = 0; i < 4; i++) {
+            service.addPackage(packageDto("SHARD-LATE-B-" + i, "22222", lateDelivery));
+        }
+        service.addPackage(packageDto("SHARD-LATE-C-0", "33333", lateDelivery));
+
+        CustomPage<PostcodeByCountDto> first = service.filterPostcodeByMostDelayedPackages(0, 2);
+        CustomPage<PostcodeByCountDto> second = service.filterPostcodeByMostDelayedPackages(1, 2);
+
+        Map<String, Long> counts = new HashMap<>();
+        first.getContent().forEach(count -> counts.put(count.getRecipientPostcode(), count.getDelayCount()));
+        assertThat(first.getContent()).extracting(PostcodeByCountDto::getRecipientPostcode).containsExactly("11111", "22222");
+        assertThat(counts).containsEntry("11111", 6L).containsEntry("22222", 4L);
+        assertThat(second.getContent()).extracting(PostcodeByCountDto::getRecipientPostcode).containsExactly("33333");
+    }
+
+    @Test
+    void testDeliveryRollups_keptOnEachShardAndReadFromAll_happy_path() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 12; i++) {
+            service.addPackage(packageDto("SHARD-ROLLUP-" + i, "44444", today));
+        }
+
+        assertThat(shardsHolding("SELECT COUNT(*) FROM postcode_daily_rollup")).hasSizeGreaterThan(1);
+        assertRollupsOfTwelveLateDeliveries(today);
+    }
+
+    @Test
+    void testSeedRollups_eachShardFromItsOwnPackages_happy_path() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 12; i++) {
+            service.addPackage(packageDto("SHARD-SEED-" + i, "44444", today));
+        }
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            shard(shard).update("DELETE FROM postcode_daily_rollup");
+        }
+
+        rollupService.seedRollups();
+
+        assertThat(shardsHolding("SELECT COUNT(*) FROM postcode_daily_rollup"))
+            .containsExactlyElementsOf(shardsHolding("SELECT COUNT(*) FROM package"));
+        assertRollupsOfTwelveLateDeliveries(today);
+    }
+
+    @Test
+    void testPurge_deletesMatchingPackagesOnEveryShard_happy_path() throws InterruptedException {
+        for (int i = 0; i < 12; i++) {
+            service.addPackage(packageDto("SHARD-PURGE-" + i, "55555", LocalDate.now()));
+        }
+        service.addPackage(packageDto("SHARD-PURGE-KEPT", "55556", LocalDate.now()));
+        assertThat(shardsHolding("SELECT COUNT(*) FROM package WHERE recipient_postcode = '55555'")).hasSizeGreaterThan(1);
+
+        assertThat(purgeService.dryRun(null, null, "55555").getMatchedCount()).isEqualTo(12);
+        PurgeJobDto job = awaitFinished(purgeService.startPurge(null, null, "55555"));
+
+        assertThat(job.getState()).isEqualTo(PurgeJobStateEnum.COMPLETED);
+        assertThat(job.getMatchedCount()).isEqualTo(12);
+        assertThat(job.getDeletedCount()).isEqualTo(12);
+        assertThat(shardsHolding("SELECT COUNT(*) FROM package WHERE recipient_postcode = '55555'")).isEmpty();
+        assertThat(service.trackPackages("SHARD-PURGE-KEPT", null, null, 0, 10).getContent()).hasSize(1);
+    }
+
+    @Test
+    void testStartupScans_loadPackagesOfEveryShard_happy_path() throws InterruptedException {
+        for (int i = 0; i < 12; i++) {
+            PackageDto dto = packageDto("SHARD-SCAN-" + i, "66666", LocalDate.now());
+            dto.setEmail("scan-" + i + "@kojo.com");
+            service.addPackage(dto);
+        }
+        assertThat(shardsHolding("SELECT COUNT(*) FROM package")).hasSizeGreaterThan(1);
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            // Hibernate writes in the test time zone, the delay trend scan reads in the JVM's
+            shard(shard).update("UPDATE package SET updated_at = ?", Timestamp.valueOf(LocalDateTime.now()));
+        }
+        // started over a database that already holds the packages, the way a restarted instance finds them
+        shard(0).update("DELETE FROM postcode_daily_recipients");
+
+        PackageSearchService search = beanFactory.createBean(PackageSearchService.class);
+        PostcodePrefixService prefixes = beanFactory.createBean(PostcodePrefixService.class);
+        DeliveryEtaService eta = beanFactory.createBean(DeliveryEtaService.class);
+        DelayTrendService delayTrend = beanFactory.createBean(DelayTrendService.class);
+        DistinctRecipientService recipients = beanFactory.createBean(DistinctRecipientService.class);
+        recipients.shutdown();
+
+        assertThat(search.search("SHARD-SCAN", 100)).hasSize(12);
+        assertThat(prefixes.getCounts("66666").getDeliveredCount()).isEqualTo(12);
+        assertThat(eta.getLateness("66666").getDeliveredCount()).isEqualTo(12);
+        assertThat(delayTrend.getTopDelayedPostcodes("24h", 10)).singleElement()
+            .satisfies(trend -> assertThat(trend.getDelayCount()).isEqualTo(12));
+        assertThat(recipients.getDistinctRecipients("66666", null, null).getRecipients()).isBetween(11L, 13L);
+    }
+
+    @Test
+    void testOutboxRelay_publishesChangesOfEveryShard_happy_path() throws InterruptedException {
+        for (int i = 0; i < 12; i++) {
+            service.addPackage(packageDto("SHARD-OUTBOX-" + i, "77777", null));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (outboxed("SHARD-OUTBOX-").size() < 12 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        List<OutboxMessage> changes = outboxed("SHARD-OUTBOX-");
+        assertThat(changes).hasSize(12);
+        ShardRing ring = new ShardRing(shards.shardCount(), 128);
+        assertThat(changes).allSatisfy(change -> assertThat(change.shard()).isEqualTo(ring.shardFor(change.trackingNumber())));
+        assertThat(changes.stream().map(OutboxMessage::shard).distinct()).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void testConnection_takenFromLanePoolOfItsShard_happy_path() {
+        BulkheadContext.set(BulkheadContext.Lane.ANALYTICS);
+        ShardContext.set(1);
+        try {
+            int[] active = transactionTemplate.execute(status -> {
+                new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM package", Long.class);
+                BulkheadRoutingDataSource shardZero = (BulkheadRoutingDataSource) shards.shard(0);
+                BulkheadRoutingDataSource shardOne = (BulkheadRoutingDataSource) shards.shard(1);
+                return new int[] {
+                    BulkheadRoutingIntegrationTest.active(
+                        shardZero.getResolvedDataSources().get(BulkheadContext.Lane.ANALYTICS)),
+                    BulkheadRoutingIntegrationTest.active(
+                        shardOne.getResolvedDataSources().get(BulkheadContext.Lane.ANALYTICS))
+                };
+            });
+
+            assertThat(active[0]).isZero();
+            assertThat(active[1]).isEqualTo(1);
+        } finally {
+            ShardContext.clear();
+            BulkheadContext.clear();
+        }
+    }
+
+    @Test
+    void testScatteredQuery_borrowsFromLanePoolOfEveryShard_happy_path() {
+        service.addPackage(packageDto("SHARD-LANE-1", "10115", null));
+        long[] before = acquisitions("analytics");
+
+        BulkheadContext.set(BulkheadContext.Lane.ANALYTICS);
+        try {
+            assertThat(repository.count()).isEqualTo(1);
+        } finally {
+            BulkheadContext.clear();
+        }
+
+        long[] after = acquisitions("analytics");
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            assertThat(after[shard]).as("shard %d", shard).isGreaterThan(before[shard]);
+        }
+    }
+
+    @Test
+    void testShardRing_balancedAndStableWhenGrowing_happy_path() {
+        ShardRing four = new ShardRing(4, 128);
+        ShardRing five = new ShardRing(5, 128);
+        int[] perShard = new int[4];
+        int moved = 0;
+
+        for (int i = 0; i < 100_000; i++) {
+            String trackingNumber = "TRK-" + i;
+            int before = four.shardFor(trackingNumber);
+            int after = five.shardFor(trackingNumber);
+            perShard[before]++;
+            if (before != after) {
+                assertThat(after).isEqualTo(4);
+                moved++;
+            }
+        }
+
+        for (int count : perShard) {
+            assertThat(count).isBetween(20_000, 30_000);
+        }
+        assertThat(moved).isBetween(15_000, 25_000);
+    }
+
+    /**
+     * @return the connections taken so far from each shard's pool of the lane, zero for pools not yet started
+     */
+    private long[] acquisitions(String lane) {
+        long[] counts = new long[shards.shardCount()];
+        for (int shard = 0; shard < counts.length; shard++) {
+            Timer acquire = meterRegistry.find("hikaricp.connections.acquire")
+                .tag("pool", "shard-" + shard + "-" + lane)
+                .timer();
+            counts[shard] = acquire == null ? 0 : acquire.count();
+        }
+        return counts;
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(shards.shard(shard));
+    }
+
+    /**
+     * @return the shards on which the count query finds rows
+     */
+    private List<Integer> shardsHolding(String countQuery) {
+        List<Integer> holding = new ArrayList<>();
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            Integer rows = shard(shard).queryForObject(countQuery, Integer.class);
+            if (rows != null && rows > 0) {
+                holding.add(shard);
+            }
+        }
+        return holding;
+    }
+
+    private void assertRollupsOfTwelveLateDeliveries(LocalDate today) {
+        CustomPage<PostcodeByCountDto> ranking = rollupService.filterPostcodeByMostDelayedPackages(
+            today.minusDays(1).toString(), today.toString(), 0, 10);
+        assertThat(ranking.getContent()).singleElement().satisfies(count -> {
+            assertThat(count.getRecipientPostcode()).isEqualTo("44444");
+            assertThat(count.getDelayCount()).isEqualTo(12);
+        });
+        List<PostcodeOnTimeRateDto> weeks = rollupService.findWeeklyOnTimeRate("44444", today.toString(), today.toString());
+        assertThat(weeks).singleElement().satisfies(week -> {
+            assertThat(week.getDeliveredCount()).isEqualTo(12);
+            assertThat(week.getDelayedCount()).isEqualTo(12);
+            assertThat(week.getLatenessDays()).isEqualTo(24);
+        });
+    }
+
+    private List<OutboxMessage> outboxed(String trackingNumberPrefix) {
+        return outboxConsumer.changes.stream()
+            .filter(change -> change.trackingNumber().startsWith(trackingNumberPrefix))
+            .toList();
+    }
+
+    private PurgeJobDto awaitFinished(PurgeJobDto job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        PurgeJobDto current = purgeService.getJob(job.getId());
+        while (current.getState() != PurgeJobStateEnum.COMPLETED && current.getState() != PurgeJobStateEnum.FAILED
+            && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            current = purgeService.getJob(job.getId());
+        }
+        return current;
+    }
+
+    private static PackageDto packageDto(String trackingNumber, String postcode, LocalDate actualDeliveryDate) {
+        PackageDto dto = new PackageDto();
+        dto.setTrackingNumber(trackingNumber);
+        dto.setEmail(EMAIL);
+        dto.setRecipientPostcode(postcode);
+        dto.setEstimatedDeliveryDate(LocalDate.now().minusDays(2));
+        dto.setActualDeliveryDate(actualDeliveryDate);
+        return dto;
+    }
+
+    @TestComponent
+    static class OutboxConsumer {
+        private final Queue<OutboxMessage> changes = new ConcurrentLinkedQueue<>();
+
+        @EventListener
+        public void onChanges(PackageChangeBatch batch) {
+            changes.addAll(batch.changes());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.fkluh.freight.v1.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+@Import(TestJwtDecoderConfig.class)
+class SamplingTurboFilterTest {
+
+    private LoggerContext context;
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLoggerName("com.fkluh.freight.v1.service");
+        filter.setLevel(Level.INFO);
+        filter.setRate(10);
+        filter.start();
+    }
+
+    @Test
+    void testDecide_samplesMatchingLogger_happy_path() {
+        Logger logger = context.getLogger("com.fkluh.freight.v1.service.PackageServiceV1Impl");
+
+        int kept = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (decide(logger, Level.INFO) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        assertThat(kept).isBetween(800, 1200);
+    }
+
+    @Test
+    void testDecide_higherLevelAndOtherLoggers_happy_path() {
+        Logger service = context.getLogger("com.fkluh.freight.v1.service.PackageServiceV1Impl");
+        Logger sibling = context.getLogger("com.fkluh.freight.v1.serviceX");
+        Logger other = context.getLogger("com.fkluh.freight.v1.controller.PackageControllerV1");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(decide(service, Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(decide(sibling, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(decide(other, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+        }
+    }
+
+    @Test
+    void testDecide_levelChecksAreNotSampled_happy_path() {
+        Logger logger = context.getLogger("com.fkluh.freight.v1.service.PackageServiceV1Impl");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(filter.decide(null, logger, Level.INFO, null, null, null)).isEqualTo(FilterReply.NEUTRAL);
+        }
+    }
+
+    @Test
+    void testStart_missingLoggerName_rainy_path() {
+        SamplingTurboFilter unnamed = new SamplingTurboFilter();
+        unnamed.setContext(context);
+        unnamed.setRate(10);
+        unnamed.start();
+
+        assertThat(unnamed.isStarted()).isFalse();
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "message {}", new Object[]{1}, null);
+    }
+}
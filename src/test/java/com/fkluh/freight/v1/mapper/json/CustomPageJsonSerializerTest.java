@@ -0,0 +1,82 @@
+package com.fkluh.freight.v1.mapper.json;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+
+@Import(TestJwtDecoderConfig.class)
+class CustomPageJsonSerializerTest {
+
+    private final PackageMapper mapper = new PackageMapper();
+    private final ObjectMapper reflectiveObjectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    private final ObjectMapper streamingObjectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .serializerByType(CustomPage.class, new CustomPageJsonSerializer())
+        .build();
+
+    private Package getPackageFixture(String trackingNumber, LocalDate actualDeliveryDate, DeliveryStatusEnum status) {
+        Package pkg = new Package();
+        pkg.setTrackingNumber(trackingNumber);
+        pkg.setEmail("test@kojo.com");
+        pkg.setRecipientPostcode("12345");
+        pkg.setEstimatedDeliveryDate(LocalDate.of(2025, 1, 31));
+        pkg.setActualDeliveryDate(actualDeliveryDate);
+        pkg.setStatus(status);
+        return pkg;
+    }
+
+    @Test
+    void serialize_packagePage_matchesReflectiveDtoOutput_happy_path() throws Exception {
+        List<Package> packages = List.of(
+            getPackageFixture("123456", LocalDate.of(2025, 2, 2), DeliveryStatusEnum.DELIVERED),
+            getPackageFixture("654321\"quoted\"", null, DeliveryStatusEnum.IN_TRANSIT),
+            getPackageFixture("000000", null, null)
+        );
+        CustomPage<PackageDto> streamed = mapper.packageEntityPageToDtoPage(new PageImpl<>(packages));
+        CustomPage<PackageDto> reflective = new CustomPage<>(
+            packages.stream().map(mapper::packageEntityToDto).toList(), streamed.getPage(), streamed.getSize());
+
+        assertThat(streamingObjectMapper.writeValueAsString(streamed))
+            .isEqualTo(reflectiveObjectMapper.writeValueAsString(reflective));
+    }
+
+    @Test
+    void serialize_singlePackagePage_matchesReflectiveDtoOutput_happy_path() throws Exception {
+        Package pkg = getPackageFixture("123456", null, DeliveryStatusEnum.IN_TRANSIT);
+        CustomPage<PackageDto> reflective = new CustomPage<>(List.of(mapper.packageEntityToDto(pkg)), 0, 1);
+
+        assertThat(streamingObjectMapper.writeValueAsString(mapper.singleEntityToDtoPage(pkg)))
+            .isEqualTo(reflectiveObjectMapper.writeValueAsString(reflective));
+    }
+
+    @Test
+    void serialize_nonPackageContent_fallsBackToDefaultSerializers_happy_path() throws Exception {
+        CustomPage<PostcodeByCountDto> page = new CustomPage<>(List.of(new PostcodeByCountDto("12345", 3)), 0, 10);
+
+        assertThat(streamingObjectMapper.writeValueAsString(page))
+            .isEqualTo(reflectiveObjectMapper.writeValueAsString(page));
+    }
+
+    @Test
+    void serialize_emptyPage_happy_path() throws Exception {
+        assertThat(streamingObjectMapper.writeValueAsString(CustomPage.empty()))
+            .isEqualTo(reflectiveObjectMapper.writeValueAsString(CustomPage.empty()));
+    }
+}
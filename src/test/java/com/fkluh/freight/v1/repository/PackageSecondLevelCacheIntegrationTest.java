@@ -0,0 +1,119 @@
+package com.fkluh.freight.v1.repository;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@Import(TestJwtDecoderConfig.class)
+class PackageSecondLevelCacheIntegrationTest {
+    private static final String TRACKING_NUMBER = "L2-CACHE-1";
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    private PackageServiceV1Impl service;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Package pkg = new Package();
+        pkg.setTrackingNumber(TRACKING_NUMBER);
+        pkg.setEmail("cache@kojo.com");
+        pkg.setRecipientPostcode("12345");
+        pkg.setEstimatedDeliveryDate(LocalDate.now().plusDays(1));
+        pkg.setStatus(DeliveryStatusEnum.IN_TRANSIT);
+        repository.save(pkg);
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testIdLookups_servedFromCacheOnceWarm_happy_path() {
+        repository.findById(TRACKING_NUMBER);
+        // counted for packages only, as background jobs run statements of their own meanwhile
+        EntityStatistics packages = statistics.getEntityStatistics(Package.class.getName());
+        long loadsAfterWarmUp = packages.getLoadCount();
+
+        assertThat(repository.existsById(TRACKING_NUMBER)).isTrue();
+        assertThat(repository.findById(TRACKING_NUMBER)).isPresent();
+
+        assertThat(packages.getLoadCount()).isEqualTo(loadsAfterWarmUp);
+        assertThat(packages.getCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testUpdatePackage_cachedEntityReflectsUpdate_happy_path() {
+        repository.findById(TRACKING_NUMBER);
+
+        service.updatePackage(TRACKING_NUMBER, LocalDate.now().toString());
+
+        Package cached = repository.findById(TRACKING_NUMBER).orElseThrow();
+        assertThat(cached.getStatus()).isEqualTo(DeliveryStatusEnum.DELIVERED);
+        assertThat(cached.getActualDeliveryDate()).isEqualTo(LocalDate.now());
+    }
+
+    @Test
+    void testUpdatePackage_otherCachedPackagesStayCached_happy_path() {
+        Package other = new Package();
+        other.setTrackingNumber("L2-CACHE-2");
+        other.setEmail("cache@kojo.com");
+        other.setRecipientPostcode("12345");
+        other.setEstimatedDeliveryDate(LocalDate.now().plusDays(1));
+        other.setStatus(DeliveryStatusEnum.IN_TRANSIT);
+        repository.save(other);
+        repository.findById("L2-CACHE-2");
+
+        service.updatePackage(TRACKING_NUMBER, LocalDate.now().toString());
+        long hitsBeforeLookup = statistics.getSecondLevelCacheHitCount();
+
+        assertThat(repository.findById("L2-CACHE-2")).isPresent();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(hitsBeforeLookup + 1);
+    }
+
+    @Test
+    void testRemovePackage_notServedFromCacheAfterDelete_happy_path() {
+        repository.findById(TRACKING_NUMBER);
+
+        service.removePackage(TRACKING_NUMBER);
+        long hitsBeforeLookup = statistics.getSecondLevelCacheHitCount();
+
+        assertThat(repository.existsById(TRACKING_NUMBER)).isFalse();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(hitsBeforeLookup);
+    }
+
+    @Test
+    void testPageQuery_doesNotStoreInCache_happy_path() {
+        service.trackPackages(null, null, "12345", 0, 10);
+
+        assertThat(entityManagerFactory.getCache().contains(Package.class, TRACKING_NUMBER)).isFalse();
+        assertThat(statistics.getSecondLevelCachePutCount()).isZero();
+    }
+}
@@ -0,0 +1,85 @@
+package com.fkluh.freight.v1.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.PackageAlreadyDeliveredException;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+
+@SpringBootTest
+@Import(TestJwtDecoderConfig.class)
+class PackageDeliveryConcurrencyIntegrationTest {
+    private static final String TRACKING_NUMBER = "CONCURRENT-1";
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private PackageServiceV1Impl service;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testUpdatePackage_concurrentDeliveries_exactlyOneSucceeds_happy_path() throws Exception {
+        Package pkg = new Package();
+        pkg.setTrackingNumber(TRACKING_NUMBER);
+        pkg.setEmail("test@kojo.com");
+        pkg.setRecipientPostcode("12345");
+        pkg.setEstimatedDeliveryDate(LocalDate.now().plusDays(1));
+        pkg.setStatus(DeliveryStatusEnum.IN_TRANSIT);
+        repository.save(pkg);
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PackageDto>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            LocalDate actualDeliveryDate = LocalDate.now().minusDays(i);
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.updatePackage(TRACKING_NUMBER, actualDeliveryDate.toString());
+            }));
+        }
+        start.countDown();
+
+        int delivered = 0;
+        int conflicts = 0;
+        for (Future<PackageDto> result : results) {
+            try {
+                result.get(30, TimeUnit.SECONDS);
+                delivered++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(PackageAlreadyDeliveredException.class);
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(delivered).isEqualTo(1);
+        assertThat(conflicts).isEqualTo(CALLERS - 1);
+        Package stored = repository.findById(TRACKING_NUMBER).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(DeliveryStatusEnum.DELIVERED);
+        assertThat(stored.getVersion()).isEqualTo(1L);
+    }
+}
@@ -1,6 +1,7 @@
 package com.fkluh.freight.v1.service;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,17 +14,22 @@ import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.PackageAlreadyDeliveredException;
 import com.fkluh.freight.v1.exception.PackageAlreadyExistsException;
 import com.fkluh.freight.v1.exception.PackageNotFoundException;
 import com.fkluh.freight.v1.exception.PackageValidationException;
@@ -34,7 +40,10 @@ import com.fkluh.freight.v1.model.dto.CustomPage;
 import com.fkluh.freight.v1.model.dto.PackageDto;
 import com.fkluh.freight.v1.model.dto.PackageUpdateDto;
 import com.fkluh.freight.v1.model.dto.PostcodeByCountDto;
+import com.fkluh.freight.v1.model.dto.TrackBatchItemDto;
 import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.coalescing.QueryCoalescer;
+import com.fkluh.freight.v1.service.event.PackageEvent;
 import com.fkluh.freight.v1.service.strategy.filter.FilterStrategy;
 import com.fkluh.freight.v1.service.strategy.track.TrackStrategy;
 
@@ -44,8 +53,14 @@ class PackageServiceV1ImplTest {
     @Mock
     private PackageRepositoryV1 repository;
 
+    @Spy
+    private PackageMapper mapper = new PackageMapper();
+
     @Mock
-    private PackageMapper mapper;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private QueryCoalescer queryCoalescer = new QueryCoalescer(new SimpleMeterRegistry());
 
     @Mock
     private List<FilterStrategy> filterStrategies;
@@ -85,23 +100,20 @@ class PackageServiceV1ImplTest {
 
     @Test
     void testAddPackage_happy_path() {
-        when(mapper.packageDtoToEntity(testPackageDto)).thenReturn(testPackage);
         when(repository.save(any())).thenReturn(testPackage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         PackageDto result = service.addPackage(testPackageDto);
 
         assertThat(result).isNotNull();
         assertThat(result.getTrackingNumber()).isEqualTo("123456");
         verify(repository, times(1)).save(any());
+        verify(eventPublisher, times(1)).publishEvent(any(PackageEvent.class));
     }
 
     @Test
     void testAddPackage_defaultStatusSet_happy_path() {
         testPackageDto.setStatus(null);
-        when(mapper.packageDtoToEntity(testPackageDto)).thenReturn(testPackage);
-        when(repository.save(any())).thenReturn(testPackage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         PackageDto result = service.addPackage(testPackageDto);
 
@@ -113,7 +125,6 @@ class PackageServiceV1ImplTest {
 
     @Test
     void testAddPackage_trackingNumber_exists_rainy_path() {
-        when(mapper.packageDtoToEntity(testPackageDto)).thenReturn(testPackage);
         when(repository.existsById(testPackage.getTrackingNumber())).thenReturn(true);
 
         assertThrows(PackageAlreadyExistsException.class, () -> service.addPackage(testPackageDto));
@@ -124,7 +135,6 @@ class PackageServiceV1ImplTest {
     @Test
     void testTrackPackages_by_trackingNumber_happy_path() {
         when(repository.findById("123456")).thenReturn(Optional.of(testPackage));
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         CustomPage<PackageDto> result = service.trackPackages("123456", null, null, 0, 10);
 
@@ -136,7 +146,6 @@ class PackageServiceV1ImplTest {
     @Test
     void testTrackPackages_by_trackingNumber_email_postCode_happy_path() {
         when(repository.findByTrackingNumberAndEmailAndRecipientPostcode(anyString(), anyString(), anyString())).thenReturn(testPackage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         CustomPage<PackageDto> result = service.trackPackages(testPackageDto.getTrackingNumber(), testPackageDto.getEmail(), testPackageDto.getRecipientPostcode(), 0, 10);
         assertThat(result).isNotNull();
@@ -149,7 +158,6 @@ class PackageServiceV1ImplTest {
     @Test
     void testTrackPackages_by_email_postCode_happy_path() {
         when(repository.findByEmailAndRecipientPostcode(anyString(), anyString(), any())).thenReturn(testPage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         CustomPage<PackageDto> result = service.trackPackages(null, "test@kojo.com", "123456", 0, 10);
 
@@ -169,7 +177,6 @@ class PackageServiceV1ImplTest {
     @Test
     void testTrackPackages_byEmail_happy_path() {
         when(repository.findByEmail(anyString(), any())).thenReturn(testPage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         CustomPage<PackageDto> result = service.trackPackages(null, "test@kojo.com", null, 0, 10);
 
@@ -189,7 +196,6 @@ class PackageServiceV1ImplTest {
     @Test
     void testTrackPackages_byPostcode_happy_path() {
         when(repository.findByRecipientPostcode(anyString(), any())).thenReturn(testPage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         CustomPage<PackageDto> result = service.trackPackages(null, null, "12345", 0, 10);
 
@@ -222,15 +228,33 @@ class PackageServiceV1ImplTest {
         PackageDto testUpdatedPackageDto = getFixtureTestUpdatedPackageDto(testUpdatedPackage);
 
 
-        when(repository.save(any())).thenReturn(testUpdatedPackage);
-        when(mapper.packageEntityToDto(testUpdatedPackage)).thenReturn(testUpdatedPackageDto);
+        when(repository.saveAndFlush(any())).thenReturn(testUpdatedPackage);
 
         PackageDto result = service.updatePackage(testPackage.getTrackingNumber(), packageUpdateDto.getActualDeliveryDate());
 
         assertThat(result).isNotNull();
         assertThat(result.getStatus()).isEqualTo(DeliveryStatusEnum.DELIVERED.name());
         verify(repository, times(1)).findById(anyString());
-        verify(repository, times(1)).save(any(Package.class));
+        verify(repository, times(1)).saveAndFlush(any(Package.class));
+        verify(repository, never()).existsById(anyString());
+    }
+
+    @Test
+    void testUpdatePackage_alreadyDelivered_rainy_path() {
+        testPackage.setStatus(DeliveryStatusEnum.DELIVERED);
+        when(repository.findById(anyString())).thenReturn(Optional.of(testPackage));
+
+        assertThrows(PackageAlreadyDeliveredException.class, () -> service.updatePackage("123456", LocalDate.now().toString()));
+        verify(repository, never()).saveAndFlush(any(Package.class));
+    }
+
+    @Test
+    void testUpdatePackage_concurrentDeliveryWins_rainy_path() {
+        when(repository.findById(anyString())).thenReturn(Optional.of(testPackage));
+        when(repository.saveAndFlush(any())).thenThrow(new ObjectOptimisticLockingFailureException(Package.class, "123456"));
+
+        assertThrows(PackageAlreadyDeliveredException.class, () -> service.updatePackage("123456", LocalDate.now().toString()));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     private PackageDto getFixtureTestUpdatedPackageDto(Package testUpdatedPackage) {
@@ -260,14 +284,13 @@ class PackageServiceV1ImplTest {
         when(repository.findById(anyString())).thenReturn(Optional.empty());
 
         assertThrows(PackageNotFoundException.class, () -> service.updatePackage("123456", LocalDate.now().toString()));
-        verify(repository, never()).save(any(Package.class));
+        verify(repository, never()).saveAndFlush(any(Package.class));
     }
 
     @Test
     void testFilterPackagesByStatus_happy_path() {
         when(repository.findByStatusAndActualDeliveryDateAfterEstimatedDeliveryDate(any(), any()))
                 .thenReturn(testPage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         CustomPage<PackageDto> result = service.filterPackages("delayed", null, null, 0, 10);
 
@@ -284,6 +307,7 @@ class PackageServiceV1ImplTest {
 
     @Test
     void testRemovePackage_happy_path() {
+        when(repository.findById("123456")).thenReturn(Optional.of(testPackage));
         doNothing().when(repository).deleteById(anyString());
 
         service.removePackage("123456");
@@ -293,17 +317,16 @@ class PackageServiceV1ImplTest {
 
     @Test
     void testRemovePackage_notFound() {
-        doThrow(new PackageNotFoundException("Package not found")).when(repository).deleteById(anyString());
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
 
         assertThrows(PackageNotFoundException.class, () -> service.removePackage("123456"));
-        verify(repository, times(1)).deleteById(anyString());
+        verify(repository, never()).deleteById(anyString());
     }
 
     @Test
     void testFilterPackages_byStatusDelayed_happy_path() {
         when(repository.findByStatusAndActualDeliveryDateAfterEstimatedDeliveryDate(any(), any()))
                 .thenReturn(testPage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         CustomPage<PackageDto> result = service.filterPackages("delayed", null, null, 0, 10);
 
@@ -316,7 +339,6 @@ class PackageServiceV1ImplTest {
     void testFilterPackages_byStatusOnTime_happy_path() {
         when(repository.findByStatusAndActualDeliveryDateOnOrBeforeEstimatedDeliveryDate(any(), any()))
                 .thenReturn(testPage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         CustomPage<PackageDto> result = service.filterPackages("on-time", null, null, 0, 10);
 
@@ -327,21 +349,19 @@ class PackageServiceV1ImplTest {
 
     @Test
     void testFilterPackages_byPostcode_happy_path() {
-        when(repository.findByRecipientPostcode(anyString(), any())).thenReturn(testPage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
+        when(repository.findDeliveredByRecipientPostcode(anyString(), any())).thenReturn(testPage);
 
         CustomPage<PackageDto> result = service.filterPackages(null, "123456", null, 0, 10);
 
         assertThat(result.getContent()).isNotEmpty();
         assertThat(result.getContent().get(0).getTrackingNumber()).isEqualTo("123456");
-        verify(repository, times(1)).findByRecipientPostcode(anyString(), any());
+        verify(repository, times(1)).findDeliveredByRecipientPostcode(anyString(), any());
     }
 
     @Test
     void testFilterPackages_byDeliveryDate_happy_path() {
         LocalDate deliveryDate = LocalDate.now();
         when(repository.findDeliveredByActualDeliveryDate(any(), any())).thenReturn(testPage);
-        when(mapper.packageEntityToDto(testPackage)).thenReturn(testPackageDto);
 
         CustomPage<PackageDto> result = service.filterPackages(null, null, deliveryDate.toString(), 0, 10);
 
@@ -350,6 +370,29 @@ class PackageServiceV1ImplTest {
         verify(repository, times(1)).findDeliveredByActualDeliveryDate(any(), any());
     }
 
+    @Test
+    void testTrackPackagesBatch_requestOrderWithMissing_happy_path() {
+        Package other = new Package();
+        other.setTrackingNumber("654321");
+        when(repository.findAllByIdInOrder(List.of("654321", "MISSING", "123456")))
+            .thenReturn(Arrays.asList(other, null, testPackage));
+
+        List<TrackBatchItemDto> result = service.trackPackagesBatch(List.of("654321", "MISSING", "123456", "654321"));
+
+        assertThat(result).extracting(TrackBatchItemDto::getTrackingNumber)
+            .containsExactly("654321", "MISSING", "123456", "654321");
+        assertThat(result).extracting(TrackBatchItemDto::isFound)
+            .containsExactly(true, false, true, true);
+        // duplicates are loaded once
+        verify(repository, times(1)).findAllByIdInOrder(any());
+    }
+
+    @Test
+    void testTrackPackagesBatch_empty_rainy_path() {
+        assertThrows(PackageValidationException.class, () -> service.trackPackagesBatch(List.of()));
+        verify(repository, never()).findAllByIdInOrder(any());
+    }
+
     @Test
     void testFilterPackages_findMostDelayedPostcode_happy_path() {
         PostcodeByCountDto testPostcodeByCountDto = new PostcodeByCountDto();
@@ -378,13 +421,16 @@ class PackageServiceV1ImplTest {
     }
 
     @Test
-    void testFilterPackages_conflictingParameters_rainy_path() {
-        assertThrows(PackageValidationException.class, () -> service.filterPackages("delayed", "123456", null, 0, 10));
-        verify(repository, never()).findDeliveredByActualDeliveryDate(any(), any());
-        verify(repository, never()).findByStatusAndActualDeliveryDateAfterEstimatedDeliveryDate(any(), any());
-        verify(repository, never()).findByStatusAndActualDeliveryDateOnOrBeforeEstimatedDeliveryDate(any(), any());
+    void testFilterPackages_statusAndPostcode_filteredByStatus_happy_path() {
+        when(repository.findByStatusAndActualDeliveryDateAfterEstimatedDeliveryDate(any(), any()))
+                .thenReturn(testPage);
+
+        CustomPage<PackageDto> result = service.filterPackages("delayed", "123456", null, 0, 10);
+
+        assertThat(result.getContent()).isNotEmpty();
+        verify(repository, times(1)).findByStatusAndActualDeliveryDateAfterEstimatedDeliveryDate(any(), any());
         verify(repository, never()).findDeliveredByRecipientPostcode(any(), any());
-        verify(repository, never()).findPostcodeWithMostDelayedPackages(any());
+        verify(repository, never()).findDeliveredByActualDeliveryDate(any(), any());
     }
 
 }
\ No newline at end of file
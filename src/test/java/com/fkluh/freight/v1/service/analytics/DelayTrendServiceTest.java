@@ -0,0 +1,116 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.dto.PostcodeDelayTrendDto;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+@Import(TestJwtDecoderConfig.class)
+class DelayTrendServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-03-10T12:30:00Z"));
+    private final LocalDate estimated = LocalDate.of(2025, 3, 3);
+
+    private DelayTrendService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DelayTrendService(clock, Duration.ofHours(1), 200);
+    }
+
+    private void delivered(String postcode, int lateDays, int count) {
+        for (int i = 0; i < count; i++) {
+            service.onPackageEvent(new PackageEvent(PackageEvent.Type.DELIVERED, "123456", "test@kojo.com", postcode,
+                estimated, estimated.plusDays(lateDays), DeliveryStatusEnum.DELIVERED, null));
+        }
+    }
+
+    @Test
+    void testGetTopDelayedPostcodes_countsOnlyLateDeliveries_happy_path() {
+        delivered("SW1A 1AA", 2, 3);
+        delivered("sw1a1aa", 0, 5);
+        delivered("N1 9GU", 1, 1);
+        service.onPackageEvent(new PackageEvent(PackageEvent.Type.REMOVED, "123456", "test@kojo.com", "N1 9GU",
+            estimated, estimated.plusDays(1), DeliveryStatusEnum.DELIVERED, null));
+
+        List<PostcodeDelayTrendDto> top = service.getTopDelayedPostcodes("24h", 10);
+
+        assertThat(top).extracting(PostcodeDelayTrendDto::getRecipientPostcode).containsExactly("SW1A1AA", "N19GU");
+        assertThat(top).extracting(PostcodeDelayTrendDto::getDelayCount).containsExactly(3L, 1L);
+        assertThat(top).extracting(PostcodeDelayTrendDto::getMaxOvercount).containsOnly(0L);
+        assertThat(service.getTopDelayedPostcodes("24h", 1)).hasSize(1);
+    }
+
+    @Test
+    void testGetTopDelayedPostcodes_olderDelaysLeaveShorterWindows_happy_path() {
+        delivered("SW1A 1AA", 2, 4);
+        clock.advance(Duration.ofDays(2));
+        delivered("N1 9GU", 1, 2);
+
+        List<PostcodeDelayTrendDto> lastDay = service.getTopDelayedPostcodes("24h", 10);
+        List<PostcodeDelayTrendDto> lastWeek = service.getTopDelayedPostcodes("7d", 10);
+
+        assertThat(lastDay).extracting(PostcodeDelayTrendDto::getRecipientPostcode).containsExactly("N19GU");
+        assertThat(lastWeek).extracting(PostcodeDelayTrendDto::getRecipientPostcode).containsExactly("SW1A1AA", "N19GU");
+    }
+
+    @Test
+    void testGetTopDelayedPostcodes_bucketsReusedAfterSevenDays_happy_path() {
+        delivered("SW1A 1AA", 2, 4);
+        clock.advance(Duration.ofDays(7).plusHours(1));
+        delivered("N1 9GU", 1, 1);
+
+        List<PostcodeDelayTrendDto> lastWeek = service.getTopDelayedPostcodes("7d", 10);
+
+        assertThat(lastWeek).extracting(PostcodeDelayTrendDto::getRecipientPostcode).containsExactly("N19GU");
+    }
+
+    @Test
+    void testGetTopDelayedPostcodes_invalidWindow_rainy_path() {
+        assertThrows(PackageValidationException.class, () -> service.getTopDelayedPostcodes("8d", 10));
+        assertThrows(PackageValidationException.class, () -> service.getTopDelayedPostcodes("0h", 10));
+        assertThrows(PackageValidationException.class, () -> service.getTopDelayedPostcodes("yesterday", 10));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
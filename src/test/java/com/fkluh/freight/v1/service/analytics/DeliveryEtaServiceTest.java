@@ -0,0 +1,119 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PostcodeLatenessDto;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+@Import(TestJwtDecoderConfig.class)
+class DeliveryEtaServiceTest {
+
+    private DeliveryEtaService service;
+
+    private final LocalDate estimated = LocalDate.of(2025, 3, 3);
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        service = new DeliveryEtaService(null, null, new PackageMapper());
+        // SW1A 1AA: 20 on time, 7 two days late, 3 five days late
+        delivered(PackageEvent.Type.CREATED, "SW1A 1AA", 0, 20);
+        delivered(PackageEvent.Type.DELIVERED, "SW1A 1AA", 2, 7);
+        delivered(PackageEvent.Type.DELIVERED, "sw1a1aa", 5, 3);
+        // N1 9GU: too few deliveries of its own
+        delivered(PackageEvent.Type.DELIVERED, "N1 9GU", 10, 2);
+    }
+
+    private void delivered(PackageEvent.Type type, String postcode, int lateDays, int count) {
+        for (int i = 0; i < count; i++) {
+            service.onPackageEvent(new PackageEvent(type, "123456", "test@kojo.com", postcode, estimated,
+                estimated.plusDays(lateDays), DeliveryStatusEnum.DELIVERED, null));
+        }
+    }
+
+    private PackageDto inTransit(String postcode, LocalDate estimatedDeliveryDate) {
+        PackageDto dto = new PackageDto();
+        dto.setTrackingNumber("123456");
+        dto.setRecipientPostcode(postcode);
+        dto.setEstimatedDeliveryDate(estimatedDeliveryDate);
+        dto.setStatus(DeliveryStatusEnum.IN_TRANSIT.name());
+        return dto;
+    }
+
+    @Test
+    void testGetLateness_percentilesPerPostcode_happy_path() {
+        PostcodeLatenessDto postcode = service.getLateness("sw1a 1aa");
+        PostcodeLatenessDto all = service.getLateness(null);
+
+        assertThat(postcode.getPostcode()).isEqualTo("SW1A1AA");
+        assertThat(postcode.getDeliveredCount()).isEqualTo(30);
+        assertThat(postcode.getP50LatenessDays()).isZero();
+        assertThat(postcode.getP90LatenessDays()).isEqualTo(2);
+        assertThat(postcode.getP99LatenessDays()).isEqualTo(5);
+        assertThat(all.getDeliveredCount()).isEqualTo(32);
+        assertThat(all.getP99LatenessDays()).isEqualTo(10);
+    }
+
+    @Test
+    void testGetLateness_unknownPostcode_rainy_path() {
+        PostcodeLatenessDto unknown = service.getLateness("E1");
+
+        assertThat(unknown.getDeliveredCount()).isZero();
+        assertThat(unknown.getP50LatenessDays()).isNull();
+    }
+
+    @Test
+    void testWithPredictedDeliveryDates_fromPostcodeOrAllPostcodes_happy_path() {
+        PackageDto known = inTransit("SW1A 1AA", today.plusDays(10));
+        PackageDto sparse = inTransit("N1 9GU", today.plusDays(10));
+
+        PackageDto knownEta = service.withPredictedDeliveryDates(known);
+        PackageDto sparseEta = service.withPredictedDeliveryDates(sparse);
+
+        assertThat(knownEta.getPredictedDeliveryDateP50()).isEqualTo(today.plusDays(10));
+        assertThat(knownEta.getPredictedDeliveryDateP90()).isEqualTo(today.plusDays(12));
+        // predicted from all 32 deliveries, not from the two ten days late
+        assertThat(sparseEta.getPredictedDeliveryDateP90()).isEqualTo(today.plusDays(15));
+        // copies, the tracked packages are left as they were
+        assertThat(known.getPredictedDeliveryDateP50()).isNull();
+        assertThat(knownEta.getTrackingNumber()).isEqualTo(known.getTrackingNumber());
+    }
+
+    @Test
+    void testWithPredictedDeliveryDates_overdueIsPredictedForToday_happy_path() {
+        PackageDto overdue = service.withPredictedDeliveryDates(inTransit("SW1A 1AA", today.minusDays(5)));
+
+        assertThat(overdue.getPredictedDeliveryDateP50()).isEqualTo(today);
+        assertThat(overdue.getPredictedDeliveryDateP90()).isEqualTo(today);
+    }
+
+    @Test
+    void testWithPredictedDeliveryDates_deliveredOrNoHistory_rainy_path() {
+        PackageDto delivered = inTransit("SW1A 1AA", estimated);
+        delivered.setActualDeliveryDate(estimated);
+        PackageDto noHistory = inTransit("SW1A 1AA", today);
+
+        assertThat(service.withPredictedDeliveryDates(delivered)).isSameAs(delivered);
+        assertThat(new DeliveryEtaService(null, null, new PackageMapper()).withPredictedDeliveryDates(noHistory))
+            .isSameAs(noHistory);
+    }
+
+    @Test
+    void testOnPackageEvent_removalKeepsLateness_happy_path() {
+        service.onPackageEvent(new PackageEvent(PackageEvent.Type.REMOVED, "123456", "test@kojo.com", "N1 9GU",
+            estimated, estimated.plusDays(10), DeliveryStatusEnum.DELIVERED, null));
+        service.onPackageEvent(new PackageEvent(PackageEvent.Type.CREATED, "654321", "test@kojo.com", "N1 9GU",
+            estimated, null, DeliveryStatusEnum.IN_TRANSIT, null));
+
+        assertThat(service.getLateness("N1 9GU").getDeliveredCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,117 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.dto.DeliveryRatePointDto;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@Import(TestJwtDecoderConfig.class)
+class DeliveryRateServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-03-10T12:30:20Z"));
+    private final LocalDate estimated = LocalDate.of(2025, 3, 3);
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeliveryRateService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new DeliveryRateService(meterRegistry, clock);
+    }
+
+    private void record(PackageEvent.Type type, int lateDays, DeliveryStatusEnum status) {
+        service.onPackageEvent(new PackageEvent(type, "123456", "test@kojo.com", "SW1A 1AA", estimated,
+            status == DeliveryStatusEnum.DELIVERED ? estimated.plusDays(lateDays) : null, status, null));
+    }
+
+    @Test
+    void testGetDeliveryRate_perMinute_happy_path() {
+        record(PackageEvent.Type.DELIVERED, 0, DeliveryStatusEnum.DELIVERED);
+        record(PackageEvent.Type.DELIVERED, 2, DeliveryStatusEnum.DELIVERED);
+        clock.advance(Duration.ofMinutes(1));
+        record(PackageEvent.Type.CREATED, 0, DeliveryStatusEnum.DELIVERED);
+        // neither in transit nor removed packages are deliveries
+        record(PackageEvent.Type.CREATED, 0, DeliveryStatusEnum.IN_TRANSIT);
+        record(PackageEvent.Type.REMOVED, 2, DeliveryStatusEnum.DELIVERED);
+
+        List<DeliveryRatePointDto> series = service.getDeliveryRate("minute", 3);
+
+        assertThat(series).extracting(DeliveryRatePointDto::getStart).containsExactly(
+            LocalDateTime.of(2025, 3, 10, 12, 29), LocalDateTime.of(2025, 3, 10, 12, 30),
+            LocalDateTime.of(2025, 3, 10, 12, 31));
+        assertThat(series).extracting(DeliveryRatePointDto::getDeliveredCount).containsExactly(0L, 2L, 1L);
+        assertThat(series).extracting(DeliveryRatePointDto::getDelayedCount).containsExactly(0L, 1L, 0L);
+        assertThat(series).extracting(DeliveryRatePointDto::getOnTimeRate).containsExactly(null, 0.5, 1.0);
+    }
+
+    @Test
+    void testGetDeliveryRate_perHourAndGauges_happy_path() {
+        record(PackageEvent.Type.DELIVERED, 2, DeliveryStatusEnum.DELIVERED);
+        record(PackageEvent.Type.DELIVERED, 0, DeliveryStatusEnum.DELIVERED);
+        record(PackageEvent.Type.DELIVERED, 0, DeliveryStatusEnum.DELIVERED);
+        record(PackageEvent.Type.DELIVERED, 0, DeliveryStatusEnum.DELIVERED);
+        clock.advance(Duration.ofHours(1));
+
+        List<DeliveryRatePointDto> series = service.getDeliveryRate("HOUR", 500);
+
+        assertThat(series).hasSize(DeliveryRateService.HOURS);
+        assertThat(series.get(series.size() - 2).getDeliveredCount()).isEqualTo(4);
+        assertThat(series.getLast().getDeliveredCount()).isZero();
+        assertThat(meterRegistry.get("freight.deliveries.recent").tags("window", "1h", "outcome", "delayed")
+            .gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("freight.deliveries.on_time_rate").tags("window", "1h").gauge().value())
+            .isEqualTo(0.75);
+        assertThat(meterRegistry.get("freight.deliveries.on_time_rate").tags("window", "1m").gauge().value()).isNaN();
+    }
+
+    @Test
+    void testGetDeliveryRate_invalidResolution_rainy_path() {
+        assertThrows(PackageValidationException.class, () -> service.getDeliveryRate("second", 10));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
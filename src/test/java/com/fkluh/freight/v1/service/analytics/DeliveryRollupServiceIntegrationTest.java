@@ -0,0 +1,124 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.Package;
+import com.fkluh.freight.v1.model.PostcodeDailyRollup;
+import com.fkluh.freight.v1.model.PostcodeDailyRollupId;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.repository.PostcodeDailyRollupRepository;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+@SpringBootTest
+@Import(TestJwtDecoderConfig.class)
+class DeliveryRollupServiceIntegrationTest {
+    private static final String POSTCODE = "ROLLUP 1";
+
+    @Autowired
+    private DeliveryRollupService service;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    private PostcodeDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalDate today = LocalDate.now();
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    void testOnPackageEvent_concurrentFirstDeliveriesOfTheDay_bothCounted_happy_path() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch applied = new CountDownLatch(1);
+        // the first transaction starts the day's counters and holds them uncommitted while the second one runs
+        Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            service.onPackageEvent(delivered("ROLLUP-1", today.minusDays(1)));
+            applied.countDown();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(applied.await(10, TimeUnit.SECONDS)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> service.onPackageEvent(delivered("ROLLUP-2", today)));
+        first.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        PostcodeDailyRollup rollup = rollupRepository.findById(new PostcodeDailyRollupId(POSTCODE, today)).orElseThrow();
+        assertThat(rollup.getDeliveredCount()).isEqualTo(2);
+        assertThat(rollup.getDelayedCount()).isEqualTo(1);
+        assertThat(rollup.getOnTimeCount()).isEqualTo(1);
+        assertThat(rollup.getLatenessDays()).isEqualTo(1);
+    }
+
+    @Test
+    void testSeedRollups_emptyTable_builtFromDeliveredPackages_happy_path() {
+        savePackage("ROLLUP-SEED-1", today.minusDays(3), today);
+        savePackage("ROLLUP-SEED-2", today, today);
+        savePackage("ROLLUP-SEED-3", today, null);
+        rollupRepository.deleteAll();
+
+        service.seedRollups();
+
+        assertThat(rollupRepository.findAll()).singleElement().satisfies(rollup -> {
+            assertThat(rollup.getRecipientPostcode()).isEqualTo(POSTCODE);
+            assertThat(rollup.getDeliveryDate()).isEqualTo(today);
+            assertThat(rollup.getDeliveredCount()).isEqualTo(2);
+            assertThat(rollup.getDelayedCount()).isEqualTo(1);
+            assertThat(rollup.getOnTimeCount()).isEqualTo(1);
+            assertThat(rollup.getLatenessDays()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void testSeedRollups_tableWithRows_keptAsIs_rainy_path() {
+        transactionTemplate.executeWithoutResult(status -> service.onPackageEvent(delivered("ROLLUP-KEPT-1", today)));
+        savePackage("ROLLUP-KEPT-2", today, today);
+
+        service.seedRollups();
+
+        assertThat(rollupRepository.findAll()).singleElement()
+            .satisfies(rollup -> assertThat(rollup.getDeliveredCount()).isEqualTo(1));
+    }
+
+    private PackageEvent delivered(String trackingNumber, LocalDate estimated) {
+        return new PackageEvent(PackageEvent.Type.DELIVERED, trackingNumber, "rollup@kojo.com", POSTCODE, estimated,
+            today, DeliveryStatusEnum.DELIVERED, null);
+    }
+
+    private void savePackage(String trackingNumber, LocalDate estimated, LocalDate actual) {
+        Package pkg = new Package();
+        pkg.setTrackingNumber(trackingNumber);
+        pkg.setEmail("rollup@kojo.com");
+        pkg.setRecipientPostcode(POSTCODE);
+        pkg.setEstimatedDeliveryDate(estimated);
+        pkg.setActualDeliveryDate(actual);
+        pkg.setStatus(actual == null ? DeliveryStatusEnum.IN_TRANSIT : DeliveryStatusEnum.DELIVERED);
+        repository.save(pkg);
+    }
+}
@@ -0,0 +1,143 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.mockito.verification.VerificationMode;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.mapper.PackageMapper;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.PostcodeDailyRollup;
+import com.fkluh.freight.v1.model.dto.PostcodeOnTimeRateDto;
+import com.fkluh.freight.v1.repository.PostcodeDailyRollupRepository;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+@Import(TestJwtDecoderConfig.class)
+class DeliveryRollupServiceTest {
+
+    @Mock
+    private PostcodeDailyRollupRepository rollupRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PackageMapper mapper;
+
+    @InjectMocks
+    private DeliveryRollupService service;
+
+    private final LocalDate estimated = LocalDate.of(2025, 3, 3);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private PackageEvent event(PackageEvent.Type type, DeliveryStatusEnum status, LocalDate actualDeliveryDate) {
+        return new PackageEvent(type, "123456", "test@kojo.com", "12345", estimated, actualDeliveryDate, status, null);
+    }
+
+    @Test
+    void testOnPackageEvent_delayedDelivery_upsertsRollup_happy_path() {
+        service.onPackageEvent(event(PackageEvent.Type.DELIVERED, DeliveryStatusEnum.DELIVERED, estimated.plusDays(2)));
+
+        verifyUpsert(times(1), estimated.plusDays(2), 1, 0, 2);
+        verify(rollupRepository, never()).increment(any(), any(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testOnPackageEvent_concurrentFirstDeliveryOfTheDay_retriesUpsert_happy_path() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+            .thenThrow(new DuplicateKeyException("duplicate"))
+            .thenReturn(1);
+
+        service.onPackageEvent(event(PackageEvent.Type.CREATED, DeliveryStatusEnum.DELIVERED, estimated));
+
+        verifyUpsert(times(2), estimated, 0, 1, 0);
+    }
+
+    @Test
+    void testOnPackageEvent_removedDeliveredPackage_decrementsRollup_happy_path() {
+        service.onPackageEvent(event(PackageEvent.Type.REMOVED, DeliveryStatusEnum.DELIVERED, estimated.plusDays(3)));
+
+        verify(rollupRepository, times(1)).increment("12345", estimated.plusDays(3), -1, -1, 0, -3);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testOnPackageEvent_inTransitPackage_ignored() {
+        service.onPackageEvent(event(PackageEvent.Type.CREATED, DeliveryStatusEnum.IN_TRANSIT, null));
+
+        verify(rollupRepository, never()).increment(any(), any(), anyLong(), anyLong(), anyLong(), anyLong());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testFindWeeklyOnTimeRate_groupsDaysIntoWeeks_happy_path() {
+        // 2025-03-03 is a Monday; the 5th falls in the same week, the 10th in the next
+        when(rollupRepository.findByRecipientPostcodeAndDeliveryDateBetween(eq("12345"), any(), any())).thenReturn(List.of(
+            rollup(LocalDate.of(2025, 3, 3), 4, 1),
+            rollup(LocalDate.of(2025, 3, 5), 6, 1),
+            rollup(LocalDate.of(2025, 3, 10), 2, 2)
+        ));
+
+        List<PostcodeOnTimeRateDto> result = service.findWeeklyOnTimeRate("12345", "2025-03-01", "2025-03-31");
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getWeekStart()).isEqualTo(LocalDate.of(2025, 3, 3));
+        assertThat(result.get(0).getDeliveredCount()).isEqualTo(10);
+        assertThat(result.get(0).getOnTimeRate()).isEqualTo(0.8);
+        assertThat(result.get(1).getWeekStart()).isEqualTo(LocalDate.of(2025, 3, 10));
+        assertThat(result.get(1).getOnTimeRate()).isZero();
+    }
+
+    @Test
+    void testFindWeeklyOnTimeRate_invertedRange_rainy_path() {
+        assertThrows(PackageValidationException.class, () -> service.findWeeklyOnTimeRate(null, "2025-03-31", "2025-03-01"));
+    }
+
+    @Test
+    void testFilterPostcodeByMostDelayedPackages_missingRange_rainy_path() {
+        assertThrows(PackageValidationException.class, () -> service.filterPostcodeByMostDelayedPackages(null, "2025-03-01", 0, 10));
+        verify(rollupRepository, never()).findPostcodeWithMostDelayedPackagesBetween(any(), any(), any());
+    }
+
+    private void verifyUpsert(VerificationMode mode, LocalDate deliveryDate, long delayed, long onTime, long latenessDays) {
+        verify(jdbcTemplate, mode).update(anyString(),
+            eq("12345"), eq(Date.valueOf(deliveryDate)),
+            eq(1), eq(delayed), eq(onTime), eq(latenessDays),
+            eq(1), eq(delayed), eq(onTime), eq(latenessDays));
+    }
+
+    private PostcodeDailyRollup rollup(LocalDate deliveryDate, long delivered, long delayed) {
+        PostcodeDailyRollup rollup = new PostcodeDailyRollup();
+        rollup.setRecipientPostcode("12345");
+        rollup.setDeliveryDate(deliveryDate);
+        rollup.setDeliveredCount(delivered);
+        rollup.setDelayedCount(delayed);
+        rollup.setOnTimeCount(delivered - delayed);
+        return rollup;
+    }
+}
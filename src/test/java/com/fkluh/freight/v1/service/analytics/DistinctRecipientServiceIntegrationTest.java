@@ -0,0 +1,193 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.PostcodeDailyRecipients;
+import com.fkluh.freight.v1.model.PostcodeDailyRecipientsId;
+import com.fkluh.freight.v1.model.dto.DistinctRecipientsDto;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.repository.PostcodeDailyRecipientsRepository;
+import com.fkluh.freight.v1.repository.PostcodeDailyRollupRepository;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+import com.fkluh.freight.v1.util.HyperLogLog;
+
+@SpringBootTest(properties = "app.analytics.distinct-recipients.flush-interval=1h")
+@Import(TestJwtDecoderConfig.class)
+class DistinctRecipientServiceIntegrationTest {
+    private static final String POSTCODE = "HLL 1AA";
+    // counters are never reset, so each test has its own postcode
+    private static final String STORED_POSTCODE = "HLL 2BB";
+    private static final String RACED_POSTCODE = "HLL 3CC";
+    private static final String RACED_NEW_POSTCODE = "HLL 4DD";
+
+    @Autowired
+    private DistinctRecipientService service;
+
+    @Autowired
+    private PackageServiceV1Impl packageService;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    private PostcodeDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private PostcodeDailyRecipientsRepository recipientsRepository;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private final LocalDate today = LocalDate.now();
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    void testGetDistinctRecipients_countsEachEmailOnce_happy_path() {
+        // 30 packages to 10 recipients, 4 of whom get theirs late
+        for (int i = 0; i < 30; i++) {
+            LocalDate estimated = i % 10 < 4 ? today.minusDays(2) : today;
+            addPackage("HLL-" + i, POSTCODE, "recipient" + (i % 10) + "@kojo.com", estimated);
+        }
+        for (int i = 0; i < 10; i++) {
+            packageService.updatePackage("HLL-" + i, today.toString());
+        }
+
+        DistinctRecipientsDto allTime = service.getDistinctRecipients("hll1aa", null, null);
+
+        assertThat(allTime.getPostcode()).isEqualTo("HLL1AA");
+        assertThat(allTime.getRecipients()).isEqualTo(10);
+        assertThat(allTime.getDelayedRecipients()).isEqualTo(4);
+        assertThat(allTime.getRelativeStandardError()).isLessThan(0.03);
+    }
+
+    @Test
+    void testFlush_storesDaysMergedForRanges_happy_path() {
+        addPackage("HLL-STORED-1", STORED_POSTCODE, "first@kojo.com", today);
+        service.flush();
+        addPackage("HLL-STORED-2", STORED_POSTCODE, "second@kojo.com", today);
+        addPackage("HLL-STORED-3", STORED_POSTCODE, "FIRST@kojo.com", today);
+
+        // the second flush merges into the stored day rather than replacing it
+        service.flush();
+
+        PostcodeDailyRecipients stored = recipientsRepository.findById(new PostcodeDailyRecipientsId("HLL2BB", today))
+            .orElseThrow();
+        assertThat(HyperLogLog.fromBytes(stored.getRecipients()).estimate()).isEqualTo(2);
+        DistinctRecipientsDto day = service.getDistinctRecipients(STORED_POSTCODE, today.toString(), today.toString());
+        DistinctRecipientsDto yesterday = service.getDistinctRecipients(STORED_POSTCODE,
+            today.minusDays(1).toString(), today.minusDays(1).toString());
+        assertThat(day.getRecipients()).isEqualTo(2);
+        assertThat(day.getFrom()).isEqualTo(today);
+        assertThat(yesterday.getRecipients()).isZero();
+    }
+
+    @Test
+    void testFlush_anotherInstanceUpdatesStoredDayMeanwhile_bothKept_happy_path() throws Exception {
+        DistinctRecipientService earlier = newInstance();
+        earlier.onPackageEvent(created(RACED_POSTCODE, "earlier@kojo.com"));
+        earlier.flush();
+
+        assertThat(flushRacingAnotherInstance(RACED_POSTCODE)).isEqualTo(3);
+    }
+
+    @Test
+    void testFlush_anotherInstanceStoresNewDayMeanwhile_bothKept_happy_path() throws Exception {
+        assertThat(flushRacingAnotherInstance(RACED_NEW_POSTCODE)).isEqualTo(2);
+    }
+
+    @Test
+    void testGetDistinctRecipients_invalidParameters_rainy_path() {
+        PackageValidationException noPostcode = assertThrows(PackageValidationException.class,
+            () -> service.getDistinctRecipients(" ", null, null));
+        PackageValidationException halfRange = assertThrows(PackageValidationException.class,
+            () -> service.getDistinctRecipients(POSTCODE, today.toString(), null));
+
+        assertThat(noPostcode.getMessage()).isEqualTo(ErrorMessages.POSTCODE_EMPTY);
+        assertThat(halfRange.getMessage()).isEqualTo(ErrorMessages.DATE_RANGE_EMPTY);
+    }
+
+    /**
+     * Flushes one instance while another one stores the same day right after the first has read the stored rows.
+     *
+     * @return the distinct recipients stored for the day afterwards
+     */
+    private long flushRacingAnotherInstance(String postcode) throws Exception {
+        DistinctRecipientService other = newInstance();
+        DistinctRecipientService racing = newInstance();
+        other.onPackageEvent(created(postcode, "other@kojo.com"));
+        racing.onPackageEvent(created(postcode, "racing@kojo.com"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean raced = new AtomicBoolean();
+        PostcodeDailyRecipientsRepository interleaved =
+            mock(PostcodeDailyRecipientsRepository.class, delegatesTo(recipientsRepository));
+        doAnswer(invocation -> {
+            List<PostcodeDailyRecipients> read = recipientsRepository.findAllById(invocation.getArgument(0));
+            if (raced.compareAndSet(false, true)) {
+                // in a transaction of its own, as another instance would
+                executor.submit(other::flush).get(10, TimeUnit.SECONDS);
+            }
+            return read;
+        }).when(interleaved).findAllById(any());
+        ReflectionTestUtils.setField(racing, "repository", interleaved);
+
+        racing.flush();
+        executor.shutdown();
+
+        PostcodeDailyRecipients stored = recipientsRepository.findById(
+            new PostcodeDailyRecipientsId(PostcodePrefixService.normalize(postcode), today)).orElseThrow();
+        return HyperLogLog.fromBytes(stored.getRecipients()).estimate();
+    }
+
+    /**
+     * A service sharing the table but with counters of its own, standing in for another instance.
+     */
+    private DistinctRecipientService newInstance() {
+        DistinctRecipientService instance = new DistinctRecipientService();
+        applicationContext.getAutowireCapableBeanFactory().autowireBean(instance);
+        return instance;
+    }
+
+    private static PackageEvent created(String postcode, String email) {
+        return new PackageEvent(PackageEvent.Type.CREATED, "HLL-RACE", email, postcode, LocalDate.now(), null,
+            DeliveryStatusEnum.IN_TRANSIT, null);
+    }
+
+    private void addPackage(String trackingNumber, String postcode, String email, LocalDate estimatedDeliveryDate) {
+        PackageDto dto = new PackageDto();
+        dto.setTrackingNumber(trackingNumber);
+        dto.setEmail(email);
+        dto.setRecipientPostcode(postcode);
+        dto.setEstimatedDeliveryDate(estimatedDeliveryDate);
+        packageService.addPackage(dto);
+    }
+}
@@ -0,0 +1,96 @@
+package com.fkluh.freight.v1.service.analytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.dto.PostcodePrefixCountDto;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+@Import(TestJwtDecoderConfig.class)
+class PostcodePrefixServiceTest {
+
+    private PostcodePrefixService service;
+
+    private final LocalDate estimated = LocalDate.of(2025, 3, 3);
+
+    @BeforeEach
+    void setUp() {
+        service = new PostcodePrefixService();
+        created("SW1A 1AA", estimated.plusDays(2));
+        created("SW1A 2BB", estimated);
+        created("SW1B 1AA", estimated.plusDays(1));
+        created("SW2 1AA", null);
+        created("N1 9GU", estimated.plusDays(3));
+    }
+
+    private void created(String postcode, LocalDate actualDeliveryDate) {
+        service.onPackageEvent(event(PackageEvent.Type.CREATED, postcode, actualDeliveryDate));
+    }
+
+    private PackageEvent event(PackageEvent.Type type, String postcode, LocalDate actualDeliveryDate) {
+        DeliveryStatusEnum status = actualDeliveryDate == null ? DeliveryStatusEnum.IN_TRANSIT : DeliveryStatusEnum.DELIVERED;
+        return new PackageEvent(type, "123456", "test@kojo.com", postcode, estimated, actualDeliveryDate, status, null);
+    }
+
+    @Test
+    void testGetCounts_aggregatesEveryPrefix_happy_path() {
+        PostcodePrefixCountDto area = service.getCounts("sw");
+        PostcodePrefixCountDto district = service.getCounts("SW1A");
+        PostcodePrefixCountDto all = service.getCounts(null);
+
+        assertThat(area.getDeliveredCount()).isEqualTo(3);
+        assertThat(area.getDelayedCount()).isEqualTo(2);
+        assertThat(area.getInTransitCount()).isEqualTo(1);
+        assertThat(district.getDeliveredCount()).isEqualTo(2);
+        assertThat(district.getDelayedCount()).isEqualTo(1);
+        assertThat(all.getDeliveredCount() + all.getInTransitCount()).isEqualTo(5);
+        assertThat(service.getCounts("E1").getDeliveredCount()).isZero();
+    }
+
+    @Test
+    void testOnPackageEvent_deliveryAndRemoval_happy_path() {
+        service.onPackageEvent(event(PackageEvent.Type.DELIVERED, "SW2 1AA", estimated.plusDays(5)));
+        service.onPackageEvent(event(PackageEvent.Type.PURGED, "SW1A 1AA", estimated.plusDays(2)));
+
+        PostcodePrefixCountDto area = service.getCounts("SW");
+        assertThat(area.getDeliveredCount()).isEqualTo(3);
+        assertThat(area.getDelayedCount()).isEqualTo(2);
+        assertThat(area.getInTransitCount()).isZero();
+        assertThat(service.getCounts("SW1A").getDelayedCount()).isZero();
+    }
+
+    @Test
+    void testGetTopPrefixes_ranksGroupsAtDepth_happy_path() {
+        List<PostcodePrefixCountDto> districts = service.getTopPrefixes("SW", 2, "delayed", 10);
+
+        assertThat(districts).extracting(PostcodePrefixCountDto::getPrefix).containsExactly("SW1A", "SW1B", "SW21");
+        assertThat(districts).extracting(PostcodePrefixCountDto::getDelayedCount).containsExactly(1L, 1L, 0L);
+        assertThat(service.getTopPrefixes(null, 1, "IN-TRANSIT", 1)).extracting(PostcodePrefixCountDto::getPrefix).containsExactly("S");
+    }
+
+    @Test
+    void testGetTopPrefixes_invalidDepth_rainy_path() {
+        PackageValidationException exception = assertThrows(PackageValidationException.class,
+            () -> service.getTopPrefixes("SW", 0, "delayed", 10));
+
+        assertThat(exception.getMessage()).isEqualTo(ErrorMessages.POSTCODE_PREFIX_DEPTH_INVALID);
+    }
+
+    @Test
+    void testGetTopPrefixes_invalidMetric_rainy_path() {
+        PackageValidationException exception = assertThrows(PackageValidationException.class,
+            () -> service.getTopPrefixes("SW", 1, "lost", 10));
+
+        assertThat(exception.getMessage()).isEqualTo(ErrorMessages.POSTCODE_PREFIX_METRIC_INVALID);
+    }
+}
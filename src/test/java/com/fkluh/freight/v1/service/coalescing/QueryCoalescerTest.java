@@ -0,0 +1,199 @@
+package com.fkluh.freight.v1.service.coalescing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.PackageNotFoundException;
+import com.fkluh.freight.v1.model.dto.CustomPage;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.service.command.FilterPackagesQuery;
+import com.fkluh.freight.v1.service.command.PackageCommandValidator;
+import com.fkluh.freight.v1.service.strategy.filter.FilterStrategy;
+import com.fkluh.freight.v1.service.strategy.track.TrackStrategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@Import(TestJwtDecoderConfig.class)
+class QueryCoalescerTest {
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueryCoalescer coalescer;
+    private ExecutorService executor;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new QueryCoalescer(meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Track strategy whose query blocks until the test releases it, so concurrent callers pile up behind it.
+     */
+    private TrackStrategy blockingTrackStrategy(Supplier<CustomPage<PackageDto>> result) {
+        return new TrackStrategy() {
+            @Override
+            public boolean isApplicable(String trackingNumber, String email, String postcode) {
+                return true;
+            }
+
+            @Override
+            public CustomPage<PackageDto> apply(String trackingNumber, String email, String postcode, Pageable pageable) {
+                executions.incrementAndGet();
+                await(release);
+                return result.get();
+            }
+        };
+    }
+
+    private FilterStrategy blockingFilterStrategy() {
+        return new FilterStrategy() {
+            @Override
+            public boolean isApplicable(FilterPackagesQuery query) {
+                return true;
+            }
+
+            @Override
+            public CustomPage<PackageDto> apply(FilterPackagesQuery query, Pageable pageable) {
+                executions.incrementAndGet();
+                await(release);
+                return CustomPage.empty();
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double counter(String name, String query) {
+        return meterRegistry.get(name).tag("query", query).counter().count();
+    }
+
+    private void awaitCoalesced(String query, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (counter("freight.query.coalesced", query) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void track_concurrentIdenticalCalls_shareOneExecution_happy_path() throws Exception {
+        CustomPage<PackageDto> page = CustomPage.of(List.of(new PackageDto()), 0, 10);
+        TrackStrategy strategy = blockingTrackStrategy(() -> page);
+
+        List<Future<CustomPage<PackageDto>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> coalescer.track(strategy, null, null, "12345", PageRequest.of(0, 10))));
+        }
+        awaitCoalesced("track", CALLERS - 1);
+        release.countDown();
+
+        for (Future<CustomPage<PackageDto>> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isSameAs(page);
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(counter("freight.query.executions", "track")).isEqualTo(1);
+        assertThat(counter("freight.query.coalesced", "track")).isEqualTo(CALLERS - 1);
+        assertThat(meterRegistry.get("freight.query.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    void track_concurrentCallsFailing_allReceiveException_rainy_path() throws Exception {
+        TrackStrategy strategy = blockingTrackStrategy(() -> {
+            throw new PackageNotFoundException("Package with postcode 12345 not found.");
+        });
+
+        List<Future<CustomPage<PackageDto>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> coalescer.track(strategy, null, null, "12345", PageRequest.of(0, 10))));
+        }
+        awaitCoalesced("track", CALLERS - 1);
+        release.countDown();
+
+        for (Future<CustomPage<PackageDto>> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertThat(e.getCause()).isInstanceOf(PackageNotFoundException.class);
+        }
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void track_sequentialIdenticalCalls_areNotCached_happy_path() {
+        release.countDown();
+        TrackStrategy strategy = blockingTrackStrategy(CustomPage::empty);
+
+        coalescer.track(strategy, null, "test@kojo.com", null, PageRequest.of(0, 10));
+        coalescer.track(strategy, null, "test@kojo.com", null, PageRequest.of(0, 10));
+
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(counter("freight.query.coalesced", "track")).isZero();
+    }
+
+    @Test
+    void track_concurrentCallsForDifferentPages_runSeparately_happy_path() throws Exception {
+        TrackStrategy strategy = blockingTrackStrategy(CustomPage::empty);
+
+        Future<CustomPage<PackageDto>> first = executor.submit(() -> coalescer.track(strategy, null, null, "12345", PageRequest.of(0, 10)));
+        Future<CustomPage<PackageDto>> second = executor.submit(() -> coalescer.track(strategy, null, null, "12345", PageRequest.of(1, 10)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executions.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(counter("freight.query.coalesced", "track")).isZero();
+    }
+
+    @Test
+    void filter_statusDifferingOnlyInCase_isCoalesced_happy_path() throws Exception {
+        FilterStrategy strategy = blockingFilterStrategy();
+
+        Future<CustomPage<PackageDto>> lower = executor.submit(() -> coalescer.filter(strategy, PackageCommandValidator.filterPackages("delayed", null, ""), PageRequest.of(0, 10)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executions.get() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Future<CustomPage<PackageDto>> upper = executor.submit(() -> coalescer.filter(strategy, PackageCommandValidator.filterPackages("DELAYED", null, null), PageRequest.of(0, 10)));
+        awaitCoalesced("filter", 1);
+        release.countDown();
+
+        assertThat(upper.get(10, TimeUnit.SECONDS)).isSameAs(lower.get(10, TimeUnit.SECONDS));
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(counter("freight.query.coalesced", "filter")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,172 @@
+package com.fkluh.freight.v1.service.command;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+@Import(TestJwtDecoderConfig.class)
+class PackageCommandValidatorTest {
+
+    private static final Validator BEAN_VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void testAddPackage_happy_path() {
+        PackageDto dto = packageDto("TRK-1", "recipient@kojo.com");
+
+        AddPackageCommand command = PackageCommandValidator.addPackage(dto);
+
+        assertThat(command.trackingNumber()).isEqualTo("TRK-1");
+        assertThat(command.email()).isEqualTo("recipient@kojo.com");
+        assertThat(command.recipientPostcode()).isEqualTo("10115");
+        assertThat(command.estimatedDeliveryDate()).isEqualTo(dto.getEstimatedDeliveryDate());
+        assertThat(command.status()).isEqualTo(DeliveryStatusEnum.IN_TRANSIT);
+    }
+
+    @Test
+    void testAddPackage_statusFromActualDeliveryDate_happy_path() {
+        PackageDto dto = packageDto("TRK-1", "recipient@kojo.com");
+        dto.setStatus(DeliveryStatusEnum.IN_TRANSIT.name());
+        dto.setActualDeliveryDate(LocalDate.now());
+
+        assertThat(PackageCommandValidator.addPackage(dto).status()).isEqualTo(DeliveryStatusEnum.DELIVERED);
+    }
+
+    @Test
+    void testAddPackage_invalidStatus_rainy_path() {
+        PackageDto dto = packageDto("TRK-1", "recipient@kojo.com");
+        dto.setStatus("LOST");
+
+        assertThatThrownBy(() -> PackageCommandValidator.addPackage(dto))
+            .isInstanceOf(PackageValidationException.class)
+            .hasMessage(ErrorMessages.PACKAGE_STATUS_INVALID);
+    }
+
+    @Test
+    void testAddPackage_sameFirstErrorAsBeanValidation_rainy_path() {
+        List<PackageDto> invalid = List.of(
+            packageDto(null, null),
+            packageDto("", "recipient@kojo.com"),
+            packageDto("TRK-1", ""),
+            packageDto("TRK-1", "not-an-email"),
+            packageDto("TRK-1", "recipient@kojo.com", null, LocalDate.now()),
+            packageDto("TRK-1", "recipient@kojo.com", "10115", null)
+        );
+
+        for (PackageDto dto : invalid) {
+            Set<ConstraintViolation<PackageDto>> violations = BEAN_VALIDATOR.validate(dto);
+            assertThat(violations).isNotEmpty();
+            assertThatThrownBy(() -> PackageCommandValidator.addPackage(dto))
+                .isInstanceOf(PackageValidationException.class)
+                .satisfies(e -> assertThat(violations).extracting(ConstraintViolation::getMessage).contains(e.getMessage()));
+        }
+    }
+
+    @Test
+    void testIsValidEmail_agreesWithBeanValidation_happy_path() {
+        List<String> emails = List.of(
+            "recipient@kojo.com", "first.last+tag@sub.kojo.de", "x@localhost", "\"quoted name\"@kojo.com",
+            "user@[192.168.0.1]", "müller@bücher.de", "o'brien@kojo.ie",
+            "@kojo.com", "recipient@", "recipient", "a..b@kojo.com", ".a@kojo.com", "a@kojo..com", "a@-kojo.com",
+            "a@kojo.com.", "a b@kojo.com", "a@ko jo.com", "a".repeat(65) + "@kojo.com",
+            "a@" + "b".repeat(64) + ".com", "a@b@kojo.com"
+        );
+
+        for (String email : emails) {
+            boolean beanValid = BEAN_VALIDATOR.validateValue(PackageDto.class, "email", email).isEmpty();
+            assertThat(PackageCommandValidator.isValidEmail(email)).as(email).isEqualTo(beanValid);
+        }
+    }
+
+    @Test
+    void testUpdateDelivery_happy_path() {
+        UpdateDeliveryCommand command = PackageCommandValidator.updateDelivery("TRK-1", "2025-01-31");
+
+        assertThat(command.trackingNumber()).isEqualTo("TRK-1");
+        assertThat(command.actualDeliveryDate()).isEqualTo(LocalDate.of(2025, 1, 31));
+    }
+
+    @Test
+    void testUpdateDelivery_rainy_path() {
+        String tomorrow = LocalDate.now().plusDays(1).toString();
+
+        assertThatThrownBy(() -> PackageCommandValidator.updateDelivery(" ", "2025-01-31"))
+            .hasMessage(ErrorMessages.TRACKING_NUMBER_EMPTY);
+        assertThatThrownBy(() -> PackageCommandValidator.updateDelivery("TRK-1", null))
+            .hasMessage(ErrorMessages.ACTUAL_DELIVERY_DATE_EMPTY);
+        assertThatThrownBy(() -> PackageCommandValidator.updateDelivery("TRK-1", "31.01.2025"))
+            .hasMessage(ErrorMessages.DELIVERY_DATE_INVALID_FORMAT);
+        assertThatThrownBy(() -> PackageCommandValidator.updateDelivery("TRK-1", tomorrow))
+            .hasMessage(ErrorMessages.ACTUAL_DELIVERY_DATE_CANNOT_BE_FUTURE_DATE);
+    }
+
+    @Test
+    void testTrackBatch_happy_path() {
+        TrackBatchQuery query = PackageCommandValidator.trackBatch(List.of("TRK-2", "TRK-1", "TRK-2"));
+
+        assertThat(query.trackingNumbers()).containsExactly("TRK-2", "TRK-1", "TRK-2");
+    }
+
+    @Test
+    void testTrackBatch_rainy_path() {
+        List<String> tooMany = Collections.nCopies(PackageCommandValidator.MAX_TRACK_BATCH_SIZE + 1, "TRK-1");
+
+        assertThatThrownBy(() -> PackageCommandValidator.trackBatch(null))
+            .hasMessage(ErrorMessages.TRACK_BATCH_EMPTY);
+        assertThatThrownBy(() -> PackageCommandValidator.trackBatch(List.of()))
+            .hasMessage(ErrorMessages.TRACK_BATCH_EMPTY);
+        assertThatThrownBy(() -> PackageCommandValidator.trackBatch(tooMany))
+            .hasMessage(ErrorMessages.TRACK_BATCH_TOO_LARGE);
+        assertThatThrownBy(() -> PackageCommandValidator.trackBatch(List.of("TRK-1", " ")))
+            .hasMessage(ErrorMessages.TRACKING_NUMBER_EMPTY);
+    }
+
+    @Test
+    void testFilterPackages_happy_path() {
+        FilterPackagesQuery query = PackageCommandValidator.filterPackages("On-Time", "10115", "2025-01-31");
+
+        assertThat(query.status()).isEqualTo(DeliveryStatusEnum.ON_TIME);
+        assertThat(query.postcode()).isEqualTo("10115");
+        assertThat(query.deliveryDate()).isEqualTo(LocalDate.of(2025, 1, 31));
+        assertThat(PackageCommandValidator.filterPackages(null, null, ""))
+            .isEqualTo(new FilterPackagesQuery(null, null, null));
+    }
+
+    @Test
+    void testFilterPackages_rainy_path() {
+        assertThatThrownBy(() -> PackageCommandValidator.filterPackages("late", null, null))
+            .hasMessage(ErrorMessages.FILTER_STATUS_INVALID);
+        assertThatThrownBy(() -> PackageCommandValidator.filterPackages(null, "", null))
+            .hasMessage(ErrorMessages.POSTCODE_EMPTY);
+        assertThatThrownBy(() -> PackageCommandValidator.filterPackages(null, null, "2025-13-01"))
+            .hasMessage(ErrorMessages.DELIVERY_DATE_INVALID_FORMAT);
+    }
+
+    private static PackageDto packageDto(String trackingNumber, String email) {
+        return packageDto(trackingNumber, email, "10115", LocalDate.now().plusDays(2));
+    }
+
+    private static PackageDto packageDto(String trackingNumber, String email, String postcode, LocalDate estimated) {
+        PackageDto dto = new PackageDto();
+        dto.setTrackingNumber(trackingNumber);
+        dto.setEmail(email);
+        dto.setRecipientPostcode(postcode);
+        dto.setEstimatedDeliveryDate(estimated);
+        return dto;
+    }
+}
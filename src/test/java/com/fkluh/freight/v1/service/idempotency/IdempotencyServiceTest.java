@@ -0,0 +1,202 @@
+package com.fkluh.freight.v1.service.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.IdempotencyKeyReusedException;
+import com.fkluh.freight.v1.exception.PackageAlreadyExistsException;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@Import(TestJwtDecoderConfig.class)
+class IdempotencyServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-03-10T12:00:00Z"));
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new IdempotencyService(new ObjectMapper(), meterRegistry, clock, Duration.ofHours(1), 2);
+    }
+
+    private ResponseEntity<String> create(String key, String trackingNumber) {
+        return service.execute(key, "carrier-a", "POST /packages", trackingNumber, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(trackingNumber);
+        });
+    }
+
+    private double requests(String outcome) {
+        return meterRegistry.get("freight.idempotency.requests").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void testExecute_repeatReplaysStoredResponse_happy_path() {
+        ResponseEntity<String> first = create("key-1", "123456");
+        ResponseEntity<String> repeat = create("key-1", "123456");
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(repeat.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(repeat.getBody()).isEqualTo("123456");
+        assertThat(repeat.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(requests("replayed")).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_withoutKeyAlwaysRuns_happy_path() {
+        create(null, "123456");
+        create(null, "123456");
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testExecute_concurrentDuplicatesRunOnce_happy_path() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ResponseEntity<String>> leader = executor.submit(() -> service.execute("key-1", "carrier-a",
+                "POST /packages", "123456", () -> {
+                    calls.incrementAndGet();
+                    running.countDown();
+                    await(release);
+                    return ResponseEntity.status(HttpStatus.CREATED).body("123456");
+                }));
+            running.await(5, TimeUnit.SECONDS);
+            List<Future<ResponseEntity<String>>> duplicates = List.of(
+                executor.submit(() -> create("key-1", "123456")),
+                executor.submit(() -> create("key-1", "123456")));
+            while (requests("coalesced") < 2) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("123456");
+            for (Future<ResponseEntity<String>> duplicate : duplicates) {
+                assertThat(duplicate.get(5, TimeUnit.SECONDS).getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER))
+                    .isEqualTo("true");
+            }
+            assertThat(calls.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_failuresNotStored_happy_path() {
+        assertThrows(PackageAlreadyExistsException.class, () -> service.execute("key-1", "carrier-a", "POST /packages",
+            "123456", () -> {
+                throw new PackageAlreadyExistsException("exists");
+            }));
+
+        create("key-1", "123456");
+
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_expiredAndEvictedKeysRunAgain_happy_path() {
+        create("key-1", "123456");
+        clock.advance(Duration.ofHours(1));
+        create("key-1", "123456");
+        create("key-2", "234567");
+        create("key-3", "345678");
+        create("key-2", "234567");
+        // at most two responses are kept, so the oldest was dropped
+        create("key-1", "123456");
+
+        assertThat(calls.get()).isEqualTo(5);
+        assertThat(meterRegistry.get("freight.idempotency.stored").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void testExecute_keyReusedForOtherRequest_rainy_path() {
+        create("key-1", "123456");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> create("key-1", "654321"));
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testExecute_sameKeyOfOtherCaller_runsSeparately_happy_path() {
+        create("key-1", "123456");
+
+        ResponseEntity<String> other = service.execute("key-1", "carrier-b", "POST /packages", "654321", () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body("654321");
+        });
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(other.getBody()).isEqualTo("654321");
+        assertThat(other.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void testExecute_invalidKey_rainy_path() {
+        assertThrows(PackageValidationException.class, () -> create("", "123456"));
+        assertThrows(PackageValidationException.class, () -> create("key with spaces", "123456"));
+        assertThrows(PackageValidationException.class, () -> create("k".repeat(256), "123456"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.fkluh.freight.v1.service.outbox;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.repository.OutboxEventRepository;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.repository.PostcodeDailyRollupRepository;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// a database of its own, so the relays of other cached test contexts do not take its changes
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:freight-cargo-outbox;DB_CLOSE_DELAY=-1",
+    "app.outbox.poll-interval=20ms",
+    "app.outbox.batch-size=2"
+})
+@Import({TestJwtDecoderConfig.class, OutboxRelayIntegrationTest.Consumer.class})
+class OutboxRelayIntegrationTest {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Autowired
+    private PackageServiceV1Impl packageService;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    private PostcodeDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Consumer consumer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        awaitTrue(() -> outboxRepository.count() == 0);
+        repository.deleteAll();
+        rollupRepository.deleteAll();
+        consumer.batches.clear();
+        consumer.failuresLeft.set(0);
+    }
+
+    @Test
+    void testRelay_everyChangePublishedInBatches_happy_path() throws Exception {
+        double publishedBefore = meterRegistry.get("freight.outbox.published").counter().count();
+
+        addPackage("OUTBOX-1");
+        addPackage("OUTBOX-2");
+        addPackage("OUTBOX-3");
+        packageService.updatePackage("OUTBOX-1", LocalDate.now().toString());
+        packageService.removePackage("OUTBOX-2");
+
+        awaitTrue(() -> changes().size() == 5);
+        assertThat(changes()).extracting(change -> change.type() + ":" + change.trackingNumber()).containsExactly(
+            "CREATED:OUTBOX-1", "CREATED:OUTBOX-2", "CREATED:OUTBOX-3", "DELIVERED:OUTBOX-1", "REMOVED:OUTBOX-2");
+        assertThat(changes()).extracting(OutboxMessage::sequence).isSorted();
+        assertThat(consumer.batches).allSatisfy(batch -> assertThat(batch.changes()).hasSizeLessThanOrEqualTo(2));
+        JsonNode delivered = JSON.readTree(changes().get(3).payload());
+        assertThat(delivered.get("status").asText()).isEqualTo("DELIVERED");
+        assertThat(delivered.get("actualDeliveryDate").asText()).isEqualTo(LocalDate.now().toString());
+        awaitTrue(() -> outboxRepository.count() == 0);
+        assertThat(meterRegistry.get("freight.outbox.published").counter().count() - publishedBefore).isEqualTo(5);
+        assertThat(meterRegistry.get("freight.outbox.lag").timer().count()).isPositive();
+    }
+
+    @Test
+    void testRelay_failedBatchPublishedAgain_happy_path() throws Exception {
+        consumer.failuresLeft.set(1);
+
+        addPackage("OUTBOX-RETRY");
+
+        awaitTrue(() -> changes().size() == 1);
+        assertThat(consumer.failuresLeft.get()).isZero();
+        assertThat(changes().get(0).trackingNumber()).isEqualTo("OUTBOX-RETRY");
+        awaitTrue(() -> outboxRepository.count() == 0);
+    }
+
+    @Test
+    void testAddPackage_rolledBackChangeNotPublished_rainy_path() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            addPackage("OUTBOX-ROLLED-BACK");
+            status.setRollbackOnly();
+        });
+        addPackage("OUTBOX-COMMITTED");
+
+        awaitTrue(() -> changes().size() == 1);
+        assertThat(changes()).extracting(OutboxMessage::trackingNumber).containsExactly("OUTBOX-COMMITTED");
+        assertThat(repository.existsById("OUTBOX-ROLLED-BACK")).isFalse();
+    }
+
+    private List<OutboxMessage> changes() {
+        return consumer.batches.stream().flatMap(batch -> batch.changes().stream()).toList();
+    }
+
+    private void addPackage(String trackingNumber) {
+        PackageDto dto = new PackageDto();
+        dto.setTrackingNumber(trackingNumber);
+        dto.setEmail("outbox@kojo.com");
+        dto.setRecipientPostcode("10115");
+        dto.setEstimatedDeliveryDate(LocalDate.now().plusDays(2));
+        packageService.addPackage(dto);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    /**
+     * Collects the published batches, failing the next {@code failuresLeft} of them.
+     */
+    @TestComponent
+    static class Consumer {
+        private final Queue<PackageChangeBatch> batches = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @EventListener
+        public void onChanges(PackageChangeBatch batch) {
+            if (failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new IllegalStateException("Consumer unavailable");
+            }
+            batches.add(batch);
+        }
+    }
+}
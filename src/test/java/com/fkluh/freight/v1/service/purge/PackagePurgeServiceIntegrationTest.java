@@ -0,0 +1,163 @@
+package com.fkluh.freight.v1.service.purge;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.exception.PurgeJobNotFoundException;
+import com.fkluh.freight.v1.model.PurgeJobStateEnum;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PurgeJobDto;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.repository.PostcodeDailyRollupRepository;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = {
+    "app.purge.chunk-size=2",
+    "app.purge.pause-between-chunks=0ms"
+})
+@Import(TestJwtDecoderConfig.class)
+class PackagePurgeServiceIntegrationTest {
+    private static final LocalDate OLD_DELIVERY_DATE = LocalDate.now().minusYears(2);
+
+    @Autowired
+    private PackagePurgeService purgeService;
+
+    @Autowired
+    private PackageServiceV1Impl packageService;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    private PostcodeDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        addPackage("OLD-1", "11111", OLD_DELIVERY_DATE);
+        addPackage("OLD-2", "11111", OLD_DELIVERY_DATE);
+        addPackage("OLD-3", "22222", OLD_DELIVERY_DATE);
+        addPackage("RECENT-1", "11111", LocalDate.now());
+        addPackage("IN-TRANSIT-1", "11111", null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    void testDryRun_countsWithoutDeleting_happy_path() {
+        PurgeJobDto result = purgeService.dryRun("delivered", LocalDate.now().minusYears(1).toString(), null);
+
+        assertThat(result.isDryRun()).isTrue();
+        assertThat(result.getMatchedCount()).isEqualTo(3);
+        assertThat(repository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void testStartPurge_deletesMatchingInChunks_happy_path() throws InterruptedException {
+        long rollupsBefore = rollupRepository.count();
+
+        PurgeJobDto job = awaitFinished(purgeService.startPurge("DELIVERED", LocalDate.now().minusYears(1).toString(), null));
+
+        assertThat(job.getState()).isEqualTo(PurgeJobStateEnum.COMPLETED);
+        assertThat(job.getMatchedCount()).isEqualTo(3);
+        assertThat(job.getDeletedCount()).isEqualTo(3);
+        assertThat(job.getChunksCompleted()).isEqualTo(2);
+        assertThat(repository.findAll()).extracting("trackingNumber").containsExactlyInAnyOrder("RECENT-1", "IN-TRANSIT-1");
+        assertThat(rollupRepository.count()).isEqualTo(rollupsBefore);
+    }
+
+    @Test
+    void testStartPurge_combinesCriteria_happy_path() throws InterruptedException {
+        PurgeJobDto job = awaitFinished(purgeService.startPurge(null, LocalDate.now().minusYears(1).toString(), "22222"));
+
+        assertThat(job.getDeletedCount()).isEqualTo(1);
+        assertThat(repository.existsById("OLD-3")).isFalse();
+        assertThat(repository.existsById("OLD-1")).isTrue();
+    }
+
+    @Test
+    void testStartPurge_evictsOnlyPurgedPackagesFromCache_happy_path() throws InterruptedException {
+        // keys no other test deletes, so no soft lock from an earlier delete keeps them out of the cache
+        addPackage("CACHED-OLD", "33333", OLD_DELIVERY_DATE);
+        addPackage("CACHED-RECENT", "33333", LocalDate.now());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        awaitFinished(purgeService.startPurge(null, LocalDate.now().minusYears(1).toString(), "33333"));
+        long hitsBeforeLookup = statistics.getSecondLevelCacheHitCount();
+
+        assertThat(repository.findById("CACHED-RECENT")).isPresent();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(hitsBeforeLookup + 1);
+        assertThat(repository.findById("CACHED-OLD")).isEmpty();
+    }
+
+    @Test
+    void testStartPurge_noCriteria_rainy_path() {
+        PackageValidationException exception = assertThrows(PackageValidationException.class,
+            () -> purgeService.startPurge(null, "", null));
+
+        assertThat(exception.getMessage()).isEqualTo(ErrorMessages.PURGE_CRITERIA_EMPTY);
+        assertThat(repository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void testStartPurge_invalidStatus_rainy_path() {
+        PackageValidationException exception = assertThrows(PackageValidationException.class,
+            () -> purgeService.startPurge("LOST", null, null));
+
+        assertThat(exception.getMessage()).isEqualTo(ErrorMessages.PURGE_STATUS_INVALID);
+    }
+
+    @Test
+    void testGetJob_unknownJob_rainy_path() {
+        assertThrows(PurgeJobNotFoundException.class, () -> purgeService.getJob("unknown"));
+    }
+
+    private void addPackage(String trackingNumber, String postcode, LocalDate actualDeliveryDate) {
+        PackageDto dto = new PackageDto();
+        dto.setTrackingNumber(trackingNumber);
+        dto.setEmail("purge@kojo.com");
+        dto.setRecipientPostcode(postcode);
+        dto.setEstimatedDeliveryDate(actualDeliveryDate == null ? LocalDate.now().plusDays(1) : actualDeliveryDate);
+        dto.setActualDeliveryDate(actualDeliveryDate);
+        packageService.addPackage(dto);
+    }
+
+    private PurgeJobDto awaitFinished(PurgeJobDto job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        PurgeJobDto current = purgeService.getJob(job.getId());
+        while (!isFinished(current) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            current = purgeService.getJob(job.getId());
+        }
+        assertThat(isFinished(current)).isTrue();
+        return current;
+    }
+
+    private static boolean isFinished(PurgeJobDto job) {
+        return job.getState() == PurgeJobStateEnum.COMPLETED
+            || job.getState() == PurgeJobStateEnum.CANCELLED
+            || job.getState() == PurgeJobStateEnum.FAILED;
+    }
+}
@@ -0,0 +1,94 @@
+package com.fkluh.freight.v1.service.search;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.exception.PackageValidationException;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.PackageSearchHitDto;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+import com.fkluh.freight.v1.util.TrigramIndex;
+
+@SpringBootTest
+@Import(TestJwtDecoderConfig.class)
+class PackageSearchServiceIntegrationTest {
+
+    @Autowired
+    private PackageSearchService searchService;
+
+    @Autowired
+    private PackageServiceV1Impl packageService;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @BeforeEach
+    void setUp() {
+        addPackage("SEARCH-1001", "maria.garcia@example.com");
+        addPackage("SEARCH-1002", "maria.garcia@example.com");
+        addPackage("SEARCH-2001", "peter.jones@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.findAll().forEach(pkg -> packageService.removePackage(pkg.getTrackingNumber()));
+    }
+
+    @Test
+    void testSearch_partialTrackingNumber_happy_path() {
+        List<PackageSearchHitDto> hits = searchService.search("search-100", 10);
+
+        assertThat(hits).extracting(PackageSearchHitDto::getTrackingNumber).containsExactly("SEARCH-1001", "SEARCH-1002");
+        assertThat(hits).allSatisfy(hit -> {
+            assertThat(hit.getMatchedField()).isEqualTo("trackingNumber");
+            assertThat(hit.getMatchType()).isEqualTo(TrigramIndex.MatchType.PREFIX);
+            assertThat(hit.getEmail()).isEqualTo("maria.garcia@example.com");
+        });
+    }
+
+    @Test
+    void testSearch_misspelledEmail_happy_path() {
+        List<PackageSearchHitDto> hits = searchService.search("maria.garsia@example.com", 10);
+
+        assertThat(hits).extracting(PackageSearchHitDto::getTrackingNumber).containsExactlyInAnyOrder("SEARCH-1001", "SEARCH-1002");
+        assertThat(hits).allSatisfy(hit -> assertThat(hit.getMatchType()).isEqualTo(TrigramIndex.MatchType.FUZZY));
+    }
+
+    @Test
+    void testSearch_removedPackageNotReturned_happy_path() {
+        packageService.removePackage("SEARCH-2001");
+
+        assertThat(searchService.search("peter.jones", 10)).isEmpty();
+        assertThat(searchService.getStats().getPackages()).isEqualTo(2);
+        assertThat(searchService.getStats().getEmails()).isEqualTo(1);
+        assertThat(searchService.getStats().getEstimatedBytes()).isPositive();
+    }
+
+    @Test
+    void testSearch_queryTooShort_rainy_path() {
+        PackageValidationException exception = assertThrows(PackageValidationException.class, () -> searchService.search(" ab ", 10));
+
+        assertThat(exception.getMessage()).isEqualTo(ErrorMessages.SEARCH_QUERY_TOO_SHORT);
+    }
+
+    private void addPackage(String trackingNumber, String email) {
+        PackageDto dto = new PackageDto();
+        dto.setTrackingNumber(trackingNumber);
+        dto.setEmail(email);
+        dto.setRecipientPostcode("12345");
+        dto.setEstimatedDeliveryDate(LocalDate.now().plusDays(1));
+        packageService.addPackage(dto);
+    }
+}
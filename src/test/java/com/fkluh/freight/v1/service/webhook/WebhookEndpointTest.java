@@ -0,0 +1,75 @@
+package com.fkluh.freight.v1.service.webhook;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import org.mockito.MockitoAnnotations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fkluh.freight.v1.model.DeliveryStatusEnum;
+import com.fkluh.freight.v1.model.WebhookDeadLetter;
+import com.fkluh.freight.v1.repository.WebhookDeadLetterRepository;
+import com.fkluh.freight.v1.service.event.PackageEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WebhookEndpointTest {
+
+    @Mock
+    private WebhookDeadLetterRepository deadLetterRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // one queued event, one batch at a time, and a failed batch waits an hour for its retry
+        dispatcher = new WebhookDispatcher(new ObjectMapper().findAndRegisterModules(), deadLetterRepository,
+            meterRegistry, 1, 1, 1, Duration.ofMillis(50), 1, 8, Duration.ofHours(1), Duration.ofHours(1),
+            Duration.ofSeconds(1), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testOffer_queueFull_droppedAndDeadLetteredOnceOnDrain_rainy_path() {
+        // nothing listens there, so the first batch fails and holds the only slot
+        WebhookEndpoint endpoint = new WebhookEndpoint("HOOK-1", URI.create("http://localhost:1/hook"),
+            Set.of(PackageEvent.Type.CREATED), dispatcher);
+
+        for (int i = 0; i < 5; i++) {
+            endpoint.offer(created("OVERFLOW-" + i));
+        }
+
+        assertThat(endpoint.getQueuedEvents()).isEqualTo(1);
+        assertThat(meterRegistry.counter("freight.webhooks.events", "outcome", "dropped").count()).isEqualTo(4);
+        ArgumentCaptor<WebhookDeadLetter> deadLetter = ArgumentCaptor.forClass(WebhookDeadLetter.class);
+        verify(deadLetterRepository, timeout(5000)).save(deadLetter.capture());
+        assertThat(deadLetter.getValue().getSubscriptionId()).isEqualTo("HOOK-1");
+        assertThat(deadLetter.getValue().getEventCount()).isEqualTo(4);
+        assertThat(deadLetter.getValue().getAttempts()).isZero();
+        verify(deadLetterRepository, after(200).times(1)).save(any());
+    }
+
+    private static PackageEvent created(String trackingNumber) {
+        return new PackageEvent(PackageEvent.Type.CREATED, trackingNumber, "webhook@kojo.com", "10115",
+            LocalDate.now(), null, DeliveryStatusEnum.IN_TRANSIT, null);
+    }
+}
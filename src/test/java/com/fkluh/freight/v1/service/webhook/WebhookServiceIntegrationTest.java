@@ -0,0 +1,229 @@
+package com.fkluh.freight.v1.service.webhook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+import com.fkluh.freight.v1.exception.ErrorMessages;
+import com.fkluh.freight.v1.model.dto.PackageDto;
+import com.fkluh.freight.v1.model.dto.WebhookDeadLetterDto;
+import com.fkluh.freight.v1.model.dto.WebhookSubscriptionDto;
+import com.fkluh.freight.v1.repository.PackageRepositoryV1;
+import com.fkluh.freight.v1.repository.PostcodeDailyRollupRepository;
+import com.fkluh.freight.v1.repository.WebhookDeadLetterRepository;
+import com.fkluh.freight.v1.service.PackageServiceV1Impl;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+@SpringBootTest(properties = {
+    "app.webhooks.linger=20ms",
+    "app.webhooks.max-attempts=3",
+    "app.webhooks.initial-backoff=10ms",
+    "app.webhooks.max-backoff=50ms",
+    "app.webhooks.refresh-interval=1h"
+})
+@Import(TestJwtDecoderConfig.class)
+class WebhookServiceIntegrationTest {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Queue<Received> received = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger flakyFailures = new AtomicInteger();
+    private static HttpServer receiver;
+    private static ExecutorService receiverThreads;
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @Autowired
+    private PackageServiceV1Impl packageService;
+
+    @Autowired
+    private PackageRepositoryV1 repository;
+
+    @Autowired
+    private PostcodeDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private WebhookDeadLetterRepository deadLetterRepository;
+
+    /**
+     * Stub partner: /ok accepts, /flaky answers 503 twice first, /reject answers 400 and /slow takes two seconds.
+     */
+    @BeforeAll
+    static void startReceiver() throws IOException {
+        receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.createContext("/ok", exchange -> answer(exchange, 204));
+        receiver.createContext("/flaky", exchange ->
+            answer(exchange, flakyFailures.getAndIncrement() < 2 ? 503 : 204));
+        receiver.createContext("/reject", exchange -> answer(exchange, 400));
+        receiver.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            answer(exchange, 204);
+        });
+        receiverThreads = Executors.newCachedThreadPool();
+        receiver.setExecutor(receiverThreads);
+        receiver.start();
+    }
+
+    @AfterAll
+    static void stopReceiver() {
+        receiver.stop(0);
+        receiverThreads.shutdownNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webhookService.getWebhooks().forEach(webhook -> webhookService.removeWebhook(webhook.getId()));
+        repository.deleteAll();
+        rollupRepository.deleteAll();
+        deadLetterRepository.deleteAll();
+        received.clear();
+        flakyFailures.set(0);
+    }
+
+    @Test
+    void testRegister_eventsPostedInBatchesAfterCommit_happy_path() throws Exception {
+        register("/ok", List.of("created", "delivered"));
+
+        addPackage("WEBHOOK-1");
+        addPackage("WEBHOOK-2");
+        addPackage("WEBHOOK-3");
+        packageService.updatePackage("WEBHOOK-1", LocalDate.now().toString());
+        packageService.removePackage("WEBHOOK-2");
+
+        awaitTrue(() -> eventCount("/ok") == 4);
+        List<String> types = requests("/ok").stream()
+            .flatMap(request -> request.events().stream())
+            .map(event -> event.get("type").asText() + ":" + event.get("trackingNumber").asText())
+            .toList();
+        // REMOVED was not subscribed to
+        assertThat(types).containsExactly(
+            "CREATED:WEBHOOK-1", "CREATED:WEBHOOK-2", "CREATED:WEBHOOK-3", "DELIVERED:WEBHOOK-1");
+        assertThat(requests("/ok")).allSatisfy(request -> assertThat(request.deliveryId()).isNotBlank());
+    }
+
+    @Test
+    void testDelivery_retriedWithSameDeliveryId_happy_path() throws Exception {
+        register("/flaky", null);
+
+        addPackage("WEBHOOK-FLAKY");
+
+        awaitTrue(() -> requests("/flaky").size() == 3);
+        List<Received> attempts = requests("/flaky");
+        assertThat(attempts).extracting(Received::deliveryId).containsOnly(attempts.get(0).deliveryId());
+        assertThat(deadLetterRepository.count()).isZero();
+    }
+
+    @Test
+    void testDelivery_rejectedIsDeadLettered_rainy_path() throws Exception {
+        WebhookSubscriptionDto webhook = register("/reject", null);
+
+        addPackage("WEBHOOK-REJECTED");
+
+        awaitTrue(() -> deadLetterRepository.count() == 1);
+        WebhookDeadLetterDto deadLetter = webhookService.getDeadLetters(webhook.getId(), 0, 10).getContent().get(0);
+        // a 400 is not retried
+        assertThat(deadLetter.getAttempts()).isEqualTo(1);
+        assertThat(deadLetter.getLastError()).isEqualTo("HTTP 400");
+        assertThat(deadLetter.getPayload()).contains("WEBHOOK-REJECTED");
+        assertThat(requests("/reject")).hasSize(1);
+    }
+
+    @Test
+    void testSlowPartner_doesNotDelayWritesOrOtherPartners_happy_path() throws Exception {
+        register("/slow", null);
+        register("/ok", null);
+
+        long start = System.nanoTime();
+        addPackage("WEBHOOK-SLOW");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+
+        awaitTrue(() -> eventCount("/ok") == 1);
+        assertThat(eventCount("/slow")).isZero();
+    }
+
+    @Test
+    void testRegister_invalidUrlOrEvent_rainy_path() {
+        WebhookSubscriptionDto relative = new WebhookSubscriptionDto();
+        relative.setUrl("/partner/hook");
+        assertThatThrownBy(() -> webhookService.register(relative)).hasMessage(ErrorMessages.WEBHOOK_URL_INVALID);
+
+        WebhookSubscriptionDto purged = new WebhookSubscriptionDto();
+        purged.setUrl("https://partner.example.com/hook");
+        purged.setEvents(List.of("PURGED"));
+        assertThatThrownBy(() -> webhookService.register(purged)).hasMessage(ErrorMessages.WEBHOOK_EVENTS_INVALID);
+    }
+
+    private WebhookSubscriptionDto register(String path, List<String> events) {
+        WebhookSubscriptionDto request = new WebhookSubscriptionDto();
+        request.setUrl("http://localhost:" + receiver.getAddress().getPort() + path);
+        request.setEvents(events);
+        return webhookService.register(request);
+    }
+
+    private void addPackage(String trackingNumber) {
+        PackageDto dto = new PackageDto();
+        dto.setTrackingNumber(trackingNumber);
+        dto.setEmail("webhook@kojo.com");
+        dto.setRecipientPostcode("10115");
+        dto.setEstimatedDeliveryDate(LocalDate.now().plusDays(2));
+        packageService.addPackage(dto);
+    }
+
+    private static List<Received> requests(String path) {
+        // a slow request of an earlier test may still arrive, so look at one path only
+        return received.stream().filter(request -> request.path().equals(path)).toList();
+    }
+
+    private static int eventCount(String path) {
+        return requests(path).stream().mapToInt(request -> request.events().size()).sum();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static void answer(HttpExchange exchange, int status) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            List<JsonNode> events = new ArrayList<>();
+            JSON.readTree(body).get("events").forEach(events::add);
+            received.add(new Received(exchange.getHttpContext().getPath(),
+                exchange.getRequestHeaders().getFirst("X-Freight-Delivery-Id"), events));
+        }
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private record Received(String path, String deliveryId, List<JsonNode> events) {
+    }
+}
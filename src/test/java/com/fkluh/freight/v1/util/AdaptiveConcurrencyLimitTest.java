@@ -0,0 +1,112 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+
+@Import(TestJwtDecoderConfig.class)
+class AdaptiveConcurrencyLimitTest {
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private long now;
+
+    /**
+     * Feeds one full window of requests, all with the given latency and in-flight count.
+     */
+    private void window(AdaptiveConcurrencyLimit limit, long rttNanos, int inFlight) {
+        now += WINDOW;
+        for (int i = 0; i < 10; i++) {
+            limit.sample(rttNanos, inFlight, now);
+        }
+    }
+
+    @Test
+    void testTryAcquire_shedsOverLimit_happy_path() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, now);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+
+        limit.release(FAST);
+
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void testSample_growsWhileLatencyStaysLow_happy_path() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200, now);
+
+        for (int i = 0; i < 20; i++) {
+            window(limit, FAST, limit.getLimit());
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(40);
+    }
+
+    @Test
+    void testSample_shrinksWhenRequestsQueue_happy_path() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 4, 200, now);
+        window(limit, FAST, 100);
+
+        for (int i = 0; i < 5; i++) {
+            window(limit, 4 * FAST, 100);
+        }
+
+        assertThat(limit.getLimit()).isLessThan(60);
+    }
+
+    @Test
+    void testSample_idleWindowsDoNotGrow_happy_path() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200, now);
+
+        for (int i = 0; i < 20; i++) {
+            window(limit, FAST, 2);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void testSample_staysWithinBounds_happy_path() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 12, now);
+
+        for (int i = 0; i < 20; i++) {
+            window(limit, FAST, limit.getLimit());
+        }
+        assertThat(limit.getLimit()).isEqualTo(12);
+
+        for (int i = 0; i < 20; i++) {
+            window(limit, 100 * FAST, limit.getLimit());
+        }
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void testSample_partialWindowKeepsLimit_happy_path() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200, now);
+        window(limit, FAST, 20);
+        int before = limit.getLimit();
+
+        // too few samples to end the window, however long it has run
+        now += 10 * WINDOW;
+        limit.sample(100 * FAST, 20, now);
+
+        assertThat(limit.getLimit()).isEqualTo(before);
+    }
+
+    @Test
+    void testConstructor_invalidLimits_rainy_path() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(10, 0, 20));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(5, 10, 20));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(30, 10, 20));
+    }
+}
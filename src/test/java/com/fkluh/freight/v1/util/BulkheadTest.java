@@ -0,0 +1,92 @@
+package com.fkluh.freight.v1.util;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+
+@Import(TestJwtDecoderConfig.class)
+class BulkheadTest {
+
+    @Test
+    void testTryEnter_admitsUpToMaxConcurrent_happy_path() {
+        Bulkhead bulkhead = new Bulkhead(2, 0, Duration.ZERO);
+
+        assertThat(bulkhead.tryEnter()).isTrue();
+        assertThat(bulkhead.tryEnter()).isTrue();
+        assertThat(bulkhead.tryEnter()).isFalse();
+        assertThat(bulkhead.getActive()).isEqualTo(2);
+
+        bulkhead.exit();
+
+        assertThat(bulkhead.getActive()).isEqualTo(1);
+        assertThat(bulkhead.tryEnter()).isTrue();
+    }
+
+    @Test
+    void testTryEnter_queuedCallerGetsFreedTurn_happy_path() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofSeconds(5));
+        bulkhead.tryEnter();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> queued = executor.submit(bulkhead::tryEnter);
+            while (bulkhead.getQueued() == 0) {
+                Thread.sleep(5);
+            }
+
+            bulkhead.exit();
+
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(bulkhead.getQueued()).isZero();
+            assertThat(bulkhead.getActive()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testTryEnter_fullQueueTurnedAwayAtOnce_rainy_path() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofSeconds(5));
+        bulkhead.tryEnter();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> queued = executor.submit(bulkhead::tryEnter);
+            while (bulkhead.getQueued() == 0) {
+                Thread.sleep(5);
+            }
+
+            long start = System.nanoTime();
+            assertThat(bulkhead.tryEnter()).isFalse();
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+
+            bulkhead.exit();
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testTryEnter_waitRunsOut_rainy_path() {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofMillis(20));
+        bulkhead.tryEnter();
+
+        assertThat(bulkhead.tryEnter()).isFalse();
+        assertThat(bulkhead.getQueued()).isZero();
+    }
+
+    @Test
+    void testConstructor_invalidSettings_rainy_path() {
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead(0, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead(1, -1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead(1, 1, Duration.ofMillis(-1)));
+    }
+}
@@ -0,0 +1,27 @@
+package com.fkluh.freight.v1.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+
+@Import(TestJwtDecoderConfig.class)
+class HashingTest {
+
+    @Test
+    void testFnv1aMix64_neverChanges_happy_path() {
+        // stored sketches and the shard of every package depend on these
+        assertThat(Hashing.fnv1aMix64("")).isEqualTo(0xefd01f60ba992926L);
+        assertThat(Hashing.fnv1aMix64("123456")).isEqualTo(0xd4594aa3589cbf81L);
+        assertThat(Hashing.fnv1aMix64("shard-0#0")).isEqualTo(0xd09fcac34807c822L);
+    }
+
+    @Test
+    void testFnv1aMix64_lastCharacterReachesHighBits_happy_path() {
+        long first = Hashing.fnv1aMix64("TRACK-0001");
+        long second = Hashing.fnv1aMix64("TRACK-0002");
+
+        assertThat(first >>> 48).isNotEqualTo(second >>> 48);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fkluh.freight.v1.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+
+@Import(TestJwtDecoderConfig.class)
+class HyperLogLogTest {
+    private static final int PRECISION = 11;
+
+    @Test
+    void testEstimate_withinThreeStandardErrors_happy_path() {
+        HyperLogLog counter = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 100_000; i++) {
+            counter.add("recipient" + i + "@kojo.com");
+            // duplicates are not counted again
+            counter.add("recipient" + (i / 2) + "@kojo.com");
+        }
+
+        double error = 3 * counter.relativeStandardError();
+        assertThat(counter.estimate() / 100_000.0).isCloseTo(1.0, within(error));
+    }
+
+    @Test
+    void testEstimate_smallCountsAreNearlyExact_happy_path() {
+        HyperLogLog counter = new HyperLogLog(PRECISION);
+        assertThat(counter.estimate()).isZero();
+
+        for (int i = 0; i < 50; i++) {
+            counter.add("recipient" + i + "@kojo.com");
+        }
+
+        assertThat(counter.estimate()).isBetween(49L, 51L);
+    }
+
+    @Test
+    void testMerge_equalsCounterOfUnion_happy_path() {
+        HyperLogLog monday = new HyperLogLog(PRECISION);
+        HyperLogLog tuesday = new HyperLogLog(PRECISION);
+        HyperLogLog week = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 30_000; i++) {
+            String email = "recipient" + i + "@kojo.com";
+            (i < 20_000 ? monday : tuesday).add(email);
+            if (i % 3 == 0) {
+                tuesday.add(email);
+            }
+            week.add(email);
+        }
+
+        monday.merge(tuesday);
+
+        assertThat(monday).isEqualTo(week);
+    }
+
+    @Test
+    void testFromBytes_roundTrip_happy_path() {
+        HyperLogLog counter = new HyperLogLog(PRECISION);
+        counter.add("recipient@kojo.com");
+
+        HyperLogLog restored = HyperLogLog.fromBytes(counter.toBytes());
+
+        assertThat(restored).isEqualTo(counter);
+        assertThat(restored.precision()).isEqualTo(PRECISION);
+        assertThat(restored.estimate()).isEqualTo(1);
+    }
+
+    @Test
+    void testFromBytes_invalid_rainy_path() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] {PRECISION, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(PRECISION).merge(new HyperLogLog(PRECISION + 1)));
+    }
+}
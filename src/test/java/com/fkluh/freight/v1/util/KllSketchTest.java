@@ -0,0 +1,84 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+
+@Import(TestJwtDecoderConfig.class)
+class KllSketchTest {
+    private static final int K = 200;
+    private static final int VALUES = 200_000;
+
+    @Test
+    void testQuantiles_withinRankErrorInBoundedMemory_happy_path() {
+        KllSketch sketch = new KllSketch(K);
+        // a shuffled permutation, so a value's rank is the value itself
+        int[] values = shuffled(VALUES, new Random(42));
+        for (int value : values) {
+            sketch.add(value);
+        }
+
+        double[] quantiles = sketch.quantiles(0.5, 0.9, 0.99);
+
+        assertThat(sketch.count()).isEqualTo(VALUES);
+        assertThat(sketch.retained()).isLessThan(3 * K + 100);
+        assertThat(quantiles[0] / VALUES).isCloseTo(0.5, within(0.02));
+        assertThat(quantiles[1] / VALUES).isCloseTo(0.9, within(0.02));
+        assertThat(quantiles[2] / VALUES).isCloseTo(0.99, within(0.02));
+    }
+
+    @Test
+    void testMerge_matchesSketchOfAllValues_happy_path() {
+        KllSketch low = new KllSketch(K);
+        KllSketch high = new KllSketch(K);
+        for (int value : shuffled(VALUES, new Random(7))) {
+            (value < VALUES / 4 ? low : high).add(value);
+        }
+
+        low.merge(high);
+
+        assertThat(low.count()).isEqualTo(VALUES);
+        assertThat(low.retained()).isLessThan(3 * K + 100);
+        assertThat(low.quantile(0.5) / VALUES).isCloseTo(0.5, within(0.02));
+        assertThat(low.quantile(0.1) / VALUES).isCloseTo(0.1, within(0.02));
+    }
+
+    @Test
+    void testQuantiles_smallSketchIsExact_happy_path() {
+        KllSketch sketch = new KllSketch(K);
+        for (int value = 10; value >= 1; value--) {
+            sketch.add(value);
+        }
+
+        assertThat(sketch.quantiles(0, 0.5, 0.9, 1)).containsExactly(1, 5, 9, 10);
+    }
+
+    @Test
+    void testQuantile_emptySketch_rainy_path() {
+        KllSketch sketch = new KllSketch(K);
+
+        assertThat(sketch.quantile(0.5)).isNaN();
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new KllSketch(K / 2)));
+    }
+
+    private static int[] shuffled(int size, Random random) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,109 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+
+@Import(TestJwtDecoderConfig.class)
+class SpaceSavingTest {
+
+    @Test
+    void testTop_exactWhileUnderCapacity_happy_path() {
+        SpaceSaving summary = new SpaceSaving(10);
+        summary.add("b", 3);
+        summary.add("a", 3);
+        summary.add("c", 5);
+        summary.add("b", 1);
+
+        List<SpaceSaving.Entry> top = summary.top(2);
+
+        assertThat(top).containsExactly(new SpaceSaving.Entry("c", 5, 0), new SpaceSaving.Entry("b", 4, 0));
+        assertThat(summary.top(10)).extracting(SpaceSaving.Entry::key).containsExactly("c", "b", "a");
+        assertThat(summary.total()).isEqualTo(12);
+    }
+
+    @Test
+    void testAdd_newKeyTakesOverSmallestCounter_happy_path() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add("a", 5);
+        summary.add("b", 2);
+        summary.add("c", 1);
+
+        assertThat(summary.top(2)).containsExactly(new SpaceSaving.Entry("a", 5, 0), new SpaceSaving.Entry("c", 3, 2));
+    }
+
+    @Test
+    void testAdd_heavyHittersKeptWithinBounds_happy_path() {
+        SpaceSaving summary = new SpaceSaving(50);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // a few postcodes take most of the delays, the rest are a long tail
+            String key = random.nextInt(4) == 0 ? "HOT" + random.nextInt(5) : "TAIL" + random.nextInt(5_000);
+            summary.add(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        List<SpaceSaving.Entry> top = summary.top(5);
+
+        assertThat(top).extracting(SpaceSaving.Entry::key)
+            .containsExactlyInAnyOrder("HOT0", "HOT1", "HOT2", "HOT3", "HOT4");
+        for (SpaceSaving.Entry entry : summary.top(50)) {
+            long count = exact.get(entry.key());
+            assertThat(entry.count()).isBetween(count, count + entry.error());
+        }
+    }
+
+    @Test
+    void testMerge_keepsBoundsOfBothSummaries_happy_path() {
+        SpaceSaving first = new SpaceSaving(2);
+        first.add("a", 5);
+        first.add("b", 2);
+        SpaceSaving second = new SpaceSaving(2);
+        second.add("a", 1);
+        second.add("c", 4);
+
+        first.merge(second);
+
+        // b may have been counted once in the second summary, c twice in the first
+        assertThat(first.top(2)).containsExactly(new SpaceSaving.Entry("a", 6, 0), new SpaceSaving.Entry("c", 6, 2));
+        assertThat(first.total()).isEqualTo(12);
+    }
+
+    @Test
+    void testMerge_intoEmptySummary_happy_path() {
+        SpaceSaving bucket = new SpaceSaving(3);
+        bucket.add("a", 2);
+        bucket.add("b", 1);
+        SpaceSaving window = new SpaceSaving(3);
+
+        window.merge(bucket);
+
+        assertThat(window.top(3)).containsExactly(new SpaceSaving.Entry("a", 2, 0), new SpaceSaving.Entry("b", 1, 0));
+    }
+
+    @Test
+    void testClear_empties_happy_path() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add("a", 1);
+
+        summary.clear();
+
+        assertThat(summary.isEmpty()).isTrue();
+        assertThat(summary.top(2)).isEmpty();
+        assertThat(summary.total()).isZero();
+    }
+
+    @Test
+    void testConstructor_capacityTooSmall_rainy_path() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(0));
+    }
+}
@@ -0,0 +1,68 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+
+@Import(TestJwtDecoderConfig.class)
+class StripedRingCounterTest {
+
+    @Test
+    void testIncrement_countsPerSlotAndMetric_happy_path() {
+        StripedRingCounter counter = new StripedRingCounter(4, 2, 3);
+        counter.increment(100, 0);
+        counter.increment(100, 0);
+        counter.increment(100, 1);
+        counter.increment(101, 0);
+
+        assertThat(counter.get(100, 0)).isEqualTo(2);
+        assertThat(counter.get(100, 1)).isEqualTo(1);
+        assertThat(counter.get(101, 0)).isEqualTo(1);
+        assertThat(counter.get(102, 0)).isZero();
+    }
+
+    @Test
+    void testIncrement_laterSlotTakesOverRing_happy_path() {
+        StripedRingCounter counter = new StripedRingCounter(4, 1, 1);
+        counter.increment(100, 0);
+        counter.increment(104, 0);
+        // the slot has left the ring, so it is neither counted nor read
+        counter.increment(100, 0);
+
+        assertThat(counter.get(100, 0)).isZero();
+        assertThat(counter.get(104, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void testIncrement_concurrentThreadsLoseNoCounts_happy_path() throws InterruptedException {
+        StripedRingCounter counter = new StripedRingCounter(60, 2, 4);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 100_000; j++) {
+                    counter.increment(1_000, j % 2);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(counter.get(1_000, 0)).isEqualTo(400_000);
+        assertThat(counter.get(1_000, 1)).isEqualTo(400_000);
+    }
+
+    @Test
+    void testIncrement_slotOutOfRange_rainy_path() {
+        StripedRingCounter counter = new StripedRingCounter(4, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> counter.increment(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> counter.get(1L << 32, 0));
+    }
+}
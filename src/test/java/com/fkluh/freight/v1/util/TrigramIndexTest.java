@@ -0,0 +1,101 @@
+package com.fkluh.freight.v1.util;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import com.fkluh.freight.v1.config.TestJwtDecoderConfig;
+
+@Import(TestJwtDecoderConfig.class)
+class TrigramIndexTest {
+    private static final double MIN_SCORE = 0.5;
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.add("TRK-1234567");
+        index.add("TRK-1234");
+        index.add("XYZ-7654321");
+        index.add("john.smith@gmail.com");
+        index.add("jane.doe@yahoo.com");
+    }
+
+    @Test
+    void testSearch_ranksExactPrefixAndSubstring_happy_path() {
+        List<TrigramIndex.Match> matches = index.search("trk-1234", MIN_SCORE, 10);
+
+        assertThat(matches).extracting(TrigramIndex.Match::term).containsExactly("TRK-1234", "TRK-1234567");
+        assertThat(matches).extracting(TrigramIndex.Match::type)
+            .containsExactly(TrigramIndex.MatchType.EXACT, TrigramIndex.MatchType.PREFIX);
+        assertThat(index.search("4567", MIN_SCORE, 10)).singleElement()
+            .satisfies(match -> {
+                assertThat(match.term()).isEqualTo("TRK-1234567");
+                assertThat(match.type()).isEqualTo(TrigramIndex.MatchType.SUBSTRING);
+                assertThat(match.score()).isEqualTo(1.0);
+            });
+    }
+
+    @Test
+    void testSearch_misspelledTerm_happy_path() {
+        List<TrigramIndex.Match> matches = index.search("jon.smith@gmial.com", MIN_SCORE, 10);
+
+        assertThat(matches).extracting(TrigramIndex.Match::term).containsExactly("john.smith@gmail.com");
+        assertThat(matches.get(0).type()).isEqualTo(TrigramIndex.MatchType.FUZZY);
+    }
+
+    @Test
+    void testSearch_limitKeepsBestMatches_happy_path() {
+        assertThat(index.search("TRK-123", MIN_SCORE, 1)).extracting(TrigramIndex.Match::term).containsExactly("TRK-1234");
+    }
+
+    @Test
+    void testSearch_noMatch_rainy_path() {
+        assertThat(index.search("QQQ-000", MIN_SCORE, 10)).isEmpty();
+        assertThat(index.search("TR", MIN_SCORE, 10)).isEmpty();
+    }
+
+    @Test
+    void testSearch_commonTrigram_examinesNewestCandidatesOnly_happy_path() {
+        TrigramIndex capped = new TrigramIndex(10);
+        for (int i = 0; i < 100; i++) {
+            capped.add("Common-" + i + "@Mail.com");
+        }
+
+        List<TrigramIndex.Match> matches = capped.search("com", MIN_SCORE, 100);
+
+        assertThat(matches).hasSize(10);
+        assertThat(matches).extracting(TrigramIndex.Match::term).contains("Common-99@Mail.com")
+            .doesNotContain("Common-0@Mail.com");
+    }
+
+    @Test
+    void testRemove_removedTermsNotReturned_happy_path() {
+        assertThat(index.remove("TRK-1234")).isTrue();
+        assertThat(index.remove("TRK-1234")).isFalse();
+
+        assertThat(index.search("TRK-1234", MIN_SCORE, 10)).extracting(TrigramIndex.Match::term).containsExactly("TRK-1234567");
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void testRemove_compactsPostings_happy_path() {
+        for (int i = 0; i < 4000; i++) {
+            index.add("BULK-" + i);
+        }
+        long bytesBeforeRemoval = index.estimatedBytes();
+
+        for (int i = 0; i < 4000; i++) {
+            index.remove("BULK-" + i);
+        }
+
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.estimatedBytes()).isLessThan(bytesBeforeRemoval / 4);
+        assertThat(index.search("BULK-1", MIN_SCORE, 10)).isEmpty();
+        assertThat(index.search("TRK-1234", MIN_SCORE, 10)).hasSize(2);
+    }
+}
@@ -0,0 +1,23 @@
+#!/bin/bash
+# Builds the default and the startup-optimized image and reports the time each takes to start serving.
+# usage: ./startup-benchmark.sh [runs]
+RUNS=${1:-5}
+SECRET=${APP_JWT_SECRET:-Freight-256-bit-secret-Cargo-256-bit-secret}
+
+docker build -q -f Dockerfile -t freight-api:startup-baseline . > /dev/null || exit 1
+docker build -q -f Dockerfile.startup -t freight-api:startup-optimized . > /dev/null || exit 1
+
+for image in freight-api:startup-baseline freight-api:startup-optimized; do
+    total=0
+    for run in $(seq 1 "$RUNS"); do
+        container=$(docker run -d -e APP_JWT_SECRET="$SECRET" "$image")
+        until docker logs "$container" 2>&1 | grep -q "Started FreightCargoApplication"; do
+            sleep 0.2
+        done
+        seconds=$(docker logs "$container" 2>&1 | grep -o "process running for [0-9.]*" | grep -o "[0-9.]*$")
+        docker rm -f "$container" > /dev/null
+        total=$(echo "$total + $seconds" | bc)
+        echo "$image run $run: ${seconds}s"
+    done
+    echo "$image average: $(echo "scale=3; $total / $RUNS" | bc)s"
+done